@@ -0,0 +1,60 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.benchmarks;
+
+import java.io.IOException;
+
+import org.openmetromaps.maps.MapModel;
+import org.openmetromaps.maps.generator.GeneratorConfig;
+import org.openmetromaps.maps.generator.NetworkGenerator;
+import org.openmetromaps.maps.xml.XmlModelConverter;
+
+import de.topobyte.xml.domabstraction.iface.ParsingException;
+
+/**
+ * Resolves the 'map' parameter of the benchmarks. Names of the form
+ * 'synthetic-&lt;n&gt;' denote a generated network with n stations, all other
+ * names refer to files in the example data directory.
+ */
+public class BenchmarkModels
+{
+
+	private static final String PREFIX_SYNTHETIC = "synthetic-";
+
+	public static MapModel load(String name)
+			throws IOException, ParsingException
+	{
+		if (name.startsWith(PREFIX_SYNTHETIC)) {
+			int numStations = Integer
+					.parseInt(name.substring(PREFIX_SYNTHETIC.length()));
+			return synthetic(numStations);
+		}
+		return ExampleData.load(name);
+	}
+
+	public static MapModel synthetic(int numStations)
+	{
+		GeneratorConfig config = new GeneratorConfig();
+		config.setNumStations(numStations);
+		config.setNumLines(Math.max(1, numStations / 25));
+		config.setLineLength(30);
+		return new XmlModelConverter()
+				.convert(NetworkGenerator.generate(config).toXmlModel());
+	}
+
+}
@@ -0,0 +1,93 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.openmetromaps.maps.CoordinateConversionType;
+import org.openmetromaps.maps.MapModel;
+import org.openmetromaps.maps.ModelUtil;
+import org.openmetromaps.maps.xml.DesktopXmlModelReader;
+import org.openmetromaps.maps.xml.XmlModel;
+import org.openmetromaps.maps.xml.XmlModelConverter;
+
+import de.topobyte.xml.domabstraction.iface.ParsingException;
+
+/**
+ * Access to the models in the 'example-data' directory of the repository.
+ * The directory is looked up in the current working directory and its
+ * parents, or can be specified explicitly using the system property
+ * {@value #PROPERTY}.
+ */
+public class ExampleData
+{
+
+	public static final String PROPERTY = "openmetromaps.example-data";
+
+	private static final String DIRECTORY = "example-data";
+
+	public static Path getDirectory() throws IOException
+	{
+		String property = System.getProperty(PROPERTY);
+		if (property != null) {
+			return Paths.get(property);
+		}
+		Path dir = Paths.get("").toAbsolutePath();
+		while (dir != null) {
+			Path candidate = dir.resolve(DIRECTORY);
+			if (Files.isDirectory(candidate)) {
+				return candidate;
+			}
+			dir = dir.getParent();
+		}
+		throw new IOException(String.format(
+				"Unable to find directory '%s', please specify it using -D%s=<dir>",
+				DIRECTORY, PROPERTY));
+	}
+
+	public static Path getFile(String name) throws IOException
+	{
+		return getDirectory().resolve(name + ".xml");
+	}
+
+	public static XmlModel readXml(String name)
+			throws IOException, ParsingException
+	{
+		try (InputStream input = Files.newInputStream(getFile(name))) {
+			return DesktopXmlModelReader.read(input);
+		}
+	}
+
+	/**
+	 * Load the specified model and make sure it has a view, creating a
+	 * default one for models that do not define any.
+	 */
+	public static MapModel load(String name)
+			throws IOException, ParsingException
+	{
+		XmlModel xmlModel = readXml(name);
+		MapModel model = new XmlModelConverter().convert(xmlModel);
+		ModelUtil.ensureView(model, CoordinateConversionType.WGS84);
+		return model;
+	}
+
+}
@@ -0,0 +1,175 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmetromaps.maps.MapModel;
+import org.openmetromaps.maps.MapView;
+import org.openmetromaps.maps.graph.CompactLineNetwork;
+import org.openmetromaps.maps.graph.LineNetwork;
+import org.openmetromaps.maps.graph.LineNetworkBuilder;
+import org.openmetromaps.maps.graph.LineNetworkCloner;
+import org.openmetromaps.maps.graph.LineNetworkUtil;
+import org.openmetromaps.maps.graph.Node;
+import org.openmetromaps.maps.model.Station;
+import org.openmetromaps.maps.xml.DesktopXmlModelReader;
+import org.openmetromaps.maps.xml.XmlModel;
+import org.openmetromaps.maps.xml.XmlModelConverter;
+import org.openmetromaps.maps.xml.XmlModelWriter;
+
+import de.topobyte.lightgeom.lina.Point;
+
+/**
+ * Measures the individual steps of loading a model: parsing the XML file,
+ * converting it to a {@link MapModel}, building the line network of a view
+ * (which includes computing node ranks) and calculating neighbor locations.
+ * Cloning a line network, building its compact representation and writing a
+ * model back to XML are measured as well.
+ *
+ * The 'scale' parameter places that many copies of the map next to each
+ * other (see {@link ModelTiler}) to show how the steps scale with the size of
+ * the network. Besides the example maps, generated networks can be used, see
+ * {@link BenchmarkModels}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadBenchmark
+{
+
+	@Param({ "berlin", "budapest", "wien", "synthetic-10000" })
+	public String map;
+
+	@Param({ "1", "10" })
+	public int scale;
+
+	private byte[] xml;
+	private XmlModel xmlModel;
+	private MapModel model;
+	private MapView view;
+	private Map<Station, Point> locations = new HashMap<>();
+
+	private ByteArrayOutputStream output;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception
+	{
+		model = ModelTiler.tile(BenchmarkModels.load(map), scale);
+		view = model.getViews().get(0);
+
+		for (Node node : view.getLineNetwork().getNodes()) {
+			locations.put(node.station, node.location);
+		}
+
+		output = new ByteArrayOutputStream();
+		new XmlModelWriter().write(output, model.getData(), model.getViews());
+		xml = output.toByteArray();
+
+		xmlModel = DesktopXmlModelReader.read(new ByteArrayInputStream(xml));
+	}
+
+	@Benchmark
+	public XmlModel parse() throws Exception
+	{
+		return DesktopXmlModelReader.read(new ByteArrayInputStream(xml));
+	}
+
+	@Benchmark
+	public MapModel convert()
+	{
+		return new XmlModelConverter().convert(xmlModel);
+	}
+
+	@Benchmark
+	public MapModel parseAndConvert() throws Exception
+	{
+		XmlModel xmlModel = DesktopXmlModelReader
+				.read(new ByteArrayInputStream(xml));
+		return new XmlModelConverter().convert(xmlModel);
+	}
+
+	@Benchmark
+	public LineNetwork buildNetwork()
+	{
+		LineNetworkBuilder builder = new LineNetworkBuilder(model.getData(),
+				view.getEdges());
+		return builder.getGraph();
+	}
+
+	@Benchmark
+	public LineNetwork buildNetworkWithLocations()
+	{
+		LineNetworkBuilder builder = new LineNetworkBuilder(model.getData(),
+				view.getEdges());
+		LineNetwork lineNetwork = builder.getGraph();
+		for (Node node : lineNetwork.getNodes()) {
+			node.location = locations.get(node.station);
+		}
+		LineNetworkUtil.calculateAllNeighborLocations(lineNetwork);
+		return lineNetwork;
+	}
+
+	@Benchmark
+	public LineNetwork calculateNeighborLocations()
+	{
+		LineNetwork lineNetwork = view.getLineNetwork();
+		LineNetworkUtil.calculateAllNeighborLocations(lineNetwork);
+		return lineNetwork;
+	}
+
+	@Benchmark
+	public LineNetwork cloneNetwork()
+	{
+		return new LineNetworkCloner(view.getLineNetwork()).cloneLineNetwork();
+	}
+
+	@Benchmark
+	public CompactLineNetwork buildCompactNetwork()
+	{
+		return new CompactLineNetwork(view.getLineNetwork());
+	}
+
+	@Benchmark
+	public int write() throws Exception
+	{
+		output.reset();
+		new XmlModelWriter().write(output, model.getData(), model.getViews());
+		return output.size();
+	}
+
+}
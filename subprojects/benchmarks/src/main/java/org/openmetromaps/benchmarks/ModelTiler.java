@@ -0,0 +1,176 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openmetromaps.maps.Edges;
+import org.openmetromaps.maps.Interval;
+import org.openmetromaps.maps.MapModel;
+import org.openmetromaps.maps.MapView;
+import org.openmetromaps.maps.ViewConfig;
+import org.openmetromaps.maps.graph.LineNetwork;
+import org.openmetromaps.maps.graph.LineNetworkBuilder;
+import org.openmetromaps.maps.graph.LineNetworkUtil;
+import org.openmetromaps.maps.graph.Node;
+import org.openmetromaps.maps.model.Coordinate;
+import org.openmetromaps.maps.model.Line;
+import org.openmetromaps.maps.model.ModelData;
+import org.openmetromaps.maps.model.Station;
+import org.openmetromaps.maps.model.Stop;
+
+import de.topobyte.lightgeom.lina.Point;
+import de.topobyte.viewports.geometry.Rectangle;
+
+/**
+ * Creates scaled-up versions of a model by placing a number of copies of it
+ * next to each other. Stations and lines of each copy get a distinct name
+ * suffix, so that the copies form disjoint networks.
+ */
+public class ModelTiler
+{
+
+	public static MapModel tile(MapModel model, int copies)
+	{
+		if (copies == 1) {
+			return model;
+		}
+		return new ModelTiler(model, copies).tile();
+	}
+
+	private MapModel model;
+	private int copies;
+
+	private List<Map<Station, Station>> stationMaps = new ArrayList<>();
+
+	private ModelTiler(MapModel model, int copies)
+	{
+		this.model = model;
+		this.copies = copies;
+	}
+
+	private static String name(String name, int k)
+	{
+		return k == 0 ? name : name + " #" + k;
+	}
+
+	private MapModel tile()
+	{
+		ModelData data = model.getData();
+
+		int stationStride = 0;
+		double minLon = Double.POSITIVE_INFINITY;
+		double maxLon = Double.NEGATIVE_INFINITY;
+		for (Station station : data.stations) {
+			stationStride = Math.max(stationStride, station.getId() + 1);
+			minLon = Math.min(minLon, station.getLocation().getLongitude());
+			maxLon = Math.max(maxLon, station.getLocation().getLongitude());
+		}
+		int lineStride = 0;
+		for (Line line : data.lines) {
+			lineStride = Math.max(lineStride, line.getId() + 1);
+		}
+		double shift = (maxLon - minLon) * 1.1;
+
+		List<Station> stations = new ArrayList<>();
+		List<Line> lines = new ArrayList<>();
+
+		for (int k = 0; k < copies; k++) {
+			Map<Station, Station> stationMap = new HashMap<>();
+			stationMaps.add(stationMap);
+
+			for (Station station : data.stations) {
+				Coordinate location = station.getLocation();
+				Station copy = new Station(station.getId() + k * stationStride,
+						name(station.getName(), k),
+						new Coordinate(location.getLongitude() + k * shift,
+								location.getLatitude()),
+						new ArrayList<Stop>());
+				stations.add(copy);
+				stationMap.put(station, copy);
+			}
+
+			for (Line line : data.lines) {
+				List<Stop> stops = new ArrayList<>();
+				Line copy = new Line(line.getId() + k * lineStride,
+						name(line.getName(), k), line.getColor(),
+						line.isCircular(), stops);
+				lines.add(copy);
+				for (Stop stop : line.getStops()) {
+					Station station = stationMap.get(stop.getStation());
+					Stop stopCopy = new Stop(station, copy);
+					stops.add(stopCopy);
+					station.getStops().add(stopCopy);
+				}
+			}
+		}
+
+		MapModel tiled = new MapModel(new ModelData(lines, stations));
+		for (MapView view : model.getViews()) {
+			tiled.getViews().add(tile(tiled.getData(), view));
+		}
+		return tiled;
+	}
+
+	private MapView tile(ModelData data, MapView view)
+	{
+		ViewConfig config = view.getConfig();
+		double width = config.getScene().getWidth();
+		double height = config.getScene().getHeight();
+
+		List<Edges> allEdges = new ArrayList<>();
+		for (int k = 0; k < copies; k++) {
+			for (Edges edges : view.getEdges()) {
+				Edges copy = new Edges(name(edges.getLine(), k));
+				for (Interval interval : edges.getIntervals()) {
+					copy.addInterval(new Interval(name(interval.getFrom(), k),
+							name(interval.getTo(), k)));
+				}
+				allEdges.add(copy);
+			}
+		}
+
+		Map<Station, Point> locations = new HashMap<>();
+		for (Node node : view.getLineNetwork().getNodes()) {
+			if (node.location == null) {
+				continue;
+			}
+			for (int k = 0; k < copies; k++) {
+				Station station = stationMaps.get(k).get(node.station);
+				locations.put(station, new Point(node.location.x + k * width,
+						node.location.y));
+			}
+		}
+
+		LineNetworkBuilder builder = new LineNetworkBuilder(data, allEdges);
+		LineNetwork lineNetwork = builder.getGraph();
+		for (Node node : lineNetwork.getNodes()) {
+			node.location = locations.get(node.station);
+		}
+		LineNetworkUtil.calculateAllNeighborLocations(lineNetwork);
+
+		ViewConfig tiledConfig = new ViewConfig(
+				new Rectangle(0, 0, width * copies, height),
+				config.getStartPosition());
+		return new MapView(view.getName(), allEdges, lineNetwork, tiledConfig);
+	}
+
+}
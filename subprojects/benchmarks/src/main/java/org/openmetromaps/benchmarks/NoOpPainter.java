@@ -0,0 +1,200 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.benchmarks;
+
+import org.openmetromaps.maps.painting.core.AbstractPainter;
+import org.openmetromaps.maps.painting.core.IPaintInfo;
+import org.openmetromaps.maps.painting.core.geom.Circle;
+import org.openmetromaps.maps.painting.core.geom.CoordinateBuffer;
+import org.openmetromaps.maps.painting.core.geom.LineSegment;
+import org.openmetromaps.maps.painting.core.geom.Path;
+import org.openmetromaps.maps.painting.core.geom.PathSet;
+
+import de.topobyte.lightgeom.curves.spline.CubicSpline;
+import de.topobyte.lightgeom.curves.spline.QuadraticSpline;
+import de.topobyte.lightgeom.lina.Point;
+import de.topobyte.lightgeom.lina.Vector2;
+
+/**
+ * A painter that does not draw anything, used to measure the cost of the
+ * rendering pipeline without the cost of rasterization. It only counts the
+ * primitives it receives so that the work done by the renderer cannot be
+ * eliminated as dead code.
+ */
+public class NoOpPainter extends AbstractPainter
+{
+
+	private long primitives = 0;
+
+	public long getPrimitives()
+	{
+		return primitives;
+	}
+
+	public void reset()
+	{
+		primitives = 0;
+	}
+
+	@Override
+	public boolean supportsBatches()
+	{
+		// take the same code paths as the AWT painter
+		return true;
+	}
+
+	@Override
+	public void draw(PathSet paths)
+	{
+		primitives += paths.size();
+	}
+
+	@Override
+	public void drawCircles(CoordinateBuffer centers, double radius)
+	{
+		primitives += centers.size();
+	}
+
+	@Override
+	public void draw(Path path)
+	{
+		primitives++;
+	}
+
+	@Override
+	public Path createPath()
+	{
+		return new NoOpPath();
+	}
+
+	@Override
+	public void draw(Circle circle)
+	{
+		primitives++;
+	}
+
+	@Override
+	public void drawCircle(double x, double y, double radius)
+	{
+		primitives++;
+	}
+
+	@Override
+	public void draw(QuadraticSpline spline)
+	{
+		primitives++;
+	}
+
+	@Override
+	public void draw(CubicSpline spline)
+	{
+		primitives++;
+	}
+
+	@Override
+	public void draw(LineSegment l)
+	{
+		primitives++;
+	}
+
+	@Override
+	public void drawLine(double x1, double y1, double x2, double y2)
+	{
+		primitives++;
+	}
+
+	@Override
+	public void drawString(String string, float x, float y)
+	{
+		primitives++;
+	}
+
+	@Override
+	public void outlineString(String string, float x, float y)
+	{
+		primitives++;
+	}
+
+	@Override
+	public int getStringWidth(String string)
+	{
+		// a rough estimate, text metrics are not what we want to measure
+		return string.length() * 7;
+	}
+
+	@Override
+	public void setPaintInfo(IPaintInfo paint)
+	{
+		// nothing to do
+	}
+
+	private static class NoOpPath implements Path
+	{
+
+		@Override
+		public void reset()
+		{
+			// nothing to do
+		}
+
+		@Override
+		public void moveTo(double x, double y)
+		{
+			// nothing to do
+		}
+
+		@Override
+		public void lineTo(double x, double y)
+		{
+			// nothing to do
+		}
+
+		@Override
+		public void moveTo(Point p)
+		{
+			// nothing to do
+		}
+
+		@Override
+		public void lineTo(Point p)
+		{
+			// nothing to do
+		}
+
+		@Override
+		public void moveTo(Vector2 p)
+		{
+			// nothing to do
+		}
+
+		@Override
+		public void lineTo(Vector2 p)
+		{
+			// nothing to do
+		}
+
+		@Override
+		public void curveTo(double x1, double y1, double x2, double y2,
+				double x3, double y3)
+		{
+			// nothing to do
+		}
+
+	}
+
+}
@@ -0,0 +1,166 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.benchmarks;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmetromaps.maps.MapModel;
+import org.openmetromaps.maps.MapView;
+import org.openmetromaps.maps.MapViewStatus;
+import org.openmetromaps.maps.PlanRenderer;
+import org.openmetromaps.maps.PlanRenderer.SegmentMode;
+import org.openmetromaps.maps.PlanRenderer.StationMode;
+import org.openmetromaps.maps.image.ImageView;
+import org.openmetromaps.maps.painting.awt.AwtPainter;
+import org.openmetromaps.maps.painting.core.GenericPaintFactory;
+import org.openmetromaps.maps.painting.core.Painter;
+
+import de.topobyte.viewports.geometry.Rectangle;
+
+/**
+ * Measures {@link PlanRenderer#paint(Painter)} for a full frame centered on
+ * the scene of each example map.
+ *
+ * The 'awt' painter draws into an offscreen image with anti-aliasing as the
+ * exporters do, the 'noop' painter isolates the cost of the renderer itself.
+ * The 'paint' benchmark repaints an unchanged view (as when the view is
+ * invalidated without moving), 'paintAfterZoom' notifies the renderer about a
+ * zoom change before each frame, which drops all per-zoom caches.
+ *
+ * The parameter space is large, restrict it with JMH's '-p' option, e.g.
+ * '-p map=berlin -p painter=noop'. Generated networks can be rendered as well,
+ * e.g. '-p map=synthetic-20000', see {@link BenchmarkModels}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Djava.awt.headless=true" })
+public class RenderBenchmark
+{
+
+	public static final int WIDTH = 1920;
+	public static final int HEIGHT = 1080;
+
+	@Param({ "berlin", "budapest", "wien" })
+	public String map;
+
+	@Param({ "DOT", "SIMPLE", "CONVEX" })
+	public StationMode stationMode;
+
+	@Param({ "STRAIGHT", "CURVE" })
+	public SegmentMode segmentMode;
+
+	@Param({ "0.3", "1", "3" })
+	public double zoom;
+
+	@Param({ "awt", "noop" })
+	public String painter;
+
+	private PlanRenderer renderer;
+
+	private BufferedImage image;
+	private Graphics2D graphics;
+	private Painter awtPainter;
+	private NoOpPainter noOpPainter;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception
+	{
+		MapModel model = BenchmarkModels.load(map);
+		MapView view = model.getViews().get(0);
+		Rectangle scene = view.getConfig().getScene();
+
+		ImageView imageView = new ImageView(scene, WIDTH, HEIGHT);
+		imageView.setZoom(zoom);
+		imageView.setPositionX(
+				WIDTH / zoom / 2 - (scene.getX1() + scene.getWidth() / 2));
+		imageView.setPositionY(
+				HEIGHT / zoom / 2 - (scene.getY1() + scene.getHeight() / 2));
+
+		renderer = new PlanRenderer(view.getLineNetwork(), new MapViewStatus(),
+				stationMode, segmentMode, imageView, imageView, 1,
+				new GenericPaintFactory());
+
+		if (painter.equals("awt")) {
+			image = new BufferedImage(WIDTH, HEIGHT,
+					BufferedImage.TYPE_INT_RGB);
+			graphics = image.createGraphics();
+			graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+					RenderingHints.VALUE_ANTIALIAS_ON);
+			awtPainter = new AwtPainter(graphics);
+		} else if (painter.equals("noop")) {
+			noOpPainter = new NoOpPainter();
+		} else {
+			throw new IllegalArgumentException("Unknown painter: " + painter);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		if (graphics != null) {
+			graphics.dispose();
+		}
+	}
+
+	@Benchmark
+	public Object paint()
+	{
+		return paintFrame();
+	}
+
+	@Benchmark
+	public Object paintAfterZoom()
+	{
+		renderer.zoomChanged();
+		return paintFrame();
+	}
+
+	private Object paintFrame()
+	{
+		if (noOpPainter != null) {
+			noOpPainter.reset();
+			renderer.paint(noOpPainter);
+			return noOpPainter.getPrimitives();
+		}
+		graphics.setColor(Color.WHITE);
+		graphics.fillRect(0, 0, WIDTH, HEIGHT);
+		renderer.paint(awtPainter);
+		return image;
+	}
+
+}
@@ -17,6 +17,9 @@
 
 package org.openmetromaps.cli;
 
+import java.util.Arrays;
+
+import org.openmetromaps.cli.export.RunExportBatch;
 import org.openmetromaps.cli.export.RunExportBatik;
 import org.openmetromaps.cli.export.RunExportPng;
 import org.openmetromaps.cli.graphml.RunGraphMLImport;
@@ -36,11 +39,15 @@ import org.openmetromaps.cli.osm.RunOsmImportFile;
 import org.openmetromaps.cli.osm.RunOsmImportOverpass;
 import org.openmetromaps.cli.startup.RunUiSelector;
 import org.openmetromaps.cli.util.RunFindCloseStations;
+import org.openmetromaps.cli.util.RunGenerateNetwork;
 import org.openmetromaps.cli.util.RunListChangeStations;
 import org.openmetromaps.cli.util.RunListLinesWithChangeStations;
 import org.openmetromaps.cli.util.RunListStations;
 import org.openmetromaps.cli.util.RunModelInfo;
 import org.openmetromaps.cli.util.RunPurgeStations;
+import org.openmetromaps.metrics.JmxReporter;
+import org.openmetromaps.metrics.Metrics;
+import org.openmetromaps.metrics.MetricsReport;
 
 import de.topobyte.utilities.apache.commons.cli.commands.ArgumentParser;
 import de.topobyte.utilities.apache.commons.cli.commands.ExeRunner;
@@ -132,6 +139,8 @@ public class OpenMetroMapsCli
 			options.addCommand("find-close-stations",
 					RunFindCloseStations.OPTIONS_FACTORY,
 					RunFindCloseStations.class);
+			options.addCommand("generate", RunGenerateNetwork.OPTIONS_FACTORY,
+					RunGenerateNetwork.class);
 			return options;
 		}
 
@@ -147,6 +156,8 @@ public class OpenMetroMapsCli
 					RunExportPng.class);
 			options.addCommand("svg", RunExportBatik.OPTIONS_FACTORY,
 					RunExportBatik.class);
+			options.addCommand("batch", RunExportBatch.OPTIONS_FACTORY,
+					RunExportBatch.class);
 			return options;
 		}
 
@@ -168,16 +179,31 @@ public class OpenMetroMapsCli
 
 	};
 
+	private static final String OPTION_METRICS = "--metrics";
+	private static final String OPTION_METRICS_JMX = "--metrics-jmx";
+
 	public static void main(String[] args) throws RunnerException
 	{
 		String name = "openmetromaps-cli";
 
+		args = parseGlobalOptions(args);
+
 		ExeOptions options = OPTIONS_FACTORY.createOptions();
 		ArgumentParser parser = new ArgumentParser(name, options);
 
 		if (args.length == 0) {
 			System.out.println("OpenMetroMaps Command Line Interface");
 			System.out.println();
+			System.out.println(String.format(
+					"usage: %s [%s] [%s] <command> ...", name, OPTION_METRICS,
+					OPTION_METRICS_JMX));
+			System.out.println(String.format(
+					"    %s: print a snapshot of all metrics on exit",
+					OPTION_METRICS));
+			System.out.println(String.format(
+					"    %s: expose metrics as MXBeans via JMX",
+					OPTION_METRICS_JMX));
+			System.out.println();
 			options.usage(name);
 			System.exit(1);
 		}
@@ -188,4 +214,28 @@ public class OpenMetroMapsCli
 		}
 	}
 
+	/**
+	 * Handle the options that apply to all commands and precede the command
+	 * name.
+	 *
+	 * @return the remaining arguments.
+	 */
+	private static String[] parseGlobalOptions(String[] args)
+	{
+		int k = 0;
+		for (; k < args.length; k++) {
+			String arg = args[k];
+			if (arg.equals(OPTION_METRICS)) {
+				Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+					MetricsReport.print(Metrics.registry(), System.err);
+				}));
+			} else if (arg.equals(OPTION_METRICS_JMX)) {
+				new JmxReporter(Metrics.registry()).start();
+			} else {
+				break;
+			}
+		}
+		return Arrays.copyOfRange(args, k, args.length);
+	}
+
 }
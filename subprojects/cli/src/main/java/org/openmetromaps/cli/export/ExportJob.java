@@ -0,0 +1,86 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.cli.export;
+
+import org.openmetromaps.maps.PlanRenderer.SegmentMode;
+import org.openmetromaps.maps.PlanRenderer.StationMode;
+
+/**
+ * A single image to render during a batch export.
+ */
+public class ExportJob
+{
+
+	private String view;
+	private double zoom;
+	private StationMode stationMode;
+	private SegmentMode segmentMode;
+	private ExportFormat format;
+	private String output;
+
+	public ExportJob(String view, double zoom, StationMode stationMode,
+			SegmentMode segmentMode, ExportFormat format, String output)
+	{
+		this.view = view;
+		this.zoom = zoom;
+		this.stationMode = stationMode;
+		this.segmentMode = segmentMode;
+		this.format = format;
+		this.output = output;
+	}
+
+	public String getView()
+	{
+		return view;
+	}
+
+	public double getZoom()
+	{
+		return zoom;
+	}
+
+	public StationMode getStationMode()
+	{
+		return stationMode;
+	}
+
+	public SegmentMode getSegmentMode()
+	{
+		return segmentMode;
+	}
+
+	public ExportFormat getFormat()
+	{
+		return format;
+	}
+
+	/**
+	 * @return the output file, relative to the output directory of the batch.
+	 */
+	public String getOutput()
+	{
+		return output;
+	}
+
+	@Override
+	public String toString()
+	{
+		return output;
+	}
+
+}
@@ -0,0 +1,208 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.cli.export;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.openmetromaps.cli.common.RenderingConfig;
+import org.openmetromaps.maps.PlanRenderer.SegmentMode;
+import org.openmetromaps.maps.PlanRenderer.StationMode;
+
+import de.topobyte.melon.enums.EnumLookup;
+import de.topobyte.melon.enums.EnumLookups;
+import de.topobyte.melon.enums.naming.SimpleEnumNamer;
+import de.topobyte.xml.domabstraction.iface.IDocument;
+import de.topobyte.xml.domabstraction.iface.IDocumentFactory;
+import de.topobyte.xml.domabstraction.iface.IElement;
+import de.topobyte.xml.domabstraction.iface.INodeList;
+import de.topobyte.xml.domabstraction.iface.ParsingException;
+
+/**
+ * Reads the job description of a batch export. Each 'job' element lists the
+ * views, zoom levels, station modes, segment modes and formats to render and
+ * expands to all combinations of them. Elements that are omitted fall back to
+ * the first view of the model, zoom level 1, the default rendering modes and
+ * PNG output. The 'output' attribute of a job is a file name pattern that may
+ * contain the placeholders {view}, {zoom}, {station-mode}, {segment-mode} and
+ * {format}:
+ *
+ * <pre>
+ * &lt;omm-export-batch version="1.0.0"&gt;
+ *   &lt;job output="berlin-{zoom}-{station-mode}.{format}"&gt;
+ *     &lt;zoom value="1"/&gt;
+ *     &lt;zoom value="2"/&gt;
+ *     &lt;station-mode value="convex"/&gt;
+ *     &lt;station-mode value="simple"/&gt;
+ *     &lt;format value="png"/&gt;
+ *     &lt;format value="svg"/&gt;
+ *   &lt;/job&gt;
+ * &lt;/omm-export-batch&gt;
+ * </pre>
+ */
+public class ExportJobsReader
+{
+
+	public static final String DEFAULT_OUTPUT = "{view}-{zoom}-{station-mode}-{segment-mode}.{format}";
+
+	private static EnumLookup<StationMode> lookupStationMode = EnumLookups
+			.build(StationMode.class, new SimpleEnumNamer<>());
+
+	private static EnumLookup<SegmentMode> lookupSegmentMode = EnumLookups
+			.build(SegmentMode.class, new SimpleEnumNamer<>());
+
+	private static EnumLookup<ExportFormat> lookupFormat = EnumLookups
+			.build(ExportFormat.class, new SimpleEnumNamer<>());
+
+	public static List<ExportJob> read(IDocumentFactory factory, InputStream is,
+			String defaultView) throws ParsingException
+	{
+		ExportJobsReader reader = new ExportJobsReader(defaultView);
+		reader.parseFile(factory.parse(is));
+		return reader.jobs;
+	}
+
+	private String defaultView;
+
+	private List<ExportJob> jobs = new ArrayList<>();
+	private Set<String> outputs = new HashSet<>();
+
+	private ExportJobsReader(String defaultView)
+	{
+		this.defaultView = defaultView;
+	}
+
+	private void parseFile(IDocument doc) throws ParsingException
+	{
+		INodeList listBatches = doc.getElementsByTagName("omm-export-batch");
+		if (listBatches.getLength() == 0) {
+			throw new ParsingException("Missing element 'omm-export-batch'");
+		}
+		IElement batch = listBatches.element(0);
+
+		INodeList listJobs = batch.getChildElementsByTagName("job");
+		for (int i = 0; i < listJobs.getLength(); i++) {
+			parseJob(listJobs.element(i));
+		}
+	}
+
+	private void parseJob(IElement job) throws ParsingException
+	{
+		String output = DEFAULT_OUTPUT;
+		if (job.hasAttribute("output")) {
+			output = job.getAttribute("output");
+		}
+
+		List<String> views = values(job, "view", "name", defaultView);
+		List<String> zooms = values(job, "zoom", "value", "1");
+		List<String> stationModes = values(job, "station-mode", "value",
+				null);
+		List<String> segmentModes = values(job, "segment-mode", "value",
+				null);
+		List<String> formats = values(job, "format", "value", "png");
+
+		for (String view : views) {
+			for (String zoom : zooms) {
+				for (String stationMode : stationModes) {
+					for (String segmentMode : segmentModes) {
+						for (String format : formats) {
+							add(output, view, zoom, stationMode, segmentMode,
+									format);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private void add(String output, String view, String zoom,
+			String stationMode, String segmentMode, String format)
+			throws ParsingException
+	{
+		double zoomValue;
+		try {
+			zoomValue = Double.parseDouble(zoom);
+		} catch (NumberFormatException e) {
+			throw new ParsingException("Invalid zoom level: " + zoom);
+		}
+		if (!(zoomValue > 0) || Double.isInfinite(zoomValue)) {
+			throw new ParsingException(
+					"Zoom level must be a positive number: " + zoom);
+		}
+
+		// unspecified modes use the same defaults as the other export tasks
+		RenderingConfig defaults = new RenderingConfig();
+		StationMode stationModeValue = defaults.getStationMode();
+		SegmentMode segmentModeValue = defaults.getSegmentMode();
+		if (stationMode != null) {
+			stationModeValue = lookup(lookupStationMode, "station mode",
+					stationMode);
+		} else {
+			stationMode = stationModeValue.name().toLowerCase();
+		}
+		if (segmentMode != null) {
+			segmentModeValue = lookup(lookupSegmentMode, "segment mode",
+					segmentMode);
+		} else {
+			segmentMode = segmentModeValue.name().toLowerCase();
+		}
+		ExportFormat formatValue = lookup(lookupFormat, "format", format);
+
+		String file = output.replace("{view}", view).replace("{zoom}", zoom)
+				.replace("{station-mode}", stationMode)
+				.replace("{segment-mode}", segmentMode)
+				.replace("{format}", formatValue.getExtension());
+		if (!outputs.add(file)) {
+			throw new ParsingException(String.format(
+					"Multiple jobs write to '%s', use placeholders in the output pattern",
+					file));
+		}
+
+		jobs.add(new ExportJob(view, zoomValue, stationModeValue,
+				segmentModeValue, formatValue, file));
+	}
+
+	private static <T extends Enum<T>> T lookup(EnumLookup<T> lookup,
+			String what, String value) throws ParsingException
+	{
+		T result = lookup.get(value);
+		if (result == null) {
+			throw new ParsingException(
+					String.format("Invalid %s: '%s'", what, value));
+		}
+		return result;
+	}
+
+	private static List<String> values(IElement job, String element,
+			String attribute, String defaultValue)
+	{
+		List<String> values = new ArrayList<>();
+		INodeList list = job.getChildElementsByTagName(element);
+		for (int i = 0; i < list.getLength(); i++) {
+			values.add(list.element(i).getAttribute(attribute));
+		}
+		if (values.isEmpty()) {
+			values.add(defaultValue);
+		}
+		return values;
+	}
+
+}
@@ -0,0 +1,225 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.cli.export;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Options;
+import org.openmetromaps.maps.MapModel;
+import org.openmetromaps.maps.MapView;
+import org.openmetromaps.maps.batik.BatikImageUtil;
+import org.openmetromaps.maps.image.ImageUtil;
+import org.openmetromaps.maps.xml.DesktopXmlModelReader;
+import org.openmetromaps.maps.xml.XmlModel;
+import org.openmetromaps.maps.xml.XmlModelConverter;
+
+import de.topobyte.utilities.apache.commons.cli.OptionHelper;
+import de.topobyte.utilities.apache.commons.cli.commands.args.CommonsCliArguments;
+import de.topobyte.utilities.apache.commons.cli.commands.options.CommonsCliExeOptions;
+import de.topobyte.utilities.apache.commons.cli.commands.options.ExeOptions;
+import de.topobyte.utilities.apache.commons.cli.commands.options.ExeOptionsFactory;
+import de.topobyte.viewports.geometry.Rectangle;
+import de.topobyte.xml.domabstraction.desktopimpl.DesktopDocumentFactory;
+import de.topobyte.xml.domabstraction.iface.ParsingException;
+
+/**
+ * Renders all images described by a job file (see {@link ExportJobsReader})
+ * from a single model. The model is loaded once and shared by all jobs, which
+ * run on a fixed number of worker threads.
+ */
+public class RunExportBatch
+{
+
+	private static final String OPTION_INPUT = "input";
+	private static final String OPTION_JOBS = "jobs";
+	private static final String OPTION_OUTPUT = "output";
+	private static final String OPTION_THREADS = "threads";
+
+	public static ExeOptionsFactory OPTIONS_FACTORY = new ExeOptionsFactory() {
+
+		@Override
+		public ExeOptions createOptions()
+		{
+			Options options = new Options();
+			// @formatter:off
+			OptionHelper.addL(options, OPTION_INPUT, true, true, "file", "an OpenMetroMaps model file");
+			OptionHelper.addL(options, OPTION_JOBS, true, true, "file", "a file describing the images to export");
+			OptionHelper.addL(options, OPTION_OUTPUT, true, false, "directory", "directory to write images to (default: current directory)");
+			OptionHelper.addL(options, OPTION_THREADS, true, false, "int", "number of images to render concurrently");
+			// @formatter:on
+			return new CommonsCliExeOptions(options, "[options]");
+		}
+
+	};
+
+	public static void main(String name, CommonsCliArguments arguments)
+			throws Exception
+	{
+		CommandLine line = arguments.getLine();
+
+		Path pathInput = Paths.get(line.getOptionValue(OPTION_INPUT));
+		Path pathJobs = Paths.get(line.getOptionValue(OPTION_JOBS));
+		Path pathOutput = Paths.get(".");
+		if (line.hasOption(OPTION_OUTPUT)) {
+			pathOutput = Paths.get(line.getOptionValue(OPTION_OUTPUT));
+		}
+
+		int threads = Runtime.getRuntime().availableProcessors();
+		try {
+			if (line.hasOption(OPTION_THREADS)) {
+				threads = Integer.parseInt(line.getOptionValue(OPTION_THREADS));
+			}
+		} catch (NumberFormatException e) {
+			System.out.println("Invalid integer value: " + e.getMessage());
+			System.exit(1);
+		}
+		if (threads < 1) {
+			System.out.println("Number of threads must be positive");
+			System.exit(1);
+		}
+
+		System.out.println("Input: " + pathInput);
+		System.out.println("Jobs: " + pathJobs);
+		System.out.println("Output: " + pathOutput);
+		System.out.println("Threads: " + threads);
+
+		MapModel model;
+		try (InputStream input = Files.newInputStream(pathInput)) {
+			XmlModel xmlModel = DesktopXmlModelReader.read(input);
+			model = new XmlModelConverter().convert(xmlModel);
+		}
+
+		if (model.getViews().isEmpty()) {
+			System.out.println("The model does not contain any views");
+			System.exit(1);
+		}
+
+		Map<String, MapView> nameToView = new HashMap<>();
+		for (MapView view : model.getViews()) {
+			nameToView.putIfAbsent(view.getName(), view);
+		}
+		String defaultView = model.getViews().get(0).getName();
+
+		List<ExportJob> jobs = null;
+		try (InputStream input = Files.newInputStream(pathJobs)) {
+			jobs = ExportJobsReader.read(new DesktopDocumentFactory(), input,
+					defaultView);
+		} catch (ParsingException e) {
+			System.out.println("Unable to read jobs: " + e.getMessage());
+			System.exit(1);
+		}
+
+		for (ExportJob job : jobs) {
+			if (!nameToView.containsKey(job.getView())) {
+				System.out.println(String.format(
+						"The model does not contain a view named '%s'",
+						job.getView()));
+				System.exit(1);
+			}
+		}
+
+		Files.createDirectories(pathOutput);
+
+		int failed = execute(nameToView, jobs, pathOutput, threads);
+		if (failed > 0) {
+			System.out.println(String.format("%d of %d jobs failed", failed,
+					jobs.size()));
+			System.exit(1);
+		}
+	}
+
+	private static int execute(Map<String, MapView> nameToView,
+			List<ExportJob> jobs, Path pathOutput, int threads)
+			throws InterruptedException
+	{
+		long start = System.currentTimeMillis();
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<Long>> futures = new ArrayList<>();
+		try {
+			for (ExportJob job : jobs) {
+				MapView view = nameToView.get(job.getView());
+				Path path = pathOutput.resolve(job.getOutput());
+				futures.add(executor.submit(() -> render(view, job, path)));
+			}
+
+			int failed = 0;
+			for (int i = 0; i < jobs.size(); i++) {
+				ExportJob job = jobs.get(i);
+				try {
+					long millis = futures.get(i).get();
+					System.out.println(String.format("[%d/%d] %s (%d ms)",
+							i + 1, jobs.size(), job.getOutput(), millis));
+				} catch (ExecutionException e) {
+					failed++;
+					System.out.println(String.format("[%d/%d] %s failed: %s",
+							i + 1, jobs.size(), job.getOutput(), e.getCause()));
+				}
+			}
+
+			System.out.println(String.format("Exported %d images in %d ms",
+					jobs.size() - failed, System.currentTimeMillis() - start));
+			return failed;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static long render(MapView view, ExportJob job, Path path)
+			throws IOException
+	{
+		long start = System.currentTimeMillis();
+
+		Rectangle scene = view.getConfig().getScene();
+		double zoom = job.getZoom();
+		int width = (int) Math.ceil(scene.getWidth() * zoom);
+		int height = (int) Math.ceil(scene.getHeight() * zoom);
+
+		Path parent = path.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+
+		switch (job.getFormat()) {
+		case PNG:
+			ImageUtil.createImage(view, path, "png", width, height, 0, 0, zoom,
+					job.getStationMode(), job.getSegmentMode());
+			break;
+		case SVG:
+			BatikImageUtil.createImage(view, path, width, height, 0, 0, zoom,
+					job.getStationMode(), job.getSegmentMode());
+			break;
+		}
+
+		return System.currentTimeMillis() - start;
+	}
+
+}
@@ -22,6 +22,7 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Options;
@@ -30,6 +31,8 @@ import org.openmetromaps.cli.common.RenderingConfig;
 import org.openmetromaps.maps.MapModel;
 import org.openmetromaps.maps.MapView;
 import org.openmetromaps.maps.image.ImageUtil;
+import org.openmetromaps.maps.image.StreamingImageUtil;
+import org.openmetromaps.maps.image.TiledImageUtil;
 import org.openmetromaps.maps.xml.DesktopXmlModelReader;
 import org.openmetromaps.maps.xml.XmlModel;
 import org.openmetromaps.maps.xml.XmlModelConverter;
@@ -50,6 +53,12 @@ public class RunExportPng
 	private static final String OPTION_INPUT = "input";
 	private static final String OPTION_OUTPUT = "output";
 	private static final String OPTION_ZOOM = "zoom";
+	private static final String OPTION_TILED = "tiled";
+	private static final String OPTION_TILE_SIZE = "tile-size";
+	private static final String OPTION_THREADS = "threads";
+	private static final String OPTION_STREAMING = "streaming";
+	private static final String OPTION_BAND_HEIGHT = "band-height";
+	private static final String OPTION_PALETTE = "palette";
 
 	public static ExeOptionsFactory OPTIONS_FACTORY = new ExeOptionsFactory() {
 
@@ -61,6 +70,12 @@ public class RunExportPng
 			OptionHelper.addL(options, OPTION_INPUT, true, true, "file", "an OpenMetroMaps model file");
 			OptionHelper.addL(options, OPTION_OUTPUT, true, true, "file", "an output image file");
 			OptionHelper.addL(options, OPTION_ZOOM, true, false, "double", "zoom level to use");
+			OptionHelper.addL(options, OPTION_TILED, false, false, "render tiles concurrently");
+			OptionHelper.addL(options, OPTION_TILE_SIZE, true, false, "int", "size of tiles in tiled mode");
+			OptionHelper.addL(options, OPTION_THREADS, true, false, "int", "number of threads in tiled and streaming mode");
+			OptionHelper.addL(options, OPTION_STREAMING, false, false, "render bands and stream them to the output file");
+			OptionHelper.addL(options, OPTION_BAND_HEIGHT, true, false, "int", "height of bands in streaming mode");
+			OptionHelper.addL(options, OPTION_PALETTE, false, false, "write an indexed image (implies streaming)");
 			// @formatter:on
 			CommonOptions.addRenderingOptions(options);
 			return new CommonsCliExeOptions(options, "[options]");
@@ -84,6 +99,41 @@ public class RunExportPng
 			zoom = argZoom.getValue();
 		}
 
+		boolean tiled = line.hasOption(OPTION_TILED);
+		boolean palette = line.hasOption(OPTION_PALETTE);
+		boolean streaming = palette || line.hasOption(OPTION_STREAMING);
+		int tileSize = TiledImageUtil.DEFAULT_TILE_SIZE;
+		int bandHeight = StreamingImageUtil.DEFAULT_BAND_HEIGHT;
+		int threads = Runtime.getRuntime().availableProcessors();
+		try {
+			if (line.hasOption(OPTION_TILE_SIZE)) {
+				tileSize = Integer
+						.parseInt(line.getOptionValue(OPTION_TILE_SIZE));
+			}
+			if (line.hasOption(OPTION_BAND_HEIGHT)) {
+				bandHeight = Integer
+						.parseInt(line.getOptionValue(OPTION_BAND_HEIGHT));
+			}
+			if (line.hasOption(OPTION_THREADS)) {
+				threads = Integer.parseInt(line.getOptionValue(OPTION_THREADS));
+			}
+		} catch (NumberFormatException e) {
+			System.out.println("Invalid integer value: " + e.getMessage());
+			System.exit(1);
+		}
+		if (tileSize < 1) {
+			System.out.println("Tile size must be positive");
+			System.exit(1);
+		}
+		if (bandHeight < 1) {
+			System.out.println("Band height must be positive");
+			System.exit(1);
+		}
+		if (threads < 1) {
+			System.out.println("Number of threads must be positive");
+			System.exit(1);
+		}
+
 		System.out.println("Input: " + pathInput);
 		System.out.println("Output: " + pathOutput);
 		System.out.println("Zoom: " + zoom);
@@ -103,7 +153,15 @@ public class RunExportPng
 		XmlModelConverter modelConverter = new XmlModelConverter();
 		MapModel model = modelConverter.convert(xmlModel);
 
-		execute(model, renderingConfig, pathOutput, zoom);
+		if (streaming) {
+			executeStreaming(model, renderingConfig, pathOutput, zoom,
+					bandHeight, palette, threads);
+		} else if (tiled) {
+			executeTiled(model, renderingConfig, pathOutput, zoom, tileSize,
+					threads);
+		} else {
+			execute(model, renderingConfig, pathOutput, zoom);
+		}
 	}
 
 	private static void execute(MapModel model, RenderingConfig renderingConfig,
@@ -126,4 +184,45 @@ public class RunExportPng
 				renderingConfig.getSegmentMode());
 	}
 
+	private static void executeTiled(MapModel model,
+			RenderingConfig renderingConfig, Path pathOutput, double zoom,
+			int tileSize, int threads) throws IOException
+	{
+		MapView view = model.getViews().get(0);
+		Rectangle scene = view.getConfig().getScene();
+
+		int imageWidth = (int) Math.ceil(scene.getWidth() * zoom);
+		int imageHeight = (int) Math.ceil(scene.getHeight() * zoom);
+
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			TiledImageUtil.createPng(model, pathOutput, imageWidth,
+					imageHeight, 0, 0, zoom, renderingConfig.getStationMode(),
+					renderingConfig.getSegmentMode(), tileSize, pool);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static void executeStreaming(MapModel model,
+			RenderingConfig renderingConfig, Path pathOutput, double zoom,
+			int bandHeight, boolean palette, int threads) throws IOException
+	{
+		MapView view = model.getViews().get(0);
+		Rectangle scene = view.getConfig().getScene();
+
+		int imageWidth = (int) Math.ceil(scene.getWidth() * zoom);
+		int imageHeight = (int) Math.ceil(scene.getHeight() * zoom);
+
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			StreamingImageUtil.createPng(model, pathOutput, imageWidth,
+					imageHeight, 0, 0, zoom, renderingConfig.getStationMode(),
+					renderingConfig.getSegmentMode(), bandHeight, palette,
+					pool);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
 }
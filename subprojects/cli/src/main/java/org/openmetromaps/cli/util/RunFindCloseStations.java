@@ -27,7 +27,7 @@ import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Options;
 import org.openmetromaps.maps.MapModel;
 import org.openmetromaps.maps.MapView;
-import org.openmetromaps.maps.graph.Node;
+import org.openmetromaps.maps.graph.CompactLineNetwork;
 import org.openmetromaps.maps.model.Line;
 import org.openmetromaps.maps.model.ModelData;
 import org.openmetromaps.maps.model.Station;
@@ -35,8 +35,6 @@ import org.openmetromaps.maps.xml.DesktopXmlModelReader;
 import org.openmetromaps.maps.xml.XmlModel;
 import org.openmetromaps.maps.xml.XmlModelConverter;
 
-import de.topobyte.lightgeom.lina.Point;
-import de.topobyte.lightgeom.lina.Vector2;
 import de.topobyte.utilities.apache.commons.cli.OptionHelper;
 import de.topobyte.utilities.apache.commons.cli.commands.args.CommonsCliArguments;
 import de.topobyte.utilities.apache.commons.cli.commands.options.CommonsCliExeOptions;
@@ -105,18 +103,23 @@ public class RunFindCloseStations
 
 	private static void examine(MapView view)
 	{
-		List<Node> nodes = view.getLineNetwork().nodes;
-		for (int i = 0; i < nodes.size(); i++) {
-			Node node = nodes.get(i);
-			for (int k = i + 1; k < nodes.size(); k++) {
-				Node other = nodes.get(k);
-				Point p1 = node.location;
-				Point p2 = other.location;
-				double length = new Vector2(p1, p2).length();
-				if (length < 5) {
+		CompactLineNetwork network = new CompactLineNetwork(
+				view.getLineNetwork());
+		double[] xs = network.getNodeX();
+		double[] ys = network.getNodeY();
+		final int nNodes = network.getNumNodes();
+		for (int i = 0; i < nNodes; i++) {
+			double x = xs[i];
+			double y = ys[i];
+			for (int k = i + 1; k < nNodes; k++) {
+				double dx = xs[k] - x;
+				double dy = ys[k] - y;
+				if (dx * dx + dy * dy < 25) {
+					double length = Math.sqrt(dx * dx + dy * dy);
 					System.out.println(String.format(
 							"Very close (%.2f): '%s' and '%s'", length,
-							node.station.getName(), other.station.getName()));
+							network.getNode(i).station.getName(),
+							network.getNode(k).station.getName()));
 				}
 			}
 		}
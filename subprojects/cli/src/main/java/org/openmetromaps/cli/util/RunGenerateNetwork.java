@@ -0,0 +1,121 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.cli.util;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Options;
+import org.openmetromaps.maps.generator.GeneratedNetwork;
+import org.openmetromaps.maps.generator.GeneratorConfig;
+import org.openmetromaps.maps.generator.NetworkGenerator;
+import org.openmetromaps.maps.model.ModelData;
+
+import de.topobyte.utilities.apache.commons.cli.OptionHelper;
+import de.topobyte.utilities.apache.commons.cli.commands.args.CommonsCliArguments;
+import de.topobyte.utilities.apache.commons.cli.commands.options.CommonsCliExeOptions;
+import de.topobyte.utilities.apache.commons.cli.commands.options.ExeOptions;
+import de.topobyte.utilities.apache.commons.cli.commands.options.ExeOptionsFactory;
+
+public class RunGenerateNetwork
+{
+
+	private static final String OPTION_OUTPUT = "output";
+	private static final String OPTION_SEED = "seed";
+	private static final String OPTION_STATIONS = "stations";
+	private static final String OPTION_LINES = "lines";
+	private static final String OPTION_LINE_LENGTH = "line-length";
+	private static final String OPTION_INTERCHANGE_DENSITY = "interchange-density";
+	private static final String OPTION_CIRCULAR_LINES = "circular-lines";
+
+	public static ExeOptionsFactory OPTIONS_FACTORY = new ExeOptionsFactory() {
+
+		@Override
+		public ExeOptions createOptions()
+		{
+			Options options = new Options();
+			// @formatter:off
+			OptionHelper.addL(options, OPTION_OUTPUT, true, true, "file", "an OpenMetroMaps model file to create");
+			OptionHelper.addL(options, OPTION_SEED, true, false, "long", "seed of the random number generator");
+			OptionHelper.addL(options, OPTION_STATIONS, true, false, "int", "number of stations to place");
+			OptionHelper.addL(options, OPTION_LINES, true, false, "int", "number of lines, including circular ones");
+			OptionHelper.addL(options, OPTION_LINE_LENGTH, true, false, "int", "number of stops per line");
+			OptionHelper.addL(options, OPTION_INTERCHANGE_DENSITY, true, false, "double", "probability of continuing a line to an interchange station (0..1)");
+			OptionHelper.addL(options, OPTION_CIRCULAR_LINES, true, false, "int", "number of circular lines");
+			// @formatter:on
+			return new CommonsCliExeOptions(options, "[options]");
+		}
+
+	};
+
+	public static void main(String name, CommonsCliArguments arguments)
+			throws Exception
+	{
+		CommandLine line = arguments.getLine();
+
+		String argOutput = line.getOptionValue(OPTION_OUTPUT);
+		Path pathOutput = Paths.get(argOutput);
+
+		GeneratorConfig config = new GeneratorConfig();
+		try {
+			if (line.hasOption(OPTION_SEED)) {
+				config.setSeed(Long.parseLong(line.getOptionValue(OPTION_SEED)));
+			}
+			if (line.hasOption(OPTION_STATIONS)) {
+				config.setNumStations(
+						Integer.parseInt(line.getOptionValue(OPTION_STATIONS)));
+			}
+			if (line.hasOption(OPTION_LINES)) {
+				config.setNumLines(
+						Integer.parseInt(line.getOptionValue(OPTION_LINES)));
+			}
+			if (line.hasOption(OPTION_LINE_LENGTH)) {
+				config.setLineLength(Integer
+						.parseInt(line.getOptionValue(OPTION_LINE_LENGTH)));
+			}
+			if (line.hasOption(OPTION_INTERCHANGE_DENSITY)) {
+				config.setInterchangeDensity(Double.parseDouble(
+						line.getOptionValue(OPTION_INTERCHANGE_DENSITY)));
+			}
+			if (line.hasOption(OPTION_CIRCULAR_LINES)) {
+				config.setNumCircularLines(Integer
+						.parseInt(line.getOptionValue(OPTION_CIRCULAR_LINES)));
+			}
+		} catch (NumberFormatException e) {
+			System.out.println("Invalid numeric value: " + e.getMessage());
+			System.exit(1);
+		}
+
+		System.out.println("Output: " + pathOutput);
+
+		GeneratedNetwork network = NetworkGenerator.generate(config);
+
+		ModelData data = network.getData();
+		System.out.println(String.format(
+				"Generated %d lines and %d stations (seed %d)",
+				data.lines.size(), data.stations.size(), config.getSeed()));
+
+		try (OutputStream output = Files.newOutputStream(pathOutput)) {
+			network.write(output);
+		}
+	}
+
+}
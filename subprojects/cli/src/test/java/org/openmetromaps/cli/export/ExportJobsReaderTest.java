@@ -0,0 +1,133 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.cli.export;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmetromaps.maps.PlanRenderer.SegmentMode;
+import org.openmetromaps.maps.PlanRenderer.StationMode;
+
+import de.topobyte.xml.domabstraction.desktopimpl.DesktopDocumentFactory;
+import de.topobyte.xml.domabstraction.iface.ParsingException;
+
+public class ExportJobsReaderTest
+{
+
+	private static List<ExportJob> read(String jobs) throws ParsingException
+	{
+		String xml = "<omm-export-batch version=\"1.0.0\">" + jobs
+				+ "</omm-export-batch>";
+		InputStream input = new ByteArrayInputStream(
+				xml.getBytes(StandardCharsets.UTF_8));
+		return ExportJobsReader.read(new DesktopDocumentFactory(), input,
+				"berlin");
+	}
+
+	private static List<String> outputs(List<ExportJob> jobs)
+	{
+		List<String> outputs = new ArrayList<>();
+		for (ExportJob job : jobs) {
+			outputs.add(job.getOutput());
+		}
+		return outputs;
+	}
+
+	private static void assertInvalid(String jobs)
+	{
+		try {
+			read(jobs);
+			Assert.fail("accepted " + jobs);
+		} catch (ParsingException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testDefaults() throws ParsingException
+	{
+		List<ExportJob> jobs = read("<job/>");
+		Assert.assertEquals(1, jobs.size());
+		ExportJob job = jobs.get(0);
+		Assert.assertEquals("berlin", job.getView());
+		Assert.assertEquals(1, job.getZoom(), 0);
+		Assert.assertEquals(StationMode.CONVEX, job.getStationMode());
+		Assert.assertEquals(SegmentMode.CURVE, job.getSegmentMode());
+		Assert.assertEquals(ExportFormat.PNG, job.getFormat());
+		Assert.assertEquals("berlin-1-convex-curve.png", job.getOutput());
+	}
+
+	@Test
+	public void testPlaceholders() throws ParsingException
+	{
+		List<ExportJob> jobs = read(
+				"<job output=\"{view}/{zoom}-{station-mode}-{segment-mode}.{format}\">"
+						+ "<view name=\"wien\"/>" //
+						+ "<zoom value=\"1\"/>" //
+						+ "<zoom value=\"2.5\"/>"
+						+ "<station-mode value=\"simple\"/>"
+						+ "<segment-mode value=\"straight\"/>"
+						+ "<format value=\"png\"/>"
+						+ "<format value=\"svg\"/>" //
+						+ "</job>");
+		Assert.assertEquals(Arrays.asList("wien/1-simple-straight.png",
+				"wien/1-simple-straight.svg", "wien/2.5-simple-straight.png",
+				"wien/2.5-simple-straight.svg"), outputs(jobs));
+		for (ExportJob job : jobs) {
+			Assert.assertEquals("wien", job.getView());
+			Assert.assertEquals(StationMode.SIMPLE, job.getStationMode());
+			Assert.assertEquals(SegmentMode.STRAIGHT, job.getSegmentMode());
+		}
+		Assert.assertEquals(2.5, jobs.get(2).getZoom(), 0);
+		Assert.assertEquals(ExportFormat.SVG, jobs.get(3).getFormat());
+	}
+
+	@Test
+	public void testDuplicateOutputs()
+	{
+		// within a job
+		assertInvalid("<job output=\"map.{format}\">" //
+				+ "<zoom value=\"1\"/><zoom value=\"2\"/></job>");
+		// across jobs
+		assertInvalid("<job output=\"map.png\"/><job output=\"map.png\"/>");
+	}
+
+	@Test
+	public void testInvalidZoom()
+	{
+		for (String zoom : new String[] { "0", "-1", "-0", "NaN", "Infinity",
+				"-Infinity", "two" }) {
+			assertInvalid("<job><zoom value=\"" + zoom + "\"/></job>");
+		}
+	}
+
+	@Test
+	public void testInvalidModes()
+	{
+		assertInvalid("<job><station-mode value=\"round\"/></job>");
+		assertInvalid("<job><segment-mode value=\"wavy\"/></job>");
+		assertInvalid("<job><format value=\"gif\"/></job>");
+	}
+
+}
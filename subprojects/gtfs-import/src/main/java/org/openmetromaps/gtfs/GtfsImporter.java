@@ -36,6 +36,9 @@ import org.openmetromaps.gtfs4j.model.Route;
 import org.openmetromaps.gtfs4j.model.Stop;
 import org.openmetromaps.gtfs4j.model.StopTime;
 import org.openmetromaps.gtfs4j.model.Trip;
+import org.openmetromaps.metrics.Counter;
+import org.openmetromaps.metrics.Metrics;
+import org.openmetromaps.metrics.Timer;
 import org.openmetromaps.misc.NameChanger;
 
 import com.google.common.collect.HashMultimap;
@@ -51,6 +54,28 @@ import de.topobyte.collections.util.ListUtil;
 public class GtfsImporter
 {
 
+	private static final Timer timerTotal = Metrics.timer("import.gtfs.total");
+	private static final Timer timerRoutes = Metrics
+			.timer("import.gtfs.routes");
+	private static final Timer timerStops = Metrics.timer("import.gtfs.stops");
+	private static final Timer timerTrips = Metrics.timer("import.gtfs.trips");
+	private static final Timer timerStopTimes = Metrics
+			.timer("import.gtfs.stop-times");
+	private static final Timer timerTripStopLists = Metrics
+			.timer("import.gtfs.trip-stop-lists");
+	private static final Timer timerAnalyze = Metrics
+			.timer("import.gtfs.analyze");
+	private static final Timer timerModel = Metrics.timer("import.gtfs.model");
+
+	private static final Counter counterRoutes = Metrics
+			.counter("import.gtfs.routes.read");
+	private static final Counter counterStops = Metrics
+			.counter("import.gtfs.stops.read");
+	private static final Counter counterTrips = Metrics
+			.counter("import.gtfs.trips.read");
+	private static final Counter counterStopTimes = Metrics
+			.counter("import.gtfs.stop-times.read");
+
 	private Path path;
 	private NameChanger nameChanger;
 	private boolean removeBoms;
@@ -81,6 +106,8 @@ public class GtfsImporter
 
 	public void execute() throws ZipException, IOException
 	{
+		long start = timerTotal.start();
+
 		if (removeBoms) {
 			Path tmp = Files.createTempFile("gtfs", ".zip");
 			GtfsBomRemover bomRemover = new GtfsBomRemover(path, tmp);
@@ -94,23 +121,39 @@ public class GtfsImporter
 
 		printAgencyInfo();
 
+		long t = timerRoutes.start();
 		readRoutes();
+		timerRoutes.stop(t);
 
 		printRouteInfo();
 
+		t = timerStops.start();
 		readStops();
+		timerStops.stop(t);
 
+		t = timerTrips.start();
 		readTrips();
+		timerTrips.stop(t);
 
+		t = timerStopTimes.start();
 		readStopTimes();
+		timerStopTimes.stop(t);
 
+		t = timerTripStopLists.start();
 		buildTripStopLists();
+		timerTripStopLists.stop(t);
 
+		t = timerAnalyze.start();
 		analyzeRoutes();
+		timerAnalyze.stop(t);
 
+		t = timerModel.start();
 		createModel();
+		timerModel.stop(t);
 
 		zip.close();
+
+		timerTotal.stop(start);
 	}
 
 	private void printAgencyInfo() throws IOException
@@ -125,6 +168,7 @@ public class GtfsImporter
 	private void readRoutes() throws IOException
 	{
 		List<Route> routes = zip.readRoutes();
+		counterRoutes.inc(routes.size());
 		for (Route route : routes) {
 			String name = getName(route);
 			nameToRoute.put(name, route);
@@ -155,6 +199,7 @@ public class GtfsImporter
 	private void readTrips() throws IOException
 	{
 		List<Trip> trips = zip.readTrips();
+		counterTrips.inc(trips.size());
 
 		for (Trip trip : trips) {
 			routeIdToTrips.put(trip.getRouteId(), trip);
@@ -164,6 +209,7 @@ public class GtfsImporter
 	private void readStopTimes() throws IOException
 	{
 		List<StopTime> stopTimes = zip.readStopTimes();
+		counterStopTimes.inc(stopTimes.size());
 		for (StopTime stopTime : stopTimes) {
 			String tripId = stopTime.getTripId();
 			String valSeq = stopTime.getStopSequence();
@@ -199,6 +245,7 @@ public class GtfsImporter
 	private void readStops() throws IOException
 	{
 		List<Stop> stops = zip.readStops();
+		counterStops.inc(stops.size());
 
 		for (Stop stop : stops) {
 			stopIdToStop.put(stop.getId(), stop);
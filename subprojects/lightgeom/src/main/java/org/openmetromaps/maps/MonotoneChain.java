@@ -0,0 +1,195 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps;
+
+/**
+ * Computes the convex hull of a set of points using Andrew's monotone chain
+ * algorithm. Instances are meant to be reused: the internal buffers only grow
+ * and no objects are allocated while adding points and computing hulls.
+ *
+ * Points are sorted with an insertion sort, which is fast for the small point
+ * sets this is used for (e.g. station outlines) but quadratic in general.
+ */
+public class MonotoneChain
+{
+
+	private float[] xs;
+	private float[] ys;
+	private int n = 0;
+
+	private float[] hull;
+	private int hullSize = 0;
+
+	public MonotoneChain()
+	{
+		this(16);
+	}
+
+	public MonotoneChain(int capacity)
+	{
+		capacity = Math.max(capacity, 4);
+		xs = new float[capacity];
+		ys = new float[capacity];
+		hull = new float[capacity * 4];
+	}
+
+	public void clear()
+	{
+		n = 0;
+		hullSize = 0;
+	}
+
+	public void add(float x, float y)
+	{
+		if (n == xs.length) {
+			int capacity = xs.length * 2;
+			float[] nxs = new float[capacity];
+			float[] nys = new float[capacity];
+			System.arraycopy(xs, 0, nxs, 0, n);
+			System.arraycopy(ys, 0, nys, 0, n);
+			xs = nxs;
+			ys = nys;
+			hull = new float[capacity * 4];
+		}
+		xs[n] = x;
+		ys[n] = y;
+		n++;
+	}
+
+	public int numPoints()
+	{
+		return n;
+	}
+
+	/**
+	 * Compute the hull of the points added since the last call to
+	 * {@link #clear()}. The hull vertices are available via
+	 * {@link #getHullX(int)} and {@link #getHullY(int)} in counter-clockwise
+	 * order (with respect to a y-axis pointing up), without collinear points,
+	 * without duplicate points and without repeating the first vertex. A
+	 * single distinct point yields a hull with one vertex, collinear points
+	 * yield the two end points.
+	 *
+	 * @return the number of vertices of the hull.
+	 */
+	public int compute()
+	{
+		sort();
+		int m = removeDuplicates();
+
+		if (m < 3) {
+			for (int i = 0; i < m; i++) {
+				put(i, xs[i], ys[i]);
+			}
+			hullSize = m;
+			return hullSize;
+		}
+
+		int k = 0;
+
+		// lower hull
+		for (int i = 0; i < m; i++) {
+			while (k >= 2 && cross(k - 2, k - 1, xs[i], ys[i]) <= 0) {
+				k--;
+			}
+			put(k++, xs[i], ys[i]);
+		}
+
+		// upper hull
+		int t = k + 1;
+		for (int i = m - 2; i >= 0; i--) {
+			while (k >= t && cross(k - 2, k - 1, xs[i], ys[i]) <= 0) {
+				k--;
+			}
+			put(k++, xs[i], ys[i]);
+		}
+
+		// the last vertex is the same as the first one
+		hullSize = k - 1;
+		return hullSize;
+	}
+
+	public int getHullSize()
+	{
+		return hullSize;
+	}
+
+	public float getHullX(int i)
+	{
+		return hull[i * 2];
+	}
+
+	public float getHullY(int i)
+	{
+		return hull[i * 2 + 1];
+	}
+
+	private void put(int i, float x, float y)
+	{
+		hull[i * 2] = x;
+		hull[i * 2 + 1] = y;
+	}
+
+	private double cross(int a, int b, float x, float y)
+	{
+		double ax = hull[a * 2];
+		double ay = hull[a * 2 + 1];
+		double bx = hull[b * 2];
+		double by = hull[b * 2 + 1];
+		return (bx - ax) * (y - ay) - (by - ay) * (x - ax);
+	}
+
+	/**
+	 * Move the distinct points of the sorted points to the front.
+	 *
+	 * @return the number of distinct points.
+	 */
+	private int removeDuplicates()
+	{
+		if (n == 0) {
+			return 0;
+		}
+		int m = 1;
+		for (int i = 1; i < n; i++) {
+			if (xs[i] == xs[m - 1] && ys[i] == ys[m - 1]) {
+				continue;
+			}
+			xs[m] = xs[i];
+			ys[m] = ys[i];
+			m++;
+		}
+		return m;
+	}
+
+	private void sort()
+	{
+		for (int i = 1; i < n; i++) {
+			float x = xs[i];
+			float y = ys[i];
+			int j = i - 1;
+			while (j >= 0 && (xs[j] > x || (xs[j] == x && ys[j] > y))) {
+				xs[j + 1] = xs[j];
+				ys[j + 1] = ys[j];
+				j--;
+			}
+			xs[j + 1] = x;
+			ys[j + 1] = y;
+		}
+	}
+
+}
@@ -0,0 +1,159 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MonotoneChainTest
+{
+
+	private static List<String> hull(MonotoneChain chain)
+	{
+		List<String> hull = new ArrayList<>();
+		int n = chain.compute();
+		Assert.assertEquals(n, chain.getHullSize());
+		for (int i = 0; i < n; i++) {
+			hull.add(chain.getHullX(i) + "," + chain.getHullY(i));
+		}
+		return hull;
+	}
+
+	private static List<String> hull(float... coords)
+	{
+		MonotoneChain chain = new MonotoneChain();
+		for (int i = 0; i < coords.length; i += 2) {
+			chain.add(coords[i], coords[i + 1]);
+		}
+		return hull(chain);
+	}
+
+	private static List<String> list(String... points)
+	{
+		List<String> list = new ArrayList<>();
+		for (String point : points) {
+			list.add(point);
+		}
+		return list;
+	}
+
+	@Test
+	public void testEmpty()
+	{
+		Assert.assertEquals(list(), hull());
+	}
+
+	@Test
+	public void testSinglePoint()
+	{
+		Assert.assertEquals(list("1.0,2.0"), hull(1, 2));
+	}
+
+	@Test
+	public void testIdenticalPoints()
+	{
+		Assert.assertEquals(list("1.0,2.0"), hull(1, 2, 1, 2));
+		Assert.assertEquals(list("1.0,2.0"), hull(1, 2, 1, 2, 1, 2));
+		Assert.assertEquals(list("1.0,2.0"),
+				hull(1, 2, 1, 2, 1, 2, 1, 2, 1, 2));
+	}
+
+	@Test
+	public void testTwoPoints()
+	{
+		Assert.assertEquals(list("0.0,0.0", "1.0,1.0"), hull(1, 1, 0, 0));
+		Assert.assertEquals(list("0.0,0.0", "1.0,1.0"),
+				hull(1, 1, 0, 0, 1, 1, 0, 0));
+	}
+
+	@Test
+	public void testCollinear()
+	{
+		Assert.assertEquals(list("0.0,0.0", "3.0,0.0"),
+				hull(2, 0, 0, 0, 3, 0, 1, 0));
+		Assert.assertEquals(list("0.0,0.0", "0.0,3.0"),
+				hull(0, 1, 0, 3, 0, 0, 0, 2));
+		Assert.assertEquals(list("0.0,0.0", "2.0,2.0"),
+				hull(1, 1, 2, 2, 0, 0, 1, 1, 2, 2));
+	}
+
+	@Test
+	public void testSquare()
+	{
+		List<String> square = list("0.0,0.0", "1.0,0.0", "1.0,1.0",
+				"0.0,1.0");
+		Assert.assertEquals(square, hull(0, 0, 1, 0, 1, 1, 0, 1));
+		// interior points, points on edges and duplicate corners
+		Assert.assertEquals(square, hull(0.5f, 0.5f, 1, 1, 0, 0, 0.5f, 0,
+				0, 1, 1, 0, 0, 0, 1, 0.5f, 1, 1, 0.25f, 0.75f));
+	}
+
+	@Test
+	public void testTriangleWithDuplicates()
+	{
+		Assert.assertEquals(list("0.0,0.0", "2.0,0.0", "1.0,2.0"),
+				hull(1, 2, 0, 0, 2, 0, 1, 2, 0, 0, 2, 0));
+	}
+
+	@Test
+	public void testReuse()
+	{
+		MonotoneChain chain = new MonotoneChain(4);
+		Random random = new Random(1);
+		for (int round = 0; round < 100; round++) {
+			chain.clear();
+			int n = 1 + random.nextInt(40);
+			int[] xs = new int[n];
+			int[] ys = new int[n];
+			for (int i = 0; i < n; i++) {
+				xs[i] = random.nextInt(5);
+				ys[i] = random.nextInt(5);
+				chain.add(xs[i], ys[i]);
+			}
+			int size = chain.compute();
+			Assert.assertTrue(size >= 1);
+			if (size < 3) {
+				continue;
+			}
+			// hull edges turn left and no point lies right of any of them
+			for (int i = 0; i < size; i++) {
+				float ax = chain.getHullX(i);
+				float ay = chain.getHullY(i);
+				float bx = chain.getHullX((i + 1) % size);
+				float by = chain.getHullY((i + 1) % size);
+				float cx = chain.getHullX((i + 2) % size);
+				float cy = chain.getHullY((i + 2) % size);
+				Assert.assertTrue(cross(ax, ay, bx, by, cx, cy) > 0);
+				for (int k = 0; k < n; k++) {
+					Assert.assertTrue(cross(ax, ay, bx, by, xs[k], ys[k]) >= 0);
+				}
+			}
+		}
+	}
+
+	private static double cross(float ax, float ay, float bx, float by,
+			float x, float y)
+	{
+		return (bx - ax) * (y - ay) - (by - ay) * (x - ax);
+	}
+
+}
@@ -18,42 +18,62 @@
 package org.openmetromaps.maps.graph;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import org.openmetromaps.maps.Edges;
 import org.openmetromaps.maps.Interval;
-import org.openmetromaps.maps.Segment;
 import org.openmetromaps.maps.StationUtil;
 import org.openmetromaps.maps.model.Line;
 import org.openmetromaps.maps.model.ModelData;
 import org.openmetromaps.maps.model.Station;
 import org.openmetromaps.maps.model.Stop;
+import org.openmetromaps.metrics.Metrics;
+import org.openmetromaps.metrics.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.slimjars.dist.gnu.trove.set.TIntSet;
-import com.slimjars.dist.gnu.trove.set.hash.TIntHashSet;
-
 import de.topobyte.formatting.Formatting;
 
+/**
+ * Builds the {@link LineNetwork} of a view. Stops are resolved to nodes once
+ * per line, edges are deduplicated by looking at the edges of their nodes and
+ * ranks are computed in parallel from a sorted array of line ids per edge, so
+ * that building the network takes time linear in the number of stops. The
+ * static helpers are shared with {@link LineNetworkUpdater}.
+ */
 public class LineNetworkBuilder
 {
 
 	final static Logger logger = LoggerFactory
 			.getLogger(LineNetworkBuilder.class);
 
+	private static final Timer timerBuild = Metrics
+			.timer("load.network.build");
+	private static final Timer timerRanks = Metrics
+			.timer("load.network.ranks");
+
+	// Networks with fewer nodes get their ranks computed sequentially
+	private static final int PARALLEL_THRESHOLD = 10000;
+
 	private LineNetwork graph = new LineNetwork();
 
 	private Map<Station, Node> stationToNode = new HashMap<>();
-	private Map<Segment, Edge> segmentToEdge = new HashMap<>();
+
+	// Sorted, distinct ids of the lines of each edge
+	private Map<Edge, int[]> edgeLineIds = new HashMap<>();
 
 	public LineNetworkBuilder(ModelData data, List<Edges> edges)
 	{
+		long start = timerBuild.start();
+
 		graph.setStationToNode(stationToNode);
 
 		addStations(data);
@@ -62,9 +82,13 @@ public class LineNetworkBuilder
 
 		sortEdgeLines();
 
+		long startRanks = timerRanks.start();
 		computeRanks();
+		timerRanks.stop(startRanks);
 
 		sortNodesByRank();
+
+		timerBuild.stop(start);
 	}
 
 	private void addStations(ModelData data)
@@ -80,11 +104,9 @@ public class LineNetworkBuilder
 	{
 		final int nLines = data.lines.size();
 
-		Map<String, Line> nameToLine = new HashMap<>();
 		SetMultimap<String, NetworkLine> nameToNetworkLine = new SetMultimap<>();
 		for (int i = 0; i < nLines; i++) {
 			Line line = data.lines.get(i);
-			nameToLine.put(line.getName(), line);
 
 			NetworkLine networkLine = new NetworkLine(line);
 			graph.lines.add(networkLine);
@@ -99,92 +121,109 @@ public class LineNetworkBuilder
 			}
 
 			for (NetworkLine networkLine : networkLines) {
-				graph.lines.add(networkLine);
+				addEdges(graph, stationToNode, networkLine, edgesDef);
+			}
+		}
+	}
 
-				if (edgesDef.getIntervals().isEmpty()) {
-					addAllEdges(networkLine);
-				} else {
-					addIntervalEdges(networkLine, edgesDef.getIntervals());
-				}
+	/**
+	 * Add the edges of the line that are selected by the specified edges
+	 * definition to the graph.
+	 */
+	static void addEdges(LineNetwork graph, Map<Station, Node> stationToNode,
+			NetworkLine networkLine, Edges edgesDef)
+	{
+		Node[] nodes = nodes(stationToNode, networkLine.line);
+		if (edgesDef.getIntervals().isEmpty()) {
+			addAllEdges(graph, networkLine, nodes);
+		} else {
+			addIntervalEdges(graph, networkLine, nodes,
+					edgesDef.getIntervals());
+		}
+	}
+
+	/**
+	 * @return the nodes of the stops of the specified line. Stops at stations
+	 *         that are not part of the network are skipped.
+	 */
+	private static Node[] nodes(Map<Station, Node> stationToNode, Line line)
+	{
+		List<Stop> stops = line.getStops();
+		final int nStops = stops.size();
+		Node[] nodes = new Node[nStops];
+		int n = 0;
+		for (int i = 0; i < nStops; i++) {
+			Node node = stationToNode.get(stops.get(i).getStation());
+			if (node != null) {
+				nodes[n++] = node;
 			}
 		}
+		return n == nStops ? nodes : Arrays.copyOf(nodes, n);
 	}
 
-	private void addAllEdges(NetworkLine networkLine)
+	private static void addAllEdges(LineNetwork graph,
+			NetworkLine networkLine, Node[] nodes)
 	{
-		List<Stop> stops = networkLine.line.getStops();
-		if (stops.isEmpty()) {
+		if (nodes.length == 0) {
 			return;
 		}
-		Stop prev = stops.get(0);
 		List<Edge> edges = new ArrayList<>();
-		for (int k = 1; k < stops.size(); k++) {
-			Stop next = stops.get(k);
-
-			edges.add(addSegment(networkLine, prev, next));
-
-			prev = next;
+		for (int k = 1; k < nodes.length; k++) {
+			edges.add(addSegment(graph, networkLine, nodes[k - 1], nodes[k]));
 		}
 		if (networkLine.line.isCircular()) {
-			edges.add(addSegment(networkLine, prev, stops.get(0)));
+			edges.add(addSegment(graph, networkLine, nodes[nodes.length - 1],
+					nodes[0]));
+		}
+		if (edges.isEmpty()) {
+			return;
 		}
 		networkLine.setEdges(edges);
 	}
 
-	private void addIntervalEdges(NetworkLine networkLine,
-			List<Interval> intervals)
+	private static void addIntervalEdges(LineNetwork graph,
+			NetworkLine networkLine, Node[] nodes, List<Interval> intervals)
 	{
+		// the last stop of the line with each station name
+		Map<String, Integer> nameToIndex = new HashMap<>();
+		for (int i = 0; i < nodes.length; i++) {
+			nameToIndex.put(nodes[i].station.getName(), i);
+		}
 		for (Interval interval : intervals) {
-			addIntervalEdges(networkLine, interval);
+			addIntervalEdges(graph, networkLine, nodes, nameToIndex,
+					interval);
 		}
 	}
 
-	private void addIntervalEdges(NetworkLine networkLine, Interval interval)
+	private static void addIntervalEdges(LineNetwork graph,
+			NetworkLine networkLine, Node[] nodes,
+			Map<String, Integer> nameToIndex, Interval interval)
 	{
-		String nameFrom = interval.getFrom();
-		String nameTo = interval.getTo();
-
-		int from = -1;
-		int to = -1;
-
-		List<Stop> stops = networkLine.line.getStops();
-		for (int i = 0; i < stops.size(); i++) {
-			String stopName = stops.get(i).getStation().getName();
-			if (stopName.equals(nameFrom)) {
-				from = i;
-			}
-			if (stopName.equals(nameTo)) {
-				to = i;
-			}
-		}
-
-		if (from < 0 || to < 0) {
+		Integer indexFrom = nameToIndex.get(interval.getFrom());
+		Integer indexTo = nameToIndex.get(interval.getTo());
+		if (indexFrom == null || indexTo == null) {
 			return;
 		}
 
 		// make sure from <= to
-		if (from > to) {
-			int tmp = from;
-			from = to;
-			to = tmp;
-		}
+		int from = Math.min(indexFrom, indexTo);
+		int to = Math.max(indexFrom, indexTo);
 
-		logger.debug(Formatting.format("Line %s, interval: %d - %d",
-				networkLine.line.getName(), from, to));
+		if (logger.isDebugEnabled()) {
+			logger.debug(Formatting.format("Line %s, interval: %d - %d",
+					networkLine.line.getName(), from, to));
+		}
 
-		Stop prev = stops.get(from);
 		List<Edge> edges = new ArrayList<>();
 		for (int k = from + 1; k <= to; k++) {
-			Stop next = stops.get(k);
-
-			Node node1 = stationToNode.get(prev.getStation());
-			Node node2 = stationToNode.get(next.getStation());
-			logger.debug(Formatting.format("Segment: %s - %s",
-					node1.station.getName(), node2.station.getName()));
-
-			edges.add(addSegment(networkLine, prev, next));
+			Node node1 = nodes[k - 1];
+			Node node2 = nodes[k];
+			if (logger.isDebugEnabled()) {
+				logger.debug(Formatting.format("Segment: %s - %s",
+						node1.station.getName(), node2.station.getName()));
+			}
 
-			prev = next;
+			edges.add(addSegment(graph, networkLine, node1, node2));
 		}
 
 		networkLine.setEdges(edges);
@@ -196,6 +235,7 @@ public class LineNetworkBuilder
 		for (int i = 0; i < nEdges; i++) {
 			Edge edge = graph.edges.get(i);
 			Collections.sort(edge.lines, Edge.COMPARATOR);
+			edgeLineIds.put(edge, computeLineIds(edge));
 		}
 	}
 
@@ -211,40 +251,58 @@ public class LineNetworkBuilder
 	private void computeRanks()
 	{
 		final int nNodes = graph.nodes.size();
-		for (int i = 0; i < nNodes; i++) {
-			Node node = graph.nodes.get(i);
-			boolean isLastStop = StationUtil.isLastStopOfALine(node.station);
-			node.setIsLastStopOfALine(isLastStop);
-
-			int rank = isLastStop ? 1 : 0;
-			List<Edge> edges = node.edges;
-			final int nNodeEdges = edges.size();
-			if (nNodeEdges == 1) {
-				rank += 1;
-			} else if (nNodeEdges == 2) {
-				Edge e1 = edges.get(0);
-				Edge e2 = edges.get(1);
-				List<NetworkLine> lines1 = e1.lines;
-				List<NetworkLine> lines2 = e2.lines;
-				if (lines1.size() == 1 && lines2.size() == 1) {
-					NetworkLine line1 = lines1.get(0);
-					NetworkLine line2 = lines2.get(0);
-					rank += line1 == line2 ? 1 : 2;
-				} else {
-					TIntHashSet ids1 = lineIds(edges.get(0));
-					TIntHashSet ids2 = lineIds(edges.get(1));
-					rank += equal(e1, ids1, e2, ids2) ? 1 : 2;
-				}
+		IntStream indices = IntStream.range(0, nNodes);
+		if (nNodes >= PARALLEL_THRESHOLD) {
+			indices = indices.parallel();
+		}
+		Function<Edge, int[]> lineIds = edgeLineIds::get;
+		indices.forEach(i -> computeRank(graph.nodes.get(i), lineIds));
+	}
+
+	/**
+	 * Compute the rank of the node from its edges.
+	 *
+	 * @param lineIds
+	 *            provides the line ids of each edge as returned by
+	 *            {@link #computeLineIds(Edge)}.
+	 */
+	static void computeRank(Node node, Function<Edge, int[]> lineIds)
+	{
+		boolean isLastStop = StationUtil.isLastStopOfALine(node.station);
+		node.setIsLastStopOfALine(isLastStop);
+
+		int rank = isLastStop ? 1 : 0;
+		List<Edge> edges = node.edges;
+		final int nNodeEdges = edges.size();
+		if (nNodeEdges == 1) {
+			rank += 1;
+		} else if (nNodeEdges == 2) {
+			Edge e1 = edges.get(0);
+			Edge e2 = edges.get(1);
+			List<NetworkLine> lines1 = e1.lines;
+			List<NetworkLine> lines2 = e2.lines;
+			if (lines1.size() == 1 && lines2.size() == 1) {
+				NetworkLine line1 = lines1.get(0);
+				NetworkLine line2 = lines2.get(0);
+				rank += line1 == line2 ? 1 : 2;
 			} else {
-				rank += rank(edges);
+				rank += Arrays.equals(lineIds.apply(e1), lineIds.apply(e2))
+						? 1 : 2;
 			}
-			node.setRank(rank);
+		} else {
+			rank += rank(edges, lineIds);
 		}
+		node.setRank(rank);
 	}
 
 	private void sortNodesByRank()
 	{
-		Collections.sort(graph.nodes, new Comparator<Node>() {
+		sortNodesByRank(graph.nodes);
+	}
+
+	static void sortNodesByRank(List<Node> nodes)
+	{
+		Collections.sort(nodes, new Comparator<Node>() {
 
 			@Override
 			public int compare(Node o1, Node o2)
@@ -254,22 +312,17 @@ public class LineNetworkBuilder
 		});
 	}
 
-	private int rank(List<Edge> edges)
+	private static int rank(List<Edge> edges, Function<Edge, int[]> lineIds)
 	{
 		int rank = 0;
 		final int nEdges = edges.size();
-		TIntSet[] ids = new TIntSet[nEdges];
+		int[][] ids = new int[nEdges][];
 		for (int i = 0; i < nEdges; i++) {
-			Edge e = edges.get(i);
-			ids[i] = lineIds(e);
+			ids[i] = lineIds.apply(edges.get(i));
 		}
 		for (int i = 0; i < nEdges; i++) {
-			Edge e1 = edges.get(i);
-			TIntSet ids1 = ids[i];
 			for (int j = i + 1; j < nEdges; j++) {
-				Edge e2 = edges.get(j);
-				TIntSet ids2 = ids[j];
-				if (!equal(e1, ids1, e2, ids2)) {
+				if (!Arrays.equals(ids[i], ids[j])) {
 					rank += 1;
 				}
 			}
@@ -277,34 +330,24 @@ public class LineNetworkBuilder
 		return rank;
 	}
 
-	private boolean equal(Edge e1, TIntSet ids1, Edge e2, TIntSet ids2)
-	{
-		lineIds(e1);
-		int n1 = e1.lines.size();
-		for (int i = 0; i < n1; i++) {
-			int id = e1.lines.get(i).line.getId();
-			if (!ids2.contains(id)) {
-				return false;
-			}
-		}
-		int n2 = e2.lines.size();
-		for (int i = 0; i < n2; i++) {
-			int id = e2.lines.get(i).line.getId();
-			if (!ids1.contains(id)) {
-				return false;
-			}
-		}
-		return true;
-	}
-
-	private TIntHashSet lineIds(Edge edge)
+	/**
+	 * @return the sorted, distinct ids of the lines of the edge.
+	 */
+	static int[] computeLineIds(Edge edge)
 	{
 		final int n = edge.lines.size();
-		TIntHashSet set = new TIntHashSet();
+		int[] ids = new int[n];
 		for (int i = 0; i < n; i++) {
-			set.add(edge.lines.get(i).line.getId());
+			ids[i] = edge.lines.get(i).line.getId();
+		}
+		Arrays.sort(ids);
+		int k = 0;
+		for (int i = 0; i < n; i++) {
+			if (i == 0 || ids[i] != ids[k - 1]) {
+				ids[k++] = ids[i];
+			}
 		}
-		return set;
+		return k == n ? ids : Arrays.copyOf(ids, k);
 	}
 
 	public LineNetwork getGraph()
@@ -312,16 +355,13 @@ public class LineNetworkBuilder
 		return graph;
 	}
 
-	private Edge addSegment(NetworkLine line, Stop stop1, Stop stop2)
+	private static Edge addSegment(LineNetwork graph, NetworkLine line,
+			Node node1, Node node2)
 	{
-		Segment segment = new Segment(stop1.getStation(), stop2.getStation());
-		Edge edge = segmentToEdge.get(segment);
+		Edge edge = findEdge(node1, node2);
 		if (edge == null) {
-			Node node1 = stationToNode.get(stop1.getStation());
-			Node node2 = stationToNode.get(stop2.getStation());
 			edge = new Edge(node1, node2);
 			graph.edges.add(edge);
-			segmentToEdge.put(segment, edge);
 			node1.edges.add(edge);
 			node2.edges.add(edge);
 		}
@@ -329,4 +369,23 @@ public class LineNetworkBuilder
 		return edge;
 	}
 
+	/**
+	 * Find the edge between the two nodes, in either direction, by looking at
+	 * the edges of the node with fewer edges.
+	 */
+	private static Edge findEdge(Node node1, Node node2)
+	{
+		Node node = node1.edges.size() <= node2.edges.size() ? node1 : node2;
+		List<Edge> edges = node.edges;
+		final int nEdges = edges.size();
+		for (int i = 0; i < nEdges; i++) {
+			Edge edge = edges.get(i);
+			if (edge.n1 == node1 && edge.n2 == node2
+					|| edge.n1 == node2 && edge.n2 == node1) {
+				return edge;
+			}
+		}
+		return null;
+	}
+
 }
@@ -0,0 +1,268 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.openmetromaps.maps.Edges;
+import org.openmetromaps.maps.ModelChangeSet;
+import org.openmetromaps.maps.model.Line;
+import org.openmetromaps.maps.model.Station;
+import org.openmetromaps.maps.model.Stop;
+import org.openmetromaps.metrics.Metrics;
+import org.openmetromaps.metrics.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.topobyte.formatting.Formatting;
+
+/**
+ * Patches a {@link LineNetwork} after its model data has been edited as
+ * recorded in a {@link ModelChangeSet}, instead of building a new network
+ * with {@link LineNetworkBuilder}. Only the edges of the lines that changed
+ * are replaced and only the nodes at the ends of these edges get new ranks.
+ * All remaining nodes keep their locations.
+ */
+public class LineNetworkUpdater
+{
+
+	final static Logger logger = LoggerFactory
+			.getLogger(LineNetworkUpdater.class);
+
+	private static final Timer timerUpdate = Metrics
+			.timer("edit.network.update");
+
+	private LineNetwork graph;
+	private List<Edges> edgesDefs;
+
+	/**
+	 * @param edges
+	 *            the edges definitions the network has been built from. They
+	 *            are kept in sync with the lines of the network.
+	 */
+	public LineNetworkUpdater(LineNetwork graph, List<Edges> edges)
+	{
+		this.graph = graph;
+		this.edgesDefs = edges;
+	}
+
+	/**
+	 * Apply the changes to the network. Stations of added lines must already
+	 * be part of the network. Lines that still stop at removed stations are
+	 * rebuilt without these stops, as {@link LineNetworkBuilder} does. Added lines whose name has no edges definition
+	 * get a definition that covers all of their stops, and definitions of
+	 * names no longer used by any line are removed.
+	 */
+	public void apply(ModelChangeSet changes)
+	{
+		if (changes.isEmpty()) {
+			return;
+		}
+
+		long start = timerUpdate.start();
+
+		Map<Station, Node> stationToNode = graph.getStationToNode();
+		Set<Line> removedLines = changes.getRemovedLines();
+		Map<Line, List<Stop>> removedStops = changes.getRemovedStops();
+
+		for (Line line : changes.getAddedLines()) {
+			checkStations(stationToNode, line);
+		}
+
+		// Edges whose lines changed
+		Set<Edge> touched = new HashSet<>();
+
+		// Lines that still stop at a removed station need to be rebuilt
+		Set<Node> removedNodes = new HashSet<>();
+		Set<NetworkLine> atRemovedNodes = new HashSet<>();
+		for (Station station : changes.getRemovedStations()) {
+			Node node = stationToNode.remove(station);
+			if (node == null) {
+				continue;
+			}
+			removedNodes.add(node);
+			for (Edge edge : node.edges) {
+				atRemovedNodes.addAll(edge.lines);
+				touched.add(edge);
+			}
+		}
+
+		// Drop the network lines of removed lines and replace those of lines
+		// with removed stops or stops at removed stations, keeping their
+		// position in the list of lines
+		List<NetworkLine> replacements = new ArrayList<>();
+		ListIterator<NetworkLine> iterator = graph.lines.listIterator();
+		while (iterator.hasNext()) {
+			NetworkLine networkLine = iterator.next();
+			Line line = networkLine.line;
+			if (removedLines.contains(line)) {
+				iterator.remove();
+			} else if (removedStops.containsKey(line)
+					|| atRemovedNodes.contains(networkLine)) {
+				NetworkLine replacement = new NetworkLine(line);
+				replacements.add(replacement);
+				iterator.set(replacement);
+			} else {
+				continue;
+			}
+			detach(networkLine, touched);
+		}
+
+		Map<String, List<Edges>> nameToDefs = new HashMap<>();
+		for (Edges edgesDef : edgesDefs) {
+			List<Edges> defs = nameToDefs.get(edgesDef.getLine());
+			if (defs == null) {
+				defs = new ArrayList<>();
+				nameToDefs.put(edgesDef.getLine(), defs);
+			}
+			defs.add(edgesDef);
+		}
+
+		List<NetworkLine> created = new ArrayList<>();
+		for (NetworkLine networkLine : replacements) {
+			List<Edges> defs = nameToDefs.get(networkLine.line.getName());
+			if (defs == null) {
+				continue;
+			}
+			for (Edges edgesDef : defs) {
+				LineNetworkBuilder.addEdges(graph, stationToNode, networkLine,
+						edgesDef);
+			}
+			created.add(networkLine);
+		}
+
+		for (Line line : changes.getAddedLines()) {
+			NetworkLine networkLine = new NetworkLine(line);
+			graph.lines.add(networkLine);
+			List<Edges> defs = nameToDefs.get(line.getName());
+			if (defs == null) {
+				Edges edgesDef = new Edges(line.getName());
+				edgesDefs.add(edgesDef);
+				defs = Collections.singletonList(edgesDef);
+				nameToDefs.put(line.getName(), defs);
+			}
+			for (Edges edgesDef : defs) {
+				LineNetworkBuilder.addEdges(graph, stationToNode, networkLine,
+						edgesDef);
+			}
+			created.add(networkLine);
+		}
+
+		for (NetworkLine networkLine : created) {
+			touched.addAll(networkLine.neighbors.keySet());
+		}
+
+		// Remove edges without lines and update the remaining ones
+		Set<Node> affected = new HashSet<>();
+		Set<Edge> removedEdges = new HashSet<>();
+		for (Edge edge : touched) {
+			affected.add(edge.n1);
+			affected.add(edge.n2);
+			if (edge.lines.isEmpty()) {
+				removedEdges.add(edge);
+				edge.n1.edges.remove(edge);
+				edge.n2.edges.remove(edge);
+			} else {
+				Collections.sort(edge.lines, Edge.COMPARATOR);
+				edge.setPrev(null);
+				edge.setNext(null);
+				LineNetworkUtil.calculateNeighborLocations(edge);
+			}
+		}
+		if (!removedEdges.isEmpty()) {
+			graph.edges.removeIf(removedEdges::contains);
+		}
+
+		affected.removeAll(removedNodes);
+		if (!removedNodes.isEmpty()) {
+			graph.nodes.removeIf(removedNodes::contains);
+		}
+
+		Map<Edge, int[]> edgeLineIds = new HashMap<>();
+		Function<Edge, int[]> lineIds = edge -> edgeLineIds
+				.computeIfAbsent(edge, LineNetworkBuilder::computeLineIds);
+		boolean ranksChanged = false;
+		for (Node node : affected) {
+			int rank = node.rank;
+			LineNetworkBuilder.computeRank(node, lineIds);
+			ranksChanged |= node.rank != rank;
+		}
+		if (ranksChanged) {
+			LineNetworkBuilder.sortNodesByRank(graph.nodes);
+		}
+
+		if (!removedLines.isEmpty()) {
+			removeUnusedEdgesDefs(removedLines);
+		}
+
+		graph.structureChanged();
+
+		timerUpdate.stop(start);
+
+		if (logger.isDebugEnabled()) {
+			logger.debug(Formatting.format(
+					"Updated network: %d edges touched, %d removed, %d nodes affected, %d removed",
+					touched.size(), removedEdges.size(), affected.size(),
+					removedNodes.size()));
+		}
+	}
+
+	private static void checkStations(Map<Station, Node> stationToNode,
+			Line line)
+	{
+		for (Stop stop : line.getStops()) {
+			if (!stationToNode.containsKey(stop.getStation())) {
+				throw new IllegalArgumentException(
+						"Station not part of the network: "
+								+ stop.getStation().getName());
+			}
+		}
+	}
+
+	private static void detach(NetworkLine networkLine, Set<Edge> touched)
+	{
+		for (Edge edge : networkLine.neighbors.keySet()) {
+			edge.lines.removeIf(line -> line == networkLine);
+			touched.add(edge);
+		}
+	}
+
+	private void removeUnusedEdgesDefs(Set<Line> removedLines)
+	{
+		Set<String> removedNames = new HashSet<>();
+		for (Line line : removedLines) {
+			removedNames.add(line.getName());
+		}
+		Set<String> names = new HashSet<>();
+		for (NetworkLine networkLine : graph.lines) {
+			names.add(networkLine.line.getName());
+		}
+		edgesDefs.removeIf(edgesDef -> removedNames
+				.contains(edgesDef.getLine())
+				&& !names.contains(edgesDef.getLine()));
+	}
+
+}
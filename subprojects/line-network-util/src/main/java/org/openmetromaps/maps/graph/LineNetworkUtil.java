@@ -135,6 +135,56 @@ public class LineNetworkUtil
 		}
 	}
 
+	/**
+	 * Like {@link #calculateNeighborLocations(Edge)}, but read the locations
+	 * of nodes from and store the result in the specified snapshot builder.
+	 */
+	public static void calculateNeighborLocations(
+			LineNetworkSnapshot.Builder builder, Edge edge)
+	{
+		List<NetworkLine> lines = edge.lines;
+		if (lines.size() == 1) {
+			return;
+		}
+		List<Point> prevs = new ArrayList<>();
+		List<Point> nexts = new ArrayList<>();
+		for (NetworkLine line : lines) {
+			NeighborInfo neighbors = line.getNeighbors(edge);
+
+			Node prev = neighbors.prev;
+			Node next = neighbors.next;
+
+			if (prev != null) {
+				prevs.add(builder.getLocation(prev));
+			}
+			if (next != null) {
+				nexts.add(builder.getLocation(next));
+			}
+		}
+
+		if (!prevs.isEmpty()) {
+			builder.setPrev(edge, Points.mean(prevs));
+		}
+		if (!nexts.isEmpty()) {
+			builder.setNext(edge, Points.mean(nexts));
+		}
+	}
+
+	/**
+	 * Like {@link #updateEdges(Node)}, but work on the specified snapshot
+	 * builder.
+	 */
+	public static void updateEdges(LineNetworkSnapshot.Builder builder,
+			Node node)
+	{
+		for (Edge edge : node.edges) {
+			Node neighbor = edge.n1 != node ? edge.n1 : edge.n2;
+			for (Edge neighborEdge : neighbor.edges) {
+				calculateNeighborLocations(builder, neighborEdge);
+			}
+		}
+	}
+
 	public static NodeConnectionResult findConnection(Node node1, Node node2)
 	{
 		NodeConnectionResult result = new NodeConnectionResult();
@@ -0,0 +1,228 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.graph;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmetromaps.maps.ModelChangeSet;
+import org.openmetromaps.maps.generator.GeneratedNetwork;
+import org.openmetromaps.maps.generator.GeneratorConfig;
+import org.openmetromaps.maps.generator.NetworkGenerator;
+import org.openmetromaps.maps.model.Line;
+
+import de.topobyte.lightgeom.lina.Point;
+
+public class CompactLineNetworkTest
+{
+
+	private GeneratedNetwork generated;
+	private LineNetwork network;
+
+	@Before
+	public void setUp()
+	{
+		GeneratorConfig config = new GeneratorConfig();
+		config.setSeed(7);
+		config.setNumStations(300);
+		config.setNumLines(12);
+		generated = NetworkGenerator.generate(config);
+		network = new LineNetworkBuilder(generated.getData(),
+				generated.getEdges()).getGraph();
+		for (Node node : network.getNodes()) {
+			node.location = generated.getLocations().get(node.station);
+		}
+		LineNetworkUtil.calculateAllNeighborLocations(network);
+	}
+
+	private static void checkLocation(Point expected, double x, double y)
+	{
+		if (expected == null) {
+			Assert.assertTrue(Double.isNaN(x));
+			Assert.assertTrue(Double.isNaN(y));
+		} else {
+			Assert.assertEquals(expected.x, x, 0);
+			Assert.assertEquals(expected.y, y, 0);
+		}
+	}
+
+	private static void checkLocations(CompactLineNetwork compact)
+	{
+		LineNetwork network = compact.getLineNetwork();
+		for (int i = 0; i < compact.getNumNodes(); i++) {
+			checkLocation(network.nodes.get(i).location,
+					compact.getNodeX()[i], compact.getNodeY()[i]);
+		}
+		for (int i = 0; i < compact.getNumEdges(); i++) {
+			Edge edge = network.edges.get(i);
+			checkLocation(edge.prev, compact.getEdgePrevX()[i],
+					compact.getEdgePrevY()[i]);
+			checkLocation(edge.next, compact.getEdgeNextX()[i],
+					compact.getEdgeNextY()[i]);
+		}
+	}
+
+	private static int index(Map<Node, Integer> nodeIndex, Node node)
+	{
+		return node == null ? -1 : nodeIndex.get(node);
+	}
+
+	@Test
+	public void testStructure()
+	{
+		CompactLineNetwork compact = new CompactLineNetwork(network);
+		Assert.assertEquals(network.nodes.size(), compact.getNumNodes());
+		Assert.assertEquals(network.edges.size(), compact.getNumEdges());
+		Assert.assertEquals(generated.getData().lines.size(),
+				compact.getNumLines());
+
+		Map<Node, Integer> nodeIndex = new HashMap<>();
+		for (int i = 0; i < compact.getNumNodes(); i++) {
+			Assert.assertSame(network.nodes.get(i), compact.getNode(i));
+			nodeIndex.put(compact.getNode(i), i);
+		}
+		Map<Edge, Integer> edgeIndex = new HashMap<>();
+		for (int i = 0; i < compact.getNumEdges(); i++) {
+			Assert.assertSame(network.edges.get(i), compact.getEdge(i));
+			edgeIndex.put(compact.getEdge(i), i);
+		}
+		for (int i = 0; i < compact.getNumLines(); i++) {
+			Assert.assertEquals(i, compact.getLineIndex(compact.getLine(i)));
+		}
+
+		int[] nodeEdgeOffsets = compact.getNodeEdgeOffsets();
+		Assert.assertEquals(0, nodeEdgeOffsets[0]);
+		for (int i = 0; i < compact.getNumNodes(); i++) {
+			List<Edge> edges = network.nodes.get(i).edges;
+			Assert.assertEquals(edges.size(),
+					nodeEdgeOffsets[i + 1] - nodeEdgeOffsets[i]);
+			for (int k = 0; k < edges.size(); k++) {
+				Assert.assertEquals((int) edgeIndex.get(edges.get(k)),
+						compact.getNodeEdges()[nodeEdgeOffsets[i] + k]);
+			}
+		}
+		Assert.assertEquals(compact.getNodeEdges().length,
+				nodeEdgeOffsets[compact.getNumNodes()]);
+
+		int[] edgeLineOffsets = compact.getEdgeLineOffsets();
+		Assert.assertEquals(0, edgeLineOffsets[0]);
+		for (int i = 0; i < compact.getNumEdges(); i++) {
+			Edge edge = network.edges.get(i);
+			Assert.assertEquals((int) nodeIndex.get(edge.n1),
+					compact.getEdgeNode1()[i]);
+			Assert.assertEquals((int) nodeIndex.get(edge.n2),
+					compact.getEdgeNode2()[i]);
+			Assert.assertEquals(edge.lines.size(),
+					edgeLineOffsets[i + 1] - edgeLineOffsets[i]);
+			for (int k = 0; k < edge.lines.size(); k++) {
+				int slot = edgeLineOffsets[i] + k;
+				NetworkLine line = edge.lines.get(k);
+				Assert.assertSame(line,
+						compact.getLine(compact.getEdgeLines()[slot]));
+				NeighborInfo neighbors = line.getNeighbors(edge);
+				Assert.assertEquals(index(nodeIndex, neighbors.prev),
+						compact.getSlotPrevNodes()[slot]);
+				Assert.assertEquals(index(nodeIndex, neighbors.next),
+						compact.getSlotNextNodes()[slot]);
+			}
+		}
+		Assert.assertEquals(compact.getEdgeLines().length,
+				edgeLineOffsets[compact.getNumEdges()]);
+
+		checkLocations(compact);
+	}
+
+	@Test
+	public void testSync()
+	{
+		CompactLineNetwork compact = new CompactLineNetwork(network);
+		for (int i = 0; i < network.nodes.size(); i += 7) {
+			Node node = network.nodes.get(i);
+			node.location = new Point(node.location.x + 1,
+					node.location.y - 1);
+			LineNetworkUtil.updateEdges(node);
+		}
+		network.locationsChanged();
+
+		compact.sync();
+		checkLocations(compact);
+	}
+
+	@Test
+	public void testSyncSnapshot()
+	{
+		CompactLineNetwork compact = new CompactLineNetwork(network);
+		network.publish();
+		Node node = network.nodes.get(3);
+		LineNetworkSnapshot snapshot = network.update(s -> {
+			LineNetworkSnapshot.Builder builder = s.edit();
+			builder.setLocation(node, new Point(-1, -2));
+			LineNetworkUtil.updateEdges(builder, node);
+			return builder.build();
+		});
+
+		compact.sync(snapshot);
+		Assert.assertEquals(-1, compact.getNodeX()[3], 0);
+		Assert.assertEquals(-2, compact.getNodeY()[3], 0);
+
+		// the network itself has not been updated yet
+		network.publish();
+		compact.sync();
+		checkLocations(compact);
+	}
+
+	@Test
+	public void testStructureChanged()
+	{
+		CompactLineNetwork compact = new CompactLineNetwork(network);
+		LineNetworkSnapshot before = network.publish();
+
+		Line line = generated.getData().lines.get(0);
+		generated.getData().lines.remove(line);
+		ModelChangeSet changes = new ModelChangeSet();
+		changes.lineRemoved(line);
+		new LineNetworkUpdater(network, generated.getEdges()).apply(changes);
+
+		Assert.assertFalse(compact.isValid());
+		try {
+			compact.sync();
+			Assert.fail("sync after structure change");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		try {
+			compact.sync(network.publish());
+			Assert.fail("sync with snapshot of a different structure");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+
+		// snapshots from before the change still match
+		compact.sync(before);
+
+		CompactLineNetwork rebuilt = new CompactLineNetwork(network);
+		Assert.assertTrue(rebuilt.isValid());
+		rebuilt.sync(network.publish());
+		checkLocations(rebuilt);
+	}
+
+}
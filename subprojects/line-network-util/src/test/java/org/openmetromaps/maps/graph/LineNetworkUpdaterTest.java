@@ -0,0 +1,245 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmetromaps.maps.Edges;
+import org.openmetromaps.maps.MapModelUtil;
+import org.openmetromaps.maps.ModelChangeSet;
+import org.openmetromaps.maps.ReplacementServices;
+import org.openmetromaps.maps.model.Coordinate;
+import org.openmetromaps.maps.model.Line;
+import org.openmetromaps.maps.model.ModelData;
+import org.openmetromaps.maps.model.Station;
+import org.openmetromaps.maps.model.Stop;
+
+public class LineNetworkUpdaterTest
+{
+
+	private ModelData data = new ModelData(new ArrayList<>(),
+			new ArrayList<>());
+
+	private Station a = station("A");
+	private Station b = station("B");
+	private Station c = station("C");
+	private Station d = station("D");
+	private Station e = station("E");
+
+	private Line line1 = line("1", a, b, c, d);
+	private Line line2 = line("2", b, c, e);
+
+	private Station station(String name)
+	{
+		Station station = new Station(data.stations.size(), name,
+				new Coordinate(data.stations.size(), name.hashCode() % 3),
+				new ArrayList<>());
+		data.stations.add(station);
+		return station;
+	}
+
+	private Line line(String name, Station... stations)
+	{
+		Line line = new Line(data.lines.size(), name, "#000000", false,
+				new ArrayList<>());
+		for (Station station : stations) {
+			Stop stop = new Stop(station, line);
+			line.getStops().add(stop);
+			station.getStops().add(stop);
+		}
+		data.lines.add(line);
+		return line;
+	}
+
+	/**
+	 * Update a network built from the data before the changes and compare it
+	 * to a network built from the data after the changes.
+	 */
+	private void check(LineNetwork network, List<Edges> edges,
+			ModelChangeSet changes)
+	{
+		new LineNetworkUpdater(network, edges).apply(changes);
+		LineNetwork expected = new LineNetworkBuilder(data,
+				MapModelUtil.allEdges(data)).getGraph();
+
+		checkConsistent(network);
+		Assert.assertEquals(lines(expected), lines(network));
+		Assert.assertEquals(nodes(expected), nodes(network));
+		Assert.assertEquals(edges(expected), edges(network));
+		Assert.assertEquals(neighbors(expected), neighbors(network));
+		Assert.assertEquals(ranks(expected), ranks(network));
+	}
+
+	@Test
+	public void testRemoveStationWithStops()
+	{
+		List<Edges> edges = MapModelUtil.allEdges(data);
+		LineNetwork network = new LineNetworkBuilder(data, edges).getGraph();
+
+		// both lines still stop at the removed station
+		data.stations.remove(c);
+		ModelChangeSet changes = new ModelChangeSet();
+		changes.stationRemoved(c);
+
+		check(network, edges, changes);
+		Assert.assertNull(network.getStationToNode().get(c));
+	}
+
+	@Test
+	public void testCloseStation()
+	{
+		List<Edges> edges = MapModelUtil.allEdges(data);
+		LineNetwork network = new LineNetworkBuilder(data, edges).getGraph();
+
+		ModelChangeSet changes = new ModelChangeSet();
+		ReplacementServices.closeStation(data, c, Arrays.asList(line1, line2),
+				changes);
+		Assert.assertFalse(data.stations.contains(c));
+
+		check(network, edges, changes);
+	}
+
+	@Test
+	public void testRemoveLine()
+	{
+		List<Edges> edges = MapModelUtil.allEdges(data);
+		LineNetwork network = new LineNetworkBuilder(data, edges).getGraph();
+
+		data.lines.remove(line2);
+		for (Stop stop : line2.getStops()) {
+			stop.getStation().getStops().remove(stop);
+		}
+		ModelChangeSet changes = new ModelChangeSet();
+		changes.lineRemoved(line2);
+
+		check(network, edges, changes);
+	}
+
+	/**
+	 * Check that lines, edges and nodes of the network only refer to each
+	 * other.
+	 */
+	private static void checkConsistent(LineNetwork network)
+	{
+		Set<Node> nodes = new HashSet<>(network.getNodes());
+		Set<Edge> edges = new HashSet<>(network.getEdges());
+		Set<NetworkLine> lines = new HashSet<>(network.getLines());
+		Assert.assertEquals(network.getLines().size(), lines.size());
+		for (Edge edge : network.getEdges()) {
+			Assert.assertTrue(nodes.contains(edge.n1));
+			Assert.assertTrue(nodes.contains(edge.n2));
+			Assert.assertTrue(edge.n1.edges.contains(edge));
+			Assert.assertTrue(edge.n2.edges.contains(edge));
+			Assert.assertTrue(lines.containsAll(edge.lines));
+		}
+		for (Node node : network.getNodes()) {
+			Assert.assertTrue(edges.containsAll(node.edges));
+		}
+		for (NetworkLine line : network.getLines()) {
+			for (Map.Entry<Edge, NeighborInfo> entry : line.neighbors
+					.entrySet()) {
+				Edge edge = entry.getKey();
+				Assert.assertTrue(edges.contains(edge));
+				Assert.assertTrue(edge.lines.contains(line));
+				NeighborInfo info = entry.getValue();
+				Assert.assertTrue(info.prev == null || nodes.contains(info.prev));
+				Assert.assertTrue(info.next == null || nodes.contains(info.next));
+			}
+		}
+	}
+
+	private static List<Line> lines(LineNetwork network)
+	{
+		List<Line> lines = new ArrayList<>();
+		for (NetworkLine line : network.getLines()) {
+			lines.add(line.line);
+		}
+		return lines;
+	}
+
+	private static Set<Station> nodes(LineNetwork network)
+	{
+		Set<Station> stations = new HashSet<>();
+		for (Node node : network.getNodes()) {
+			stations.add(node.station);
+		}
+		Assert.assertEquals(stations, network.getStationToNode().keySet());
+		return stations;
+	}
+
+	private static Set<Station> key(Edge edge)
+	{
+		return new HashSet<>(Arrays.asList(edge.n1.station, edge.n2.station));
+	}
+
+	private static Map<Set<Station>, List<Line>> edges(LineNetwork network)
+	{
+		Map<Set<Station>, List<Line>> edges = new HashMap<>();
+		for (Edge edge : network.getEdges()) {
+			List<Line> lines = new ArrayList<>();
+			for (NetworkLine line : edge.lines) {
+				lines.add(line.line);
+			}
+			Assert.assertNull(edges.put(key(edge), lines));
+		}
+		return edges;
+	}
+
+	/**
+	 * @return the stations before and after each edge of each line.
+	 */
+	private static Map<Line, Map<Set<Station>, List<Station>>> neighbors(
+			LineNetwork network)
+	{
+		Map<Line, Map<Set<Station>, List<Station>>> neighbors = new HashMap<>();
+		for (NetworkLine line : network.getLines()) {
+			Map<Set<Station>, List<Station>> map = new HashMap<>();
+			for (Map.Entry<Edge, NeighborInfo> entry : line.neighbors
+					.entrySet()) {
+				NeighborInfo info = entry.getValue();
+				map.put(key(entry.getKey()),
+						Arrays.asList(station(info.prev), station(info.next)));
+			}
+			neighbors.put(line.line, map);
+		}
+		return neighbors;
+	}
+
+	private static Station station(Node node)
+	{
+		return node == null ? null : node.station;
+	}
+
+	private static Map<Station, Integer> ranks(LineNetwork network)
+	{
+		Map<Station, Integer> ranks = new HashMap<>();
+		for (Node node : network.getNodes()) {
+			ranks.put(node.station, node.rank);
+		}
+		return ranks;
+	}
+
+}
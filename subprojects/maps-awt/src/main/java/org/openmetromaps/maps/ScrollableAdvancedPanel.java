@@ -24,11 +24,10 @@ import java.awt.RenderingHints;
 
 import org.openmetromaps.maps.PlanRenderer.SegmentMode;
 import org.openmetromaps.maps.PlanRenderer.StationMode;
+import org.openmetromaps.maps.background.BackgroundRenderer;
 import org.openmetromaps.maps.graph.LineNetwork;
 import org.openmetromaps.maps.model.ModelData;
-import org.openmetromaps.maps.painting.awt.AwtPainter;
 import org.openmetromaps.maps.painting.core.GenericPaintFactory;
-import org.openmetromaps.maps.painting.core.Painter;
 
 import de.topobyte.viewports.geometry.Coordinate;
 
@@ -42,6 +41,7 @@ public class ScrollableAdvancedPanel extends BaseMapWindowPanel
 	private LineNetwork lineNetwork;
 	private MapViewStatus mapViewStatus;
 	private PlanRenderer renderer;
+	private BackgroundRenderer backgroundRenderer = null;
 
 	private StationMode stationMode;
 	private SegmentMode segmentMode;
@@ -77,6 +77,12 @@ public class ScrollableAdvancedPanel extends BaseMapWindowPanel
 	{
 		renderer = new PlanRenderer(lineNetwork, mapViewStatus, stationMode,
 				segmentMode, this, this, scale, new GenericPaintFactory());
+		renderer.setLevelOfDetail(LevelOfDetail.DEFAULT);
+		if (backgroundRenderer != null) {
+			backgroundRenderer.dispose();
+		}
+		backgroundRenderer = new BackgroundRenderer(lineNetwork, mapViewStatus,
+				renderer, this);
 	}
 
 	public ModelData getData()
@@ -95,6 +101,7 @@ public class ScrollableAdvancedPanel extends BaseMapWindowPanel
 		this.data = data;
 		this.lineNetwork = lineNetwork;
 		this.mapViewStatus = mapViewStatus;
+		mapViewStatus.retain(lineNetwork);
 		initRenderer();
 	}
 
@@ -121,12 +128,10 @@ public class ScrollableAdvancedPanel extends BaseMapWindowPanel
 		g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
 				RenderingHints.VALUE_ANTIALIAS_ON);
 
-		Painter painter = new AwtPainter(g);
-
 		g.setColor(Color.WHITE);
 		fillRect(g, scene.getX1(), scene.getY1(), scene.getX2(), scene.getY2());
 
-		renderer.paint(painter);
+		backgroundRenderer.paint(g, this);
 	}
 
 }
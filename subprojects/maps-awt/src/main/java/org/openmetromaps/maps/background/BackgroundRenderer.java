@@ -0,0 +1,514 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.background;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+
+import org.openmetromaps.maps.LevelOfDetail;
+import org.openmetromaps.maps.MapViewStatus;
+import org.openmetromaps.maps.PlanRenderer;
+import org.openmetromaps.maps.PlanRenderer.Layer;
+import org.openmetromaps.maps.PlanRenderer.SegmentMode;
+import org.openmetromaps.maps.PlanRenderer.StationMode;
+import org.openmetromaps.maps.graph.LineNetwork;
+import org.openmetromaps.maps.graph.LineNetworkCloner;
+import org.openmetromaps.maps.graph.LineNetworkSnapshot;
+import org.openmetromaps.maps.graph.NetworkLine;
+import org.openmetromaps.maps.graph.Node;
+import org.openmetromaps.maps.painting.awt.AwtPainter;
+import org.openmetromaps.maps.painting.core.GenericPaintFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.topobyte.viewports.scrolling.ViewportWithSignals;
+
+/**
+ * Renders frames of a line network on a worker thread instead of the event
+ * dispatch thread. Frames are rendered layer by layer: segments first, then
+ * stations, then labels. Requesting a frame for a different viewport, a
+ * changed status or moved nodes cancels the frame that is currently being
+ * rendered before its next layer. The worker paints into one of two buffers
+ * and publishes it once all layers are done, so that only finished buffers
+ * are ever drawn onto the screen. The buffers are swapped instead of copied
+ * and only reallocated when the size of the viewport changes. Until a new
+ * frame is available, the last one is drawn translated and scaled to the
+ * current viewport. The worker
+ * records the layers into display lists, so that frames for a panned
+ * viewport at the same zoom level only replay the recorded commands instead
+ * of computing the geometry again.
+ *
+ * {@link #paint(Graphics2D, ViewportWithSignals)} must be called on the event
+ * dispatch thread. The worker uses its own {@link PlanRenderer} and
+ * {@link MapViewStatus} that are synchronized from snapshots taken on the
+ * event dispatch thread. It renders a private replica of the network that is
+ * brought up to date from the {@link LineNetworkSnapshot}s published by the
+ * event dispatch thread, so that it never reads nodes while they are being
+ * modified. Nodes moved in place are only picked up after
+ * {@link LineNetwork#locationsChanged()} has been called.
+ */
+public class BackgroundRenderer
+{
+
+	final static Logger logger = LoggerFactory
+			.getLogger(BackgroundRenderer.class);
+
+	private static final Layer[] LAYERS = { Layer.SEGMENTS, Layer.STATIONS,
+			Layer.LABELS };
+
+	private LineNetwork lineNetwork;
+	private MapViewStatus mapViewStatus;
+	private PlanRenderer source;
+	private JComponent component;
+
+	private ExecutorService executor;
+	private AtomicInteger generation = new AtomicInteger();
+
+	// State of the event dispatch thread
+	private Request requested = null;
+	private int statusVersion = -1;
+	private Status status = null;
+
+	// The last published buffer. It is read and drawn while holding the lock
+	// so that the worker knows when the other buffer is not in use anymore.
+	private final Object frameLock = new Object();
+	private volatile Frame frame = null;
+
+	// State of the worker thread
+	private LineNetwork replica;
+	private LineNetworkSnapshot replicaSnapshot = null;
+	private FrameView view;
+	private MapViewStatus workerStatus;
+	private Status workerStatusSource;
+	private PlanRenderer renderer;
+	private BufferedImage[] buffers = new BufferedImage[2];
+
+	public BackgroundRenderer(LineNetwork lineNetwork,
+			MapViewStatus mapViewStatus, PlanRenderer source,
+			JComponent component)
+	{
+		this.lineNetwork = lineNetwork;
+		this.mapViewStatus = mapViewStatus;
+		this.source = source;
+		this.component = component;
+
+		replica = new LineNetworkCloner(lineNetwork).cloneLineNetwork();
+
+		executor = Executors.newSingleThreadExecutor(r -> {
+			Thread thread = new Thread(r, "background-renderer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Stop the worker thread. Pending frames are discarded.
+	 */
+	public void dispose()
+	{
+		generation.incrementAndGet();
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Discard the current frame and request a new one on the next paint.
+	 */
+	public void invalidate()
+	{
+		requested = null;
+	}
+
+	/**
+	 * Draw the most recent frame and request a new frame in the background if
+	 * the viewport or the network changed since the last request.
+	 */
+	public void paint(Graphics2D g, ViewportWithSignals viewport)
+	{
+		Request request = createRequest(viewport);
+		if (!request.equals(requested)) {
+			requested = request;
+			int current = generation.incrementAndGet();
+			executor.execute(() -> render(request, current));
+		}
+
+		synchronized (frameLock) {
+			Frame frame = this.frame;
+			if (frame != null) {
+				paint(g, viewport, frame);
+			}
+		}
+	}
+
+	private void paint(Graphics2D g, ViewportWithSignals viewport,
+			Frame frame)
+	{
+		double zoom = viewport.getZoom();
+		double scale = zoom / frame.request.zoom;
+		double dx = (viewport.getPositionX() - frame.request.positionX) * zoom;
+		double dy = (viewport.getPositionY() - frame.request.positionY) * zoom;
+
+		BufferedImage image = frame.image;
+		int dx1 = (int) Math.round(dx);
+		int dy1 = (int) Math.round(dy);
+		if (Math.abs(scale - 1) < 1e-9) {
+			g.drawImage(image, dx1, dy1, null);
+		} else {
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+					RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			int dx2 = (int) Math.round(dx + image.getWidth() * scale);
+			int dy2 = (int) Math.round(dy + image.getHeight() * scale);
+			g.drawImage(image, dx1, dy1, dx2, dy2, 0, 0, image.getWidth(),
+					image.getHeight(), null);
+		}
+	}
+
+	private Request createRequest(ViewportWithSignals viewport)
+	{
+		LineNetworkSnapshot snapshot = lineNetwork.publish();
+		if (mapViewStatus.getVersion() != statusVersion || status == null) {
+			statusVersion = mapViewStatus.getVersion();
+			status = new Status(mapViewStatus, snapshot);
+		}
+
+		int width = Math.max(1, (int) Math.ceil(viewport.getViewportWidth()));
+		int height = Math
+				.max(1, (int) Math.ceil(viewport.getViewportHeight()));
+		return new Request(width, height, viewport.getZoom(),
+				viewport.getPositionX(), viewport.getPositionY(), snapshot,
+				status, new Settings(source));
+	}
+
+	/*
+	 * Worker thread
+	 */
+
+	private boolean isCancelled(int current)
+	{
+		return generation.get() != current;
+	}
+
+	private void render(Request request, int current)
+	{
+		if (isCancelled(current)) {
+			return;
+		}
+
+		if (renderer == null) {
+			view = new FrameView();
+			workerStatus = new MapViewStatus();
+			renderer = new PlanRenderer(replica, workerStatus,
+					request.settings.stationMode,
+					request.settings.segmentMode, view, view,
+					request.settings.scale, new GenericPaintFactory());
+			renderer.setUseDisplayList(true);
+		}
+
+		if (replicaSnapshot != request.snapshot) {
+			request.snapshot.applyTo(replica, replicaSnapshot);
+			replicaSnapshot = request.snapshot;
+		}
+		if (workerStatusSource != request.status) {
+			request.status.apply(workerStatus, replica);
+			workerStatusSource = request.status;
+		}
+		request.settings.apply(renderer);
+		view.set(request.width, request.height, request.zoom,
+				request.positionX, request.positionY);
+
+		BufferedImage image = backBuffer(request.width, request.height);
+		Graphics2D g = image.createGraphics();
+		g.setComposite(AlphaComposite.Clear);
+		g.fillRect(0, 0, request.width, request.height);
+		g.setComposite(AlphaComposite.SrcOver);
+		g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+				RenderingHints.VALUE_ANTIALIAS_ON);
+		AwtPainter painter = new AwtPainter(g);
+
+		try {
+			for (Layer layer : LAYERS) {
+				if (isCancelled(current)) {
+					logger.debug("frame cancelled");
+					return;
+				}
+				renderer.paint(painter, EnumSet.of(layer));
+			}
+			publish(new Frame(request, image));
+		} catch (RuntimeException e) {
+			logger.warn("Error while rendering frame", e);
+		} finally {
+			g.dispose();
+		}
+	}
+
+	private void publish(Frame frame)
+	{
+		this.frame = frame;
+		SwingUtilities.invokeLater(component::repaint);
+	}
+
+	/**
+	 * Get the buffer that is not displayed at the moment, with the specified
+	 * size.
+	 */
+	private BufferedImage backBuffer(int width, int height)
+	{
+		int index;
+		// wait for the event dispatch thread to finish drawing a frame it
+		// might have obtained before the last one was published
+		synchronized (frameLock) {
+			Frame frame = this.frame;
+			index = frame != null && frame.image == buffers[0] ? 1 : 0;
+		}
+		BufferedImage image = buffers[index];
+		if (image == null || image.getWidth() != width
+				|| image.getHeight() != height) {
+			image = new BufferedImage(width, height,
+					BufferedImage.TYPE_INT_ARGB_PRE);
+			buffers[index] = image;
+		}
+		return image;
+	}
+
+	private static class Frame
+	{
+
+		final Request request;
+		final BufferedImage image;
+
+		Frame(Request request, BufferedImage image)
+		{
+			this.request = request;
+			this.image = image;
+		}
+
+	}
+
+	private static class Request
+	{
+
+		final int width;
+		final int height;
+		final double zoom;
+		final double positionX;
+		final double positionY;
+		final LineNetworkSnapshot snapshot;
+		final Status status;
+		final Settings settings;
+
+		Request(int width, int height, double zoom, double positionX,
+				double positionY, LineNetworkSnapshot snapshot, Status status,
+				Settings settings)
+		{
+			this.width = width;
+			this.height = height;
+			this.zoom = zoom;
+			this.positionX = positionX;
+			this.positionY = positionY;
+			this.snapshot = snapshot;
+			this.status = status;
+			this.settings = settings;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (!(obj instanceof Request)) {
+				return false;
+			}
+			Request other = (Request) obj;
+			return width == other.width && height == other.height
+					&& zoom == other.zoom && positionX == other.positionX
+					&& positionY == other.positionY
+					&& snapshot == other.snapshot
+					&& status == other.status
+					&& settings.equals(other.settings);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(width, height, zoom, positionX, positionY,
+					snapshot.getVersion());
+		}
+
+	}
+
+	/**
+	 * A copy of a {@link MapViewStatus} taken on the event dispatch thread.
+	 * Nodes and lines are stored by their position in the network so that
+	 * they can be resolved in the replica.
+	 */
+	private static class Status
+	{
+
+		final List<Integer> selectedNodes = new ArrayList<>();
+		final List<Integer> selectedLines = new ArrayList<>();
+		final BitSet hiddenLines = new BitSet();
+
+		Status(MapViewStatus status, LineNetworkSnapshot snapshot)
+		{
+			for (Node node : status.getSelectedNodes()) {
+				int index = snapshot.getNodeIndex(node);
+				if (index >= 0) {
+					selectedNodes.add(index);
+				}
+			}
+			for (NetworkLine line : status.getSelectedLines()) {
+				int index = snapshot.getLineIndex(line);
+				if (index >= 0) {
+					selectedLines.add(index);
+				}
+			}
+			for (NetworkLine line : status.getHiddenLines()) {
+				int index = snapshot.getLineIndex(line);
+				if (index >= 0) {
+					hiddenLines.set(index);
+				}
+			}
+		}
+
+		void apply(MapViewStatus status, LineNetwork network)
+		{
+			List<Node> nodes = network.getNodes();
+			List<NetworkLine> lines = network.getLines();
+
+			List<Node> selected = new ArrayList<>();
+			for (int index : selectedNodes) {
+				selected.add(nodes.get(index));
+			}
+			status.selectNoNodes();
+			status.selectNodes(selected);
+
+			List<NetworkLine> selectedLines = new ArrayList<>();
+			for (int index : this.selectedLines) {
+				selectedLines.add(lines.get(index));
+			}
+			status.selectNoLines();
+			status.selectLines(selectedLines);
+
+			List<NetworkLine> hidden = new ArrayList<>();
+			for (int i = 0; i < lines.size(); i++) {
+				if (hiddenLines.get(i)) {
+					hidden.add(lines.get(i));
+				}
+			}
+			if (!status.getHiddenLines().equals(new HashSet<>(hidden))) {
+				status.hideNoLines();
+				status.hideLines(hidden);
+			}
+		}
+
+	}
+
+	/**
+	 * The settings of the source renderer that affect the rendered frames.
+	 */
+	private static class Settings
+	{
+
+		final StationMode stationMode;
+		final SegmentMode segmentMode;
+		final float scale;
+		final boolean debugTangents;
+		final boolean debugRanks;
+		final boolean renderStationCenters;
+		final boolean renderLabels;
+		final LevelOfDetail levelOfDetail;
+
+		Settings(PlanRenderer renderer)
+		{
+			stationMode = renderer.getStationMode();
+			segmentMode = renderer.getSegmentMode();
+			scale = renderer.getScale();
+			debugTangents = renderer.isDebugTangents();
+			debugRanks = renderer.isDebugRanks();
+			renderStationCenters = renderer.isRenderStationCenters();
+			renderLabels = renderer.isRenderLabels();
+			levelOfDetail = renderer.getLevelOfDetail();
+		}
+
+		void apply(PlanRenderer renderer)
+		{
+			if (renderer.getStationMode() != stationMode) {
+				renderer.setStationMode(stationMode);
+			}
+			if (renderer.getSegmentMode() != segmentMode) {
+				renderer.setSegmentMode(segmentMode);
+			}
+			if (renderer.getScale() != scale) {
+				renderer.setScale(scale);
+				renderer.zoomChanged();
+			}
+			if (renderer.isDebugTangents() != debugTangents) {
+				renderer.setDebugTangents(debugTangents);
+			}
+			if (renderer.isDebugRanks() != debugRanks) {
+				renderer.setDebugRanks(debugRanks);
+			}
+			if (renderer.isRenderStationCenters() != renderStationCenters) {
+				renderer.setRenderStationCenters(renderStationCenters);
+			}
+			if (renderer.isRenderLabels() != renderLabels) {
+				renderer.setRenderLabels(renderLabels);
+			}
+			if (!renderer.getLevelOfDetail().equals(levelOfDetail)) {
+				renderer.setLevelOfDetail(levelOfDetail);
+			}
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (!(obj instanceof Settings)) {
+				return false;
+			}
+			Settings other = (Settings) obj;
+			return stationMode == other.stationMode
+					&& segmentMode == other.segmentMode
+					&& scale == other.scale
+					&& debugTangents == other.debugTangents
+					&& debugRanks == other.debugRanks
+					&& renderStationCenters == other.renderStationCenters
+					&& renderLabels == other.renderLabels
+					&& levelOfDetail.equals(other.levelOfDetail);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(stationMode, segmentMode, scale,
+					levelOfDetail);
+		}
+
+	}
+
+}
@@ -0,0 +1,52 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.background;
+
+import org.openmetromaps.maps.image.ImageView;
+
+import de.topobyte.viewports.geometry.Rectangle;
+
+/**
+ * A view with the size, position and zoom of a viewport at the time a frame
+ * has been requested. Unlike {@link ImageView}, positions are not clamped to
+ * the scene.
+ */
+public class FrameView extends ImageView
+{
+
+	public FrameView()
+	{
+		super(new Rectangle(0, 0, 1, 1), 1, 1);
+	}
+
+	public void set(int width, int height, double zoom, double positionX,
+			double positionY)
+	{
+		this.width = width;
+		this.height = height;
+		internalSetPositionX(positionX);
+		internalSetPositionY(positionY);
+		if (zoom != this.zoom) {
+			internalSetZoom(zoom);
+			fireViewportListenersZoomChanged();
+		} else {
+			fireViewportListenersViewportChanged();
+		}
+	}
+
+}
@@ -53,7 +53,14 @@ public class ImageUtil
 			int width, int height, double x, double y, double zoom,
 			StationMode stationMode, SegmentMode segmentMode) throws IOException
 	{
-		MapView view = model.getViews().get(0);
+		createImage(model.getViews().get(0), path, format, width, height, x, y,
+				zoom, stationMode, segmentMode);
+	}
+
+	public static void createImage(MapView view, Path path, String format,
+			int width, int height, double x, double y, double zoom,
+			StationMode stationMode, SegmentMode segmentMode) throws IOException
+	{
 		LineNetwork lineNetwork = view.getLineNetwork();
 		MapViewStatus mapViewStatus = new MapViewStatus();
 
@@ -81,6 +88,7 @@ public class ImageUtil
 
 		planRenderer.paint(painter);
 		planRenderer.setRenderLabels(true);
+		g.dispose();
 
 		ImageIO.write(image, format, path.toFile());
 	}
@@ -0,0 +1,203 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.image;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A color palette of at most 256 entries for writing indexed images. Colors
+ * not contained in the palette are mapped to the nearest entry. Lookups are
+ * cached, which makes instances not thread-safe.
+ */
+public class Palette
+{
+
+	private int[] colors;
+
+	// Open addressing table from colors to indices. Keys are stored plus one
+	// so that 0 marks an empty slot.
+	private int[] keys = new int[1024];
+	private int[] values = new int[1024];
+	private int size = 0;
+
+	private int lastRgb = -1;
+	private int lastIndex = 0;
+
+	public Palette(int[] colors)
+	{
+		if (colors.length == 0 || colors.length > 256) {
+			throw new IllegalArgumentException(
+					"Palette needs between 1 and 256 colors");
+		}
+		this.colors = colors;
+	}
+
+	/**
+	 * Create a palette for flat colors drawn onto a white background. For
+	 * each base color, the palette contains a number of shades blending
+	 * between white and the base color to represent antialiased edges.
+	 */
+	public static Palette forFlatColors(Iterable<Integer> baseColors)
+	{
+		Set<Integer> base = new LinkedHashSet<>();
+		base.add(0x000000);
+		for (int color : baseColors) {
+			base.add(color & 0xFFFFFF);
+		}
+		base.remove(0xFFFFFF);
+
+		int shades = Math.max(1, 255 / base.size());
+
+		List<Integer> colors = new ArrayList<>();
+		colors.add(0xFFFFFF);
+		for (int color : base) {
+			if (colors.size() + shades > 256) {
+				break;
+			}
+			for (int i = 1; i <= shades; i++) {
+				colors.add(blend(0xFFFFFF, color, i / (double) shades));
+			}
+		}
+
+		int[] array = new int[colors.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = colors.get(i);
+		}
+		return new Palette(array);
+	}
+
+	private static int blend(int a, int b, double t)
+	{
+		int r = (int) Math.round(r(a) + (r(b) - r(a)) * t);
+		int g = (int) Math.round(g(a) + (g(b) - g(a)) * t);
+		int bl = (int) Math.round(b(a) + (b(b) - b(a)) * t);
+		return (r << 16) | (g << 8) | bl;
+	}
+
+	private static int r(int rgb)
+	{
+		return (rgb >> 16) & 0xFF;
+	}
+
+	private static int g(int rgb)
+	{
+		return (rgb >> 8) & 0xFF;
+	}
+
+	private static int b(int rgb)
+	{
+		return rgb & 0xFF;
+	}
+
+	public int size()
+	{
+		return colors.length;
+	}
+
+	public int getColor(int index)
+	{
+		return colors[index];
+	}
+
+	/**
+	 * @return the index of the palette entry closest to the specified color.
+	 */
+	public int index(int rgb)
+	{
+		rgb &= 0xFFFFFF;
+		if (rgb == lastRgb) {
+			return lastIndex;
+		}
+
+		int mask = keys.length - 1;
+		for (int slot = slot(rgb, mask);; slot = (slot + 1) & mask) {
+			int key = keys[slot];
+			if (key == 0) {
+				break;
+			}
+			if (key == rgb + 1) {
+				lastRgb = rgb;
+				lastIndex = values[slot];
+				return lastIndex;
+			}
+		}
+
+		int best = nearest(rgb);
+		if ((size + 1) * 2 > keys.length) {
+			grow();
+		}
+		insert(rgb, best);
+
+		lastRgb = rgb;
+		lastIndex = best;
+		return best;
+	}
+
+	private int nearest(int rgb)
+	{
+		int best = 0;
+		int bestDistance = Integer.MAX_VALUE;
+		for (int i = 0; i < colors.length; i++) {
+			int dr = r(rgb) - r(colors[i]);
+			int dg = g(rgb) - g(colors[i]);
+			int db = b(rgb) - b(colors[i]);
+			int distance = dr * dr + dg * dg + db * db;
+			if (distance < bestDistance) {
+				best = i;
+				bestDistance = distance;
+			}
+		}
+		return best;
+	}
+
+	private static int slot(int rgb, int mask)
+	{
+		int hash = rgb * 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+
+	private void insert(int rgb, int index)
+	{
+		int mask = keys.length - 1;
+		int slot = slot(rgb, mask);
+		while (keys[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = rgb + 1;
+		values[slot] = index;
+		size++;
+	}
+
+	private void grow()
+	{
+		int[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new int[oldKeys.length * 2];
+		values = new int[oldValues.length * 2];
+		size = 0;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != 0) {
+				insert(oldKeys[i] - 1, oldValues[i]);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,303 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.image;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * A PNG encoder that receives the image row by row and writes it to a stream
+ * without ever holding the whole image in memory.
+ * 
+ * The filtered scanlines are split into chunks of fixed size that get
+ * compressed concurrently. Each chunk is deflated independently with the tail
+ * of the preceding chunk as preset dictionary and terminated with a sync flush,
+ * so that the compressed chunks concatenate to a single valid zlib stream.
+ */
+public class PngStreamEncoder implements Closeable
+{
+
+	private static final byte[] SIGNATURE = { (byte) 0x89, 'P', 'N', 'G',
+			'\r', '\n', 0x1A, '\n' };
+
+	private static final int CHUNK_SIZE = 1 << 20;
+	private static final int DICTIONARY_SIZE = 32 * 1024;
+
+	private static final int FILTER_NONE = 0;
+	private static final int FILTER_SUB = 1;
+
+	private DataOutputStream output;
+	private int width;
+	private int height;
+	private Palette palette;
+	private ExecutorService executor;
+	private int level;
+	private int maxPending;
+
+	private int rowsWritten = 0;
+
+	private int[] row;
+	private byte[] chunk = new byte[CHUNK_SIZE];
+	private int chunkLength = 0;
+	private byte[] dictionary = null;
+
+	private Adler32 adler = new Adler32();
+	private Deque<Future<byte[]>> pending = new ArrayDeque<>();
+
+	/**
+	 * @param palette
+	 *            a palette to write an indexed image or null to write RGB.
+	 * @param executor
+	 *            the executor to run compression tasks on.
+	 * @param level
+	 *            the deflate compression level.
+	 * @param maxPending
+	 *            the maximum number of compressed chunks held in memory
+	 *            before waiting for the oldest one.
+	 */
+	public PngStreamEncoder(OutputStream output, int width, int height,
+			Palette palette, ExecutorService executor, int level,
+			int maxPending) throws IOException
+	{
+		this.output = new DataOutputStream(output);
+		this.width = width;
+		this.height = height;
+		this.palette = palette;
+		this.executor = executor;
+		this.level = level;
+		this.maxPending = maxPending;
+
+		row = new int[width];
+
+		writeHeader();
+	}
+
+	public int getRowsWritten()
+	{
+		return rowsWritten;
+	}
+
+	private void writeHeader() throws IOException
+	{
+		output.write(SIGNATURE);
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		DataOutputStream header = new DataOutputStream(baos);
+		header.writeInt(width);
+		header.writeInt(height);
+		header.writeByte(8); // bit depth
+		header.writeByte(palette == null ? 2 : 3); // truecolor or indexed
+		header.writeByte(0); // compression method
+		header.writeByte(0); // filter method
+		header.writeByte(0); // no interlace
+		writeChunk("IHDR", baos.toByteArray());
+
+		if (palette != null) {
+			byte[] entries = new byte[palette.size() * 3];
+			for (int i = 0; i < palette.size(); i++) {
+				int color = palette.getColor(i);
+				entries[i * 3] = (byte) (color >> 16);
+				entries[i * 3 + 1] = (byte) (color >> 8);
+				entries[i * 3 + 2] = (byte) color;
+			}
+			writeChunk("PLTE", entries);
+		}
+
+		// zlib header: deflate with 32K window, default compression
+		writeChunk("IDAT", new byte[] { 0x78, (byte) 0x9C });
+	}
+
+	/**
+	 * Append rows to the image.
+	 * 
+	 * @param image
+	 *            an image of type {@link BufferedImage#TYPE_INT_RGB} or
+	 *            {@link BufferedImage#TYPE_INT_ARGB} to read pixels from.
+	 * @param x
+	 *            the horizontal offset of the rows within the source image.
+	 * @param y
+	 *            the vertical offset of the first row within the source
+	 *            image.
+	 * @param rows
+	 *            the number of rows to append.
+	 */
+	public void writeRows(BufferedImage image, int x, int y, int rows)
+			throws IOException
+	{
+		if (rowsWritten + rows > height) {
+			throw new IllegalStateException("Too many rows");
+		}
+		for (int r = 0; r < rows; r++) {
+			image.getRaster().getDataElements(x, y + r, width, 1, row);
+			if (palette == null) {
+				put(FILTER_SUB);
+				int pr = 0, pg = 0, pb = 0;
+				for (int i = 0; i < width; i++) {
+					int rgb = row[i];
+					int cr = (rgb >> 16) & 0xFF;
+					int cg = (rgb >> 8) & 0xFF;
+					int cb = rgb & 0xFF;
+					put(cr - pr);
+					put(cg - pg);
+					put(cb - pb);
+					pr = cr;
+					pg = cg;
+					pb = cb;
+				}
+			} else {
+				put(FILTER_NONE);
+				for (int i = 0; i < width; i++) {
+					put(palette.index(row[i]));
+				}
+			}
+		}
+		rowsWritten += rows;
+	}
+
+	private void put(int value) throws IOException
+	{
+		if (chunkLength == chunk.length) {
+			submit(false);
+		}
+		chunk[chunkLength++] = (byte) value;
+	}
+
+	private void submit(boolean last) throws IOException
+	{
+		final byte[] data = chunk;
+		final int length = chunkLength;
+		final byte[] dict = dictionary;
+
+		adler.update(data, 0, length);
+		dictionary = Arrays.copyOfRange(data,
+				Math.max(0, length - DICTIONARY_SIZE), length);
+
+		pending.add(executor.submit(() -> deflate(data, length, dict, last)));
+
+		chunk = new byte[CHUNK_SIZE];
+		chunkLength = 0;
+
+		while (pending.size() > maxPending) {
+			writeChunk("IDAT", take());
+		}
+	}
+
+	private byte[] deflate(byte[] data, int length, byte[] dict,
+			boolean last)
+	{
+		Deflater deflater = new Deflater(level, true);
+		try {
+			if (dict != null) {
+				deflater.setDictionary(dict);
+			}
+			deflater.setInput(data, 0, length);
+			if (last) {
+				deflater.finish();
+			}
+
+			ByteArrayOutputStream baos = new ByteArrayOutputStream(
+					length / 4 + 64);
+			byte[] buffer = new byte[64 * 1024];
+			int flush = last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH;
+			while (true) {
+				int n = deflater.deflate(buffer, 0, buffer.length, flush);
+				baos.write(buffer, 0, n);
+				if (last ? deflater.finished()
+						: n < buffer.length && deflater.needsInput()) {
+					break;
+				}
+			}
+			return baos.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	private byte[] take() throws IOException
+	{
+		try {
+			return pending.poll().get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while compressing", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Error while compressing", e.getCause());
+		}
+	}
+
+	/**
+	 * Flush all pending data and write the end of the image. The number of
+	 * rows written must match the image height.
+	 */
+	public void finish() throws IOException
+	{
+		if (rowsWritten != height) {
+			throw new IllegalStateException(String.format(
+					"Expected %d rows, got %d", height, rowsWritten));
+		}
+		submit(true);
+		while (!pending.isEmpty()) {
+			writeChunk("IDAT", take());
+		}
+
+		long checksum = adler.getValue();
+		writeChunk("IDAT", new byte[] { (byte) (checksum >> 24),
+				(byte) (checksum >> 16), (byte) (checksum >> 8),
+				(byte) checksum });
+		writeChunk("IEND", new byte[0]);
+		output.flush();
+	}
+
+	private void writeChunk(String type, byte[] data) throws IOException
+	{
+		byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+		CRC32 crc = new CRC32();
+		crc.update(typeBytes);
+		crc.update(data);
+
+		output.writeInt(data.length);
+		output.write(typeBytes);
+		output.write(data);
+		output.writeInt((int) crc.getValue());
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		for (Future<byte[]> future : pending) {
+			future.cancel(true);
+		}
+		pending.clear();
+		output.close();
+	}
+
+}
@@ -0,0 +1,113 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.image;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+
+import org.openmetromaps.maps.MapModel;
+import org.openmetromaps.maps.ModelUtil;
+import org.openmetromaps.maps.PlanRenderer.SegmentMode;
+import org.openmetromaps.maps.PlanRenderer.StationMode;
+import org.openmetromaps.maps.graph.NetworkLine;
+import org.openmetromaps.maps.image.TiledImageUtil.TiledRendering;
+
+/**
+ * Renders images in horizontal bands and streams them into a
+ * {@link PngStreamEncoder}, so that peak memory depends on the band height
+ * and the number of threads, but not on the height of the image.
+ */
+public class StreamingImageUtil
+{
+
+	public static final int DEFAULT_BAND_HEIGHT = 256;
+
+	public static void createPng(MapModel model, Path path, int width,
+			int height, double x, double y, double zoom,
+			StationMode stationMode, SegmentMode segmentMode, int bandHeight,
+			boolean usePalette, ForkJoinPool pool) throws IOException
+	{
+		TiledRendering rendering = new TiledRendering(model, width, height, x,
+				y, zoom, stationMode, segmentMode);
+		int margin = rendering.getMargin();
+
+		Palette palette = usePalette ? createPalette(model) : null;
+
+		int parallelism = pool.getParallelism();
+
+		try (OutputStream output = new BufferedOutputStream(
+				Files.newOutputStream(path));
+				PngStreamEncoder encoder = new PngStreamEncoder(output, width,
+						height, palette, pool, Deflater.DEFAULT_COMPRESSION,
+						2 * parallelism)) {
+			Deque<Future<BufferedImage>> bands = new ArrayDeque<>();
+			int next = 0;
+			int written = 0;
+			while (written < height) {
+				while (next < height && bands.size() < parallelism) {
+					int oy = next;
+					int bh = Math.min(bandHeight, height - oy);
+					bands.add(pool.submit(
+							() -> rendering.renderRegion(0, oy, width, bh)));
+					next += bh;
+				}
+				BufferedImage band = take(bands);
+				int bh = Math.min(bandHeight, height - written);
+				encoder.writeRows(band, margin, margin, bh);
+				written += bh;
+			}
+			encoder.finish();
+		}
+	}
+
+	private static BufferedImage take(Deque<Future<BufferedImage>> bands)
+			throws IOException
+	{
+		try {
+			return bands.poll().get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while rendering", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Error while rendering", e.getCause());
+		}
+	}
+
+	private static Palette createPalette(MapModel model)
+	{
+		List<Integer> colors = new ArrayList<>();
+		for (NetworkLine line : model.getViews().get(0).getLineNetwork()
+				.getLines()) {
+			colors.add(ModelUtil.getColor(line.line).getValue());
+		}
+		return Palette.forFlatColors(colors);
+	}
+
+}
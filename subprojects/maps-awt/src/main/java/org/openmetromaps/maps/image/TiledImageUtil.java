@@ -0,0 +1,316 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.image;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.Deflater;
+
+import javax.imageio.ImageIO;
+
+import org.openmetromaps.maps.MapModel;
+import org.openmetromaps.maps.MapView;
+import org.openmetromaps.maps.MapViewStatus;
+import org.openmetromaps.maps.PlanRenderer;
+import org.openmetromaps.maps.PlanRenderer.SegmentMode;
+import org.openmetromaps.maps.PlanRenderer.StationMode;
+import org.openmetromaps.maps.RenderContext;
+import org.openmetromaps.maps.graph.LineNetwork;
+import org.openmetromaps.maps.labels.Label;
+import org.openmetromaps.maps.labels.LabelLayout;
+import org.openmetromaps.maps.painting.awt.AwtPainter;
+import org.openmetromaps.maps.painting.core.GenericPaintFactory;
+
+import de.topobyte.viewports.geometry.Rectangle;
+
+/**
+ * Renders large images by splitting them into tiles that get rendered
+ * concurrently on a {@link ForkJoinPool}. All tiles are rendered by a single
+ * {@link PlanRenderer}, each worker thread paints through its own
+ * {@link RenderContext} onto an image that extends the tile by a margin on
+ * each side, so that geometry crossing tile borders is painted the same way
+ * as in a single-pass render. All tiles share a single {@link LabelLayout}
+ * that is computed once beforehand.
+ *
+ * PNG files are written row of tiles by row of tiles through a
+ * {@link PngStreamEncoder}, so that only a band of tiles is held in memory.
+ * Other formats and {@link #render} need an image of the full size.
+ */
+public class TiledImageUtil
+{
+
+	public static final int DEFAULT_TILE_SIZE = 1024;
+
+	public static void createPng(MapModel model, Path path, int width,
+			int height, double x, double y, double zoom,
+			StationMode stationMode, SegmentMode segmentMode, int tileSize,
+			ForkJoinPool pool) throws IOException
+	{
+		TiledRendering rendering = new TiledRendering(model, width, height, x,
+				y, zoom, stationMode, segmentMode);
+
+		// enough rows of tiles per band to keep all threads busy
+		int nx = (width + tileSize - 1) / tileSize;
+		int rows = (pool.getParallelism() + nx - 1) / nx;
+		int bandHeight = Math.min(height, rows * tileSize);
+		BufferedImage band = new BufferedImage(width, bandHeight,
+				BufferedImage.TYPE_INT_RGB);
+
+		try (OutputStream output = new BufferedOutputStream(
+				Files.newOutputStream(path));
+				PngStreamEncoder encoder = new PngStreamEncoder(output, width,
+						height, null, pool, Deflater.DEFAULT_COMPRESSION,
+						2 * pool.getParallelism())) {
+			for (int oy = 0; oy < height; oy += bandHeight) {
+				int bh = Math.min(bandHeight, height - oy);
+				renderTiles(rendering, band, 0, oy, width, bh, tileSize,
+						pool);
+				encoder.writeRows(band, 0, 0, bh);
+			}
+			encoder.finish();
+		}
+	}
+
+	public static void createImage(MapModel model, Path path, String format,
+			int width, int height, double x, double y, double zoom,
+			StationMode stationMode, SegmentMode segmentMode, int tileSize,
+			ForkJoinPool pool) throws IOException
+	{
+		if (format.equalsIgnoreCase("png")) {
+			createPng(model, path, width, height, x, y, zoom, stationMode,
+					segmentMode, tileSize, pool);
+			return;
+		}
+		BufferedImage image = render(model, width, height, x, y, zoom,
+				stationMode, segmentMode, tileSize, pool);
+		ImageIO.write(image, format, path.toFile());
+	}
+
+	public static BufferedImage render(MapModel model, int width, int height,
+			double x, double y, double zoom, StationMode stationMode,
+			SegmentMode segmentMode, int tileSize, ForkJoinPool pool)
+	{
+		TiledRendering rendering = new TiledRendering(model, width, height, x,
+				y, zoom, stationMode, segmentMode);
+
+		BufferedImage image = new BufferedImage(width, height,
+				BufferedImage.TYPE_INT_RGB);
+
+		renderTiles(rendering, image, 0, 0, width, height, tileSize, pool);
+
+		return image;
+	}
+
+	/**
+	 * Render the region of the image starting at row oy with the specified
+	 * size as tiles and copy them to the target image, starting at row
+	 * targetY.
+	 */
+	private static void renderTiles(TiledRendering rendering,
+			BufferedImage target, int targetY, int oy, int width, int height,
+			int tileSize, ForkJoinPool pool)
+	{
+		int nx = (width + tileSize - 1) / tileSize;
+		int ny = (height + tileSize - 1) / tileSize;
+
+		pool.invoke(new TileRange(0, nx * ny, tileIndex -> {
+			int tx = tileIndex % nx;
+			int ty = tileIndex / nx;
+			int ox = tx * tileSize;
+			int dy = ty * tileSize;
+			int tw = Math.min(tileSize, width - ox);
+			int th = Math.min(tileSize, height - dy);
+
+			BufferedImage tile = rendering.renderRegion(ox, oy + dy, tw, th);
+			int margin = rendering.getMargin();
+			Object data = tile.getRaster().getDataElements(margin, margin, tw,
+					th, null);
+			target.getRaster().setDataElements(ox, targetY + dy, tw, th,
+					data);
+		}));
+	}
+
+	static interface TileJob
+	{
+
+		public void run(int tileIndex);
+
+	}
+
+	static class TileRange extends RecursiveAction
+	{
+
+		private static final long serialVersionUID = 1L;
+
+		private int from;
+		private int to;
+		private TileJob job;
+
+		TileRange(int from, int to, TileJob job)
+		{
+			this.from = from;
+			this.to = to;
+			this.job = job;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (to - from <= 1) {
+				if (from < to) {
+					job.run(from);
+				}
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new TileRange(from, mid, job),
+					new TileRange(mid, to, job));
+		}
+
+	}
+
+	/**
+	 * Shared state of a tiled rendering: the renderer with the label layout
+	 * for the whole image and the margin rendered around each region.
+	 */
+	static class TiledRendering
+	{
+
+		private LineNetwork lineNetwork;
+		private MapViewStatus mapViewStatus = new MapViewStatus();
+		private Rectangle scene;
+		private double x;
+		private double y;
+		private double zoom;
+		private StationMode stationMode;
+		private SegmentMode segmentMode;
+
+		private PlanRenderer planRenderer;
+		private int margin;
+
+		private ThreadLocal<RenderContext> contexts = ThreadLocal
+				.withInitial(() -> {
+					ImageView imageView = createView(1, 1, x, y);
+					return planRenderer.createContext(imageView, imageView);
+				});
+
+		TiledRendering(MapModel model, int width, int height, double x,
+				double y, double zoom, StationMode stationMode,
+				SegmentMode segmentMode)
+		{
+			MapView view = model.getViews().get(0);
+			lineNetwork = view.getLineNetwork();
+			scene = view.getConfig().getScene();
+			this.x = x;
+			this.y = y;
+			this.zoom = zoom;
+			this.stationMode = stationMode;
+			this.segmentMode = segmentMode;
+
+			ImageView imageView = createView(width, height, x, y);
+			planRenderer = createRenderer(imageView);
+
+			BufferedImage scratch = new BufferedImage(1, 1,
+					BufferedImage.TYPE_INT_RGB);
+			Graphics2D g = createGraphics(scratch);
+			List<Label> labels = planRenderer.layoutLabels(new AwtPainter(g));
+			g.dispose();
+
+			// make sure that labels of nodes outside a region are rendered
+			margin = planRenderer.getOverDrawPixels();
+			for (Label label : labels) {
+				int extent = (int) Math.ceil(Math.max(
+						Math.abs(label.getDx()) + label.getWidth(),
+						Math.abs(label.getDy()) + 2 * planRenderer.getScale()
+								* 12));
+				margin = Math.max(margin, extent);
+			}
+			planRenderer.setOverDrawPixels(margin);
+		}
+
+		int getMargin()
+		{
+			return margin;
+		}
+
+		/**
+		 * Render the specified region of the image onto a new image that
+		 * extends the region by the margin on each side.
+		 */
+		BufferedImage renderRegion(int ox, int oy, int width, int height)
+		{
+			int w = width + 2 * margin;
+			int h = height + 2 * margin;
+
+			RenderContext context = contexts.get();
+			ImageView imageView = (ImageView) context.getViewport();
+			imageView.setSize(w, h);
+			imageView.setPositionX(x - (ox - margin) / zoom);
+			imageView.setPositionY(y - (oy - margin) / zoom);
+
+			BufferedImage image = new BufferedImage(w, h,
+					BufferedImage.TYPE_INT_RGB);
+			Graphics2D g = createGraphics(image);
+
+			g.setColor(Color.WHITE);
+			g.fillRect(0, 0, w, h);
+
+			planRenderer.paint(context, new AwtPainter(g));
+			g.dispose();
+
+			return image;
+		}
+
+		private ImageView createView(int width, int height, double x,
+				double y)
+		{
+			ImageView imageView = new ImageView(scene, width, height);
+			imageView.setZoom(zoom);
+			imageView.setPositionX(x);
+			imageView.setPositionY(y);
+			return imageView;
+		}
+
+		private PlanRenderer createRenderer(ImageView imageView)
+		{
+			return new PlanRenderer(lineNetwork, mapViewStatus, stationMode,
+					segmentMode, imageView, imageView, 1,
+					new GenericPaintFactory());
+		}
+
+		private Graphics2D createGraphics(BufferedImage image)
+		{
+			Graphics2D g = image.createGraphics();
+			g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+					RenderingHints.VALUE_ANTIALIAS_ON);
+			return g;
+		}
+
+	}
+
+}
@@ -0,0 +1,80 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.painting.awt;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+
+import org.openmetromaps.maps.painting.core.GenericPaintInfo;
+
+/**
+ * The Java2D objects a {@link GenericPaintInfo} resolves to. Instances are
+ * stored in the paint info and reused until one of its properties changes.
+ */
+public class AwtPaintState
+{
+
+	private BasicStroke stroke;
+	private Color color;
+	private Font font;
+
+	public AwtPaintState(BasicStroke stroke, Color color, Font font)
+	{
+		this.stroke = stroke;
+		this.color = color;
+		this.font = font;
+	}
+
+	public static AwtPaintState get(GenericPaintInfo paint)
+	{
+		Object resolved = paint.getResolved();
+		if (resolved instanceof AwtPaintState) {
+			return (AwtPaintState) resolved;
+		}
+		AwtPaintState state = create(paint);
+		paint.setResolved(state);
+		return state;
+	}
+
+	public static AwtPaintState create(GenericPaintInfo paint)
+	{
+		int join = AwtPaintInfo.getJoin(paint.getJoin());
+		int cap = AwtPaintInfo.getCap(paint.getCap());
+		BasicStroke stroke = new BasicStroke(paint.getWidth(), cap, join);
+		Color color = new Color(paint.getColor().getValue(), true);
+		Font font = new Font(Font.SANS_SERIF, Font.BOLD, paint.getFontSize());
+		return new AwtPaintState(stroke, color, font);
+	}
+
+	public BasicStroke getStroke()
+	{
+		return stroke;
+	}
+
+	public Color getColor()
+	{
+		return color;
+	}
+
+	public Font getFont()
+	{
+		return font;
+	}
+
+}
@@ -17,26 +17,23 @@
 
 package org.openmetromaps.maps.painting.awt;
 
-import java.awt.BasicStroke;
-import java.awt.Color;
-import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.Shape;
-import java.awt.font.FontRenderContext;
-import java.awt.font.TextLayout;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Arc2D;
 import java.awt.geom.CubicCurve2D;
+import java.awt.geom.Ellipse2D;
 import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
 import java.awt.geom.QuadCurve2D;
 
 import org.openmetromaps.maps.painting.core.AbstractPainter;
-import org.openmetromaps.maps.painting.core.ColorCode;
 import org.openmetromaps.maps.painting.core.GenericPaintInfo;
 import org.openmetromaps.maps.painting.core.IPaintInfo;
 import org.openmetromaps.maps.painting.core.PaintType;
 import org.openmetromaps.maps.painting.core.geom.Circle;
+import org.openmetromaps.maps.painting.core.geom.CoordinateBuffer;
 import org.openmetromaps.maps.painting.core.geom.LineSegment;
 import org.openmetromaps.maps.painting.core.geom.Path;
 
@@ -44,15 +41,29 @@ import de.topobyte.lightgeom.curves.spline.CubicSpline;
 import de.topobyte.lightgeom.curves.spline.QuadraticSpline;
 import de.topobyte.lightgeom.curves.spline.awt.LightGeomAwt;
 
+/**
+ * A painter that draws onto a {@link Graphics2D}. Stroke, color and font are
+ * only set on the graphics object when they differ from its current state.
+ * The state is read from the graphics object each time, so the graphics
+ * object may be modified directly between calls and a painter can be reused
+ * for several frames.
+ */
 public class AwtPainter extends AbstractPainter
 {
 
 	private Graphics2D g;
 	private GenericPaintInfo paintInfo;
+	private TextCache textCache;
 
 	public AwtPainter(Graphics2D g)
+	{
+		this(g, TextCache.getShared());
+	}
+
+	public AwtPainter(Graphics2D g, TextCache textCache)
 	{
 		this.g = g;
+		this.textCache = textCache;
 	}
 
 	@Override
@@ -98,6 +109,28 @@ public class AwtPainter extends AbstractPainter
 		drawShape(arc);
 	}
 
+	@Override
+	public boolean supportsBatches()
+	{
+		return true;
+	}
+
+	@Override
+	public void drawCircles(CoordinateBuffer centers, double radius)
+	{
+		float[] coordinates = centers.getCoordinates();
+		int n = centers.size();
+		Path2D path = new Path2D.Float(Path2D.WIND_NON_ZERO, n * 5);
+		Ellipse2D circle = new Ellipse2D.Double();
+		for (int i = 0; i < n; i++) {
+			double x = coordinates[i * 2];
+			double y = coordinates[i * 2 + 1];
+			circle.setFrame(x - radius, y - radius, radius * 2, radius * 2);
+			path.append(circle, false);
+		}
+		drawShape(path);
+	}
+
 	@Override
 	public void draw(QuadraticSpline spline)
 	{
@@ -148,11 +181,8 @@ public class AwtPainter extends AbstractPainter
 	{
 		AffineTransform backup = g.getTransform();
 
-		FontRenderContext frc = g.getFontRenderContext();
-		Font f = g.getFont();
-
-		TextLayout layout = new TextLayout(string, f, frc);
-		Shape outline = layout.getOutline(null);
+		Shape outline = textCache.getOutline(g.getFont(),
+				g.getFontRenderContext(), string);
 		g.translate(x, y);
 		g.draw(outline);
 
@@ -163,24 +193,24 @@ public class AwtPainter extends AbstractPainter
 	public int getStringWidth(String string)
 	{
 		FontMetrics metrics = g.getFontMetrics();
-		return metrics.stringWidth(string);
+		return textCache.getWidth(metrics, string);
 	}
 
 	@Override
 	public void setPaintInfo(IPaintInfo paintInfo)
 	{
 		this.paintInfo = (GenericPaintInfo) paintInfo;
-		GenericPaintInfo paint = (GenericPaintInfo) paintInfo;
-		ColorCode color = paint.getColor();
-		int join = AwtPaintInfo.getJoin(paint.getJoin());
-		int cap = AwtPaintInfo.getCap(paint.getCap());
-		g.setStroke(new BasicStroke(paint.getWidth(), cap, join));
-		g.setColor(new Color(color.getValue(), true));
-
-		String family = Font.SANS_SERIF;
-		int style = Font.BOLD;
-		Font font = new Font(family, style, paint.getFontSize());
-		g.setFont(font);
+		AwtPaintState state = AwtPaintState.get(this.paintInfo);
+
+		if (!state.getStroke().equals(g.getStroke())) {
+			g.setStroke(state.getStroke());
+		}
+		if (!state.getColor().equals(g.getColor())) {
+			g.setColor(state.getColor());
+		}
+		if (!state.getFont().equals(g.getFont())) {
+			g.setFont(state.getFont());
+		}
 	}
 
 	@Override
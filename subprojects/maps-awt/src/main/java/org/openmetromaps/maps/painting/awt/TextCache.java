@@ -0,0 +1,158 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.painting.awt;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Shape;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextLayout;
+import java.awt.geom.Path2D;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded least recently used cache of text measurements and glyph outlines
+ * keyed by font, font render context and string. Outlines are stored relative
+ * to the origin and need to be translated to the text position for drawing.
+ * 
+ * The cache is safe to use from several threads.
+ */
+public class TextCache
+{
+
+	public static final int DEFAULT_MAX_ENTRIES = 4096;
+
+	private static final TextCache SHARED = new TextCache(DEFAULT_MAX_ENTRIES);
+
+	public static TextCache getShared()
+	{
+		return SHARED;
+	}
+
+	private static class Key
+	{
+
+		private Font font;
+		private FontRenderContext frc;
+		private String text;
+		private int hash;
+
+		Key(Font font, FontRenderContext frc, String text)
+		{
+			this.font = font;
+			this.frc = frc;
+			this.text = text;
+			hash = (font.hashCode() * 31 + frc.hashCode()) * 31
+					+ text.hashCode();
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return text.equals(other.text) && font.equals(other.font)
+					&& frc.equals(other.frc);
+		}
+
+	}
+
+	private static class Entry
+	{
+
+		int width = -1;
+		Path2D outline = null;
+
+	}
+
+	private LinkedHashMap<Key, Entry> entries;
+
+	public TextCache(final int maxEntries)
+	{
+		entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest)
+			{
+				return size() > maxEntries;
+			}
+
+		};
+	}
+
+	public synchronized int size()
+	{
+		return entries.size();
+	}
+
+	public synchronized void clear()
+	{
+		entries.clear();
+	}
+
+	private Entry entry(Font font, FontRenderContext frc, String text)
+	{
+		Key key = new Key(font, frc, text);
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			entry = new Entry();
+			entries.put(key, entry);
+		}
+		return entry;
+	}
+
+	/**
+	 * @return the advance width of the text as reported by the metrics.
+	 */
+	public synchronized int getWidth(FontMetrics metrics, String text)
+	{
+		Entry entry = entry(metrics.getFont(), metrics.getFontRenderContext(),
+				text);
+		if (entry.width < 0) {
+			entry.width = metrics.stringWidth(text);
+		}
+		return entry.width;
+	}
+
+	/**
+	 * @return the outline of the text with its baseline starting at the
+	 *         origin. The returned shape must not be modified.
+	 */
+	public synchronized Shape getOutline(Font font, FontRenderContext frc,
+			String text)
+	{
+		Entry entry = entry(font, frc, text);
+		if (entry.outline == null) {
+			TextLayout layout = new TextLayout(text, font, frc);
+			entry.outline = new Path2D.Float(layout.getOutline(null));
+		}
+		return entry.outline;
+	}
+
+}
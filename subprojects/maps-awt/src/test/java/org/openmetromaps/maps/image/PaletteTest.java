@@ -0,0 +1,84 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.image;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PaletteTest
+{
+
+	private static int nearest(Palette palette, int rgb)
+	{
+		int best = 0;
+		int bestDistance = Integer.MAX_VALUE;
+		for (int i = 0; i < palette.size(); i++) {
+			int color = palette.getColor(i);
+			int dr = ((rgb >> 16) & 0xFF) - ((color >> 16) & 0xFF);
+			int dg = ((rgb >> 8) & 0xFF) - ((color >> 8) & 0xFF);
+			int db = (rgb & 0xFF) - (color & 0xFF);
+			int distance = dr * dr + dg * dg + db * db;
+			if (distance < bestDistance) {
+				best = i;
+				bestDistance = distance;
+			}
+		}
+		return best;
+	}
+
+	@Test
+	public void testExactColors()
+	{
+		Palette palette = Palette.forFlatColors(
+				Arrays.asList(0xFF0000, 0x00FF00, 0x0000FF, 0x123456));
+		for (int i = 0; i < palette.size(); i++) {
+			int color = palette.getColor(i);
+			Assert.assertEquals(color, palette.getColor(palette.index(color)));
+			// the alpha channel is ignored
+			Assert.assertEquals(color,
+					palette.getColor(palette.index(0xFF000000 | color)));
+		}
+	}
+
+	@Test
+	public void testNearestColors()
+	{
+		Palette palette = Palette
+				.forFlatColors(Arrays.asList(0xE3000F, 0x009EE3, 0x7A3B8F));
+		Random random = new Random(1);
+		// more distinct colors than the initial lookup table holds
+		int[] colors = new int[5000];
+		for (int i = 0; i < colors.length; i++) {
+			colors[i] = random.nextInt(0x1000000);
+		}
+		for (int pass = 0; pass < 2; pass++) {
+			for (int rgb : colors) {
+				Assert.assertEquals(nearest(palette, rgb),
+						palette.index(rgb));
+			}
+		}
+		// black and white are always part of the palette
+		Assert.assertEquals(0xFFFFFF,
+				palette.getColor(palette.index(0xFFFFFF)));
+		Assert.assertEquals(0x000000, palette.getColor(palette.index(0)));
+	}
+
+}
@@ -0,0 +1,167 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.image;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PngStreamEncoderTest
+{
+
+	private ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	@After
+	public void shutdown()
+	{
+		executor.shutdownNow();
+	}
+
+	/*
+	 * Flat areas with a noisy stripe, large enough to be split into several
+	 * compression chunks.
+	 */
+	private static BufferedImage createImage(int width, int height,
+			int[] colors)
+	{
+		BufferedImage image = new BufferedImage(width, height,
+				BufferedImage.TYPE_INT_RGB);
+		Random random = new Random(1);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int rgb;
+				if (x < width / 3) {
+					rgb = colors[(y / 50) % colors.length];
+				} else if (x < 2 * width / 3) {
+					rgb = colors[random.nextInt(colors.length)];
+				} else {
+					rgb = colors[((x + y) / 7) % colors.length];
+				}
+				image.setRGB(x, y, rgb);
+			}
+		}
+		return image;
+	}
+
+	private byte[] encode(BufferedImage image, Palette palette, int bandHeight,
+			int maxPending) throws IOException
+	{
+		int width = image.getWidth();
+		int height = image.getHeight();
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try (PngStreamEncoder encoder = new PngStreamEncoder(baos, width,
+				height, palette, executor, Deflater.DEFAULT_COMPRESSION,
+				maxPending)) {
+			// copy each band into a separate image, like the band renderer
+			BufferedImage band = new BufferedImage(width + 10, bandHeight,
+					BufferedImage.TYPE_INT_ARGB);
+			for (int y = 0; y < height; y += bandHeight) {
+				int rows = Math.min(bandHeight, height - y);
+				for (int r = 0; r < rows; r++) {
+					for (int x = 0; x < width; x++) {
+						band.setRGB(x + 10, r, image.getRGB(x, y + r));
+					}
+				}
+				encoder.writeRows(band, 10, 0, rows);
+			}
+			Assert.assertEquals(height, encoder.getRowsWritten());
+			encoder.finish();
+		}
+		return baos.toByteArray();
+	}
+
+	private static void assertPixels(BufferedImage expected,
+			BufferedImage actual)
+	{
+		Assert.assertNotNull(actual);
+		Assert.assertEquals(expected.getWidth(), actual.getWidth());
+		Assert.assertEquals(expected.getHeight(), actual.getHeight());
+		for (int y = 0; y < expected.getHeight(); y++) {
+			for (int x = 0; x < expected.getWidth(); x++) {
+				if ((expected.getRGB(x, y) & 0xFFFFFF) != (actual.getRGB(x, y)
+						& 0xFFFFFF)) {
+					Assert.fail(String.format("pixel %d,%d: %06x != %06x", x,
+							y, expected.getRGB(x, y) & 0xFFFFFF,
+							actual.getRGB(x, y) & 0xFFFFFF));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testRgb() throws IOException
+	{
+		int[] colors = new int[64];
+		Random random = new Random(2);
+		for (int i = 0; i < colors.length; i++) {
+			colors[i] = random.nextInt(0x1000000);
+		}
+		// about 3 MB of filtered scanlines, that is several chunks
+		BufferedImage image = createImage(500, 2000, colors);
+		byte[] png = encode(image, null, 128, 2);
+		assertPixels(image, ImageIO.read(new ByteArrayInputStream(png)));
+	}
+
+	@Test
+	public void testIndexed() throws IOException
+	{
+		Palette palette = Palette.forFlatColors(
+				Arrays.asList(0xE3000F, 0x009EE3, 0x7A3B8F, 0x00A651));
+		int[] colors = new int[palette.size()];
+		for (int i = 0; i < colors.length; i++) {
+			colors[i] = palette.getColor(i);
+		}
+		BufferedImage image = createImage(1500, 1500, colors);
+		byte[] png = encode(image, palette, 100, 1);
+		assertPixels(image, ImageIO.read(new ByteArrayInputStream(png)));
+	}
+
+	@Test
+	public void testSingleBand() throws IOException
+	{
+		BufferedImage image = createImage(37, 11,
+				new int[] { 0xFFFFFF, 0x000000, 0x336699 });
+		byte[] png = encode(image, null, 11, 4);
+		assertPixels(image, ImageIO.read(new ByteArrayInputStream(png)));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testMissingRows() throws IOException
+	{
+		try (PngStreamEncoder encoder = new PngStreamEncoder(
+				new ByteArrayOutputStream(), 10, 10, null, executor,
+				Deflater.DEFAULT_COMPRESSION, 2)) {
+			encoder.writeRows(new BufferedImage(10, 5,
+					BufferedImage.TYPE_INT_RGB), 0, 0, 5);
+			encoder.finish();
+		}
+	}
+
+}
@@ -48,7 +48,14 @@ public class BatikImageUtil
 			int height, double x, double y, double zoom,
 			StationMode stationMode, SegmentMode segmentMode) throws IOException
 	{
-		MapView view = model.getViews().get(0);
+		createImage(model.getViews().get(0), path, width, height, x, y, zoom,
+				stationMode, segmentMode);
+	}
+
+	public static void createImage(MapView view, Path path, int width,
+			int height, double x, double y, double zoom,
+			StationMode stationMode, SegmentMode segmentMode) throws IOException
+	{
 		LineNetwork lineNetwork = view.getLineNetwork();
 		MapViewStatus mapViewStatus = new MapViewStatus();
 
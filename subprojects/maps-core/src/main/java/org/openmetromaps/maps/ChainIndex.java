@@ -0,0 +1,235 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.openmetromaps.maps.graph.Edge;
+import org.openmetromaps.maps.graph.NetworkLine;
+import org.openmetromaps.maps.graph.Node;
+
+import de.topobyte.lightgeom.lina.Point;
+import de.topobyte.viewports.geometry.Envelope;
+
+/**
+ * Decomposition of a {@link VisibleNetwork} into chains: maximal paths whose
+ * interior nodes have exactly two visible edges that carry the same lines.
+ * Every visible edge belongs to exactly one chain. Chains are indexed
+ * spatially for culling against the viewport.
+ */
+public class ChainIndex
+{
+
+	public static class Chain
+	{
+
+		private List<Node> nodes;
+		private List<NetworkLine> lines;
+
+		Chain(List<Node> nodes, List<NetworkLine> lines)
+		{
+			this.nodes = nodes;
+			this.lines = lines;
+		}
+
+		public List<Node> getNodes()
+		{
+			return nodes;
+		}
+
+		public List<NetworkLine> getLines()
+		{
+			return lines;
+		}
+
+	}
+
+	/**
+	 * The result of a query, to be owned by a single thread.
+	 */
+	public static class Result
+	{
+
+		private SpatialGrid.Result grid = new SpatialGrid.Result();
+		private List<Chain> chains = new ArrayList<>();
+
+		public int getNumChains()
+		{
+			return grid.getNumResults();
+		}
+
+		public Chain getChain(int i)
+		{
+			return chains.get(grid.getResult(i));
+		}
+
+	}
+
+	private VisibleNetwork visibleNetwork;
+
+	private boolean valid = false;
+	private List<Chain> chains = new ArrayList<>();
+	private SpatialGrid grid = new SpatialGrid();
+
+	public ChainIndex(VisibleNetwork visibleNetwork)
+	{
+		this.visibleNetwork = visibleNetwork;
+	}
+
+	public void invalidate()
+	{
+		valid = false;
+	}
+
+	public void ensureValid()
+	{
+		if (valid) {
+			return;
+		}
+		rebuild();
+		valid = true;
+	}
+
+	public List<Chain> getChains()
+	{
+		return chains;
+	}
+
+	/**
+	 * Query chains intersecting the specified envelope and store them in the
+	 * specified result.
+	 */
+	public void query(Envelope envelope, Result result)
+	{
+		grid.query(envelope, result.grid);
+		result.chains = chains;
+	}
+
+	private boolean isInterior(Node node)
+	{
+		List<Edge> edges = visibleNetwork.getEdges(node);
+		if (edges.size() != 2) {
+			return false;
+		}
+		List<NetworkLine> a = visibleNetwork.getLines(edges.get(0));
+		List<NetworkLine> b = visibleNetwork.getLines(edges.get(1));
+		if (a.size() != b.size()) {
+			return false;
+		}
+		for (NetworkLine line : b) {
+			if (!containsLine(a, line)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean containsLine(List<NetworkLine> lines,
+			NetworkLine line)
+	{
+		for (NetworkLine other : lines) {
+			if (other == line) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static Node other(Edge edge, Node node)
+	{
+		return edge.n1 == node ? edge.n2 : edge.n1;
+	}
+
+	private static Edge other(List<Edge> edges, Edge edge)
+	{
+		return edges.get(0) == edge ? edges.get(1) : edges.get(0);
+	}
+
+	private void rebuild()
+	{
+		chains = new ArrayList<>();
+
+		List<Edge> edges = visibleNetwork.getEdges();
+		Set<Edge> done = new HashSet<>();
+		for (Edge start : edges) {
+			if (!done.add(start)) {
+				continue;
+			}
+
+			// walk backwards from n1, then forwards from n2
+			List<Node> backward = walk(start, start.n1, done);
+			List<Node> forward = walk(start, start.n2, done);
+
+			List<Node> nodes = new ArrayList<>(
+					backward.size() + forward.size());
+			for (int i = backward.size() - 1; i >= 0; i--) {
+				nodes.add(backward.get(i));
+			}
+			nodes.addAll(forward);
+
+			chains.add(new Chain(nodes, visibleNetwork.getLines(start)));
+		}
+
+		final int n = chains.size();
+		double[] bounds = new double[n * 4];
+		for (int i = 0; i < n; i++) {
+			double minX = Double.POSITIVE_INFINITY;
+			double minY = Double.POSITIVE_INFINITY;
+			double maxX = Double.NEGATIVE_INFINITY;
+			double maxY = Double.NEGATIVE_INFINITY;
+			for (Node node : chains.get(i).nodes) {
+				Point p = node.location;
+				minX = Math.min(minX, p.x);
+				minY = Math.min(minY, p.y);
+				maxX = Math.max(maxX, p.x);
+				maxY = Math.max(maxY, p.y);
+			}
+			bounds[i * 4] = minX;
+			bounds[i * 4 + 1] = minY;
+			bounds[i * 4 + 2] = maxX;
+			bounds[i * 4 + 3] = maxY;
+		}
+		grid.build(n, bounds);
+	}
+
+	/**
+	 * Follow the chain starting with the specified edge beyond the specified
+	 * node as long as nodes are interior nodes.
+	 * 
+	 * @return the nodes encountered, beginning with the specified node.
+	 */
+	private List<Node> walk(Edge edge, Node node, Set<Edge> done)
+	{
+		List<Node> nodes = new ArrayList<>();
+		nodes.add(node);
+		while (isInterior(node)) {
+			edge = other(visibleNetwork.getEdges(node), edge);
+			if (!done.add(edge)) {
+				// closed loop
+				break;
+			}
+			node = other(edge, node);
+			nodes.add(node);
+		}
+		return nodes;
+	}
+
+}
@@ -23,21 +23,30 @@ import de.topobyte.lightgeom.lina.Vector2;
 public class EdgeUtil
 {
 
-	private static Point lpp, lnp;
-	private static Vector2 v1, v2;
-
-	static {
-		lpp = new Point(0, 0);
-		lnp = new Point(0, 0);
-		v1 = new Vector2(0, 0);
-		v2 = new Vector2(0, 0);
+	// Scratch objects, one set per thread so that several renderers can work
+	// concurrently
+	private static class Scratch
+	{
+
+		Point lpp = new Point(0, 0);
+		Point lnp = new Point(0, 0);
+		Vector2 v1 = new Vector2(0, 0);
+		Vector2 v2 = new Vector2(0, 0);
+
 	}
 
+	private static ThreadLocal<Scratch> scratch = ThreadLocal
+			.withInitial(Scratch::new);
+
 	public static void segmentInfo(SegmentEndPointPaintInfo spiA,
 			SegmentEndPointPaintInfo spiB, double ax, double ay, double bx,
 			double by, Point lp, Point ln, LocationToPoint ltp, float lineWidth,
 			float spreadFactor, int nLines)
 	{
+		Scratch s = scratch.get();
+		Point lpp = s.lpp, lnp = s.lnp;
+		Vector2 v1 = s.v1, v2 = s.v2;
+
 		if (lp != null) {
 			lpp = ltp.getPoint(lp, lpp);
 			v1.set(lpp.x, lpp.y, bx, by);
@@ -65,6 +74,10 @@ public class EdgeUtil
 			double by, Point lp, LocationToPoint ltp, float lineWidth,
 			float spreadFactor, int nLines)
 	{
+		Scratch s = scratch.get();
+		Point lpp = s.lpp;
+		Vector2 v1 = s.v1;
+
 		if (lp != null) {
 			lpp = ltp.getPoint(lp, lpp);
 			v1.set(lpp.x, lpp.y, bx, by);
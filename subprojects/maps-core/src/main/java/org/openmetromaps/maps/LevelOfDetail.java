@@ -0,0 +1,111 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps;
+
+import org.openmetromaps.maps.graph.Node;
+
+/**
+ * Zoom thresholds below which {@link PlanRenderer} simplifies the map:
+ * <ul>
+ * <li>below the bundle zoom, the lines of an edge are drawn as a single thick
+ * stroke instead of one offset curve per line,</li>
+ * <li>below the chain zoom, chains of degree-2 nodes that share the same lines
+ * are drawn as single polylines,</li>
+ * <li>below the dot zoom, stations with a rank lower than the dot rank are
+ * drawn as plain dots.</li>
+ * </ul>
+ * Collapsing chains implies bundling. Renderers use {@link #NONE} unless
+ * configured otherwise, interactive map panels use {@link #DEFAULT}.
+ */
+public class LevelOfDetail
+{
+
+	public static final LevelOfDetail NONE = new LevelOfDetail(0, 0, 0, 0);
+
+	public static final LevelOfDetail DEFAULT = new LevelOfDetail(1.5, 1.0,
+			2.2, 2);
+
+	private double bundleZoom;
+	private double chainZoom;
+	private double dotZoom;
+	private int dotRank;
+
+	public LevelOfDetail(double bundleZoom, double chainZoom, double dotZoom,
+			int dotRank)
+	{
+		this.bundleZoom = bundleZoom;
+		this.chainZoom = chainZoom;
+		this.dotZoom = dotZoom;
+		this.dotRank = dotRank;
+	}
+
+	public double getBundleZoom()
+	{
+		return bundleZoom;
+	}
+
+	public double getChainZoom()
+	{
+		return chainZoom;
+	}
+
+	public double getDotZoom()
+	{
+		return dotZoom;
+	}
+
+	public int getDotRank()
+	{
+		return dotRank;
+	}
+
+	public boolean isBundle(double zoom)
+	{
+		return zoom < bundleZoom || isCollapseChains(zoom);
+	}
+
+	public boolean isCollapseChains(double zoom)
+	{
+		return zoom < chainZoom;
+	}
+
+	public boolean isDot(double zoom, Node node)
+	{
+		return zoom < dotZoom && node.rank < dotRank;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return Double.hashCode(bundleZoom) * 31 * 31 * 31
+				+ Double.hashCode(chainZoom) * 31 * 31
+				+ Double.hashCode(dotZoom) * 31 + dotRank;
+	}
+
+	@Override
+	public boolean equals(Object obj)
+	{
+		if (!(obj instanceof LevelOfDetail)) {
+			return false;
+		}
+		LevelOfDetail other = (LevelOfDetail) obj;
+		return bundleZoom == other.bundleZoom && chainZoom == other.chainZoom
+				&& dotZoom == other.dotZoom && dotRank == other.dotRank;
+	}
+
+}
@@ -17,97 +17,389 @@
 
 package org.openmetromaps.maps;
 
-import java.util.List;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Set;
 
+import org.openmetromaps.maps.graph.LineNetwork;
 import org.openmetromaps.maps.graph.NetworkLine;
 import org.openmetromaps.maps.graph.Node;
 
+/**
+ * Selection and visibility state of a map view. Nodes and lines are assigned
+ * dense indices the first time they are used with a status and selection and
+ * visibility are stored as bit sets over those indices, so that all queries
+ * run in constant time. Listeners are told which indices changed. Indices are
+ * released by {@link #retain(LineNetwork)}, which needs to be called whenever
+ * the status is used with another network or the structure of its network
+ * changed.
+ */
 public class MapViewStatus
 {
 
-    private List<Node> selectedNodes = new ArrayList<>();
-	private Set<NetworkLine> hiddenLines = new HashSet<>();
-	private Set<NetworkLine> selectedLines = new HashSet<>();
+	private ObjectIndex<Node> nodeIndex = new ObjectIndex<>();
+	private ObjectIndex<NetworkLine> lineIndex = new ObjectIndex<>();
+
+	private BitSet selectedNodes = new BitSet();
+	private BitSet hiddenLines = new BitSet();
+	private BitSet selectedLines = new BitSet();
+
+	// Selected nodes in the order of selection
+	private List<Node> selectedNodesList = new ArrayList<>();
+
+	private int hiddenLinesVersion = 0;
+	private int version = 0;
+
+	private List<MapViewStatusListener> listeners = new ArrayList<>();
+
+	public void addListener(MapViewStatusListener listener)
+	{
+		listeners.add(listener);
+	}
+
+	public void removeListener(MapViewStatusListener listener)
+	{
+		listeners.remove(listener);
+	}
+
+	/**
+	 * @return the index of the node or -1 if the node has never been used
+	 *         with this status.
+	 */
+	public int getNodeIndex(Node node)
+	{
+		return nodeIndex.get(node);
+	}
+
+	public Node getNode(int index)
+	{
+		return nodeIndex.getObject(index);
+	}
+
+	/**
+	 * @return the index of the line or -1 if the line has never been used
+	 *         with this status.
+	 */
+	public int getLineIndex(NetworkLine line)
+	{
+		return lineIndex.get(line);
+	}
+
+	public NetworkLine getLine(int index)
+	{
+		return lineIndex.getObject(index);
+	}
+
+	/**
+	 * Drop all nodes and lines that are not part of the specified network
+	 * from the selection and the hidden lines and assign new indices to the
+	 * remaining ones, so that objects of previous networks can be garbage
+	 * collected. Listeners are told that all previously assigned indices
+	 * changed, including those that are no longer assigned.
+	 */
+	public void retain(LineNetwork network)
+	{
+		Set<Node> nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+		nodes.addAll(network.getNodes());
+		Set<NetworkLine> lines = Collections
+				.newSetFromMap(new IdentityHashMap<>());
+		lines.addAll(network.getLines());
+
+		ObjectIndex<NetworkLine> oldLineIndex = lineIndex;
+		int numNodes = nodeIndex.size();
+		int numLines = lineIndex.size();
+
+		nodeIndex = new ObjectIndex<>();
+		lineIndex = new ObjectIndex<>();
+
+		selectedNodesList.removeIf(node -> !nodes.contains(node));
+		selectedNodes = new BitSet();
+		for (Node node : selectedNodesList) {
+			selectedNodes.set(nodeIndex.add(node));
+		}
+		hiddenLines = retain(oldLineIndex, hiddenLines, lines);
+		selectedLines = retain(oldLineIndex, selectedLines, lines);
+
+		fireNodeSelectionChanged(all(numNodes));
+		fireHiddenLinesChanged(all(numLines));
+		fireLineSelectionChanged(all(numLines));
+	}
+
+	private BitSet retain(ObjectIndex<NetworkLine> oldLineIndex, BitSet bits,
+			Set<NetworkLine> lines)
+	{
+		BitSet result = new BitSet();
+		for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+			NetworkLine line = oldLineIndex.getObject(i);
+			if (lines.contains(line)) {
+				result.set(lineIndex.add(line));
+			}
+		}
+		return result;
+	}
+
+	private static BitSet all(int n)
+	{
+		BitSet bits = new BitSet();
+		bits.set(0, n);
+		return bits;
+	}
+
+	/*
+	 * Nodes
+	 */
 
 	public boolean isNodeSelected(Node node)
 	{
-		return selectedNodes.contains(node);
+		int index = nodeIndex.get(node);
+		return index >= 0 && selectedNodes.get(index);
 	}
 
 	public void selectNode(Node node)
 	{
-		selectedNodes.add(node);
+		selectNodes(Collections.singletonList(node));
+	}
+
+	public void selectNodes(Collection<Node> nodes)
+	{
+		BitSet changed = new BitSet();
+		for (Node node : nodes) {
+			int index = nodeIndex.add(node);
+			if (!selectedNodes.get(index)) {
+				selectedNodes.set(index);
+				selectedNodesList.add(node);
+				changed.set(index);
+			}
+		}
+		fireNodeSelectionChanged(changed);
 	}
 
 	public void unselectNode(Node node)
 	{
-		selectedNodes.remove(node);
+		unselectNodes(Collections.singletonList(node));
+	}
+
+	public void unselectNodes(Collection<Node> nodes)
+	{
+		BitSet changed = new BitSet();
+		for (Node node : nodes) {
+			int index = nodeIndex.get(node);
+			if (index >= 0 && selectedNodes.get(index)) {
+				selectedNodes.clear(index);
+				changed.set(index);
+			}
+		}
+		if (!changed.isEmpty()) {
+			selectedNodesList
+					.removeIf(node -> changed.get(nodeIndex.get(node)));
+		}
+		fireNodeSelectionChanged(changed);
 	}
 
 	public void selectNoNodes()
 	{
+		BitSet changed = (BitSet) selectedNodes.clone();
 		selectedNodes.clear();
+		selectedNodesList.clear();
+		fireNodeSelectionChanged(changed);
 	}
 
 	public int getNumSelectedNodes()
 	{
-		return selectedNodes.size();
+		return selectedNodesList.size();
 	}
 
+	/**
+	 * @return the selected nodes in the order they have been selected.
+	 */
 	public List<Node> getSelectedNodes()
 	{
-		return Collections.unmodifiableList(selectedNodes);
+		return Collections.unmodifiableList(selectedNodesList);
 	}
 
-	public boolean isLineHidden(NetworkLine line) {
-		return hiddenLines.contains(line);
+	/*
+	 * Hidden lines
+	 */
+
+	public boolean isLineHidden(NetworkLine line)
+	{
+		int index = lineIndex.get(line);
+		return index >= 0 && hiddenLines.get(index);
 	}
 
-	public void hideLine(NetworkLine line) {
-		hiddenLines.add(line);
+	public void hideLine(NetworkLine line)
+	{
+		hideLines(Collections.singletonList(line));
 	}
 
-	public void unhideLine(NetworkLine line) {
-		hiddenLines.remove(line);
+	public void hideLines(Collection<NetworkLine> lines)
+	{
+		BitSet changed = new BitSet();
+		for (NetworkLine line : lines) {
+			int index = lineIndex.add(line);
+			if (!hiddenLines.get(index)) {
+				hiddenLines.set(index);
+				changed.set(index);
+			}
+		}
+		fireHiddenLinesChanged(changed);
 	}
 
-	public void hideNoLines() {
+	public void unhideLine(NetworkLine line)
+	{
+		unhideLines(Collections.singletonList(line));
+	}
+
+	public void unhideLines(Collection<NetworkLine> lines)
+	{
+		BitSet changed = new BitSet();
+		for (NetworkLine line : lines) {
+			int index = lineIndex.get(line);
+			if (index >= 0 && hiddenLines.get(index)) {
+				hiddenLines.clear(index);
+				changed.set(index);
+			}
+		}
+		fireHiddenLinesChanged(changed);
+	}
+
+	public void hideNoLines()
+	{
+		BitSet changed = (BitSet) hiddenLines.clone();
 		hiddenLines.clear();
+		fireHiddenLinesChanged(changed);
 	}
 
-	public int getNumHiddenLines() {
-		return hiddenLines.size();
+	public int getNumHiddenLines()
+	{
+		return hiddenLines.cardinality();
 	}
 
-	public Set<NetworkLine> getHiddenLines() {
-		return Collections.unmodifiableSet(hiddenLines);
+	public Set<NetworkLine> getHiddenLines()
+	{
+		return lineIndex.getObjects(hiddenLines);
 	}
 
-	public boolean isLineSelected(NetworkLine line) {
-		return selectedLines.contains(line);
+	/**
+	 * @return a counter that changes whenever the set of hidden lines changes.
+	 */
+	public int getHiddenLinesVersion()
+	{
+		return hiddenLinesVersion;
 	}
 
-	public void selectLine(NetworkLine line) {
-		selectedLines.add(line);
+	/**
+	 * @return a counter that changes whenever the selection or the set of
+	 *         hidden lines changes.
+	 */
+	public int getVersion()
+	{
+		return version;
 	}
 
-	public void unselectLine(NetworkLine line) {
-		selectedLines.remove(line);
+	/*
+	 * Selected lines
+	 */
+
+	public boolean isLineSelected(NetworkLine line)
+	{
+		int index = lineIndex.get(line);
+		return index >= 0 && selectedLines.get(index);
 	}
 
-	public void selectNoLines() {
+	public void selectLine(NetworkLine line)
+	{
+		selectLines(Collections.singletonList(line));
+	}
+
+	public void selectLines(Collection<NetworkLine> lines)
+	{
+		BitSet changed = new BitSet();
+		for (NetworkLine line : lines) {
+			int index = lineIndex.add(line);
+			if (!selectedLines.get(index)) {
+				selectedLines.set(index);
+				changed.set(index);
+			}
+		}
+		fireLineSelectionChanged(changed);
+	}
+
+	public void unselectLine(NetworkLine line)
+	{
+		unselectLines(Collections.singletonList(line));
+	}
+
+	public void unselectLines(Collection<NetworkLine> lines)
+	{
+		BitSet changed = new BitSet();
+		for (NetworkLine line : lines) {
+			int index = lineIndex.get(line);
+			if (index >= 0 && selectedLines.get(index)) {
+				selectedLines.clear(index);
+				changed.set(index);
+			}
+		}
+		fireLineSelectionChanged(changed);
+	}
+
+	public void selectNoLines()
+	{
+		BitSet changed = (BitSet) selectedLines.clone();
 		selectedLines.clear();
+		fireLineSelectionChanged(changed);
 	}
 
-	public int getNumSelectedLines() {
-		return selectedLines.size();
+	public int getNumSelectedLines()
+	{
+		return selectedLines.cardinality();
 	}
 
-	public Set<NetworkLine> getSelectedLines() {
-		return Collections.unmodifiableSet(selectedLines);
+	public Set<NetworkLine> getSelectedLines()
+	{
+		return lineIndex.getObjects(selectedLines);
 	}
+
+	/*
+	 * Listeners
+	 */
+
+	private void fireNodeSelectionChanged(BitSet changed)
+	{
+		if (changed.isEmpty()) {
+			return;
+		}
+		version++;
+		for (MapViewStatusListener listener : listeners) {
+			listener.nodeSelectionChanged(this, changed);
+		}
+	}
+
+	private void fireLineSelectionChanged(BitSet changed)
+	{
+		if (changed.isEmpty()) {
+			return;
+		}
+		version++;
+		for (MapViewStatusListener listener : listeners) {
+			listener.lineSelectionChanged(this, changed);
+		}
+	}
+
+	private void fireHiddenLinesChanged(BitSet changed)
+	{
+		if (changed.isEmpty()) {
+			return;
+		}
+		hiddenLinesVersion++;
+		version++;
+		for (MapViewStatusListener listener : listeners) {
+			listener.hiddenLinesChanged(this, changed);
+		}
+	}
+
 }
@@ -0,0 +1,36 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps;
+
+import java.util.BitSet;
+
+/**
+ * Gets notified about changes of a {@link MapViewStatus}. The bit sets
+ * contain the indices of the nodes or lines whose state changed, see
+ * {@link MapViewStatus#getNode(int)} and {@link MapViewStatus#getLine(int)}.
+ */
+public interface MapViewStatusListener
+{
+
+	public void nodeSelectionChanged(MapViewStatus status, BitSet nodes);
+
+	public void lineSelectionChanged(MapViewStatus status, BitSet lines);
+
+	public void hiddenLinesChanged(MapViewStatus status, BitSet lines);
+
+}
@@ -172,26 +172,24 @@ public class ModelUtil
 	{
 		LineNetwork network = view.getLineNetwork();
 		for (Node node : network.getNodes()) {
-			Point location = node.location;
-			scale(location, factor);
+			node.location = scale(node.location, factor);
 		}
 
 		for (Edge edge : network.getEdges()) {
-			scale(edge.prev, factor);
-			scale(edge.next, factor);
+			edge.prev = scale(edge.prev, factor);
+			edge.next = scale(edge.next, factor);
 		}
 
 		scale(view.getConfig().getStartPosition(), factor);
 		scale(view.getConfig().getScene(), factor);
 	}
 
-	private static void scale(Point location, double factor)
+	private static Point scale(Point location, double factor)
 	{
 		if (location == null) {
-			return;
+			return null;
 		}
-		location.x = location.x * factor;
-		location.y = location.y * factor;
+		return new Point(location.x * factor, location.y * factor);
 	}
 
 	private static void scale(
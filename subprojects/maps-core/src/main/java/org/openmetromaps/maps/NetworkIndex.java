@@ -0,0 +1,175 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps;
+
+import java.util.List;
+
+import org.openmetromaps.maps.graph.Edge;
+import org.openmetromaps.maps.graph.LineNetwork;
+import org.openmetromaps.maps.graph.Node;
+
+import de.topobyte.lightgeom.lina.Point;
+import de.topobyte.viewports.geometry.Envelope;
+
+/**
+ * Spatial index over the edges and nodes of a {@link VisibleNetwork} used for
+ * culling against the viewport. Results are indices into
+ * {@link VisibleNetwork#getEdges()} and {@link VisibleNetwork#getNodes()}.
+ *
+ * The index is rebuilt lazily when it has been invalidated, when the
+ * modification counter of the network has changed (see
+ * {@link LineNetwork#locationsChanged()}) or when any node of the network has
+ * been moved. Moving a node replaces its location object, so moves are
+ * detected by comparing location references, even if the network has not
+ * been notified.
+ */
+public class NetworkIndex
+{
+
+	/**
+	 * The result of a query, to be owned by a single thread.
+	 */
+	public static class Result
+	{
+
+		private SpatialGrid.Result edges = new SpatialGrid.Result();
+		private SpatialGrid.Result nodes = new SpatialGrid.Result();
+
+		public int getNumEdges()
+		{
+			return edges.getNumResults();
+		}
+
+		public int getEdge(int i)
+		{
+			return edges.getResult(i);
+		}
+
+		public int getNumNodes()
+		{
+			return nodes.getNumResults();
+		}
+
+		public int getNode(int i)
+		{
+			return nodes.getResult(i);
+		}
+
+	}
+
+	private VisibleNetwork visibleNetwork;
+
+	private SpatialGrid edgeGrid = new SpatialGrid();
+	private SpatialGrid nodeGrid = new SpatialGrid();
+
+	private boolean valid = false;
+	private int modCount;
+	// The locations of all nodes of the network when the index was built
+	private Point[] locations = new Point[0];
+
+	public NetworkIndex(VisibleNetwork visibleNetwork)
+	{
+		this.visibleNetwork = visibleNetwork;
+	}
+
+	public void invalidate()
+	{
+		valid = false;
+	}
+
+	/**
+	 * Rebuild the index if necessary.
+	 *
+	 * @return whether the index has been rebuilt.
+	 */
+	public boolean ensureValid()
+	{
+		LineNetwork network = visibleNetwork.getLineNetwork();
+		int current = network.getModCount();
+		if (valid && current == modCount && !moved(network.getNodes())) {
+			return false;
+		}
+		rebuild();
+		valid = true;
+		modCount = current;
+		List<Node> nodes = network.getNodes();
+		final int nNodes = nodes.size();
+		if (locations.length != nNodes) {
+			locations = new Point[nNodes];
+		}
+		for (int i = 0; i < nNodes; i++) {
+			locations[i] = nodes.get(i).location;
+		}
+		return true;
+	}
+
+	private boolean moved(List<Node> nodes)
+	{
+		final int nNodes = nodes.size();
+		if (nNodes != locations.length) {
+			return true;
+		}
+		for (int i = 0; i < nNodes; i++) {
+			if (nodes.get(i).location != locations[i]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void rebuild()
+	{
+		List<Node> nodes = visibleNetwork.getNodes();
+		final int nNodes = nodes.size();
+		double[] nodeBounds = new double[nNodes * 4];
+		for (int i = 0; i < nNodes; i++) {
+			Point location = nodes.get(i).location;
+			nodeBounds[i * 4] = location.x;
+			nodeBounds[i * 4 + 1] = location.y;
+			nodeBounds[i * 4 + 2] = location.x;
+			nodeBounds[i * 4 + 3] = location.y;
+		}
+		nodeGrid.build(nNodes, nodeBounds);
+
+		List<Edge> edges = visibleNetwork.getEdges();
+		final int nEdges = edges.size();
+		double[] edgeBounds = new double[nEdges * 4];
+		for (int i = 0; i < nEdges; i++) {
+			Edge edge = edges.get(i);
+			Point a = edge.n1.location;
+			Point b = edge.n2.location;
+			edgeBounds[i * 4] = Math.min(a.x, b.x);
+			edgeBounds[i * 4 + 1] = Math.min(a.y, b.y);
+			edgeBounds[i * 4 + 2] = Math.max(a.x, b.x);
+			edgeBounds[i * 4 + 3] = Math.max(a.y, b.y);
+		}
+		edgeGrid.build(nEdges, edgeBounds);
+	}
+
+	/**
+	 * Query edges and nodes intersecting the specified envelope and store them
+	 * in the specified result. Once the index is valid, this may be called
+	 * from multiple threads concurrently with distinct result objects.
+	 */
+	public void query(Envelope envelope, Result result)
+	{
+		edgeGrid.query(envelope, result.edges);
+		nodeGrid.query(envelope, result.nodes);
+	}
+
+}
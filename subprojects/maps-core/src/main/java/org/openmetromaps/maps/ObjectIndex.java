@@ -0,0 +1,86 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Assigns dense indices to objects by identity in the order they are added.
+ */
+class ObjectIndex<T>
+{
+
+	private Map<T, Integer> indices = new IdentityHashMap<>();
+	private List<T> objects = new ArrayList<>();
+
+	/**
+	 * @return the index of the object, -1 if it has not been added yet.
+	 */
+	int get(T object)
+	{
+		Integer index = indices.get(object);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * @return the index of the object, assigning a new one if it has not been
+	 *         added yet.
+	 */
+	int add(T object)
+	{
+		Integer index = indices.get(object);
+		if (index != null) {
+			return index;
+		}
+		int next = objects.size();
+		indices.put(object, next);
+		objects.add(object);
+		return next;
+	}
+
+	/**
+	 * @return the number of objects added.
+	 */
+	int size()
+	{
+		return objects.size();
+	}
+
+	T getObject(int index)
+	{
+		return objects.get(index);
+	}
+
+	Set<T> getObjects(BitSet bits)
+	{
+		Set<T> result = new LinkedHashSet<>();
+		for (int i = bits.nextSetBit(0); i >= 0; i = bits
+				.nextSetBit(i + 1)) {
+			result.add(objects.get(i));
+		}
+		return Collections.unmodifiableSet(result);
+	}
+
+}
@@ -17,19 +17,29 @@
 
 package org.openmetromaps.maps;
 
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
-import org.openmetromaps.maps.graph.*;
-import org.openmetromaps.maps.model.Station;
+import org.openmetromaps.maps.graph.Edge;
+import org.openmetromaps.maps.graph.LineNetwork;
+import org.openmetromaps.maps.graph.NetworkLine;
+import org.openmetromaps.maps.graph.Node;
+import org.openmetromaps.maps.labels.Label;
+import org.openmetromaps.maps.labels.LabelLayout;
+import org.openmetromaps.maps.labels.LabelPlacement;
 import org.openmetromaps.maps.painting.core.ColorCode;
 import org.openmetromaps.maps.painting.core.Colors;
+import org.openmetromaps.maps.painting.core.DisplayList;
 import org.openmetromaps.maps.painting.core.IPaintInfo;
 import org.openmetromaps.maps.painting.core.PaintFactory;
 import org.openmetromaps.maps.painting.core.Painter;
+import org.openmetromaps.maps.painting.core.RecordingPainter;
 import org.openmetromaps.maps.painting.core.geom.Path;
+import org.openmetromaps.maps.rendering.components.BundleDrawer;
 import org.openmetromaps.maps.rendering.components.SegmentDrawer;
 import org.openmetromaps.maps.rendering.components.SegmentDrawerCurved;
 import org.openmetromaps.maps.rendering.components.SegmentDrawerStraight;
@@ -37,20 +47,29 @@ import org.openmetromaps.maps.rendering.components.StationDrawer;
 import org.openmetromaps.maps.rendering.components.StationDrawerConvex;
 import org.openmetromaps.maps.rendering.components.StationDrawerDot;
 import org.openmetromaps.maps.rendering.components.StationDrawerSimple;
+import org.openmetromaps.metrics.Counter;
+import org.openmetromaps.metrics.Metrics;
+import org.openmetromaps.metrics.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.infomatiq.jsi.Rectangle;
-
 import de.topobyte.formatting.Formatting;
-import de.topobyte.jsi.intersectiontester.RTreeIntersectionTester;
-import de.topobyte.jsi.intersectiontester.RectangleIntersectionTester;
 import de.topobyte.lightgeom.lina.Point;
 import de.topobyte.viewports.geometry.Envelope;
 import de.topobyte.viewports.scrolling.ViewportListener;
 import de.topobyte.viewports.scrolling.ViewportUtil;
 import de.topobyte.viewports.scrolling.ViewportWithSignals;
 
+/**
+ * Renders a {@link LineNetwork}. The renderer holds the configuration and the
+ * spatial indexes of the network while the state of painting lives in a
+ * {@link RenderContext}. The renderer paints its own viewport using a default
+ * context, while additional contexts created with
+ * {@link #createContext(ViewportWithSignals, LocationToPoint)} allow painting
+ * other regions of the same map, also from several threads concurrently. The
+ * configuration, the network and the {@link MapViewStatus} must not be
+ * modified while painting into other contexts is in progress.
+ */
 public class PlanRenderer implements ViewportListener
 {
 
@@ -67,6 +86,15 @@ public class PlanRenderer implements ViewportListener
 		CURVE
 	}
 
+	public static enum Layer {
+		SEGMENTS,
+		STATIONS,
+		LABELS
+	}
+
+	public static final EnumSet<Layer> ALL_LAYERS = EnumSet
+			.allOf(Layer.class);
+
 	private boolean debugRanks = false;
 	private boolean debugTangents = false;
 
@@ -77,27 +105,46 @@ public class PlanRenderer implements ViewportListener
 	private SegmentMode segmentMode;
 
 	private float scale;
-	private float factor;
 
 	private PaintFactory pf;
 
 	private float baseLineWidth = 3.0f;
 
-	private float lineWidth = 1.0f;
 	private float spreadFactor = 1.8f;
-	private boolean onlyImportant = false;
 
 	private int overDrawPixels = 100;
 
+	private LabelLayout labelLayout = new LabelLayout();
+
+	private LevelOfDetail levelOfDetail = LevelOfDetail.NONE;
+
 	private LineNetwork lineNetwork;
+	private VisibleNetwork visibleNetwork;
+	private NetworkIndex networkIndex;
+	private ChainIndex chainIndex;
+	private Object networkLock = new Object();
+	private int networkVersion = 0;
 	private MapViewStatus mapViewStatus;
 	private Map<NetworkLine, ColorCode> colors = new HashMap<>();
 
 	protected ViewportWithSignals viewport;
-	private LocationToPoint ltp;
 
-	private SegmentDrawer segmentDrawer;
-	private StationDrawer stationDrawer;
+	// incremented whenever contexts need to set up their drawers again
+	private int configVersion = 0;
+	private RenderContext context;
+
+	private boolean useDisplayList = false;
+	private EnumMap<Layer, DisplayList> displayLists = new EnumMap<>(
+			Layer.class);
+	private EnumSet<Layer> recordedLayers = EnumSet.noneOf(Layer.class);
+	private boolean displayListValid = false;
+	private Envelope displayListEnvelope = new Envelope();
+	private Envelope viewEnvelope = new Envelope();
+	private double displayListZoom;
+	private double displayListTx;
+	private double displayListTy;
+	private int displayListNetworkVersion;
+	private int displayListStatusVersion;
 
 	public PlanRenderer(LineNetwork lineNetwork, MapViewStatus mapViewStatus,
 			StationMode stationMode, SegmentMode segmentMode,
@@ -105,9 +152,11 @@ public class PlanRenderer implements ViewportListener
 			PaintFactory pf)
 	{
 		this.lineNetwork = lineNetwork;
+		this.visibleNetwork = new VisibleNetwork(lineNetwork);
+		this.networkIndex = new NetworkIndex(visibleNetwork);
+		this.chainIndex = new ChainIndex(visibleNetwork);
 		this.mapViewStatus = mapViewStatus;
 		this.viewport = viewport;
-		this.ltp = ltp;
 
 		this.segmentMode = segmentMode;
 		this.stationMode = stationMode;
@@ -118,18 +167,101 @@ public class PlanRenderer implements ViewportListener
 			colors.put(line, ModelUtil.getColor(line.line));
 		}
 
-		setupSegmentDrawer();
-		setupStationDrawer();
+		context = new RenderContext(viewport, ltp);
 
 		viewport.addViewportListener(this);
 		zoomChanged();
 	}
 
+	/**
+	 * Create a context for painting the specified viewport with this
+	 * renderer.
+	 */
+	public RenderContext createContext(ViewportWithSignals viewport,
+			LocationToPoint ltp)
+	{
+		return new RenderContext(viewport, ltp);
+	}
+
 	public LineNetwork getLineNetwork()
 	{
 		return lineNetwork;
 	}
 
+	public VisibleNetwork getVisibleNetwork()
+	{
+		return visibleNetwork;
+	}
+
+	public int getOverDrawPixels()
+	{
+		return overDrawPixels;
+	}
+
+	public void setOverDrawPixels(int overDrawPixels)
+	{
+		this.overDrawPixels = overDrawPixels;
+		invalidateDisplayList();
+	}
+
+	public LabelLayout getLabelLayout()
+	{
+		return labelLayout;
+	}
+
+	/**
+	 * Use the specified label layout. Renderers that paint parts of the same
+	 * image can share a layout to compute label placements only once.
+	 */
+	public void setLabelLayout(LabelLayout labelLayout)
+	{
+		this.labelLayout = labelLayout;
+		invalidateDisplayList();
+	}
+
+	public LevelOfDetail getLevelOfDetail()
+	{
+		return levelOfDetail;
+	}
+
+	public void setLevelOfDetail(LevelOfDetail levelOfDetail)
+	{
+		this.levelOfDetail = levelOfDetail;
+		invalidateDisplayList();
+	}
+
+	public boolean isUseDisplayList()
+	{
+		return useDisplayList;
+	}
+
+	/**
+	 * Record the drawing commands of each layer and replay them as long as
+	 * only the position of the viewport changes within the area covered by
+	 * the over draw margin. Useful for interactive views that are panned a
+	 * lot. Layers can be painted one at a time: a layer that has not been
+	 * recorded yet is recorded as long as the viewport did not move.
+	 */
+	public void setUseDisplayList(boolean useDisplayList)
+	{
+		this.useDisplayList = useDisplayList;
+		invalidateDisplayList();
+	}
+
+	/**
+	 * Force the next frame to be rendered from scratch even when a recorded
+	 * display list is available. Changes of zoom, settings, node locations
+	 * and the {@link MapViewStatus} are detected automatically.
+	 */
+	public void invalidateDisplayList()
+	{
+		displayListValid = false;
+		for (DisplayList displayList : displayLists.values()) {
+			displayList.clear();
+		}
+		recordedLayers.clear();
+	}
+
 	public boolean isRenderLabels()
 	{
 		return isRenderLabels;
@@ -138,6 +270,7 @@ public class PlanRenderer implements ViewportListener
 	public void setRenderLabels(boolean isRenderLabels)
 	{
 		this.isRenderLabels = isRenderLabels;
+		invalidateDisplayList();
 	}
 
 	public boolean isRenderStationCenters()
@@ -148,6 +281,7 @@ public class PlanRenderer implements ViewportListener
 	public void setRenderStationCenters(boolean renderStationCenters)
 	{
 		this.renderStationCenters = renderStationCenters;
+		invalidateDisplayList();
 	}
 
 	public boolean isDebugRanks()
@@ -158,6 +292,7 @@ public class PlanRenderer implements ViewportListener
 	public void setDebugRanks(boolean debugRanks)
 	{
 		this.debugRanks = debugRanks;
+		invalidateDisplayList();
 	}
 
 	public boolean isDebugTangents()
@@ -168,10 +303,7 @@ public class PlanRenderer implements ViewportListener
 	public void setDebugTangents(boolean debugTangents)
 	{
 		this.debugTangents = debugTangents;
-		if (segmentMode == SegmentMode.CURVE) {
-			SegmentDrawerCurved curvedDrawer = (SegmentDrawerCurved) segmentDrawer;
-			curvedDrawer.setDebugTangents(debugTangents);
-		}
+		configChanged();
 	}
 
 	public StationMode getStationMode()
@@ -182,8 +314,7 @@ public class PlanRenderer implements ViewportListener
 	public void setStationMode(StationMode stationMode)
 	{
 		this.stationMode = stationMode;
-		setupStationDrawer();
-		zoomChanged();
+		configChanged();
 	}
 
 	public SegmentMode getSegmentMode()
@@ -194,8 +325,7 @@ public class PlanRenderer implements ViewportListener
 	public void setSegmentMode(SegmentMode segmentMode)
 	{
 		this.segmentMode = segmentMode;
-		setupSegmentDrawer();
-		zoomChanged();
+		configChanged();
 	}
 
 	public float getScale()
@@ -206,44 +336,82 @@ public class PlanRenderer implements ViewportListener
 	public void setScale(float scale)
 	{
 		this.scale = scale;
-		segmentDrawer.setScale(scale);
-		stationDrawer.setScale(scale);
+		configChanged();
 	}
 
-	private void setupStationDrawer()
+	private void configChanged()
 	{
+		configVersion++;
+		invalidateDisplayList();
+	}
+
+	private void setupStationDrawer(RenderContext c)
+	{
+		StationDrawer stationDrawer = null;
 		switch (stationMode) {
 		case DOT:
 			stationDrawer = new StationDrawerDot(pf, lineNetwork, colors, scale,
-					ltp, spreadFactor);
+					c.ltp, spreadFactor);
 			break;
 		case SIMPLE:
 			stationDrawer = new StationDrawerSimple(pf, lineNetwork, colors,
-					scale, ltp, spreadFactor);
+					scale, c.ltp, spreadFactor);
 			break;
 		case CONVEX:
 			stationDrawer = new StationDrawerConvex(pf, lineNetwork, colors,
-					scale, ltp, spreadFactor);
+					scale, c.ltp, spreadFactor);
 			break;
 		}
+		stationDrawer.setVisibleNetwork(visibleNetwork);
+		c.stationDrawer = stationDrawer;
 	}
 
-	private void setupSegmentDrawer()
+	private void setupSegmentDrawer(RenderContext c)
 	{
 		switch (segmentMode) {
 		case STRAIGHT:
-			segmentDrawer = new SegmentDrawerStraight(pf, lineNetwork, colors,
-					scale, ltp, spreadFactor, lineWidth);
+			c.segmentDrawer = new SegmentDrawerStraight(pf, lineNetwork, colors,
+					scale, c.ltp, spreadFactor, c.lineWidth);
 			break;
 		case CURVE:
-			segmentDrawer = new SegmentDrawerCurved(pf, lineNetwork, colors,
-					scale, ltp, spreadFactor, lineWidth);
-			SegmentDrawerCurved curvedDrawer = (SegmentDrawerCurved) segmentDrawer;
+			SegmentDrawerCurved curvedDrawer = new SegmentDrawerCurved(pf,
+					lineNetwork, colors, scale, c.ltp, spreadFactor,
+					c.lineWidth);
 			curvedDrawer.setDebugTangents(debugTangents);
+			c.segmentDrawer = curvedDrawer;
 			break;
 		}
 	}
 
+	/**
+	 * Set up the drawers of the specified context for the current
+	 * configuration and the zoom level of its viewport, if necessary.
+	 */
+	private void prepare(RenderContext c)
+	{
+		if (c.configVersion != configVersion) {
+			setupSegmentDrawer(c);
+			setupStationDrawer(c);
+			c.bundleDrawer = new BundleDrawer(pf, lineNetwork, colors, c.ltp,
+					spreadFactor);
+			c.configVersion = configVersion;
+			c.zoom = Double.NaN;
+		}
+		double zoom = c.viewport.getZoom();
+		if (zoom == c.zoom) {
+			return;
+		}
+		c.zoom = zoom;
+		c.factor = (float) (zoom / 3);
+		c.lineWidth = baseLineWidth * c.factor * scale;
+
+		c.onlyImportant = zoom < 2.2;
+
+		c.segmentDrawer.zoomChanged(c.factor, c.lineWidth);
+		c.stationDrawer.zoomChanged(c.factor, c.lineWidth);
+		c.bundleDrawer.zoomChanged(c.factor, c.lineWidth);
+	}
+
 	@Override
 	public void viewportChanged()
 	{
@@ -259,35 +427,57 @@ public class PlanRenderer implements ViewportListener
 	@Override
 	public void zoomChanged()
 	{
-		double zoom = viewport.getZoom();
-		factor = (float) (zoom / 3);
-		lineWidth = baseLineWidth * factor * scale;
+		context.zoom = Double.NaN;
+		prepare(context);
 
-		onlyImportant = zoom < 2.2;
-
-		segmentDrawer.zoomChanged(factor, lineWidth);
-		stationDrawer.zoomChanged(factor, lineWidth);
+		invalidateDisplayList();
 	}
 
-	private static final String LOG_SEGMENTS = "segments";
-	private static final String LOG_STATIONS = "stations";
-	private static final String LOG_LABELS = "labels";
+	private static final Timer timerFrame = Metrics.timer("render.frame");
+	private static final Timer timerSegments = Metrics
+			.timer("render.segments");
+	private static final Timer timerStations = Metrics
+			.timer("render.stations");
+	private static final Timer timerLabels = Metrics.timer("render.labels");
+
+	private static final Counter counterRecorded = Metrics
+			.counter("render.display-list.recorded");
+	private static final Counter counterReplayed = Metrics
+			.counter("render.display-list.replayed");
+	private static final Counter counterEdgesDrawn = Metrics
+			.counter("render.edges.drawn");
+	private static final Counter counterEdgesCulled = Metrics
+			.counter("render.edges.culled");
+	private static final Counter counterNodesDrawn = Metrics
+			.counter("render.nodes.drawn");
+	private static final Counter counterNodesCulled = Metrics
+			.counter("render.nodes.culled");
+	private static final Counter counterLabelsDrawn = Metrics
+			.counter("render.labels.drawn");
+	private static final Counter counterLabelsCulled = Metrics
+			.counter("render.labels.culled");
 
 	public void paint(Painter g)
 	{
-		LineNetwork lineNetwork = new LineNetworkCloner(this.lineNetwork).cloneLineNetwork();
-		lineNetwork.lines = lineNetwork.lines.stream()
-				.filter(nl -> !mapViewStatus.isLineHidden(this.lineNetwork.lines.stream().filter(onl -> onl.line == nl.line).findFirst().get()))
-				.toList();
-		lineNetwork.edges = lineNetwork.edges.stream()
-				.peek(e -> e.lines = e.lines.stream().filter(nl -> lineNetwork.lines.contains(nl)).toList())
-				.filter(e -> !e.lines.isEmpty())
-				.toList();
-		lineNetwork.nodes = lineNetwork.nodes.stream()
-				.peek(n -> n.edges = n.edges.stream().filter(e -> lineNetwork.edges.contains(e)).toList())
-				.filter(n -> !n.edges.isEmpty())
-				.toList();
+		paint(g, ALL_LAYERS);
+	}
 
+	private void update()
+	{
+		synchronized (networkLock) {
+			if (visibleNetwork.update(mapViewStatus)) {
+				networkIndex.invalidate();
+			}
+			if (networkIndex.ensureValid()) {
+				chainIndex.invalidate();
+				networkVersion++;
+			}
+		}
+	}
+
+	private static void viewEnvelope(ViewportWithSignals viewport,
+			Envelope envelope)
+	{
 		double x1 = ViewportUtil.getRealX(viewport, 0);
 		double y1 = ViewportUtil.getRealY(viewport, 0);
 		double x2 = ViewportUtil.getRealX(viewport,
@@ -295,67 +485,195 @@ public class PlanRenderer implements ViewportListener
 		double y2 = ViewportUtil.getRealY(viewport,
 				viewport.getViewportHeight());
 
-		Envelope envelope = new Envelope(x1, x2, y1, y2);
+		envelope.init(x1, x2, y1, y2);
+	}
 
-		TimeMeasuring tm = new TimeMeasuring(logger);
+	private void query(RenderContext c)
+	{
+		update();
 
-		final int nNodes = lineNetwork.nodes.size();
-		final int nEdges = lineNetwork.edges.size();
+		viewEnvelope(c.viewport, c.envelope);
+		c.envelope.expandBy(overDrawPixels / c.viewport.getZoom());
 
-		/*
-		 * Segments
-		 */
+		networkIndex.query(c.envelope, c.networkResult);
+	}
 
-		Envelope edgeEnvelope = new Envelope();
+	/**
+	 * Compute the labels for the current zoom level without painting
+	 * anything.
+	 */
+	public List<Label> layoutLabels(Painter g)
+	{
+		return layoutLabels(context, g);
+	}
 
-		tm.start(LOG_SEGMENTS);
-		segmentDrawer.startSegments();
-		for (int i = 0; i < nEdges; i++) {
-			Edge edge = lineNetwork.edges.get(i);
-			Point locationA = edge.n1.location;
-			Point locationB = edge.n2.location;
+	/**
+	 * Compute the labels for the zoom level of the specified context without
+	 * painting anything.
+	 */
+	public List<Label> layoutLabels(RenderContext c, Painter g)
+	{
+		prepare(c);
+		query(c);
 
-			edgeEnvelope.expandToInclude(locationA.x, locationA.y);
-			edgeEnvelope.expandToInclude(locationB.x, locationB.y);
+		int fontSize = Math.round(12 * scale);
+		IPaintInfo piText = pf.create(Colors.BLACK, 1 * scale);
+		piText.setFontSize(fontSize);
 
-			if (!envelope.intersects(edgeEnvelope)) {
-				continue;
+		return labelLayout.getLabels(visibleNetwork.getNodes(), g, piText,
+				c.viewport.getZoom(), scale, fontSize, c.onlyImportant);
+	}
+
+	public void paint(Painter g, EnumSet<Layer> layers)
+	{
+		long start = timerFrame.start();
+		prepare(context);
+		if (!useDisplayList) {
+			query(context);
+			paintLayers(context, g, layers);
+		} else {
+			paintWithDisplayList(g, layers);
+		}
+		timerFrame.stop(start);
+	}
+
+	public void paint(RenderContext c, Painter g)
+	{
+		paint(c, g, ALL_LAYERS);
+	}
+
+	/**
+	 * Paint the viewport of the specified context. Display lists are not
+	 * used. Painting into distinct contexts may happen concurrently.
+	 */
+	public void paint(RenderContext c, Painter g, EnumSet<Layer> layers)
+	{
+		long start = timerFrame.start();
+		prepare(c);
+		query(c);
+		paintLayers(c, g, layers);
+		timerFrame.stop(start);
+	}
+
+	private void paintWithDisplayList(Painter g, EnumSet<Layer> layers)
+	{
+		update();
+
+		double zoom = viewport.getZoom();
+		double tx = ViewportUtil.getViewX(viewport, 0);
+		double ty = ViewportUtil.getViewY(viewport, 0);
+
+		if (!canReplay(layers, zoom, tx, ty)) {
+			invalidateDisplayList();
+			query(context);
+
+			displayListValid = true;
+			displayListEnvelope.init(context.envelope);
+			displayListZoom = zoom;
+			displayListTx = tx;
+			displayListTy = ty;
+			displayListNetworkVersion = networkVersion;
+			displayListStatusVersion = mapViewStatus.getVersion();
+		}
+
+		for (Layer layer : layers) {
+			DisplayList displayList = displayLists.get(layer);
+			if (displayList == null) {
+				displayList = new DisplayList();
+				displayLists.put(layer, displayList);
 			}
+			if (!recordedLayers.contains(layer)) {
+				paintLayers(context,
+						new RecordingPainter(g, displayList, tx, ty),
+						EnumSet.of(layer));
+				recordedLayers.add(layer);
+				counterRecorded.inc();
+			}
+			displayList.replay(g, tx, ty);
+			counterReplayed.inc();
+		}
+	}
 
-			List<NetworkLine> lines = edge.lines;
-			segmentDrawer.drawSegment(
-				g, lines, edge,
-				lines.stream()
-					.map(l -> mapViewStatus.isLineSelected(this.lineNetwork.lines.stream().filter(nl -> nl.line == l.line).findFirst().get()))
-					.toList()
-			);
+	private boolean canReplay(EnumSet<Layer> layers, double zoom, double tx,
+			double ty)
+	{
+		if (!displayListValid || zoom != displayListZoom
+				|| networkVersion != displayListNetworkVersion
+				|| mapViewStatus.getVersion() != displayListStatusVersion) {
+			return false;
+		}
+		if (tx == displayListTx && ty == displayListTy) {
+			return true;
 		}
-		segmentDrawer.finishSegments();
-		tm.stop(LOG_SEGMENTS);
+		// missing layers would be recorded for a different viewport
+		if (!recordedLayers.containsAll(layers)) {
+			return false;
+		}
+		viewEnvelope(viewport, viewEnvelope);
+		return displayListEnvelope.contains(viewEnvelope);
+	}
 
-		/*
-		 * Stations
-		 */
+	private void paintLayers(RenderContext c, Painter g,
+			EnumSet<Layer> layers)
+	{
+		List<Node> nodes = visibleNetwork.getNodes();
+		List<Edge> edges = visibleNetwork.getEdges();
 
-		tm.start(LOG_STATIONS);
-		logger.debug("*** Stations ***");
+		NetworkIndex.Result visible = c.networkResult;
+		final int nNodes = nodes.size();
+		final int nVisibleNodes = visible.getNumNodes();
 
-		Path path = g.createPath();
-		for (int i = 0; i < nNodes; i++) {
-			Node node = lineNetwork.nodes.get(i);
+		double zoom = c.viewport.getZoom();
 
-			Point location = node.location;
+		/*
+		 * Segments
+		 */
 
-			if (!envelope.contains(location.x, location.y)) {
-				continue;
+		long start = timerSegments.start();
+		if (layers.contains(Layer.SEGMENTS)) {
+			if (levelOfDetail.isCollapseChains(zoom)) {
+				paintChains(c, g);
+			} else if (levelOfDetail.isBundle(zoom)) {
+				paintBundles(c, g, edges);
+			} else {
+				paintSegments(c, g, edges);
+			}
+			if (!levelOfDetail.isCollapseChains(zoom)) {
+				int nVisibleEdges = visible.getNumEdges();
+				counterEdgesDrawn.inc(nVisibleEdges);
+				counterEdgesCulled.inc(edges.size() - nVisibleEdges);
 			}
+		}
+		long durationSegments = timerSegments.stop(start);
+
+		/*
+		 * Stations
+		 */
 
-			boolean selected = mapViewStatus.isNodeSelected(this.lineNetwork.nodes.stream().filter(n -> n.station == node.station).findFirst().get());
+		start = timerStations.start();
+		logger.debug("*** Stations ***");
 
-			stationDrawer.drawStation(g, node, path, selected,
-					renderStationCenters);
+		if (layers.contains(Layer.STATIONS)) {
+			StationDrawer stationDrawer = c.stationDrawer;
+			Path path = g.createPath();
+			stationDrawer.startStations(g);
+			for (int k = 0; k < nVisibleNodes; k++) {
+				Node node = nodes.get(visible.getNode(k));
+
+				boolean selected = mapViewStatus.isNodeSelected(node);
+
+				if (levelOfDetail.isDot(zoom, node)) {
+					stationDrawer.drawDot(g, node, selected);
+				} else {
+					stationDrawer.drawStation(g, node, path, selected,
+							renderStationCenters);
+				}
+			}
+			stationDrawer.finishStations(g);
+			counterNodesDrawn.inc(nVisibleNodes);
+			counterNodesCulled.inc(nNodes - nVisibleNodes);
 		}
-		tm.stop(LOG_STATIONS);
+		long durationStations = timerStations.stop(start);
 
 		/*
 		 * Labels
@@ -368,10 +686,10 @@ public class PlanRenderer implements ViewportListener
 		IPaintInfo piText = pf.create(Colors.BLACK, 1 * scale);
 		piText.setFontSize(fontSize);
 
-		if (debugRanks) {
+		if (debugRanks && layers.contains(Layer.LABELS)) {
 			for (int i = 0; i < nNodes; i++) {
-				Node node = lineNetwork.nodes.get(i);
-				Point p = ltp.getPoint(node.location);
+				Node node = nodes.get(i);
+				Point p = c.ltp.getPoint(node.location);
 				float x = (float) p.x;
 				float y = (float) p.y + 5;
 				String text = "" + node.rank;
@@ -383,62 +701,130 @@ public class PlanRenderer implements ViewportListener
 			}
 		}
 
-		tm.start(LOG_LABELS);
-		if (isRenderLabels) {
-			renderLabels(g, envelope, lineNetwork, nNodes, fontSize, piOutline, piText);
+		start = timerLabels.start();
+		if (isRenderLabels && layers.contains(Layer.LABELS)) {
+			renderLabels(c, g, nodes, fontSize, piOutline, piText);
 		}
-		tm.stop(LOG_LABELS);
-
-		tm.log(LOG_SEGMENTS, "Time for segments: %d");
-		tm.log(LOG_STATIONS, "Time for stations: %d");
-		tm.log(LOG_LABELS, "Time for labels: %d");
-		if (segmentMode == SegmentMode.CURVE) {
-			SegmentDrawerCurved curvedDrawer = (SegmentDrawerCurved) segmentDrawer;
-			logger.info(Formatting.format("Time for curve drawing: %d",
-					curvedDrawer.getDurationCurves()));
+		long durationLabels = timerLabels.stop(start);
+
+		if (logger.isDebugEnabled()) {
+			logger.debug(Formatting.format("Time for segments: %.3fms",
+					durationSegments / 1e6));
+			logger.debug(Formatting.format("Time for stations: %.3fms",
+					durationStations / 1e6));
+			logger.debug(Formatting.format("Time for labels: %.3fms",
+					durationLabels / 1e6));
+			if (segmentMode == SegmentMode.CURVE) {
+				SegmentDrawerCurved curvedDrawer = (SegmentDrawerCurved) c.segmentDrawer;
+				logger.debug(Formatting.format("Time for curve drawing: %d",
+						curvedDrawer.getDurationCurves()));
+			}
 		}
 	}
 
-	private void renderLabels(Painter g, Envelope envelope, LineNetwork lineNetwork, int nNodes,
-			int fontSize, IPaintInfo piOutline, IPaintInfo piText)
+	private void paintSegments(RenderContext c, Painter g, List<Edge> edges)
 	{
-		RectangleIntersectionTester tester = new RTreeIntersectionTester();
-		for (int i = 0; i < nNodes; i++) {
-			Node node = lineNetwork.nodes.get(i);
-			Station station = node.station;
-			if (onlyImportant && node.rank < 2) {
-				continue;
+		NetworkIndex.Result visible = c.networkResult;
+		SegmentDrawer segmentDrawer = c.segmentDrawer;
+		List<Boolean> selectedBuffer = c.selectedBuffer;
+
+		final int nVisibleEdges = visible.getNumEdges();
+		segmentDrawer.startSegments(g);
+		for (int k = 0; k < nVisibleEdges; k++) {
+			int i = visible.getEdge(k);
+			Edge edge = edges.get(i);
+
+			List<NetworkLine> lines = visibleNetwork.getLines(i);
+			selectedBuffer.clear();
+			for (int l = 0; l < lines.size(); l++) {
+				selectedBuffer
+						.add(mapViewStatus.isLineSelected(lines.get(l)));
 			}
+			segmentDrawer.drawSegment(g, lines, edge, selectedBuffer);
+		}
+		segmentDrawer.finishSegments(g);
+	}
 
-			Point location = node.location;
+	private void paintBundles(RenderContext c, Painter g, List<Edge> edges)
+	{
+		NetworkIndex.Result visible = c.networkResult;
+		final int nVisibleEdges = visible.getNumEdges();
+		for (int k = 0; k < nVisibleEdges; k++) {
+			int i = visible.getEdge(k);
+			List<NetworkLine> lines = visibleNetwork.getLines(i);
+			c.bundleDrawer.drawEdge(g, edges.get(i), lines, anySelected(lines));
+		}
+	}
 
-			if (!envelope.contains(location.x, location.y)) {
-				continue;
-			}
+	private void paintChains(RenderContext c, Painter g)
+	{
+		synchronized (networkLock) {
+			chainIndex.ensureValid();
+		}
+		chainIndex.query(c.envelope, c.chainResult);
 
-			String name = station.getName();
-			Point p = ltp.getPoint(location);
-			p.y -= 6 * scale * factor;
+		Path path = g.createPath();
+		final int nChains = c.chainResult.getNumChains();
+		for (int k = 0; k < nChains; k++) {
+			ChainIndex.Chain chain = c.chainResult.getChain(k);
+			List<NetworkLine> lines = chain.getLines();
+			c.bundleDrawer.drawChain(g, path, chain.getNodes(), lines,
+					anySelected(lines));
+		}
+	}
 
-			g.setPaintInfo(piText);
-			int sw = g.getStringWidth(name);
+	private boolean anySelected(List<NetworkLine> lines)
+	{
+		for (int i = 0; i < lines.size(); i++) {
+			if (mapViewStatus.isLineSelected(lines.get(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
 
-			Rectangle r = new Rectangle((float) (p.x - sw / 2),
-					(float) (p.y - fontSize / 2), (float) (p.x + sw / 2),
-					(float) (p.y + fontSize / 2));
-			if (tester.isFree(r)) {
-				float x = (float) (p.x - sw / 2);
-				float y = (float) p.y;
+	private void renderLabels(RenderContext c, Painter g, List<Node> nodes,
+			int fontSize, IPaintInfo piOutline, IPaintInfo piText)
+	{
+		ViewportWithSignals viewport = c.viewport;
+		double zoom = viewport.getZoom();
+		LabelPlacement placement = labelLayout.getPlacement(nodes, g, piText,
+				zoom, scale, fontSize, c.onlyImportant);
+		List<Label> labels = placement.getLabels();
+		BitSet candidates = c.labelResult;
+		placement.query(c.envelope, zoom, candidates);
+
+		// include the over draw margin so that a recorded display list still
+		// contains the labels next to the viewport
+		double min = -overDrawPixels;
+		double width = viewport.getViewportWidth() + overDrawPixels;
+		double height = viewport.getViewportHeight() + overDrawPixels;
+
+		int drawn = 0;
+		Point p = new Point(0, 0);
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates
+				.nextSetBit(i + 1)) {
+			Label label = labels.get(i);
+			c.ltp.getPoint(label.getNode().location, p);
+			float x = (float) (p.x + label.getDx());
+			float y = (float) (p.y + label.getDy());
+			if (x > width || x + label.getWidth() < min
+					|| y - fontSize > height || y + fontSize < min) {
+				continue;
+			}
+			drawn++;
 
-				g.setPaintInfo(piOutline);
-				g.outlineString(name, x, y);
+			String name = label.getText();
 
-				g.setPaintInfo(piText);
-				g.drawString(name, x, y);
+			g.setPaintInfo(piOutline);
+			g.outlineString(name, x, y);
 
-				tester.add(r, false);
-			}
+			g.setPaintInfo(piText);
+			g.drawString(name, x, y);
 		}
+
+		counterLabelsDrawn.inc(drawn);
+		counterLabelsCulled.inc(labels.size() - drawn);
 	}
 
 }
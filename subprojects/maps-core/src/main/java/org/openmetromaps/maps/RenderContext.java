@@ -0,0 +1,80 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.openmetromaps.maps.rendering.components.BundleDrawer;
+import org.openmetromaps.maps.rendering.components.SegmentDrawer;
+import org.openmetromaps.maps.rendering.components.StationDrawer;
+
+import de.topobyte.viewports.geometry.Envelope;
+import de.topobyte.viewports.scrolling.ViewportWithSignals;
+
+/**
+ * The mutable state of painting with a {@link PlanRenderer}: the viewport to
+ * paint, the drawers with their scratch buffers and geometry caches and the
+ * results of culling. A context is not thread-safe, but a renderer can paint
+ * concurrently into distinct contexts, typically one per worker thread.
+ * Contexts are created with {@link PlanRenderer#createContext} and can be
+ * reused for any number of frames.
+ */
+public class RenderContext
+{
+
+	final ViewportWithSignals viewport;
+	final LocationToPoint ltp;
+
+	SegmentDrawer segmentDrawer;
+	StationDrawer stationDrawer;
+	BundleDrawer bundleDrawer;
+
+	// the configuration of the renderer and the zoom level the drawers have
+	// been set up for
+	int configVersion = -1;
+	double zoom = Double.NaN;
+
+	float factor;
+	float lineWidth = 1.0f;
+	boolean onlyImportant = false;
+
+	final Envelope envelope = new Envelope();
+	final NetworkIndex.Result networkResult = new NetworkIndex.Result();
+	final ChainIndex.Result chainResult = new ChainIndex.Result();
+	final List<Boolean> selectedBuffer = new ArrayList<>();
+	final BitSet labelResult = new BitSet();
+
+	RenderContext(ViewportWithSignals viewport, LocationToPoint ltp)
+	{
+		this.viewport = viewport;
+		this.ltp = ltp;
+	}
+
+	public ViewportWithSignals getViewport()
+	{
+		return viewport;
+	}
+
+	public LocationToPoint getLocationToPoint()
+	{
+		return ltp;
+	}
+
+}
@@ -0,0 +1,227 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps;
+
+import java.util.Arrays;
+
+import de.topobyte.viewports.geometry.Envelope;
+
+/**
+ * A static uniform grid over axis-aligned bounding boxes. Cells are stored in
+ * packed arrays (one offset array and one item array) and queries reuse the
+ * buffers of the {@link Result} passed in, so querying does not allocate once
+ * the result buffer has grown to its working size.
+ *
+ * Once built, the grid can be queried from multiple threads concurrently if
+ * each thread passes its own {@link Result}.
+ */
+public class SpatialGrid
+{
+
+	/**
+	 * The buffers used by a query and its result.
+	 */
+	public static class Result
+	{
+
+		private int[] marks = new int[0];
+		private int stamp = 0;
+
+		private int[] results = new int[64];
+		private int nResults = 0;
+
+		public int getNumResults()
+		{
+			return nResults;
+		}
+
+		public int getResult(int i)
+		{
+			return results[i];
+		}
+
+	}
+
+	private int nItems = 0;
+	private double[] bounds = new double[0];
+
+	private double minX, minY;
+	private double cellWidth, cellHeight;
+	private int nx, ny;
+
+	private int[] cellStart = new int[1];
+	private int[] cellItems = new int[0];
+
+	/**
+	 * Build the grid for a number of items.
+	 *
+	 * @param n
+	 *            the number of items.
+	 * @param itemBounds
+	 *            4 values per item: minX, minY, maxX, maxY. The array is kept
+	 *            by the grid, callers must not modify it afterwards.
+	 */
+	public void build(int n, double[] itemBounds)
+	{
+		nItems = n;
+		bounds = itemBounds;
+
+		if (n == 0) {
+			nx = ny = 0;
+			cellStart = new int[1];
+			cellItems = new int[0];
+			return;
+		}
+
+		minX = Double.POSITIVE_INFINITY;
+		minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			minX = Math.min(minX, bounds[i * 4]);
+			minY = Math.min(minY, bounds[i * 4 + 1]);
+			maxX = Math.max(maxX, bounds[i * 4 + 2]);
+			maxY = Math.max(maxY, bounds[i * 4 + 3]);
+		}
+
+		double width = Math.max(maxX - minX, 1e-9);
+		double height = Math.max(maxY - minY, 1e-9);
+
+		// Aim at roughly one item per cell with square-ish cells
+		double cellSize = Math.sqrt(width * height / n);
+		nx = clamp((int) Math.ceil(width / cellSize), 1, 1024);
+		ny = clamp((int) Math.ceil(height / cellSize), 1, 1024);
+		cellWidth = width / nx;
+		cellHeight = height / ny;
+
+		// First pass: count items per cell
+		int nCells = nx * ny;
+		cellStart = new int[nCells + 1];
+		for (int i = 0; i < n; i++) {
+			int cx1 = cellX(bounds[i * 4]);
+			int cy1 = cellY(bounds[i * 4 + 1]);
+			int cx2 = cellX(bounds[i * 4 + 2]);
+			int cy2 = cellY(bounds[i * 4 + 3]);
+			for (int cy = cy1; cy <= cy2; cy++) {
+				for (int cx = cx1; cx <= cx2; cx++) {
+					cellStart[cy * nx + cx + 1]++;
+				}
+			}
+		}
+		for (int c = 0; c < nCells; c++) {
+			cellStart[c + 1] += cellStart[c];
+		}
+
+		// Second pass: fill items
+		cellItems = new int[cellStart[nCells]];
+		int[] fill = Arrays.copyOf(cellStart, nCells);
+		for (int i = 0; i < n; i++) {
+			int cx1 = cellX(bounds[i * 4]);
+			int cy1 = cellY(bounds[i * 4 + 1]);
+			int cx2 = cellX(bounds[i * 4 + 2]);
+			int cy2 = cellY(bounds[i * 4 + 3]);
+			for (int cy = cy1; cy <= cy2; cy++) {
+				for (int cx = cx1; cx <= cx2; cx++) {
+					cellItems[fill[cy * nx + cx]++] = i;
+				}
+			}
+		}
+	}
+
+	private static int clamp(int value, int min, int max)
+	{
+		return Math.max(min, Math.min(max, value));
+	}
+
+	private int cellX(double x)
+	{
+		return clamp((int) ((x - minX) / cellWidth), 0, nx - 1);
+	}
+
+	private int cellY(double y)
+	{
+		return clamp((int) ((y - minY) / cellHeight), 0, ny - 1);
+	}
+
+	/**
+	 * Find all items whose bounding box intersects the specified envelope and
+	 * store them in the specified result, sorted by item index.
+	 */
+	public void query(Envelope envelope, Result result)
+	{
+		result.nResults = 0;
+		if (nItems == 0) {
+			return;
+		}
+
+		double qx1 = envelope.getMinX();
+		double qy1 = envelope.getMinY();
+		double qx2 = envelope.getMaxX();
+		double qy2 = envelope.getMaxY();
+
+		if (qx2 < minX || qy2 < minY || qx1 > minX + nx * cellWidth
+				|| qy1 > minY + ny * cellHeight) {
+			return;
+		}
+
+		if (result.marks.length < nItems) {
+			result.marks = new int[nItems];
+			result.stamp = 0;
+		}
+		if (++result.stamp == 0) {
+			Arrays.fill(result.marks, 0);
+			result.stamp = 1;
+		}
+		int[] marks = result.marks;
+		int stamp = result.stamp;
+		int[] results = result.results;
+		int nResults = 0;
+
+		int cx1 = cellX(qx1);
+		int cy1 = cellY(qy1);
+		int cx2 = cellX(qx2);
+		int cy2 = cellY(qy2);
+		for (int cy = cy1; cy <= cy2; cy++) {
+			for (int cx = cx1; cx <= cx2; cx++) {
+				int c = cy * nx + cx;
+				for (int k = cellStart[c]; k < cellStart[c + 1]; k++) {
+					int i = cellItems[k];
+					if (marks[i] == stamp) {
+						continue;
+					}
+					marks[i] = stamp;
+					if (bounds[i * 4] > qx2 || bounds[i * 4 + 2] < qx1
+							|| bounds[i * 4 + 1] > qy2
+							|| bounds[i * 4 + 3] < qy1) {
+						continue;
+					}
+					if (nResults == results.length) {
+						results = Arrays.copyOf(results, results.length * 2);
+					}
+					results[nResults++] = i;
+				}
+			}
+		}
+
+		// Keep the original drawing order of the items
+		Arrays.sort(results, 0, nResults);
+		result.results = results;
+		result.nResults = nResults;
+	}
+
+}
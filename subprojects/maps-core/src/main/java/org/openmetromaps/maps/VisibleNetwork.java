@@ -0,0 +1,182 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openmetromaps.maps.graph.Edge;
+import org.openmetromaps.maps.graph.LineNetwork;
+import org.openmetromaps.maps.graph.NetworkLine;
+import org.openmetromaps.maps.graph.Node;
+
+/**
+ * The part of a {@link LineNetwork} that is visible with respect to the hidden
+ * lines of a {@link MapViewStatus}. Nodes and edges are the original objects
+ * of the network, only the lines of edges and the edges of nodes are filtered.
+ * The view is rebuilt only when the set of hidden lines changes.
+ */
+public class VisibleNetwork
+{
+
+	private LineNetwork lineNetwork;
+
+	private int version = -1;
+
+	private List<Node> nodes = new ArrayList<>();
+	private List<Edge> edges = new ArrayList<>();
+
+	// Visible lines per visible edge, aligned with 'edges'
+	private List<List<NetworkLine>> edgeLines = new ArrayList<>();
+
+	private Map<Edge, List<NetworkLine>> edgeToLines = new HashMap<>();
+	private Map<Node, List<Edge>> nodeToEdges = new HashMap<>();
+
+	public VisibleNetwork(LineNetwork lineNetwork)
+	{
+		this.lineNetwork = lineNetwork;
+	}
+
+	public LineNetwork getLineNetwork()
+	{
+		return lineNetwork;
+	}
+
+	/**
+	 * Make sure the view reflects the hidden lines of the specified status.
+	 *
+	 * @return whether the view had to be rebuilt.
+	 */
+	public boolean update(MapViewStatus mapViewStatus)
+	{
+		int current = mapViewStatus.getHiddenLinesVersion();
+		if (current == version) {
+			return false;
+		}
+		rebuild(mapViewStatus.getHiddenLines());
+		version = current;
+		return true;
+	}
+
+	/**
+	 * Force a rebuild during the next call to {@link #update(MapViewStatus)},
+	 * e.g. after the structure of the underlying network has changed.
+	 */
+	public void invalidate()
+	{
+		version = -1;
+	}
+
+	private void rebuild(Set<NetworkLine> hiddenLines)
+	{
+		nodes.clear();
+		edges.clear();
+		edgeLines.clear();
+		edgeToLines.clear();
+		nodeToEdges.clear();
+
+		for (Edge edge : lineNetwork.edges) {
+			List<NetworkLine> lines = edge.lines;
+			if (!hiddenLines.isEmpty()) {
+				lines = new ArrayList<>(lines.size());
+				for (NetworkLine line : edge.lines) {
+					if (!hiddenLines.contains(line)) {
+						lines.add(line);
+					}
+				}
+			}
+			if (lines.isEmpty()) {
+				continue;
+			}
+			edges.add(edge);
+			edgeLines.add(lines);
+			edgeToLines.put(edge, lines);
+		}
+
+		for (Node node : lineNetwork.nodes) {
+			List<Edge> nodeEdges = node.edges;
+			if (!hiddenLines.isEmpty()) {
+				nodeEdges = new ArrayList<>(nodeEdges.size());
+				for (Edge edge : node.edges) {
+					if (edgeToLines.containsKey(edge)) {
+						nodeEdges.add(edge);
+					}
+				}
+			}
+			if (nodeEdges.isEmpty()) {
+				continue;
+			}
+			nodes.add(node);
+			nodeToEdges.put(node, nodeEdges);
+		}
+	}
+
+	public List<Node> getNodes()
+	{
+		return nodes;
+	}
+
+	public List<Edge> getEdges()
+	{
+		return edges;
+	}
+
+	/**
+	 * @return the visible lines of the i-th visible edge.
+	 */
+	public List<NetworkLine> getLines(int i)
+	{
+		return edgeLines.get(i);
+	}
+
+	/**
+	 * @return the visible lines of the specified edge, an empty list if the
+	 *         edge is not visible at all.
+	 */
+	public List<NetworkLine> getLines(Edge edge)
+	{
+		List<NetworkLine> lines = edgeToLines.get(edge);
+		if (lines == null) {
+			return Collections.emptyList();
+		}
+		return lines;
+	}
+
+	/**
+	 * @return the visible edges of the specified node, an empty list if the
+	 *         node is not visible at all.
+	 */
+	public List<Edge> getEdges(Node node)
+	{
+		List<Edge> nodeEdges = nodeToEdges.get(node);
+		if (nodeEdges == null) {
+			return Collections.emptyList();
+		}
+		return nodeEdges;
+	}
+
+	public boolean isVisible(Node node)
+	{
+		return nodeToEdges.containsKey(node);
+	}
+
+}
@@ -0,0 +1,138 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.labels;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A collision index for axis-aligned boxes based on a sparse uniform grid.
+ * Each box is registered in all cells it overlaps, so that tests only need to
+ * look at boxes that share a cell with the box being tested. Boxes are
+ * numbered in the order they have been added.
+ *
+ * Once all boxes have been added, the grid can be queried from multiple
+ * threads concurrently.
+ */
+public class CollisionGrid
+{
+
+	private double cellSize;
+
+	private List<double[]> boxes = new ArrayList<>();
+	private Map<Long, List<Integer>> cells = new HashMap<>();
+
+	public CollisionGrid(double cellSize)
+	{
+		this.cellSize = cellSize;
+	}
+
+	public void clear()
+	{
+		boxes.clear();
+		cells.clear();
+	}
+
+	public int size()
+	{
+		return boxes.size();
+	}
+
+	public boolean isFree(double x1, double y1, double x2, double y2)
+	{
+		int cx1 = cell(x1), cx2 = cell(x2);
+		int cy1 = cell(y1), cy2 = cell(y2);
+		for (int cy = cy1; cy <= cy2; cy++) {
+			for (int cx = cx1; cx <= cx2; cx++) {
+				List<Integer> indices = cells.get(key(cx, cy));
+				if (indices == null) {
+					continue;
+				}
+				for (int index : indices) {
+					double[] box = boxes.get(index);
+					if (x1 < box[2] && box[0] < x2 && y1 < box[3]
+							&& box[1] < y2) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	public void add(double x1, double y1, double x2, double y2)
+	{
+		int index = boxes.size();
+		boxes.add(new double[] { x1, y1, x2, y2 });
+
+		int cx1 = cell(x1), cx2 = cell(x2);
+		int cy1 = cell(y1), cy2 = cell(y2);
+		for (int cy = cy1; cy <= cy2; cy++) {
+			for (int cx = cx1; cx <= cx2; cx++) {
+				long key = key(cx, cy);
+				List<Integer> indices = cells.get(key);
+				if (indices == null) {
+					indices = new ArrayList<>(4);
+					cells.put(key, indices);
+				}
+				indices.add(index);
+			}
+		}
+	}
+
+	/**
+	 * Find the boxes that intersect or touch the specified box and set their
+	 * indices in the specified result, which is cleared first.
+	 */
+	public void query(double x1, double y1, double x2, double y2,
+			BitSet result)
+	{
+		result.clear();
+		int cx1 = cell(x1), cx2 = cell(x2);
+		int cy1 = cell(y1), cy2 = cell(y2);
+		for (int cy = cy1; cy <= cy2; cy++) {
+			for (int cx = cx1; cx <= cx2; cx++) {
+				List<Integer> indices = cells.get(key(cx, cy));
+				if (indices == null) {
+					continue;
+				}
+				for (int index : indices) {
+					double[] box = boxes.get(index);
+					if (x1 <= box[2] && box[0] <= x2 && y1 <= box[3]
+							&& box[1] <= y2) {
+						result.set(index);
+					}
+				}
+			}
+		}
+	}
+
+	private int cell(double v)
+	{
+		return (int) Math.floor(v / cellSize);
+	}
+
+	private static long key(int cx, int cy)
+	{
+		return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+	}
+
+}
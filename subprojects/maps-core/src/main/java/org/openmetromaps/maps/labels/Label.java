@@ -0,0 +1,69 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.labels;
+
+import org.openmetromaps.maps.graph.Node;
+
+/**
+ * A label placed for a node. The text anchor is specified in pixels relative
+ * to the node's location on screen.
+ */
+public class Label
+{
+
+	private Node node;
+	private String text;
+	private float dx;
+	private float dy;
+	private int width;
+
+	public Label(Node node, String text, float dx, float dy, int width)
+	{
+		this.node = node;
+		this.text = text;
+		this.dx = dx;
+		this.dy = dy;
+		this.width = width;
+	}
+
+	public Node getNode()
+	{
+		return node;
+	}
+
+	public String getText()
+	{
+		return text;
+	}
+
+	public float getDx()
+	{
+		return dx;
+	}
+
+	public float getDy()
+	{
+		return dy;
+	}
+
+	public int getWidth()
+	{
+		return width;
+	}
+
+}
@@ -0,0 +1,230 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.labels;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openmetromaps.maps.graph.Node;
+import org.openmetromaps.maps.painting.core.IPaintInfo;
+import org.openmetromaps.maps.painting.core.Painter;
+
+import de.topobyte.lightgeom.lina.Point;
+
+/**
+ * Computes label placements for the whole network, independent of the
+ * viewport, and caches them per zoom bucket.
+ * 
+ * Nodes are labeled in order of decreasing rank. For each node, a number of
+ * candidate positions around the station are tried in order and the first one
+ * that does not collide with any label placed before is used. The cache is
+ * dropped when the set of nodes or any of their locations changes.
+ */
+public class LabelLayout
+{
+
+	public static final int BUCKETS_PER_OCTAVE = 16;
+
+	private static final int MAX_CACHED_LAYOUTS = 8;
+
+	private static final double PADDING = 2;
+
+	private Node[] nodes = new Node[0];
+	private Point[] locations = new Point[0];
+
+	private float scale = -1;
+	private int fontSize = -1;
+
+	private Map<String, Integer> widths = new HashMap<>();
+
+	private LinkedHashMap<Integer, LabelPlacement> layouts = new LinkedHashMap<Integer, LabelPlacement>(
+			16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(
+				Map.Entry<Integer, LabelPlacement> eldest)
+		{
+			return size() > MAX_CACHED_LAYOUTS;
+		}
+
+	};
+
+	public synchronized void invalidate()
+	{
+		layouts.clear();
+	}
+
+	/**
+	 * Get the labels for the specified nodes at the specified zoom level,
+	 * computing them if necessary.
+	 * 
+	 * @param g
+	 *            a painter used to measure text.
+	 * @param piText
+	 *            the paint info labels are drawn with.
+	 * @param onlyImportant
+	 *            whether to label important stations only.
+	 */
+	public List<Label> getLabels(List<Node> nodes, Painter g,
+			IPaintInfo piText, double zoom, float scale, int fontSize,
+			boolean onlyImportant)
+	{
+		return getPlacement(nodes, g, piText, zoom, scale, fontSize,
+				onlyImportant).getLabels();
+	}
+
+	/**
+	 * Like {@link #getLabels}, but also provides the spatial index of the
+	 * labels.
+	 */
+	public synchronized LabelPlacement getPlacement(List<Node> nodes,
+			Painter g, IPaintInfo piText, double zoom, float scale,
+			int fontSize, boolean onlyImportant)
+	{
+		if (nodesChanged(nodes)) {
+			snapshot(nodes);
+			layouts.clear();
+		}
+		if (scale != this.scale || fontSize != this.fontSize) {
+			this.scale = scale;
+			this.fontSize = fontSize;
+			widths.clear();
+			layouts.clear();
+		}
+
+		int bucket = (int) Math
+				.round(Math.log(zoom) / Math.log(2) * BUCKETS_PER_OCTAVE);
+		int key = bucket * 2 + (onlyImportant ? 1 : 0);
+		LabelPlacement placement = layouts.get(key);
+		if (placement == null) {
+			double bucketZoom = Math.pow(2,
+					bucket / (double) BUCKETS_PER_OCTAVE);
+			placement = layout(g, piText, bucketZoom, onlyImportant);
+			layouts.put(key, placement);
+		}
+		return placement;
+	}
+
+	private boolean nodesChanged(List<Node> nodes)
+	{
+		final int n = nodes.size();
+		if (n != this.nodes.length) {
+			return true;
+		}
+		for (int i = 0; i < n; i++) {
+			Node node = nodes.get(i);
+			if (node != this.nodes[i] || node.location != locations[i]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void snapshot(List<Node> nodes)
+	{
+		final int n = nodes.size();
+		this.nodes = nodes.toArray(new Node[n]);
+		locations = new Point[n];
+		for (int i = 0; i < n; i++) {
+			locations[i] = this.nodes[i].location;
+		}
+	}
+
+	private LabelPlacement layout(Painter g, IPaintInfo piText, double zoom,
+			boolean onlyImportant)
+	{
+		Node[] order = Arrays.copyOf(nodes, nodes.length);
+		// stable, so that nodes of equal rank keep their original order
+		Arrays.sort(order, (a, b) -> Integer.compare(b.rank, a.rank));
+
+		float factor = (float) (zoom / 3);
+		double d = 6 * scale * factor;
+		double diagonal = d * 0.7;
+		double ascent = fontSize * 0.8;
+		double descent = fontSize * 0.25;
+
+		CollisionGrid grid = new CollisionGrid(Math.max(32, fontSize * 4));
+
+		List<Label> labels = new ArrayList<>();
+		double extent = 0;
+		double[] candidates = new double[16];
+		for (Node node : order) {
+			if (onlyImportant && node.rank < 2) {
+				continue;
+			}
+
+			String text = node.station.getName();
+			int width = width(g, piText, text);
+
+			double px = node.location.x * zoom;
+			double py = node.location.y * zoom;
+
+			double center = (ascent - descent) / 2;
+			// @formatter:off
+			candidates[0] = -width / 2.0;          candidates[1] = -d;
+			candidates[2] = -width / 2.0;          candidates[3] = d + ascent;
+			candidates[4] = d;                     candidates[5] = center;
+			candidates[6] = -d - width;            candidates[7] = center;
+			candidates[8] = diagonal;              candidates[9] = -diagonal;
+			candidates[10] = -diagonal - width;    candidates[11] = -diagonal;
+			candidates[12] = diagonal;             candidates[13] = diagonal + ascent;
+			candidates[14] = -diagonal - width;    candidates[15] = diagonal + ascent;
+			// @formatter:on
+
+			for (int i = 0; i < candidates.length; i += 2) {
+				double dx = candidates[i];
+				double dy = candidates[i + 1];
+				double x1 = px + dx - PADDING;
+				double x2 = px + dx + width + PADDING;
+				double y1 = py + dy - ascent - PADDING;
+				double y2 = py + dy + descent + PADDING;
+				if (grid.isFree(x1, y1, x2, y2)) {
+					grid.add(x1, y1, x2, y2);
+					labels.add(new Label(node, text, (float) dx, (float) dy,
+							width));
+					extent = Math.max(extent, Math.max(
+							Math.abs(dx) + width + PADDING,
+							Math.abs(dy) + ascent + PADDING));
+					break;
+				}
+			}
+		}
+
+		return new LabelPlacement(Collections.unmodifiableList(labels), grid,
+				zoom, extent);
+	}
+
+	private int width(Painter g, IPaintInfo piText, String text)
+	{
+		Integer width = widths.get(text);
+		if (width == null) {
+			g.setPaintInfo(piText);
+			width = g.getStringWidth(text);
+			widths.put(text, width);
+		}
+		return width;
+	}
+
+}
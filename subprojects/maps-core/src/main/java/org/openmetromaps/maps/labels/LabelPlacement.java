@@ -0,0 +1,70 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.labels;
+
+import java.util.BitSet;
+import java.util.List;
+
+import de.topobyte.viewports.geometry.Envelope;
+
+/**
+ * The labels placed by a {@link LabelLayout} for one zoom bucket, together
+ * with the collision grid of their boxes that allows finding the labels
+ * within a region without looking at all of them.
+ */
+public class LabelPlacement
+{
+
+	private List<Label> labels;
+	private CollisionGrid grid;
+	private double zoom;
+	private double extent;
+
+	LabelPlacement(List<Label> labels, CollisionGrid grid, double zoom,
+			double extent)
+	{
+		this.labels = labels;
+		this.grid = grid;
+		this.zoom = zoom;
+		this.extent = extent;
+	}
+
+	public List<Label> getLabels()
+	{
+		return labels;
+	}
+
+	/**
+	 * Find the labels that may be visible within the specified envelope when
+	 * painted at the specified zoom level and set their indices in the
+	 * specified result. The result can contain labels that are slightly
+	 * outside of the envelope.
+	 */
+	public void query(Envelope envelope, double zoom, BitSet result)
+	{
+		// The boxes have been placed at the zoom level of the bucket with the
+		// same pixel offsets, which moves them relative to their nodes by at
+		// most the offset times the difference in scale.
+		double margin = extent * Math.abs(1 - this.zoom / zoom) + 1;
+		grid.query(envelope.getMinX() * this.zoom - margin,
+				envelope.getMinY() * this.zoom - margin,
+				envelope.getMaxX() * this.zoom + margin,
+				envelope.getMaxY() * this.zoom + margin, result);
+	}
+
+}
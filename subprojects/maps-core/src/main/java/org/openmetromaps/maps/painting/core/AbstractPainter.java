@@ -20,6 +20,8 @@ package org.openmetromaps.maps.painting.core;
 import org.openmetromaps.maps.graph.Edge;
 import org.openmetromaps.maps.graph.NetworkLine;
 import org.openmetromaps.maps.graph.Node;
+import org.openmetromaps.maps.painting.core.geom.CoordinateBuffer;
+import org.openmetromaps.maps.painting.core.geom.PathSet;
 import org.openmetromaps.maps.painting.core.ref.LineEdgeReference;
 import org.openmetromaps.maps.painting.core.ref.NodeReference;
 import org.openmetromaps.maps.painting.core.ref.Reference;
@@ -47,4 +49,28 @@ public abstract class AbstractPainter implements Painter
 		reference = null;
 	}
 
+	@Override
+	public boolean supportsBatches()
+	{
+		return false;
+	}
+
+	@Override
+	public void draw(PathSet paths)
+	{
+		for (int i = 0; i < paths.size(); i++) {
+			setPaintInfo(paths.getPaint(i));
+			draw(paths.getPath(i));
+		}
+	}
+
+	@Override
+	public void drawCircles(CoordinateBuffer centers, double radius)
+	{
+		float[] coordinates = centers.getCoordinates();
+		for (int i = 0; i < centers.size(); i++) {
+			drawCircle(coordinates[i * 2], coordinates[i * 2 + 1], radius);
+		}
+	}
+
 }
@@ -0,0 +1,243 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.painting.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openmetromaps.maps.painting.core.geom.CoordinateBuffer;
+import org.openmetromaps.maps.painting.core.geom.Path;
+import org.openmetromaps.maps.painting.core.ref.LineEdgeReference;
+import org.openmetromaps.maps.painting.core.ref.NodeReference;
+import org.openmetromaps.maps.painting.core.ref.Reference;
+
+import de.topobyte.lightgeom.curves.spline.CubicSpline;
+import de.topobyte.lightgeom.curves.spline.CubicSplineB;
+import de.topobyte.lightgeom.lina.Point;
+
+/**
+ * A list of drawing commands recorded by a {@link RecordingPainter}.
+ * Commands are stored in flat primitive arrays: an array of operation codes
+ * with their integer arguments, an array of coordinates and a list of
+ * referenced objects such as paints, strings and references. Coordinates are
+ * stored relative to the translation that was active while recording so
+ * that the list can be replayed with a different translation.
+ */
+public class DisplayList
+{
+
+	static final int PAINT = 0;
+	static final int REF = 1;
+	static final int NO_REF = 2;
+	static final int PATH = 3;
+	static final int MOVE_TO = 4;
+	static final int LINE_TO = 5;
+	static final int CURVE_TO = 6;
+	static final int CIRCLE = 7;
+	static final int CIRCLES = 8;
+	static final int CUBIC = 9;
+	static final int LINE = 10;
+	static final int STRING = 11;
+	static final int OUTLINE = 12;
+
+	private int[] ops = new int[256];
+	private int nOps = 0;
+	private float[] coords = new float[1024];
+	private int nCoords = 0;
+	private List<Object> objects = new ArrayList<>();
+
+	void op(int op)
+	{
+		if (nOps == ops.length) {
+			ops = Arrays.copyOf(ops, ops.length * 2);
+		}
+		ops[nOps++] = op;
+	}
+
+	void object(Object object)
+	{
+		op(objects.size());
+		objects.add(object);
+	}
+
+	void coord(double value)
+	{
+		if (nCoords == coords.length) {
+			coords = Arrays.copyOf(coords, coords.length * 2);
+		}
+		coords[nCoords++] = (float) value;
+	}
+
+	/**
+	 * Append pairs of coordinates translated by (-tx, -ty).
+	 */
+	void coords(float[] values, int n, double tx, double ty)
+	{
+		if (nCoords + n > coords.length) {
+			coords = Arrays.copyOf(coords,
+					Math.max(coords.length * 2, nCoords + n));
+		}
+		for (int i = 0; i < n; i += 2) {
+			coords[nCoords++] = (float) (values[i] - tx);
+			coords[nCoords++] = (float) (values[i + 1] - ty);
+		}
+	}
+
+	public void clear()
+	{
+		nOps = 0;
+		nCoords = 0;
+		objects.clear();
+	}
+
+	public boolean isEmpty()
+	{
+		return nOps == 0;
+	}
+
+	/**
+	 * @return an estimate of the memory used by the recorded commands in
+	 *         bytes.
+	 */
+	public long getByteSize()
+	{
+		return ops.length * 4L + coords.length * 4L + objects.size() * 8L;
+	}
+
+	/**
+	 * Replay all recorded commands on the specified painter, translating all
+	 * coordinates by (tx, ty).
+	 */
+	public void replay(Painter g, double tx, double ty)
+	{
+		Path path = null;
+		CoordinateBuffer centers = null;
+		CubicSpline spline = null;
+		Point p1 = new Point(0, 0), c1 = new Point(0, 0);
+		Point c2 = new Point(0, 0), p2 = new Point(0, 0);
+
+		int c = 0;
+		int i = 0;
+		while (i < nOps) {
+			int op = ops[i++];
+			switch (op) {
+			case PAINT:
+				g.setPaintInfo((IPaintInfo) objects.get(ops[i++]));
+				break;
+			case REF:
+				replayRef(g, (Reference) objects.get(ops[i++]));
+				break;
+			case NO_REF:
+				g.setNoRef();
+				break;
+			case PATH:
+				if (path == null) {
+					path = g.createPath();
+				}
+				path.reset();
+				int nSegments = ops[i++];
+				for (int k = 0; k < nSegments; k++) {
+					switch (ops[i++]) {
+					case MOVE_TO:
+						path.moveTo(coords[c] + tx, coords[c + 1] + ty);
+						c += 2;
+						break;
+					case LINE_TO:
+						path.lineTo(coords[c] + tx, coords[c + 1] + ty);
+						c += 2;
+						break;
+					case CURVE_TO:
+						path.curveTo(coords[c] + tx, coords[c + 1] + ty,
+								coords[c + 2] + tx, coords[c + 3] + ty,
+								coords[c + 4] + tx, coords[c + 5] + ty);
+						c += 6;
+						break;
+					}
+				}
+				g.draw(path);
+				break;
+			case CIRCLE:
+				g.drawCircle(coords[c] + tx, coords[c + 1] + ty,
+						coords[c + 2]);
+				c += 3;
+				break;
+			case CIRCLES:
+				if (centers == null) {
+					centers = new CoordinateBuffer();
+				}
+				centers.clear();
+				int nCircles = ops[i++];
+				double radius = coords[c++];
+				for (int k = 0; k < nCircles; k++) {
+					centers.add(coords[c] + tx, coords[c + 1] + ty);
+					c += 2;
+				}
+				g.drawCircles(centers, radius);
+				break;
+			case CUBIC:
+				if (spline == null) {
+					spline = new CubicSplineB(0, 0, 0, 0, 0, 0, 0, 0);
+				}
+				set(p1, coords[c] + tx, coords[c + 1] + ty);
+				set(c1, coords[c + 2] + tx, coords[c + 3] + ty);
+				set(c2, coords[c + 4] + tx, coords[c + 5] + ty);
+				set(p2, coords[c + 6] + tx, coords[c + 7] + ty);
+				spline.setP1(p1);
+				spline.setC1(c1);
+				spline.setC2(c2);
+				spline.setP2(p2);
+				c += 8;
+				g.draw(spline);
+				break;
+			case LINE:
+				g.drawLine(coords[c] + tx, coords[c + 1] + ty,
+						coords[c + 2] + tx, coords[c + 3] + ty);
+				c += 4;
+				break;
+			case STRING:
+				g.drawString((String) objects.get(ops[i++]),
+						(float) (coords[c] + tx), (float) (coords[c + 1] + ty));
+				c += 2;
+				break;
+			case OUTLINE:
+				g.outlineString((String) objects.get(ops[i++]),
+						(float) (coords[c] + tx), (float) (coords[c + 1] + ty));
+				c += 2;
+				break;
+			}
+		}
+	}
+
+	private static void set(Point p, double x, double y)
+	{
+		p.setX(x);
+		p.setY(y);
+	}
+
+	private static void replayRef(Painter g, Reference reference)
+	{
+		if (reference instanceof NodeReference) {
+			g.setRef(((NodeReference) reference).getNode());
+		} else if (reference instanceof LineEdgeReference) {
+			LineEdgeReference ref = (LineEdgeReference) reference;
+			g.setRef(ref.getEdge(), ref.getLine());
+		}
+	}
+
+}
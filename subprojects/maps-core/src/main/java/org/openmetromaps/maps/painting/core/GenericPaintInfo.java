@@ -27,6 +27,10 @@ public class GenericPaintInfo implements IPaintInfo
 	private int fontSize;
 	private PaintType type;
 
+	private int version = 0;
+	private Object resolved = null;
+	private int resolvedVersion = -1;
+
 	public GenericPaintInfo()
 	{
 		// empty
@@ -71,6 +75,7 @@ public class GenericPaintInfo implements IPaintInfo
 	public void setWidth(float width)
 	{
 		this.width = width;
+		version++;
 	}
 
 	public ColorCode getColor()
@@ -82,6 +87,7 @@ public class GenericPaintInfo implements IPaintInfo
 	public void setColor(ColorCode color)
 	{
 		this.color = color;
+		version++;
 	}
 
 	public Cap getCap()
@@ -93,6 +99,7 @@ public class GenericPaintInfo implements IPaintInfo
 	public void setCap(Cap cap)
 	{
 		this.cap = cap;
+		version++;
 	}
 
 	public Join getJoin()
@@ -104,6 +111,7 @@ public class GenericPaintInfo implements IPaintInfo
 	public void setJoin(Join join)
 	{
 		this.join = join;
+		version++;
 	}
 
 	public int getFontSize()
@@ -115,6 +123,7 @@ public class GenericPaintInfo implements IPaintInfo
 	public void setFontSize(int fontSize)
 	{
 		this.fontSize = fontSize;
+		version++;
 	}
 
 	@Override
@@ -132,6 +141,40 @@ public class GenericPaintInfo implements IPaintInfo
 	public void setStyle(PaintType type)
 	{
 		this.type = type;
+		version++;
+	}
+
+	/**
+	 * @return a counter that changes whenever any property of this paint
+	 *         info changes.
+	 */
+	public int getVersion()
+	{
+		return version;
+	}
+
+	/**
+	 * @return the object stored with {@link #setResolved(Object)} if no
+	 *         property has changed since, null otherwise.
+	 */
+	public Object getResolved()
+	{
+		if (resolvedVersion != version) {
+			return null;
+		}
+		return resolved;
+	}
+
+	/**
+	 * Store an object derived from the current properties, such as the
+	 * toolkit-specific stroke, color and font objects a painter resolves
+	 * this paint info to. The object is discarded as soon as any property
+	 * changes.
+	 */
+	public void setResolved(Object resolved)
+	{
+		this.resolved = resolved;
+		resolvedVersion = version;
 	}
 
 }
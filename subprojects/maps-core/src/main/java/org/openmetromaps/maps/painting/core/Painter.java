@@ -21,8 +21,10 @@ import org.openmetromaps.maps.graph.Edge;
 import org.openmetromaps.maps.graph.NetworkLine;
 import org.openmetromaps.maps.graph.Node;
 import org.openmetromaps.maps.painting.core.geom.Circle;
+import org.openmetromaps.maps.painting.core.geom.CoordinateBuffer;
 import org.openmetromaps.maps.painting.core.geom.LineSegment;
 import org.openmetromaps.maps.painting.core.geom.Path;
+import org.openmetromaps.maps.painting.core.geom.PathSet;
 
 import de.topobyte.lightgeom.curves.spline.CubicSpline;
 import de.topobyte.lightgeom.curves.spline.QuadraticSpline;
@@ -60,4 +62,21 @@ public interface Painter
 
 	public void setPaintInfo(IPaintInfo paint);
 
+	/**
+	 * @return whether drawers should batch geometry using
+	 *         {@link #draw(PathSet)} and {@link #drawCircles}. Painters that
+	 *         depend on a reference for every single primitive return false.
+	 */
+	public boolean supportsBatches();
+
+	/**
+	 * Draw each path of the set with its associated paint.
+	 */
+	public void draw(PathSet paths);
+
+	/**
+	 * Draw circles of equal radius with the current paint.
+	 */
+	public void drawCircles(CoordinateBuffer centers, double radius);
+
 }
@@ -0,0 +1,296 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.painting.core;
+
+import java.util.Arrays;
+
+import org.openmetromaps.maps.graph.Edge;
+import org.openmetromaps.maps.graph.NetworkLine;
+import org.openmetromaps.maps.graph.Node;
+import org.openmetromaps.maps.painting.core.geom.Circle;
+import org.openmetromaps.maps.painting.core.geom.CoordinateBuffer;
+import org.openmetromaps.maps.painting.core.geom.LineSegment;
+import org.openmetromaps.maps.painting.core.geom.Path;
+
+import de.topobyte.lightgeom.curves.spline.CubicSpline;
+import de.topobyte.lightgeom.curves.spline.QuadraticSpline;
+import de.topobyte.lightgeom.lina.Point;
+import de.topobyte.lightgeom.lina.Vector2;
+
+/**
+ * A painter that does not draw anything but records all commands into a
+ * {@link DisplayList}. Incoming coordinates are translated by (-tx, -ty)
+ * before being stored. Text measurements and the batching capability are
+ * taken from the painter the list is going to be replayed on.
+ */
+public class RecordingPainter extends AbstractPainter
+{
+
+	private Painter target;
+	private DisplayList list;
+	private double tx;
+	private double ty;
+
+	public RecordingPainter(Painter target, DisplayList list, double tx,
+			double ty)
+	{
+		this.target = target;
+		this.list = list;
+		this.tx = tx;
+		this.ty = ty;
+	}
+
+	public DisplayList getDisplayList()
+	{
+		return list;
+	}
+
+	@Override
+	public void setRef(Node node)
+	{
+		super.setRef(node);
+		list.op(DisplayList.REF);
+		list.object(reference);
+	}
+
+	@Override
+	public void setRef(Edge edge, NetworkLine line)
+	{
+		super.setRef(edge, line);
+		list.op(DisplayList.REF);
+		list.object(reference);
+	}
+
+	@Override
+	public void setNoRef()
+	{
+		super.setNoRef();
+		list.op(DisplayList.NO_REF);
+	}
+
+	@Override
+	public boolean supportsBatches()
+	{
+		return target.supportsBatches();
+	}
+
+	@Override
+	public void setPaintInfo(IPaintInfo paint)
+	{
+		// text is measured with the font of the current paint
+		target.setPaintInfo(paint);
+		list.op(DisplayList.PAINT);
+		list.object(paint);
+	}
+
+	@Override
+	public Path createPath()
+	{
+		return new RecordedPath();
+	}
+
+	@Override
+	public void draw(Path path)
+	{
+		RecordedPath p = (RecordedPath) path;
+		list.op(DisplayList.PATH);
+		list.op(p.nSegments);
+		for (int i = 0; i < p.nSegments; i++) {
+			list.op(p.segments[i]);
+		}
+		list.coords(p.coords.getCoordinates(), p.coords.size() * 2, tx, ty);
+	}
+
+	@Override
+	public void draw(Circle circle)
+	{
+		drawCircle(circle.getX(), circle.getY(), circle.getRadius());
+	}
+
+	@Override
+	public void drawCircle(double x, double y, double radius)
+	{
+		list.op(DisplayList.CIRCLE);
+		list.coord(x - tx);
+		list.coord(y - ty);
+		list.coord(radius);
+	}
+
+	@Override
+	public void drawCircles(CoordinateBuffer centers, double radius)
+	{
+		int n = centers.size();
+		float[] coordinates = centers.getCoordinates();
+		list.op(DisplayList.CIRCLES);
+		list.op(n);
+		list.coord(radius);
+		for (int i = 0; i < n; i++) {
+			list.coord(coordinates[i * 2] - tx);
+			list.coord(coordinates[i * 2 + 1] - ty);
+		}
+	}
+
+	@Override
+	public void draw(QuadraticSpline spline)
+	{
+		// Stored as the equivalent cubic curve
+		Point p1 = spline.getP1();
+		Point c = spline.getC();
+		Point p2 = spline.getP2();
+		RecordedPath path = new RecordedPath();
+		path.moveTo(p1);
+		path.curveTo(p1.x + 2. / 3 * (c.x - p1.x), p1.y + 2. / 3 * (c.y - p1.y),
+				p2.x + 2. / 3 * (c.x - p2.x), p2.y + 2. / 3 * (c.y - p2.y),
+				p2.x, p2.y);
+		draw(path);
+	}
+
+	@Override
+	public void draw(CubicSpline spline)
+	{
+		list.op(DisplayList.CUBIC);
+		point(spline.getP1());
+		point(spline.getC1());
+		point(spline.getC2());
+		point(spline.getP2());
+	}
+
+	private void point(Point p)
+	{
+		list.coord(p.x - tx);
+		list.coord(p.y - ty);
+	}
+
+	@Override
+	public void draw(LineSegment l)
+	{
+		drawLine(l.getX1(), l.getY1(), l.getX2(), l.getY2());
+	}
+
+	@Override
+	public void drawLine(double x1, double y1, double x2, double y2)
+	{
+		list.op(DisplayList.LINE);
+		list.coord(x1 - tx);
+		list.coord(y1 - ty);
+		list.coord(x2 - tx);
+		list.coord(y2 - ty);
+	}
+
+	@Override
+	public void drawString(String string, float x, float y)
+	{
+		list.op(DisplayList.STRING);
+		list.object(string);
+		list.coord(x - tx);
+		list.coord(y - ty);
+	}
+
+	@Override
+	public void outlineString(String string, float x, float y)
+	{
+		list.op(DisplayList.OUTLINE);
+		list.object(string);
+		list.coord(x - tx);
+		list.coord(y - ty);
+	}
+
+	@Override
+	public int getStringWidth(String string)
+	{
+		return target.getStringWidth(string);
+	}
+
+	/**
+	 * A path that stores its coordinates untranslated, the translation is
+	 * applied when it gets drawn.
+	 */
+	private static class RecordedPath implements Path
+	{
+
+		private int[] segments = new int[16];
+		private int nSegments = 0;
+		private CoordinateBuffer coords = new CoordinateBuffer(16);
+
+		private void segment(int type)
+		{
+			if (nSegments == segments.length) {
+				segments = Arrays.copyOf(segments,
+						segments.length * 2);
+			}
+			segments[nSegments++] = type;
+		}
+
+		@Override
+		public void reset()
+		{
+			nSegments = 0;
+			coords.clear();
+		}
+
+		@Override
+		public void moveTo(double x, double y)
+		{
+			segment(DisplayList.MOVE_TO);
+			coords.add(x, y);
+		}
+
+		@Override
+		public void lineTo(double x, double y)
+		{
+			segment(DisplayList.LINE_TO);
+			coords.add(x, y);
+		}
+
+		@Override
+		public void moveTo(Point p)
+		{
+			moveTo(p.x, p.y);
+		}
+
+		@Override
+		public void lineTo(Point p)
+		{
+			lineTo(p.x, p.y);
+		}
+
+		@Override
+		public void moveTo(Vector2 p)
+		{
+			moveTo(p.getX(), p.getY());
+		}
+
+		@Override
+		public void lineTo(Vector2 p)
+		{
+			lineTo(p.getX(), p.getY());
+		}
+
+		@Override
+		public void curveTo(double x1, double y1, double x2, double y2,
+				double x3, double y3)
+		{
+			segment(DisplayList.CURVE_TO);
+			coords.add(x1, y1);
+			coords.add(x2, y2);
+			coords.add(x3, y3);
+		}
+
+	}
+
+}
@@ -0,0 +1,79 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.painting.core.geom;
+
+import java.util.Arrays;
+
+/**
+ * A growable buffer of 2D coordinates stored as consecutive x/y pairs.
+ */
+public class CoordinateBuffer
+{
+
+	private float[] coordinates;
+	private int size = 0;
+
+	public CoordinateBuffer()
+	{
+		this(64);
+	}
+
+	public CoordinateBuffer(int capacity)
+	{
+		coordinates = new float[capacity * 2];
+	}
+
+	public void clear()
+	{
+		size = 0;
+	}
+
+	public void add(double x, double y)
+	{
+		if (size * 2 == coordinates.length) {
+			coordinates = Arrays.copyOf(coordinates,
+					Math.max(8, coordinates.length * 2));
+		}
+		coordinates[size * 2] = (float) x;
+		coordinates[size * 2 + 1] = (float) y;
+		size++;
+	}
+
+	/**
+	 * @return the number of coordinates.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	/**
+	 * @return the backing array holding x/y pairs, valid up to index
+	 *         {@code 2 * size()}.
+	 */
+	public float[] getCoordinates()
+	{
+		return coordinates;
+	}
+
+}
@@ -37,4 +37,7 @@ public interface Path
 
 	public void lineTo(Vector2 p);
 
+	public void curveTo(double x1, double y1, double x2, double y2, double x3,
+			double y3);
+
 }
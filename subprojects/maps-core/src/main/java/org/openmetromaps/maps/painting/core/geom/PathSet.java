@@ -0,0 +1,98 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.painting.core.geom;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openmetromaps.maps.painting.core.IPaintInfo;
+import org.openmetromaps.maps.painting.core.Painter;
+
+/**
+ * A set of paths, one per paint, used to batch geometry that is drawn with
+ * the same paint. Paths are drawn in the order their paints have first been
+ * used since the last reset. Path objects are created by the painter that is
+ * going to draw them and are kept across resets for as long as the same
+ * painter is used.
+ */
+public class PathSet
+{
+
+	private Map<IPaintInfo, Integer> index = new IdentityHashMap<>();
+	private List<IPaintInfo> paints = new ArrayList<>();
+	private List<Path> paths = new ArrayList<>();
+	private int size = 0;
+
+	// The painter that created the paths
+	private Painter owner = null;
+
+	public void reset()
+	{
+		for (int i = 0; i < size; i++) {
+			paths.get(i).reset();
+		}
+		index.clear();
+		size = 0;
+	}
+
+	/**
+	 * Get the path to append geometry drawn with the specified paint to.
+	 */
+	public Path get(Painter g, IPaintInfo paint)
+	{
+		if (g != owner) {
+			if (size != 0) {
+				throw new IllegalStateException(
+						"Paths of different painters in the same batch");
+			}
+			paints.clear();
+			paths.clear();
+			owner = g;
+		}
+		Integer i = index.get(paint);
+		if (i != null) {
+			return paths.get(i);
+		}
+		if (size == paths.size()) {
+			paints.add(paint);
+			paths.add(g.createPath());
+		} else {
+			paints.set(size, paint);
+		}
+		index.put(paint, size);
+		return paths.get(size++);
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public IPaintInfo getPaint(int i)
+	{
+		return paints.get(i);
+	}
+
+	public Path getPath(int i)
+	{
+		return paths.get(i);
+	}
+
+}
@@ -27,6 +27,8 @@ import org.openmetromaps.maps.painting.core.ColorCode;
 import org.openmetromaps.maps.painting.core.IPaintInfo;
 import org.openmetromaps.maps.painting.core.PaintFactory;
 import org.openmetromaps.maps.painting.core.PaintType;
+import org.openmetromaps.maps.painting.core.Painter;
+import org.openmetromaps.maps.painting.core.geom.PathSet;
 
 public abstract class AbstractSegmentDrawer implements SegmentDrawer
 {
@@ -42,6 +44,11 @@ public abstract class AbstractSegmentDrawer implements SegmentDrawer
 	protected IPaintInfo[] lineToPaintForLines;
 	protected IPaintInfo lineToPaintForSelectedLines;
 
+	// Segments of the same paint are collected here and drawn at once if the
+	// painter supports batches
+	protected PathSet batch = new PathSet();
+	protected boolean batching = false;
+
 	public AbstractSegmentDrawer(PaintFactory pf, LineNetwork data,
 			Map<NetworkLine, ColorCode> colors, float scale,
 			LocationToPoint ltp, float spreadFactor, float lineWidth)
@@ -93,15 +100,19 @@ public abstract class AbstractSegmentDrawer implements SegmentDrawer
 	}
 
 	@Override
-	public void startSegments()
+	public void startSegments(Painter g)
 	{
-		// do nothing
+		batching = g.supportsBatches();
+		batch.reset();
 	}
 
 	@Override
-	public void finishSegments()
+	public void finishSegments(Painter g)
 	{
-		// do nothing
+		if (batching) {
+			g.draw(batch);
+			batch.reset();
+		}
 	}
 
 }
@@ -17,12 +17,15 @@
 
 package org.openmetromaps.maps.rendering.components;
 
+import java.util.List;
 import java.util.Map;
 
 import org.openmetromaps.maps.EdgeUtil;
 import org.openmetromaps.maps.LocationToPoint;
+import org.openmetromaps.maps.MonotoneChain;
 import org.openmetromaps.maps.SegmentEndPointPaintInfo;
 import org.openmetromaps.maps.SegmentEndPointPool;
+import org.openmetromaps.maps.VisibleNetwork;
 import org.openmetromaps.maps.graph.Edge;
 import org.openmetromaps.maps.graph.LineNetwork;
 import org.openmetromaps.maps.graph.NetworkLine;
@@ -37,8 +40,6 @@ import org.openmetromaps.maps.painting.core.PaintType;
 import org.openmetromaps.maps.painting.core.Painter;
 import org.openmetromaps.maps.painting.core.geom.Path;
 
-import de.topobyte.lightgeom.convexhull.ConvexHull;
-import de.topobyte.lightgeom.convexhull.PointArray;
 import de.topobyte.lightgeom.lina.Point;
 import de.topobyte.lightgeom.lina.Vector2;
 
@@ -52,6 +53,7 @@ public abstract class AbstractStationDrawer implements StationDrawer
 	protected LocationToPoint ltp;
 
 	protected LineNetwork data;
+	protected VisibleNetwork visibleNetwork = null;
 	private float scale;
 
 	protected IPaintInfo paintStationsStroke;
@@ -132,6 +134,28 @@ public abstract class AbstractStationDrawer implements StationDrawer
 		this.scale = scale;
 	}
 
+	@Override
+	public void setVisibleNetwork(VisibleNetwork visibleNetwork)
+	{
+		this.visibleNetwork = visibleNetwork;
+	}
+
+	protected List<Edge> edges(Node node)
+	{
+		if (visibleNetwork == null) {
+			return node.edges;
+		}
+		return visibleNetwork.getEdges(node);
+	}
+
+	protected List<NetworkLine> lines(Edge edge)
+	{
+		if (visibleNetwork == null) {
+			return edge.lines;
+		}
+		return visibleNetwork.getLines(edge);
+	}
+
 	@Override
 	public void zoomChanged(float factor, float lineWidth)
 	{
@@ -154,6 +178,34 @@ public abstract class AbstractStationDrawer implements StationDrawer
 		}
 	}
 
+	@Override
+	public void startStations(Painter g)
+	{
+		// do nothing
+	}
+
+	@Override
+	public void finishStations(Painter g)
+	{
+		// do nothing
+	}
+
+	@Override
+	public void drawDot(Painter g, Node node, boolean selected)
+	{
+		double px = ltp.getX(node.location.x);
+		double py = ltp.getY(node.location.y);
+
+		g.setRef(node);
+		if (selected) {
+			g.setPaintInfo(paintSelectedStationsFillOutline);
+			g.drawCircle(px, py, lineWidth);
+		}
+		g.setPaintInfo(paintStationsFill);
+		g.drawCircle(px, py, lineWidth * 0.4);
+		g.setNoRef();
+	}
+
 	protected void drawSinglePuntal(Painter g, double px, double py,
 			IPaintInfo paint, boolean selected)
 	{
@@ -181,10 +233,18 @@ public abstract class AbstractStationDrawer implements StationDrawer
 	protected void drawLineal(Painter g, Path path, double px, double py,
 			SegmentEndPointPaintInfo spi, boolean selected,
 			boolean renderCenter)
+	{
+		drawLineal(g, path, px, py, spi.sx, spi.sy, spi.ex, spi.ey, selected,
+				renderCenter);
+	}
+
+	protected void drawLineal(Painter g, Path path, double px, double py,
+			double sx, double sy, double ex, double ey, boolean selected,
+			boolean renderCenter)
 	{
 		path.reset();
-		path.moveTo(px + spi.sx, py + spi.sy);
-		path.lineTo(px + spi.ex, py + spi.ey);
+		path.moveTo(px + sx, py + sy);
+		path.lineTo(px + ex, py + ey);
 
 		if (selected) {
 			g.setPaintInfo(paintSelectedStationsStrokeOutline);
@@ -207,7 +267,7 @@ public abstract class AbstractStationDrawer implements StationDrawer
 		g.drawCircle(px, py, 1);
 	}
 
-	protected void addIfNonNull(PointArray points, Point p)
+	protected void addIfNonNull(MonotoneChain points, Point p)
 	{
 		if (p != null) {
 			points.add((float) p.x, (float) p.y);
@@ -228,20 +288,6 @@ public abstract class AbstractStationDrawer implements StationDrawer
 		return null;
 	}
 
-	private ConvexHull convexHull = new ConvexHull();
-
-	protected void hull(Path path, PointArray coords)
-	{
-		PointArray hull = convexHull.computePolygon(coords, false);
-
-		path.reset();
-		int nPoints = hull.size / 2;
-		path.moveTo(hull.getX(0), hull.getY(0));
-		for (int i = 1; i < nPoints; i++) {
-			path.lineTo(hull.getX(i), hull.getY(i));
-		}
-	}
-
 	protected SegmentEndPointPaintInfo endpointInfo(Edge edge, Node node,
 			LocationToPoint ltp, float lineWidth, float spreadFactor,
 			int nLines)
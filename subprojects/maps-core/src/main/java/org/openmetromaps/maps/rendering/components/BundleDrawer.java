@@ -0,0 +1,152 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.rendering.components;
+
+import java.util.List;
+import java.util.Map;
+
+import org.openmetromaps.maps.LocationToPoint;
+import org.openmetromaps.maps.graph.Edge;
+import org.openmetromaps.maps.graph.LineNetwork;
+import org.openmetromaps.maps.graph.NetworkLine;
+import org.openmetromaps.maps.graph.Node;
+import org.openmetromaps.maps.painting.core.Cap;
+import org.openmetromaps.maps.painting.core.ColorCode;
+import org.openmetromaps.maps.painting.core.IPaintInfo;
+import org.openmetromaps.maps.painting.core.Join;
+import org.openmetromaps.maps.painting.core.PaintFactory;
+import org.openmetromaps.maps.painting.core.PaintType;
+import org.openmetromaps.maps.painting.core.Painter;
+import org.openmetromaps.maps.painting.core.geom.Path;
+
+import de.topobyte.lightgeom.lina.Point;
+
+/**
+ * Draws the lines of an edge or of a whole chain of edges as a single stroke
+ * whose width grows with the number of lines. Used for low levels of detail.
+ */
+public class BundleDrawer
+{
+
+	private static final ColorCode COLOR_BUNDLE = new ColorCode(0x555555);
+	private static final ColorCode COLOR_SELECTED = new ColorCode(0xff0000);
+
+	private LocationToPoint ltp;
+	private List<NetworkLine> lines;
+
+	private float spreadFactor;
+	private float lineWidth = 1;
+
+	private IPaintInfo[] paintForLines;
+	private IPaintInfo[] paintForBundles;
+	private IPaintInfo[] paintForSelected;
+
+	public BundleDrawer(PaintFactory pf, LineNetwork data,
+			Map<NetworkLine, ColorCode> colors, LocationToPoint ltp,
+			float spreadFactor)
+	{
+		this.ltp = ltp;
+		this.spreadFactor = spreadFactor;
+
+		lines = data.getLines();
+		paintForLines = new IPaintInfo[lines.size()];
+		for (NetworkLine line : lines) {
+			paintForLines[line.line.getId()] = create(pf, colors.get(line));
+		}
+
+		// one paint per bundle size, so that widths do not change per draw
+		int maxBundle = Math.max(1, lines.size());
+		paintForBundles = new IPaintInfo[maxBundle + 1];
+		paintForSelected = new IPaintInfo[maxBundle + 1];
+		for (int i = 0; i <= maxBundle; i++) {
+			paintForBundles[i] = create(pf, COLOR_BUNDLE);
+			paintForSelected[i] = create(pf, COLOR_SELECTED);
+		}
+	}
+
+	private static IPaintInfo create(PaintFactory pf, ColorCode color)
+	{
+		IPaintInfo paint = pf.create(color);
+		paint.setStyle(PaintType.STROKE);
+		paint.setCap(Cap.ROUND);
+		paint.setJoin(Join.ROUND);
+		return paint;
+	}
+
+	public void zoomChanged(float factor, float lineWidth)
+	{
+		this.lineWidth = lineWidth;
+		for (NetworkLine line : lines) {
+			paintForLines[line.line.getId()].setWidth(lineWidth);
+		}
+		for (int i = 0; i < paintForBundles.length; i++) {
+			paintForBundles[i].setWidth(width(i));
+			paintForSelected[i].setWidth(width(i) * 1.2f);
+		}
+	}
+
+	private float width(int nLines)
+	{
+		return lineWidth + Math.max(0, nLines - 1) * lineWidth * spreadFactor;
+	}
+
+	private IPaintInfo paint(List<NetworkLine> lines, boolean selected)
+	{
+		int n = Math.min(lines.size(), paintForBundles.length - 1);
+		if (selected) {
+			return paintForSelected[n];
+		}
+		if (lines.size() == 1) {
+			return paintForLines[lines.get(0).line.getId()];
+		}
+		return paintForBundles[n];
+	}
+
+	public void drawEdge(Painter g, Edge edge, List<NetworkLine> lines,
+			boolean selected)
+	{
+		if (lines.isEmpty()) {
+			return;
+		}
+		Point a = edge.n1.location;
+		Point b = edge.n2.location;
+
+		g.setPaintInfo(paint(lines, selected));
+		g.drawLine(ltp.getX(a.x), ltp.getY(a.y), ltp.getX(b.x),
+				ltp.getY(b.y));
+	}
+
+	public void drawChain(Painter g, Path path, List<Node> nodes,
+			List<NetworkLine> lines, boolean selected)
+	{
+		if (lines.isEmpty()) {
+			return;
+		}
+		path.reset();
+		Point p = nodes.get(0).location;
+		path.moveTo(ltp.getX(p.x), ltp.getY(p.y));
+		for (int i = 1; i < nodes.size(); i++) {
+			p = nodes.get(i).location;
+			path.lineTo(ltp.getX(p.x), ltp.getY(p.y));
+		}
+
+		g.setPaintInfo(paint(lines, selected));
+		g.draw(path);
+	}
+
+}
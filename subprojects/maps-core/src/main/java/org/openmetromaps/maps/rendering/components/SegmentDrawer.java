@@ -26,9 +26,9 @@ import org.openmetromaps.maps.painting.core.Painter;
 public interface SegmentDrawer
 {
 
-	public void startSegments();
+	public void startSegments(Painter g);
 
-	public void finishSegments();
+	public void finishSegments(Painter g);
 
 	public void drawSegment(Painter g, List<NetworkLine> lines, Edge edge, List<Boolean> selected);
 
@@ -33,6 +33,7 @@ import org.openmetromaps.maps.painting.core.IPaintInfo;
 import org.openmetromaps.maps.painting.core.PaintFactory;
 import org.openmetromaps.maps.painting.core.Painter;
 import org.openmetromaps.maps.painting.core.geom.LineSegment;
+import org.openmetromaps.maps.painting.core.geom.Path;
 
 import de.topobyte.lightgeom.curves.spline.CubicSpline;
 import de.topobyte.lightgeom.curves.spline.CubicSplineB;
@@ -45,8 +46,16 @@ public class SegmentDrawerCurved extends AbstractSegmentDrawer
 
 	private double f = 0.3;
 	private long durationCurves = 0;
+	private long startCurves;
 	private boolean debugTangents = false;
 
+	private SegmentGeometryCache cache = new SegmentGeometryCache();
+
+	// translation of the current viewport, cached geometry is stored relative
+	// to it
+	private double tx;
+	private double ty;
+
 	public SegmentDrawerCurved(PaintFactory pf, LineNetwork lineNetwork,
 			Map<NetworkLine, ColorCode> colors, float scale,
 			LocationToPoint ltp, float spreadFactor, float lineWidth)
@@ -55,11 +64,37 @@ public class SegmentDrawerCurved extends AbstractSegmentDrawer
 	}
 
 	@Override
-	public void startSegments()
+	public void zoomChanged(float factor, float lineWidth)
+	{
+		super.zoomChanged(factor, lineWidth);
+		// the offsets of multi-line segments depend on the line width
+		cache.clear();
+	}
+
+	@Override
+	public void startSegments(Painter g)
+	{
+		super.startSegments(g);
+		startCurves = System.nanoTime();
+		// tangents are drawn with the current paint, hence not batched
+		batching &= !debugTangents;
+
+		tx = ltp.getX(0);
+		ty = ltp.getY(0);
+		cache.setFactor(ltp.getX(1) - tx);
+	}
+
+	@Override
+	public void finishSegments(Painter g)
 	{
-		durationCurves = 0;
+		super.finishSegments(g);
+		durationCurves = (System.nanoTime() - startCurves) / 1000000;
 	}
 
+	/**
+	 * @return the time spent computing and drawing curves during the last
+	 *         pass, in milliseconds.
+	 */
 	public long getDurationCurves()
 	{
 		return durationCurves;
@@ -75,89 +110,128 @@ public class SegmentDrawerCurved extends AbstractSegmentDrawer
 		this.debugTangents = debugTangents;
 	}
 
+	public SegmentGeometryCache getCache()
+	{
+		return cache;
+	}
+
 	@Override
 	public void drawSegment(Painter g, List<NetworkLine> lines, Edge edge, List<Boolean> selected)
 	{
-		Point locationA = edge.n1.location;
-		Point locationB = edge.n2.location;
-
-		double ax = ltp.getX(locationA.x);
-		double ay = ltp.getY(locationA.y);
-		double bx = ltp.getX(locationB.x);
-		double by = ltp.getY(locationB.y);
-
 		if (lines.size() == 1) {
 			NetworkLine line = lines.get(0);
-			drawSingleLineEdgeCurved(g, line, edge, selected.get(0), ax, ay, bx, by);
+			drawSingleLineEdgeCurved(g, lines, line, edge, selected.get(0));
 		} else {
-			drawMultiLineEdgeCurved(g, lines, edge, selected, ax, ay, bx, by);
+			drawMultiLineEdgeCurved(g, lines, edge, selected);
 		}
 	}
 
 	private CubicSpline spline = new CubicSplineB(0, 0, 0, 0, 0, 0, 0, 0);
 
+	private Point p1 = new Point(0, 0);
+	private Point c1 = new Point(0, 0);
+	private Point c2 = new Point(0, 0);
+	private Point p2 = new Point(0, 0);
+
 	private Vector2 v1 = new Vector2(0, 0);
 	private Vector2 v2 = new Vector2(0, 0);
 
-	private void drawSingleLineEdgeCurved(Painter g, NetworkLine line,
-			Edge edge, boolean selected, double ax, double ay, double bx, double by)
+	private void drawSingleLineEdgeCurved(Painter g, List<NetworkLine> lines,
+			NetworkLine line, Edge edge, boolean selected)
 	{
 		IPaintInfo paint = selected ? lineToPaintForSelectedLines : lineToPaintForLines[line.line.getId()];
-		g.setPaintInfo(paint);
 
 		NeighborInfo neighbors = line.getNeighbors(edge);
 
-		Node prev = neighbors.prev;
-		Node next = neighbors.next;
+		Point locationA = edge.n1.location;
+		Point locationB = edge.n2.location;
+		Point locationPrev = neighbors.prev == null ? null
+				: neighbors.prev.location;
+		Point locationNext = neighbors.next == null ? null
+				: neighbors.next.location;
+
+		SegmentGeometryCache.Entry entry = cache.get(edge, lines, locationA,
+				locationB, locationPrev, locationNext);
+		if (entry == null) {
+			entry = cache.put(edge, lines, locationA, locationB, locationPrev,
+					locationNext);
+
+			double ax = ltp.getX(locationA.x);
+			double ay = ltp.getY(locationA.y);
+			double bx = ltp.getX(locationB.x);
+			double by = ltp.getY(locationB.y);
 
-		Vector2 d02 = null, d31 = null;
+			Vector2 d02 = null, d31 = null;
 
-		if (prev != null) {
-			double sp0x = ltp.getX(prev.location.x);
-			double sp0y = ltp.getY(prev.location.y);
-			d02 = v1;
-			d02.set(bx, by);
-			d02.sub(sp0x, sp0y);
-			d02.normalize();
-		}
-		if (next != null) {
-			double sp3x = ltp.getX(next.location.x);
-			double sp3y = ltp.getY(next.location.y);
-			d31 = v2;
-			d31.set(ax, ay);
-			d31.sub(sp3x, sp3y);
-			d31.normalize();
-		}
+			if (locationPrev != null) {
+				double sp0x = ltp.getX(locationPrev.x);
+				double sp0y = ltp.getY(locationPrev.y);
+				d02 = v1;
+				d02.set(bx, by);
+				d02.sub(sp0x, sp0y);
+				d02.normalize();
+			}
+			if (locationNext != null) {
+				double sp3x = ltp.getX(locationNext.x);
+				double sp3y = ltp.getY(locationNext.y);
+				d31 = v2;
+				d31.set(ax, ay);
+				d31.sub(sp3x, sp3y);
+				d31.normalize();
+			}
 
-		SplineUtil.spline(spline, ax, ay, bx, by, d02, d31, f, true);
+			SplineUtil.spline(spline, ax, ay, bx, by, d02, d31, f, true);
+			store(entry.getCoords(), 0, spline);
+		}
 
-		g.setRef(edge, line);
-		g.draw(spline);
-		g.setNoRef();
+		draw(g, paint, edge, line, entry.getCoords(), 0);
 	}
 
 	private SegmentEndPointPaintInfo spiA = new SegmentEndPointPaintInfo();
 	private SegmentEndPointPaintInfo spiB = new SegmentEndPointPaintInfo();
 
 	private void drawMultiLineEdgeCurved(Painter g, List<NetworkLine> lines,
-			Edge edge, List<Boolean> selected, double ax, double ay, double bx, double by)
+			Edge edge, List<Boolean> selected)
 	{
+		Point locationA = edge.n1.location;
+		Point locationB = edge.n2.location;
 		Point lp = edge.prev;
 		Point ln = edge.next;
 
-		EdgeUtil.segmentInfo(spiA, spiB, ax, ay, bx, by, lp, ln, ltp, lineWidth,
-				spreadFactor, lines.size());
+		SegmentGeometryCache.Entry entry = cache.get(edge, lines, locationA,
+				locationB, lp, ln);
+		if (entry == null) {
+			entry = cache.put(edge, lines, locationA, locationB, lp, ln);
+			computeMultiLine(entry.getCoords(), lines.size(), locationA,
+					locationB, lp, ln);
+		}
 
+		float[] coords = entry.getCoords();
 		for (int i = 0; i < lines.size(); i++) {
+			NetworkLine line = lines.get(i);
+			IPaintInfo paint = selected.get(i) ? lineToPaintForSelectedLines : lineToPaintForLines[line.line.getId()];
+			draw(g, paint, edge, line, coords,
+					i * SegmentGeometryCache.FLOATS_PER_LINE);
+		}
+	}
+
+	private void computeMultiLine(float[] coords, int n, Point locationA,
+			Point locationB, Point lp, Point ln)
+	{
+		double ax = ltp.getX(locationA.x);
+		double ay = ltp.getY(locationA.y);
+		double bx = ltp.getX(locationB.x);
+		double by = ltp.getY(locationB.y);
+
+		EdgeUtil.segmentInfo(spiA, spiB, ax, ay, bx, by, lp, ln, ltp, lineWidth,
+				spreadFactor, n);
+
+		for (int i = 0; i < n; i++) {
 			double lax = ax + spiA.sx + spiA.ndy * i * spiA.shift;
 			double lay = ay + spiA.sy - spiA.ndx * i * spiA.shift;
 			double lbx = bx + spiB.sx + spiB.ndy * i * spiB.shift;
 			double lby = by + spiB.sy - spiB.ndx * i * spiB.shift;
 
-			NetworkLine line = lines.get(i);
-			IPaintInfo paint = selected.get(i) ? lineToPaintForSelectedLines : lineToPaintForLines[line.line.getId()];
-			g.setPaintInfo(paint);
-
 			Vector2 d02 = null, d31 = null;
 
 			if (lp != null) {
@@ -171,20 +245,64 @@ public class SegmentDrawerCurved extends AbstractSegmentDrawer
 				d31 = v2.set(ax, ay).sub(sp3x, sp3y).normalize();
 			}
 
-			g.setRef(edge, line);
-
 			SplineUtil.spline(spline, lax, lay, lbx, lby, d02, d31, f, true);
-			long ta = System.currentTimeMillis();
-			g.draw(spline);
-			long tb = System.currentTimeMillis();
-			durationCurves += tb - ta;
-
-			if (debugTangents) {
-				g.draw(new LineSegment(spline.getP1(), spline.getC1()));
-				g.draw(new LineSegment(spline.getC2(), spline.getP2()));
-			}
+			store(coords, i * SegmentGeometryCache.FLOATS_PER_LINE, spline);
+		}
+	}
+
+	private void store(float[] coords, int off, CubicSpline spline)
+	{
+		Point p1 = spline.getP1();
+		Point c1 = spline.getC1();
+		Point c2 = spline.getC2();
+		Point p2 = spline.getP2();
+		coords[off] = (float) (p1.x - tx);
+		coords[off + 1] = (float) (p1.y - ty);
+		coords[off + 2] = (float) (c1.x - tx);
+		coords[off + 3] = (float) (c1.y - ty);
+		coords[off + 4] = (float) (c2.x - tx);
+		coords[off + 5] = (float) (c2.y - ty);
+		coords[off + 6] = (float) (p2.x - tx);
+		coords[off + 7] = (float) (p2.y - ty);
+	}
+
+	private void draw(Painter g, IPaintInfo paint, Edge edge, NetworkLine line,
+			float[] coords, int off)
+	{
+		if (batching) {
+			Path path = batch.get(g, paint);
+			path.moveTo(coords[off] + tx, coords[off + 1] + ty);
+			path.curveTo(coords[off + 2] + tx, coords[off + 3] + ty,
+					coords[off + 4] + tx, coords[off + 5] + ty,
+					coords[off + 6] + tx, coords[off + 7] + ty);
+			return;
+		}
+
+		set(p1, coords, off);
+		set(c1, coords, off + 2);
+		set(c2, coords, off + 4);
+		set(p2, coords, off + 6);
+		spline.setP1(p1);
+		spline.setC1(c1);
+		spline.setC2(c2);
+		spline.setP2(p2);
+
+		g.setPaintInfo(paint);
+		g.setRef(edge, line);
+		g.draw(spline);
 
-			g.setNoRef();
+		if (debugTangents) {
+			g.draw(new LineSegment(p1, c1));
+			g.draw(new LineSegment(c2, p2));
 		}
+
+		g.setNoRef();
 	}
+
+	private void set(Point point, float[] coords, int off)
+	{
+		point.x = coords[off] + tx;
+		point.y = coords[off + 1] + ty;
+	}
+
 }
@@ -31,6 +31,7 @@ import org.openmetromaps.maps.painting.core.ColorCode;
 import org.openmetromaps.maps.painting.core.IPaintInfo;
 import org.openmetromaps.maps.painting.core.PaintFactory;
 import org.openmetromaps.maps.painting.core.Painter;
+import org.openmetromaps.maps.painting.core.geom.Path;
 
 import de.topobyte.lightgeom.lina.Point;
 
@@ -68,6 +69,13 @@ public class SegmentDrawerStraight extends AbstractSegmentDrawer
 	{
 		IPaintInfo paint = selected ? lineToPaintForSelectedLines : lineToPaintForLines[line.line.getId()];
 
+		if (batching) {
+			Path path = batch.get(g, paint);
+			path.moveTo(ax, ay);
+			path.lineTo(bx, by);
+			return;
+		}
+
 		g.setPaintInfo(paint);
 
 		g.setRef(edge, line);
@@ -92,6 +100,14 @@ public class SegmentDrawerStraight extends AbstractSegmentDrawer
 
 			NetworkLine line = iter.next();
 			IPaintInfo paint = selected.get(i) ? lineToPaintForSelectedLines : lineToPaintForLines[line.line.getId()];
+
+			if (batching) {
+				Path path = batch.get(g, paint);
+				path.moveTo(lax, lay);
+				path.lineTo(lbx, lby);
+				continue;
+			}
+
 			g.setPaintInfo(paint);
 
 			g.setRef(edge, line);
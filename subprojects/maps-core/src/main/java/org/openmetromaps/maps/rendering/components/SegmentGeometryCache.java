@@ -0,0 +1,134 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.rendering.components;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openmetromaps.maps.graph.Edge;
+import org.openmetromaps.maps.graph.NetworkLine;
+
+import de.topobyte.lightgeom.lina.Point;
+
+/**
+ * Caches the spline geometry of segments for one zoom level. For each line
+ * of an edge, the start point, both control points and the end point are
+ * stored as 8 consecutive floats, relative to the translation of the viewport
+ * so that entries stay valid while panning.
+ *
+ * Each entry remembers the points its geometry has been computed from. As
+ * locations and neighbor locations are replaced rather than modified (see
+ * {@link org.openmetromaps.maps.graph.Node#location}), an entry is dropped as
+ * soon as one of them is not the same object anymore.
+ */
+public class SegmentGeometryCache
+{
+
+	public static final int FLOATS_PER_LINE = 8;
+
+	private static final int NUM_STAMPS = 4;
+
+	private double factor = Double.NaN;
+	private Map<Edge, Entry> entries = new IdentityHashMap<>();
+
+	public static class Entry
+	{
+
+		private List<NetworkLine> lines;
+		private Point[] stamps = new Point[NUM_STAMPS];
+		private float[] coords;
+
+		public float[] getCoords()
+		{
+			return coords;
+		}
+
+	}
+
+	/**
+	 * Drop all entries if the zoom factor differs from the one the cached
+	 * geometry has been computed for.
+	 */
+	public void setFactor(double factor)
+	{
+		if (factor != this.factor) {
+			entries.clear();
+			this.factor = factor;
+		}
+	}
+
+	public void clear()
+	{
+		entries.clear();
+	}
+
+	public void invalidate(Edge edge)
+	{
+		entries.remove(edge);
+	}
+
+	public int size()
+	{
+		return entries.size();
+	}
+
+	/**
+	 * @return the entry of the edge if it has been computed for the same
+	 *         list of lines and from the same points, null otherwise.
+	 */
+	public Entry get(Edge edge, List<NetworkLine> lines, Point s0, Point s1,
+			Point s2, Point s3)
+	{
+		Entry entry = entries.get(edge);
+		if (entry == null) {
+			return null;
+		}
+		Point[] stamps = entry.stamps;
+		if (entry.lines != lines || stamps[0] != s0 || stamps[1] != s1
+				|| stamps[2] != s2 || stamps[3] != s3) {
+			return null;
+		}
+		return entry;
+	}
+
+	/**
+	 * Create a new entry for the edge with room for the geometry of all
+	 * lines, replacing any previous entry.
+	 */
+	public Entry put(Edge edge, List<NetworkLine> lines, Point s0, Point s1,
+			Point s2, Point s3)
+	{
+		Entry entry = entries.get(edge);
+		if (entry == null) {
+			entry = new Entry();
+			entries.put(edge, entry);
+		}
+		int size = lines.size() * FLOATS_PER_LINE;
+		if (entry.coords == null || entry.coords.length != size) {
+			entry.coords = new float[size];
+		}
+		entry.lines = lines;
+		entry.stamps[0] = s0;
+		entry.stamps[1] = s1;
+		entry.stamps[2] = s2;
+		entry.stamps[3] = s3;
+		return entry;
+	}
+
+}
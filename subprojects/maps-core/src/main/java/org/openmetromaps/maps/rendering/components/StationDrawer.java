@@ -17,6 +17,7 @@
 
 package org.openmetromaps.maps.rendering.components;
 
+import org.openmetromaps.maps.VisibleNetwork;
 import org.openmetromaps.maps.graph.Node;
 import org.openmetromaps.maps.painting.core.Painter;
 import org.openmetromaps.maps.painting.core.geom.Path;
@@ -24,9 +25,20 @@ import org.openmetromaps.maps.painting.core.geom.Path;
 public interface StationDrawer
 {
 
+	public void startStations(Painter g);
+
+	public void finishStations(Painter g);
+
 	public void drawStation(Painter g, Node node, Path path, boolean selected,
 			boolean renderCenter);
 
+	/**
+	 * Draw the station as a plain dot, used for low levels of detail.
+	 */
+	public void drawDot(Painter g, Node node, boolean selected);
+
+	public void setVisibleNetwork(VisibleNetwork visibleNetwork);
+
 	public void zoomChanged(float factor, float lineWidth);
 
 	public float getScale();
@@ -24,6 +24,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.openmetromaps.maps.LocationToPoint;
+import org.openmetromaps.maps.MonotoneChain;
 import org.openmetromaps.maps.SegmentEndPointPaintInfo;
 import org.openmetromaps.maps.graph.Edge;
 import org.openmetromaps.maps.graph.LineNetwork;
@@ -43,7 +44,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.topobyte.formatting.Formatting;
-import de.topobyte.lightgeom.convexhull.PointArray;
 import de.topobyte.lightgeom.lina.Point;
 import de.topobyte.lightgeom.lina.Vector2;
 
@@ -92,10 +92,25 @@ public class StationDrawerConvex extends AbstractStationDrawer
 	private Point p4 = new Point(0, 0);
 
 	private List<List<NetworkLine>> done = new ArrayList<>();
-	private PointArray coords = new PointArray();
+	private MonotoneChain coords = new MonotoneChain();
 	private List<SegmentEndPointPaintInfo> spis = new ArrayList<>();
 	private List<Edge> skipped = new ArrayList<>();
 
+	private StationOutlineCache cache = new StationOutlineCache();
+
+	@Override
+	public void zoomChanged(float factor, float lineWidth)
+	{
+		super.zoomChanged(factor, lineWidth);
+		// the outlines depend on the line width
+		cache.clear();
+	}
+
+	public StationOutlineCache getCache()
+	{
+		return cache;
+	}
+
 	@Override
 	public void drawStation(Painter g, Node node, Path path, boolean selected,
 			boolean renderCenter)
@@ -109,31 +124,103 @@ public class StationDrawerConvex extends AbstractStationDrawer
 			boolean selected, boolean renderCenter)
 	{
 		Point location = node.location;
-		List<Edge> nodeEdges = node.edges;
+		List<Edge> nodeEdges = edges(node);
+
+		double px = ltp.getX(location.x);
+		double py = ltp.getY(location.y);
+
+		double tx = ltp.getX(0);
+		cache.setFactor(ltp.getX(1) - tx);
+
+		StationOutlineCache.Entry entry = null;
+		if (!DEBUG) {
+			entry = cache.get(node, nodeEdges, this);
+		}
+		if (entry == null) {
+			entry = cache.put(node, nodeEdges, this);
+			computeOutline(entry, node, nodeEdges);
+		}
+
+		float[] c = entry.coords;
+		switch (entry.kind) {
+		default:
+		case StationOutlineCache.KIND_NONE:
+			return;
+		case StationOutlineCache.KIND_SINGLE_PUNTAL:
+			IPaintInfo paint = lineToPaintForStations[entry.lineId];
+			drawSinglePuntal(g, px, py, paint, selected);
+			return;
+		case StationOutlineCache.KIND_MULTI_PUNTAL:
+			drawMultiPuntal(g, px, py, selected);
+			return;
+		case StationOutlineCache.KIND_LINEAL:
+			drawLineal(g, path, px, py, c[0], c[1], c[2], c[3], selected,
+					renderCenter);
+			return;
+		case StationOutlineCache.KIND_POLYGON:
+			break;
+		}
+
+		path.reset();
+		path.moveTo(px + c[0], py + c[1]);
+		final int nPoints = entry.numPoints;
+		for (int i = 1; i < nPoints; i++) {
+			path.lineTo(px + c[i * 2], py + c[i * 2 + 1]);
+		}
+
+		if (selected) {
+			g.setPaintInfo(paintSelectedStationsStrokeOutline);
+		} else {
+			g.setPaintInfo(paintStationsStrokeOutline);
+		}
+		g.draw(path);
+		g.setPaintInfo(paintStationsFill);
+		g.draw(path);
+		g.setPaintInfo(paintStationsStroke);
+		g.draw(path);
+
+		if (renderCenter) {
+			renderCenter(g, px, py);
+		}
+
+		if (DEBUG) {
+			paintDebug.setWidth(2);
 
+			paintDebug.setColor(debugBlue);
+			g.setPaintInfo(paintDebug);
+			final int nCoords = coords.numPoints();
+			for (int i = 0; i < nCoords; i++) {
+				g.draw(new LineSegment(px, py, px + coords.getHullX(i),
+						py + coords.getHullY(i)));
+			}
+		}
+	}
+
+	/**
+	 * Compute the outline of the station relative to its location on screen
+	 * and store it in the specified cache entry.
+	 */
+	private void computeOutline(StationOutlineCache.Entry entry, Node node,
+			List<Edge> nodeEdges)
+	{
 		Set<NetworkLine> nodeLines = new HashSet<>();
 		for (Edge edge : nodeEdges) {
-			nodeLines.addAll(edge.lines);
+			nodeLines.addAll(lines(edge));
 		}
 
 		if (nodeLines.isEmpty()) {
+			entry.kind = StationOutlineCache.KIND_NONE;
 			return;
 		}
 
 		if (nodeLines.size() == 1) {
 			NetworkLine line = nodeLines.iterator().next();
-			int lineId = line.line.getId();
-			IPaintInfo paint = lineToPaintForStations[lineId];
-			double px = ltp.getX(location.x);
-			double py = ltp.getY(location.y);
-			drawSinglePuntal(g, px, py, paint, selected);
+			entry.kind = StationOutlineCache.KIND_SINGLE_PUNTAL;
+			entry.lineId = line.line.getId();
 			return;
 		}
 
-		List<Edge> edges = node.edges;
-
-		double px = ltp.getX(location.x);
-		double py = ltp.getY(location.y);
+		List<Edge> edges = nodeEdges;
 
 		done.clear();
 		spis.clear();
@@ -142,7 +229,7 @@ public class StationDrawerConvex extends AbstractStationDrawer
 		final int nEdges = edges.size();
 		for (int i = 0; i < nEdges; i++) {
 			Edge edge = edges.get(i);
-			List<NetworkLine> lines = edge.lines;
+			List<NetworkLine> lines = lines(edge);
 
 			if (lines.size() == 1) {
 				continue;
@@ -161,14 +248,14 @@ public class StationDrawerConvex extends AbstractStationDrawer
 
 		// Simple stations with only one line
 		if (spis.size() == 0) {
-			drawMultiPuntal(g, px, py, selected);
+			entry.kind = StationOutlineCache.KIND_MULTI_PUNTAL;
 			return;
 		}
 
 		// Stations with multiple lines but all on the the same one or two edges
 		if (spis.size() == 1) {
 			SegmentEndPointPaintInfo spi = spis.get(0);
-			drawLineal(g, path, px, py, spi, selected, renderCenter);
+			setLineal(entry, spi);
 			spiPool.give(spi);
 			return;
 		}
@@ -185,7 +272,7 @@ public class StationDrawerConvex extends AbstractStationDrawer
 				// > ~172 degrees
 				SegmentEndPointPaintInfo spi = spi1.nShift > spi2.nShift ? spi1
 						: spi2;
-				drawLineal(g, path, px, py, spi, selected, renderCenter);
+				setLineal(entry, spi);
 				spiPool.give(spi1);
 				spiPool.give(spi2);
 				return;
@@ -198,7 +285,7 @@ public class StationDrawerConvex extends AbstractStationDrawer
 		final int nSkipped = skipped.size();
 		for (int k = 0; k < nSkipped; k++) {
 			Edge edge = skipped.get(k);
-			List<NetworkLine> lines = edge.lines;
+			List<NetworkLine> lines = lines(edge);
 
 			if (lines.size() == 1) {
 				continue;
@@ -209,7 +296,8 @@ public class StationDrawerConvex extends AbstractStationDrawer
 			spis.add(spi);
 		}
 
-		m.set(px, py);
+		// Work relative to the station's location
+		m.set(0, 0);
 
 		// Add corners of the edge to the convex hull
 		coords.clear();
@@ -218,8 +306,8 @@ public class StationDrawerConvex extends AbstractStationDrawer
 		for (int i = 0; i < nSpis; i++) {
 			SegmentEndPointPaintInfo spi = spis.get(i);
 
-			coords.add((float) (px + spi.sx), (float) (py + spi.sy));
-			coords.add((float) (px + spi.ex), (float) (py + spi.ey));
+			coords.add((float) spi.sx, (float) spi.sy);
+			coords.add((float) spi.ex, (float) spi.ey);
 		}
 
 		// Add intersections of rays
@@ -254,48 +342,19 @@ public class StationDrawerConvex extends AbstractStationDrawer
 			}
 		}
 
-		logger.info(Formatting.format("Station (%d edges): %s", spis.size(),
-				node.station.getName()));
-
-		logger.info("number of points: " + coords.numPoints());
-		hull(path, coords);
-
-		if (selected) {
-			g.setPaintInfo(paintSelectedStationsStrokeOutline);
-		} else {
-			g.setPaintInfo(paintStationsStrokeOutline);
-		}
-		g.draw(path);
-		g.setPaintInfo(paintStationsFill);
-		g.draw(path);
-		g.setPaintInfo(paintStationsStroke);
-		g.draw(path);
-
-		if (renderCenter) {
-			renderCenter(g, px, py);
+		if (logger.isDebugEnabled()) {
+			logger.debug(Formatting.format("Station (%d edges): %s",
+					spis.size(), node.station.getName()));
+			logger.debug("number of points: " + coords.numPoints());
 		}
 
-		if (DEBUG) {
-			paintDebug.setWidth(2);
-
-			paintDebug.setColor(debugBlue);
-			g.setPaintInfo(paintDebug);
-			final int nPoints = coords.numPoints();
-			for (int i = 0; i < nPoints; i++) {
-				g.draw(new LineSegment(m.x, m.y, coords.getX(i),
-						coords.getY(i)));
-			}
-
-			paintDebug.setColor(debugBlack);
-			g.setPaintInfo(paintDebug);
-			for (int i = 0; i < nSpis; i++) {
-				SegmentEndPointPaintInfo spi = spis.get(i);
-
-				Point p1 = new Point(px + spi.sx, py + spi.sy);
-				Point p2 = new Point(px + spi.ex, py + spi.ey);
-
-				g.draw(new LineSegment(p1, p2));
-			}
+		int nPoints = coords.compute();
+		entry.kind = StationOutlineCache.KIND_POLYGON;
+		entry.setPoints(nPoints);
+		float[] c = entry.coords;
+		for (int i = 0; i < nPoints; i++) {
+			c[i * 2] = coords.getHullX(i);
+			c[i * 2 + 1] = coords.getHullY(i);
 		}
 
 		for (int i = 0; i < nSpis; i++) {
@@ -303,4 +362,16 @@ public class StationDrawerConvex extends AbstractStationDrawer
 		}
 	}
 
+	private void setLineal(StationOutlineCache.Entry entry,
+			SegmentEndPointPaintInfo spi)
+	{
+		entry.kind = StationOutlineCache.KIND_LINEAL;
+		entry.setPoints(2);
+		float[] c = entry.coords;
+		c[0] = (float) spi.sx;
+		c[1] = (float) spi.sy;
+		c[2] = (float) spi.ex;
+		c[3] = (float) spi.ey;
+	}
+
 }
@@ -29,6 +29,7 @@ import org.openmetromaps.maps.painting.core.ColorCode;
 import org.openmetromaps.maps.painting.core.IPaintInfo;
 import org.openmetromaps.maps.painting.core.PaintFactory;
 import org.openmetromaps.maps.painting.core.Painter;
+import org.openmetromaps.maps.painting.core.geom.CoordinateBuffer;
 import org.openmetromaps.maps.painting.core.geom.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,6 +47,62 @@ public class StationDrawerDot extends AbstractStationDrawer
 			LocationToPoint ltp, float spreadFactor)
 	{
 		super(pf, data, colors, scale, ltp, spreadFactor);
+
+		lineFills = new CoordinateBuffer[lineToPaintForStations.length];
+		for (int i = 0; i < lineFills.length; i++) {
+			lineFills[i] = new CoordinateBuffer();
+		}
+	}
+
+	// Station circles are collected here and drawn at once per paint if the
+	// painter supports batches
+	private boolean batching = false;
+	private CoordinateBuffer selectedOutlines = new CoordinateBuffer();
+	private CoordinateBuffer outlines = new CoordinateBuffer();
+	private CoordinateBuffer fills = new CoordinateBuffer();
+	private CoordinateBuffer[] lineFills;
+
+	@Override
+	public void startStations(Painter g)
+	{
+		batching = g.supportsBatches();
+		clearBuffers();
+	}
+
+	@Override
+	public void finishStations(Painter g)
+	{
+		if (!batching) {
+			return;
+		}
+		draw(g, paintSelectedStationsFillOutline, selectedOutlines,
+				circleRadiusOutline);
+		draw(g, paintStationsFillOutline, outlines, circleRadiusOutline);
+		for (int i = 0; i < lineFills.length; i++) {
+			draw(g, lineToPaintForStations[i], lineFills[i], circleRadius);
+		}
+		draw(g, paintStationsFill, fills, circleRadius);
+		clearBuffers();
+	}
+
+	private void draw(Painter g, IPaintInfo paint, CoordinateBuffer centers,
+			double radius)
+	{
+		if (centers.isEmpty()) {
+			return;
+		}
+		g.setPaintInfo(paint);
+		g.drawCircles(centers, radius);
+	}
+
+	private void clearBuffers()
+	{
+		selectedOutlines.clear();
+		outlines.clear();
+		fills.clear();
+		for (CoordinateBuffer buffer : lineFills) {
+			buffer.clear();
+		}
 	}
 
 	@Override
@@ -66,6 +123,11 @@ public class StationDrawerDot extends AbstractStationDrawer
 		double px = ltp.getX(location.x);
 		double py = ltp.getY(location.y);
 
+		if (batching) {
+			batchStation(stops, px, py, selected);
+			return;
+		}
+
 		if (stops.size() == 1) {
 			Stop stop = stops.get(0);
 			IPaintInfo paint = lineToPaintForStations[stop.getLine().getId()];
@@ -75,4 +137,21 @@ public class StationDrawerDot extends AbstractStationDrawer
 		}
 	}
 
+	private void batchStation(List<Stop> stops, double px, double py,
+			boolean selected)
+	{
+		if (selected) {
+			selectedOutlines.add(px, py);
+		}
+		if (stops.size() == 1) {
+			Stop stop = stops.get(0);
+			lineFills[stop.getLine().getId()].add(px, py);
+		} else {
+			if (!selected) {
+				outlines.add(px, py);
+			}
+			fills.add(px, py);
+		}
+	}
+
 }
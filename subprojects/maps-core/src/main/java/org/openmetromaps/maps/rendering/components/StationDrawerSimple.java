@@ -75,7 +75,7 @@ public class StationDrawerSimple extends AbstractStationDrawer
 			return;
 		}
 
-		List<Edge> edges = node.edges;
+		List<Edge> edges = edges(node);
 
 		boolean moreThanDot = false;
 
@@ -86,7 +86,7 @@ public class StationDrawerSimple extends AbstractStationDrawer
 
 		path.reset();
 		for (Edge edge : edges) {
-			List<NetworkLine> lines = edge.lines;
+			List<NetworkLine> lines = lines(edge);
 			moreThanDot |= lines.size() > 1;
 
 			if (lines.size() == 1) {
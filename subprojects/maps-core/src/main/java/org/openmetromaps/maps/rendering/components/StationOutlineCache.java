@@ -0,0 +1,169 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.rendering.components;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openmetromaps.maps.graph.Edge;
+import org.openmetromaps.maps.graph.NetworkLine;
+import org.openmetromaps.maps.graph.Node;
+
+/**
+ * Caches the outlines of stations for one zoom level. Outline coordinates are
+ * stored relative to the position of the station on screen so that entries
+ * stay valid while panning.
+ *
+ * Each entry remembers the objects its outline has been computed from: the
+ * location of the node, the list of edges, and for each edge the list of
+ * lines, the locations of both end nodes and the neighbor locations. As these
+ * point objects are replaced rather than modified (see {@link Node#location}),
+ * an entry is dropped as soon as one of them is not the same object anymore.
+ */
+public class StationOutlineCache
+{
+
+	public static final int KIND_NONE = 0;
+	public static final int KIND_SINGLE_PUNTAL = 1;
+	public static final int KIND_MULTI_PUNTAL = 2;
+	public static final int KIND_LINEAL = 3;
+	public static final int KIND_POLYGON = 4;
+
+	private static final int STAMPS_PER_EDGE = 5;
+
+	private double factor = Double.NaN;
+	private Map<Node, Entry> entries = new IdentityHashMap<>();
+
+	public static class Entry
+	{
+
+		private Object[] stamps = new Object[2];
+		private int numStamps;
+
+		int kind;
+		int lineId;
+		float[] coords = new float[4];
+		int numPoints;
+
+		void setPoints(int numPoints)
+		{
+			if (coords.length < numPoints * 2) {
+				coords = new float[numPoints * 2];
+			}
+			this.numPoints = numPoints;
+		}
+
+	}
+
+	/**
+	 * Drop all entries if the zoom factor differs from the one the cached
+	 * outlines have been computed for.
+	 */
+	public void setFactor(double factor)
+	{
+		if (factor != this.factor) {
+			entries.clear();
+			this.factor = factor;
+		}
+	}
+
+	public void clear()
+	{
+		entries.clear();
+	}
+
+	public void invalidate(Node node)
+	{
+		entries.remove(node);
+	}
+
+	public int size()
+	{
+		return entries.size();
+	}
+
+	/**
+	 * @return the entry of the node if it is still valid for the specified
+	 *         edges, null otherwise.
+	 */
+	public Entry get(Node node, List<Edge> edges,
+			AbstractStationDrawer drawer)
+	{
+		Entry entry = entries.get(node);
+		if (entry == null) {
+			return null;
+		}
+
+		Object[] stamps = entry.stamps;
+		int nEdges = edges.size();
+		if (entry.numStamps != 2 + nEdges * STAMPS_PER_EDGE
+				|| stamps[0] != node.location || stamps[1] != edges) {
+			return null;
+		}
+
+		int k = 2;
+		for (int i = 0; i < nEdges; i++) {
+			Edge edge = edges.get(i);
+			if (stamps[k++] != drawer.lines(edge)
+					|| stamps[k++] != edge.n1.location
+					|| stamps[k++] != edge.n2.location
+					|| stamps[k++] != edge.prev || stamps[k++] != edge.next) {
+				return null;
+			}
+		}
+		return entry;
+	}
+
+	/**
+	 * Create a new entry for the node, replacing any previous entry.
+	 */
+	public Entry put(Node node, List<Edge> edges, AbstractStationDrawer drawer)
+	{
+		Entry entry = entries.get(node);
+		if (entry == null) {
+			entry = new Entry();
+			entries.put(node, entry);
+		}
+
+		int nEdges = edges.size();
+		int numStamps = 2 + nEdges * STAMPS_PER_EDGE;
+		if (entry.stamps.length < numStamps) {
+			entry.stamps = new Object[numStamps];
+		}
+		Object[] stamps = entry.stamps;
+		stamps[0] = node.location;
+		stamps[1] = edges;
+		int k = 2;
+		for (int i = 0; i < nEdges; i++) {
+			Edge edge = edges.get(i);
+			List<NetworkLine> lines = drawer.lines(edge);
+			stamps[k++] = lines;
+			stamps[k++] = edge.n1.location;
+			stamps[k++] = edge.n2.location;
+			stamps[k++] = edge.prev;
+			stamps[k++] = edge.next;
+		}
+		entry.numStamps = numStamps;
+
+		entry.kind = KIND_NONE;
+		entry.numPoints = 0;
+		return entry;
+	}
+
+}
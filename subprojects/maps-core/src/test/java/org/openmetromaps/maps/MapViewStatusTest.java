@@ -0,0 +1,123 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmetromaps.maps.graph.LineNetwork;
+import org.openmetromaps.maps.graph.NetworkLine;
+import org.openmetromaps.maps.graph.Node;
+import org.openmetromaps.maps.model.Line;
+import org.openmetromaps.maps.model.Station;
+
+public class MapViewStatusTest
+{
+
+	private static LineNetwork network(int numNodes, int numLines)
+	{
+		LineNetwork network = new LineNetwork();
+		for (int i = 0; i < numNodes; i++) {
+			network.nodes.add(new Node(new Station(i, "station " + i, null,
+					new ArrayList<>())));
+		}
+		for (int i = 0; i < numLines; i++) {
+			network.lines.add(new NetworkLine(
+					new Line(i, "line " + i, "#000000", false, null)));
+		}
+		return network;
+	}
+
+	@Test
+	public void testRetain()
+	{
+		LineNetwork network = network(5, 3);
+		MapViewStatus status = new MapViewStatus();
+		Node n0 = network.nodes.get(0);
+		Node n3 = network.nodes.get(3);
+		Node n4 = network.nodes.get(4);
+		NetworkLine l0 = network.lines.get(0);
+		NetworkLine l2 = network.lines.get(2);
+
+		status.selectNodes(Arrays.asList(n4, n0, n3));
+		status.hideLines(Arrays.asList(l0, l2));
+		status.selectLine(l2);
+
+		network.nodes.remove(n0);
+		network.lines.remove(l0);
+
+		BitSet changed = new BitSet();
+		status.addListener(new MapViewStatusListener() {
+
+			@Override
+			public void nodeSelectionChanged(MapViewStatus status,
+					BitSet indices)
+			{
+				changed.or(indices);
+			}
+
+			@Override
+			public void lineSelectionChanged(MapViewStatus status,
+					BitSet indices)
+			{
+			}
+
+			@Override
+			public void hiddenLinesChanged(MapViewStatus status,
+					BitSet indices)
+			{
+			}
+
+		});
+		status.retain(network);
+
+		Assert.assertEquals(Arrays.asList(n4, n3), status.getSelectedNodes());
+		Assert.assertFalse(status.isNodeSelected(n0));
+		Assert.assertEquals(-1, status.getNodeIndex(n0));
+		Assert.assertEquals(0, status.getNodeIndex(n4));
+		Assert.assertEquals(1, status.getNodeIndex(n3));
+		Assert.assertSame(n3, status.getNode(1));
+		Assert.assertEquals(3, changed.cardinality());
+
+		Assert.assertEquals(Collections.singleton(l2), status.getHiddenLines());
+		Assert.assertEquals(Collections.singleton(l2),
+				status.getSelectedLines());
+		Assert.assertEquals(-1, status.getLineIndex(l0));
+		Assert.assertEquals(0, status.getLineIndex(l2));
+	}
+
+	@Test
+	public void testRetainOtherNetwork()
+	{
+		MapViewStatus status = new MapViewStatus();
+		for (int k = 0; k < 10; k++) {
+			LineNetwork network = network(100, 10);
+			status.retain(network);
+			status.selectNodes(network.nodes);
+			status.hideLines(network.lines);
+			Assert.assertEquals(100, status.getNumSelectedNodes());
+			Assert.assertEquals(99, status.getNodeIndex(network.nodes.get(99)));
+			Assert.assertEquals(9, status.getLineIndex(network.lines.get(9)));
+		}
+	}
+
+}
@@ -0,0 +1,109 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps;
+
+import java.util.ArrayList;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmetromaps.maps.graph.Edge;
+import org.openmetromaps.maps.graph.LineNetwork;
+import org.openmetromaps.maps.graph.NetworkLine;
+import org.openmetromaps.maps.graph.Node;
+import org.openmetromaps.maps.model.Line;
+import org.openmetromaps.maps.model.Station;
+
+import de.topobyte.lightgeom.lina.Point;
+import de.topobyte.viewports.geometry.Envelope;
+
+public class NetworkIndexTest
+{
+
+	private LineNetwork network = new LineNetwork();
+	private NetworkIndex index;
+
+	private Node node(int id, double x, double y)
+	{
+		Node node = new Node(
+				new Station(id, "station " + id, null, new ArrayList<>()));
+		node.location = new Point(x, y);
+		network.nodes.add(node);
+		return node;
+	}
+
+	private void edge(NetworkLine line, Node n1, Node n2)
+	{
+		Edge edge = new Edge(n1, n2);
+		edge.addLine(line);
+		n1.edges.add(edge);
+		n2.edges.add(edge);
+		network.edges.add(edge);
+	}
+
+	@Before
+	public void setUp()
+	{
+		NetworkLine line = new NetworkLine(
+				new Line(1, "line", "#000000", false, null));
+		network.lines.add(line);
+		Node a = node(0, 0, 0);
+		Node b = node(1, 10, 0);
+		Node c = node(2, 20, 0);
+		edge(line, a, b);
+		edge(line, b, c);
+
+		VisibleNetwork visibleNetwork = new VisibleNetwork(network);
+		visibleNetwork.update(new MapViewStatus());
+		index = new NetworkIndex(visibleNetwork);
+	}
+
+	private int numNodes(Envelope envelope)
+	{
+		NetworkIndex.Result result = new NetworkIndex.Result();
+		index.query(envelope, result);
+		return result.getNumNodes();
+	}
+
+	@Test
+	public void testRebuildOnlyWhenNeeded()
+	{
+		Assert.assertTrue(index.ensureValid());
+		Assert.assertFalse(index.ensureValid());
+
+		network.locationsChanged();
+		Assert.assertTrue(index.ensureValid());
+		Assert.assertFalse(index.ensureValid());
+	}
+
+	@Test
+	public void testMoveWithoutNotification()
+	{
+		index.ensureValid();
+		Envelope far = new Envelope(95, 105, 95, 105);
+		Assert.assertEquals(0, numNodes(far));
+
+		// move a node without telling the network
+		network.nodes.get(2).location = new Point(100, 100);
+
+		Assert.assertTrue(index.ensureValid());
+		Assert.assertEquals(1, numNodes(far));
+		Assert.assertFalse(index.ensureValid());
+	}
+
+}
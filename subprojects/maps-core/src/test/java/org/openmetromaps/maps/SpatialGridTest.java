@@ -0,0 +1,180 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.topobyte.viewports.geometry.Envelope;
+
+public class SpatialGridTest
+{
+
+	private static List<Integer> query(SpatialGrid grid, Envelope envelope)
+	{
+		SpatialGrid.Result result = new SpatialGrid.Result();
+		grid.query(envelope, result);
+		List<Integer> results = new ArrayList<>();
+		for (int i = 0; i < result.getNumResults(); i++) {
+			results.add(result.getResult(i));
+		}
+		return results;
+	}
+
+	private static List<Integer> bruteForce(int n, double[] bounds,
+			Envelope envelope)
+	{
+		List<Integer> results = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			if (bounds[i * 4] > envelope.getMaxX()
+					|| bounds[i * 4 + 2] < envelope.getMinX()
+					|| bounds[i * 4 + 1] > envelope.getMaxY()
+					|| bounds[i * 4 + 3] < envelope.getMinY()) {
+				continue;
+			}
+			results.add(i);
+		}
+		return results;
+	}
+
+	/*
+	 * 12 items within [0, 30] x [0, 30], which results in a 4x4 grid with
+	 * cells of size 7.5, and items placed onto the borders of the cells.
+	 */
+	private static double[] border()
+	{
+		return new double[] { //
+				0, 0, 0, 0, // 0: corners
+				30, 0, 30, 0, // 1
+				0, 30, 0, 30, // 2
+				30, 30, 30, 30, // 3
+				7.5, 7.5, 7.5, 7.5, // 4: points on cell corners
+				15, 15, 15, 15, // 5
+				22.5, 22.5, 22.5, 22.5, // 6
+				15, 0, 15, 0, // 7
+				0, 15, 0, 15, // 8
+				7.5, 22.5, 7.5, 22.5, // 9
+				7.5, 7.5, 22.5, 15, // 10: box with edges on borders
+				15, 0, 15, 30, // 11: vertical line on a border
+		};
+	}
+
+	@Test
+	public void testQueryOnCellBorders()
+	{
+		double[] bounds = border();
+		SpatialGrid grid = new SpatialGrid();
+		grid.build(12, bounds);
+
+		// envelopes touching items are inclusive
+		Assert.assertEquals(List.of(4, 10),
+				query(grid, new Envelope(7.5, 7.5, 7.5, 7.5)));
+		Assert.assertEquals(List.of(5, 10, 11),
+				query(grid, new Envelope(15, 15, 15, 15)));
+		Assert.assertEquals(List.of(3),
+				query(grid, new Envelope(30, 40, 30, 40)));
+		Assert.assertEquals(List.of(0),
+				query(grid, new Envelope(-5, 0, -5, 0)));
+		Assert.assertEquals(List.of(6, 10),
+				query(grid, new Envelope(22.5, 25, 15, 22.5)));
+
+		// between items, but crossing cell borders
+		Assert.assertEquals(List.of(),
+				query(grid, new Envelope(16, 29, 23, 29)));
+
+		// outside of the grid
+		Assert.assertEquals(List.of(),
+				query(grid, new Envelope(31, 40, 0, 30)));
+		Assert.assertEquals(List.of(),
+				query(grid, new Envelope(-10, -1, -10, -1)));
+
+		for (double x1 = -7.5; x1 <= 37.5; x1 += 3.75) {
+			for (double x2 = x1; x2 <= 37.5; x2 += 3.75) {
+				for (double y1 = -7.5; y1 <= 37.5; y1 += 3.75) {
+					for (double y2 = y1; y2 <= y1 + 15; y2 += 7.5) {
+						Envelope envelope = new Envelope(x1, x2, y1, y2);
+						Assert.assertEquals(bruteForce(12, bounds, envelope),
+								query(grid, envelope));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testEntriesSpanningCells()
+	{
+		int n = 200;
+		double[] bounds = new double[n * 4];
+		Random random = new Random(1);
+		for (int i = 0; i < n; i++) {
+			double x = random.nextDouble() * 100;
+			double y = random.nextDouble() * 100;
+			bounds[i * 4] = x;
+			bounds[i * 4 + 1] = y;
+			bounds[i * 4 + 2] = x;
+			bounds[i * 4 + 3] = y;
+		}
+		// a few boxes covering many cells
+		for (int i : new int[] { 17, 50, 199 }) {
+			bounds[i * 4] = 5 + i / 10;
+			bounds[i * 4 + 1] = 0;
+			bounds[i * 4 + 2] = 60 + i / 10;
+			bounds[i * 4 + 3] = 100;
+		}
+		SpatialGrid grid = new SpatialGrid();
+		grid.build(n, bounds);
+
+		// reported once, even if the query covers several of their cells
+		List<Integer> all = query(grid, new Envelope(0, 100, 0, 100));
+		Assert.assertEquals(bruteForce(n, bounds, new Envelope(0, 100, 0, 100)),
+				all);
+		Assert.assertEquals(n, all.size());
+
+		SpatialGrid.Result reused = new SpatialGrid.Result();
+		for (int k = 0; k < 1000; k++) {
+			double x = random.nextDouble() * 120 - 10;
+			double y = random.nextDouble() * 120 - 10;
+			double w = random.nextDouble() * 30;
+			double h = random.nextDouble() * 30;
+			Envelope envelope = new Envelope(x, x + w, y, y + h);
+			List<Integer> expected = bruteForce(n, bounds, envelope);
+			Assert.assertEquals(expected, query(grid, envelope));
+
+			grid.query(envelope, reused);
+			Assert.assertEquals(expected.size(), reused.getNumResults());
+			for (int i = 0; i < expected.size(); i++) {
+				Assert.assertEquals((int) expected.get(i),
+						reused.getResult(i));
+			}
+		}
+	}
+
+	@Test
+	public void testEmpty()
+	{
+		SpatialGrid grid = new SpatialGrid();
+		grid.build(0, new double[0]);
+		Assert.assertEquals(List.of(), query(grid, new Envelope(0, 1, 0, 1)));
+	}
+
+}
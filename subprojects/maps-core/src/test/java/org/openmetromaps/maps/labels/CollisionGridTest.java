@@ -0,0 +1,103 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.labels;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CollisionGridTest
+{
+
+	private static List<Integer> query(CollisionGrid grid, double x1,
+			double y1, double x2, double y2)
+	{
+		BitSet result = new BitSet();
+		grid.query(x1, y1, x2, y2, result);
+		List<Integer> results = new ArrayList<>();
+		for (int i = result.nextSetBit(0); i >= 0; i = result
+				.nextSetBit(i + 1)) {
+			results.add(i);
+		}
+		return results;
+	}
+
+	private static List<Integer> bruteForce(List<double[]> boxes, double x1,
+			double y1, double x2, double y2)
+	{
+		List<Integer> results = new ArrayList<>();
+		for (int i = 0; i < boxes.size(); i++) {
+			double[] box = boxes.get(i);
+			if (x1 <= box[2] && box[0] <= x2 && y1 <= box[3]
+					&& box[1] <= y2) {
+				results.add(i);
+			}
+		}
+		return results;
+	}
+
+	@Test
+	public void testQuery()
+	{
+		CollisionGrid grid = new CollisionGrid(10);
+		List<double[]> boxes = new ArrayList<>();
+		Random random = new Random(1);
+		for (int i = 0; i < 300; i++) {
+			double x = random.nextDouble() * 200 - 100;
+			double y = random.nextDouble() * 200 - 100;
+			// mostly small boxes, some of them covering many cells
+			double w = random.nextDouble() * (i % 10 == 0 ? 60 : 15);
+			double h = random.nextDouble() * (i % 10 == 0 ? 60 : 15);
+			double[] box = { x, y, x + w, y + h };
+			boxes.add(box);
+			grid.add(box[0], box[1], box[2], box[3]);
+		}
+
+		// reported once, even if the query covers several of their cells
+		Assert.assertEquals(bruteForce(boxes, -200, -200, 200, 200),
+				query(grid, -200, -200, 200, 200));
+		Assert.assertEquals(300, query(grid, -200, -200, 200, 200).size());
+
+		for (int k = 0; k < 1000; k++) {
+			double x = random.nextDouble() * 240 - 120;
+			double y = random.nextDouble() * 240 - 120;
+			double w = random.nextDouble() * 50;
+			double h = random.nextDouble() * 50;
+			Assert.assertEquals(bruteForce(boxes, x, y, x + w, y + h),
+					query(grid, x, y, x + w, y + h));
+		}
+	}
+
+	@Test
+	public void testTouching()
+	{
+		CollisionGrid grid = new CollisionGrid(10);
+		grid.add(0, 0, 10, 10);
+		grid.add(20, 0, 30, 10);
+
+		Assert.assertEquals(List.of(0), query(grid, 10, 10, 15, 15));
+		Assert.assertEquals(List.of(0, 1), query(grid, 10, 5, 20, 5));
+		Assert.assertEquals(List.of(), query(grid, 11, 0, 19, 10));
+		Assert.assertEquals(List.of(), query(grid, 0, 11, 30, 20));
+	}
+
+}
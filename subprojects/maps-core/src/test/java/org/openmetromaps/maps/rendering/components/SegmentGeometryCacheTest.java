@@ -0,0 +1,153 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.rendering.components;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmetromaps.maps.graph.Edge;
+import org.openmetromaps.maps.graph.LineNetworkUtil;
+import org.openmetromaps.maps.graph.NetworkLine;
+import org.openmetromaps.maps.graph.Node;
+import org.openmetromaps.maps.model.Line;
+import org.openmetromaps.maps.model.Station;
+
+import de.topobyte.lightgeom.lina.Point;
+
+/**
+ * Checks that cached segment geometry is dropped when nodes are moved the way
+ * the editor moves them, i.e. by assigning new locations and updating the
+ * neighbor locations of edges with {@link LineNetworkUtil#updateEdges(Node)}.
+ */
+public class SegmentGeometryCacheTest
+{
+
+	private SegmentGeometryCache cache = new SegmentGeometryCache();
+
+	private Node a, b, c, d, e;
+	private Edge ab;
+
+	private static Node node(int id, double x, double y)
+	{
+		Node node = new Node(
+				new Station(id, "station " + id, null, new ArrayList<>()));
+		node.location = new Point(x, y);
+		return node;
+	}
+
+	private static Edge edge(Node n1, Node n2)
+	{
+		Edge edge = new Edge(n1, n2);
+		n1.edges.add(edge);
+		n2.edges.add(edge);
+		return edge;
+	}
+
+	private static void line(int id, Edge... edges)
+	{
+		NetworkLine line = new NetworkLine(
+				new Line(id, "line " + id, "#000000", false, null));
+		for (Edge edge : edges) {
+			edge.addLine(line);
+		}
+		line.setEdges(Arrays.asList(edges));
+	}
+
+	@Before
+	public void setUp()
+	{
+		// two lines c-a-b-d and e-a-b sharing the edge a-b
+		a = node(0, 0, 0);
+		b = node(1, 10, 0);
+		c = node(2, -10, 0);
+		d = node(3, 20, 0);
+		e = node(4, -10, 10);
+		Edge ca = edge(c, a);
+		ab = edge(a, b);
+		Edge bd = edge(b, d);
+		Edge ea = edge(e, a);
+		line(1, ca, ab, bd);
+		line(2, ea, ab);
+		for (Edge edge : Arrays.asList(ca, ab, bd, ea)) {
+			LineNetworkUtil.calculateNeighborLocations(edge);
+		}
+
+		cache.setFactor(1);
+		put();
+	}
+
+	private SegmentGeometryCache.Entry put()
+	{
+		return cache.put(ab, ab.lines, ab.n1.location, ab.n2.location,
+				ab.prev, ab.next);
+	}
+
+	private SegmentGeometryCache.Entry get()
+	{
+		return cache.get(ab, ab.lines, ab.n1.location, ab.n2.location,
+				ab.prev, ab.next);
+	}
+
+	@Test
+	public void testHit()
+	{
+		Assert.assertNotNull(get());
+	}
+
+	@Test
+	public void testMoveEndpoint()
+	{
+		b.location = new Point(11, 1);
+		LineNetworkUtil.updateEdges(b);
+		Assert.assertNull(get());
+	}
+
+	@Test
+	public void testMoveNeighbor()
+	{
+		// a neighbor of the edge on one of its lines, not one of its nodes
+		Point prev = ab.prev;
+		c.location = new Point(-10, -5);
+		LineNetworkUtil.updateEdges(c);
+		Assert.assertNotSame(prev, ab.prev);
+		Assert.assertNull(get());
+
+		put();
+		Assert.assertNotNull(get());
+	}
+
+	@Test
+	public void testOtherZoom()
+	{
+		cache.setFactor(2);
+		Assert.assertNull(get());
+	}
+
+	@Test
+	public void testOtherLines()
+	{
+		List<NetworkLine> lines = new ArrayList<>(ab.lines);
+		Assert.assertNull(cache.get(ab, lines, ab.n1.location,
+				ab.n2.location, ab.prev, ab.next));
+	}
+
+}
@@ -76,6 +76,7 @@ import org.openmetromaps.maps.editor.config.VolatileConfigReader;
 import org.openmetromaps.maps.editor.config.VolatileConfiguration;
 import org.openmetromaps.maps.editor.dockables.DockableHelper;
 import org.openmetromaps.maps.graph.LineNetwork;
+import org.openmetromaps.maps.graph.LineNetworkUpdater;
 import org.openmetromaps.maps.graph.NetworkLine;
 import org.openmetromaps.maps.graph.Node;
 import org.slf4j.Logger;
@@ -745,6 +746,25 @@ public class MapEditor
 	public void triggerMapChanged() {
 		model.getViews().clear();
 		init(model);
+		mapChanged();
+	}
+
+	/**
+	 * Like {@link #triggerMapChanged()}, but patch the line network of the
+	 * current view with the specified changes to the model data, so that the
+	 * locations of all remaining stations are kept.
+	 */
+	public void triggerMapChanged(ModelChangeSet changes)
+	{
+		LineNetworkUpdater updater = new LineNetworkUpdater(
+				view.getLineNetwork(), view.getEdges());
+		updater.apply(changes);
+		mapViewStatus = new MapViewStatus();
+		mapChanged();
+	}
+
+	private void mapChanged()
+	{
 		map.setData(model.getData(), view.getLineNetwork(), mapViewStatus);
 		selectNone();
 		hideNone();
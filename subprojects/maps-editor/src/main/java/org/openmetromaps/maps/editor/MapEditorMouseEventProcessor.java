@@ -117,6 +117,7 @@ public class MapEditorMouseEventProcessor
 			for (Node node : mapEditor.getMapViewStatus().getSelectedNodes()) {
 				LineNetworkUtil.updateEdges(node);
 			}
+			mapEditor.getMap().getLineNetwork().locationsChanged();
 
 			mapEditor.triggerDataChanged();
 			c.repaint();
@@ -18,6 +18,7 @@
 package org.openmetromaps.maps.editor;
 
 import de.topobyte.awt.util.GridBagConstraintsEditor;
+import org.openmetromaps.maps.ModelChangeSet;
 import org.openmetromaps.maps.ReplacementServices;
 import org.openmetromaps.maps.graph.NetworkLine;
 import org.openmetromaps.maps.graph.Node;
@@ -106,8 +107,9 @@ public class SelectionPanel extends JPanel {
         closeButton.setEnabled(closeButtonEnabled());
         closeButton.addActionListener(e -> {
             Node node = nodes.iterator().next();
-            ReplacementServices.closeStation(mapEditor.getModel().getData(), node.station, new ArrayList<>(selectedLines));
-            mapEditor.triggerMapChanged();
+            ModelChangeSet changes = new ModelChangeSet();
+            ReplacementServices.closeStation(mapEditor.getModel().getData(), node.station, new ArrayList<>(selectedLines), changes);
+            mapEditor.triggerMapChanged(changes);
         });
         ce.gridPos(0, lineCount);
         buttonPanel.add(closeButton);
@@ -143,8 +145,9 @@ public class SelectionPanel extends JPanel {
                 Collections.reverse(selectedStationsInOrder);
             }
 
-            ReplacementServices.createReplacementService(mapEditor.getModel().getData(), selectedStationsInOrder, lines);
-            mapEditor.triggerMapChanged();
+            ModelChangeSet changes = new ModelChangeSet();
+            ReplacementServices.createReplacementService(mapEditor.getModel().getData(), selectedStationsInOrder, lines, changes);
+            mapEditor.triggerMapChanged(changes);
         });
         ce.gridPos(1, lineCount);
         buttonPanel.add(replacementButton);
@@ -155,8 +158,9 @@ public class SelectionPanel extends JPanel {
             Iterator<Node> iterator = nodes.iterator();
             Station stationA = iterator.next().station;
             Station stationB = iterator.next().station;
-            ReplacementServices.createAlternativeService(mapEditor.getModel().getData(), stationA, stationB);
-            mapEditor.triggerMapChanged();
+            ModelChangeSet changes = new ModelChangeSet();
+            ReplacementServices.createAlternativeService(mapEditor.getModel().getData(), stationA, stationB, changes);
+            mapEditor.triggerMapChanged(changes);
         });
         ce.gridPos(2, lineCount);
         buttonPanel.add(alternativeButton);
@@ -164,6 +164,7 @@ public class StationPanel extends JPanel
 			double parsedY = Double.parseDouble(valY);
 			node.location = new Point(parsedX, parsedY);
 			LineNetworkUtil.updateEdges(node);
+			mapEditor.getMap().getLineNetwork().locationsChanged();
 			mapEditor.getMap().repaint();
 		} catch (NumberFormatException e) {
 			logger.warn("Error while parsing value. " + e.getMessage());
@@ -65,6 +65,7 @@ public class AlignVerticallyAction extends MapEditorAction
 		for (Node node : nodes) {
 			LineNetworkUtil.updateEdges(node);
 		}
+		mapEditor.getMap().getLineNetwork().locationsChanged();
 
 		mapEditor.getMap().repaint();
 	}
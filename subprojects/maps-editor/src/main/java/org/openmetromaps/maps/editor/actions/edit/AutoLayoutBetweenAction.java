@@ -147,6 +147,7 @@ public class AutoLayoutBetweenAction  extends MapEditorAction
 		for (Node node : between) {
 			LineNetworkUtil.updateEdges(node);
 		}
+		lineNetwork.locationsChanged();
 
 		mapEditor.getMap().repaint();
     }
@@ -126,6 +126,7 @@ public class DistributeEvenlyAction extends MapEditorAction
 		for (Node node : between) {
 			LineNetworkUtil.updateEdges(node);
 		}
+		lineNetwork.locationsChanged();
 
 		mapEditor.getMap().repaint();
 	}
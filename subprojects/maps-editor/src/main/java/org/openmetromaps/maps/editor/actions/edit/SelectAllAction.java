@@ -22,7 +22,6 @@ import java.awt.event.ActionEvent;
 import org.openmetromaps.maps.editor.MapEditor;
 import org.openmetromaps.maps.editor.actions.MapEditorAction;
 import org.openmetromaps.maps.graph.LineNetwork;
-import org.openmetromaps.maps.graph.Node;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,9 +45,7 @@ public class SelectAllAction extends MapEditorAction
 	{
 		LineNetwork lineNetwork = mapEditor.getModel().getViews().get(0)
 				.getLineNetwork();
-		for (Node node : lineNetwork.nodes) {
-			mapEditor.getMapViewStatus().selectNode(node);
-		}
+		mapEditor.getMapViewStatus().selectNodes(lineNetwork.nodes);
 		mapEditor.updateSelections();
 		mapEditor.getMap().repaint();
 	}
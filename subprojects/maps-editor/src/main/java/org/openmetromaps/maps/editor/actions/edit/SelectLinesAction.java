@@ -18,6 +18,7 @@
 package org.openmetromaps.maps.editor.actions.edit;
 
 import java.awt.event.ActionEvent;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.swing.JDialog;
@@ -79,12 +80,13 @@ public class SelectLinesAction extends MapEditorAction
 		LineNetwork lineNetwork = mapEditor.getMap().getLineNetwork();
 
 		List<Line> lines = dialog.getSelectedLines();
+		List<Node> nodes = new ArrayList<>();
 		for (Line line : lines) {
 			for (Stop stop : line.getStops()) {
-				Node node = LineNetworkUtil.getNode(lineNetwork, stop);
-				mapEditor.getMapViewStatus().selectNode(node);
+				nodes.add(LineNetworkUtil.getNode(lineNetwork, stop));
 			}
 		}
+		mapEditor.getMapViewStatus().selectNodes(nodes);
 		dialog.dispose();
 
 		mapEditor.updateSelections();
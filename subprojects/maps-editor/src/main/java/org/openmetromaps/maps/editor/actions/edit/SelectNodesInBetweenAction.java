@@ -103,9 +103,7 @@ public class SelectNodesInBetweenAction extends MapEditorAction
 
 		List<Node> between = nodesBetween.getNodes();
 
-		for (Node node : between) {
-			mapEditor.getMapViewStatus().selectNode(node);
-		}
+		mapEditor.getMapViewStatus().selectNodes(between);
 
 		mapEditor.updateSelections();
 		mapEditor.getMap().repaint();
@@ -29,6 +29,7 @@ import org.openmetromaps.maps.MapView;
 import org.openmetromaps.maps.editor.MapEditor;
 import org.openmetromaps.maps.graph.Edge;
 import org.openmetromaps.maps.graph.LineNetwork;
+import org.openmetromaps.maps.graph.LineNetworkSnapshot;
 import org.openmetromaps.maps.graph.LineNetworkUtil;
 import org.openmetromaps.maps.graph.NetworkLine;
 import org.openmetromaps.maps.graph.Node;
@@ -58,6 +59,10 @@ public class HeavyComputationOptimization
 		this.numSteps = numSteps;
 		this.lengthPause = lengthPause;
 
+		// make sure that a snapshot exists before the computation starts, so
+		// that it is taken on the UI thread that owns the nodes
+		mapEditor.getView().getLineNetwork().publish();
+
 		// run the computation in a separate thread
 		Runnable r = new Runnable() {
 
@@ -83,9 +88,12 @@ public class HeavyComputationOptimization
 				// ignore interruption
 			}
 			// now do the actual computation
-			performIteration();
-			// and dispatch a repaint() on the UI thread
+			LineNetwork network = mapEditor.getView().getLineNetwork();
+			Move move = pickMove();
+			network.update(snapshot -> changePosition(snapshot, move));
+			// and let the UI thread take over the result and repaint
 			SwingUtilities.invokeLater(() -> {
+				network.publish();
 				mapEditor.getMap().repaint();
 			});
 		}
@@ -94,24 +102,44 @@ public class HeavyComputationOptimization
 	/*
 	 * Demo computation that picks a random line and a random station and
 	 * changes the station's position by interpolating a position from the
-	 * neighbor stations on the selected line.
+	 * neighbor stations on the selected line. The nodes are owned by the UI
+	 * thread, hence locations are read from and written to snapshots of the
+	 * network. The station is picked before updating the snapshot, because the
+	 * update may be repeated if the UI thread publishes a snapshot at the same
+	 * time.
 	 */
 
 	private Random random = new Random();
 
-	private void performIteration()
+	private static class Move
+	{
+
+		final Node node;
+		final Node neighbor1;
+		final Node neighbor2;
+
+		Move(Node node, Node neighbor1, Node neighbor2)
+		{
+			this.node = node;
+			this.neighbor1 = neighbor1;
+			this.neighbor2 = neighbor2;
+		}
+
+	}
+
+	private Move pickMove()
 	{
 		// For each iteration, loop until we found a line and station for which
-		// we successfully performed the change of position.
+		// we can perform the change of position.
 		while (true) {
-			boolean found = findNodeAndChangePosition();
-			if (found) {
-				break;
+			Move move = findNode();
+			if (move != null) {
+				return move;
 			}
 		}
 	}
 
-	private boolean findNodeAndChangePosition()
+	private Move findNode()
 	{
 		MapView view = mapEditor.getView();
 		LineNetwork network = view.getLineNetwork();
@@ -142,19 +170,18 @@ public class HeavyComputationOptimization
 
 		// only continue if we found exactly two edges
 		if (edges.size() != 2) {
-			return false;
+			return null;
 		}
 
 		// determine the neighboring nodes
-		List<Node> otherNodes = new ArrayList<>();
-		for (Edge edge : edges) {
-			Node otherNode = otherNode(edge, node);
-			otherNodes.add(otherNode);
-		}
+		Node neighbor1 = otherNode(edges.get(0), node);
+		Node neighbor2 = otherNode(edges.get(1), node);
+
+		logger.info(String.format("Line %s, station %s, neighbors: %s and %s",
+				line.getName(), node.station.getName(),
+				neighbor1.station.getName(), neighbor2.station.getName()));
 
-		// change the station node's position
-		changePosition(line, node, otherNodes);
-		return true;
+		return new Move(node, neighbor1, neighbor2);
 	}
 
 	private Node otherNode(Edge edge, Node node)
@@ -165,23 +192,21 @@ public class HeavyComputationOptimization
 		return edge.n1;
 	}
 
-	private void changePosition(Line line, Node node, List<Node> otherNodes)
+	private LineNetworkSnapshot changePosition(LineNetworkSnapshot snapshot,
+			Move move)
 	{
-		Node neighbor1 = otherNodes.get(0);
-		Node neighbor2 = otherNodes.get(1);
+		LineNetworkSnapshot.Builder builder = snapshot.edit();
 
-		logger.info(String.format("Line %s, station %s, neighbors: %s and %s",
-				line.getName(), node.station.getName(),
-				neighbor1.station.getName(), neighbor2.station.getName()));
+		Point location1 = builder.getLocation(move.neighbor1);
+		Point location2 = builder.getLocation(move.neighbor2);
 
 		double factor = 0.3;
-		double x = factor * neighbor1.location.getX()
-				+ (1 - factor) * neighbor2.location.getX();
-		double y = factor * neighbor1.location.getY()
-				+ (1 - factor) * neighbor2.location.getY();
+		double x = factor * location1.getX() + (1 - factor) * location2.getX();
+		double y = factor * location1.getY() + (1 - factor) * location2.getY();
 
-		node.location = new Point(x, y);
-		LineNetworkUtil.updateEdges(node);
+		builder.setLocation(move.node, new Point(x, y));
+		LineNetworkUtil.updateEdges(builder, move.node);
+		return builder.build();
 	}
 
 }
@@ -74,6 +74,7 @@ public class StraightenAxisParallelLinesOptimization
 		for (Node node : network.nodes) {
 			LineNetworkUtil.updateEdges(node);
 		}
+		network.locationsChanged();
 	}
 
 	private void checkLine(Line line)
@@ -0,0 +1,106 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openmetromaps.maps.model.Line;
+import org.openmetromaps.maps.model.Station;
+import org.openmetromaps.maps.model.Stop;
+
+/**
+ * Records the edits made to a {@link org.openmetromaps.maps.model.ModelData}
+ * instance, so that structures derived from the data can be patched instead
+ * of being rebuilt.
+ */
+public class ModelChangeSet
+{
+
+	private Map<Line, List<Stop>> removedStops = new LinkedHashMap<>();
+	private Set<Line> addedLines = new LinkedHashSet<>();
+	private Set<Line> removedLines = new LinkedHashSet<>();
+	private Set<Station> removedStations = new LinkedHashSet<>();
+
+	public void stopRemoved(Line line, Stop stop)
+	{
+		if (addedLines.contains(line)) {
+			return;
+		}
+		List<Stop> stops = removedStops.get(line);
+		if (stops == null) {
+			stops = new ArrayList<>();
+			removedStops.put(line, stops);
+		}
+		stops.add(stop);
+	}
+
+	public void lineAdded(Line line)
+	{
+		addedLines.add(line);
+	}
+
+	public void lineRemoved(Line line)
+	{
+		// a line that is added and removed again does not change anything
+		if (!addedLines.remove(line)) {
+			removedLines.add(line);
+		}
+		removedStops.remove(line);
+	}
+
+	public void stationRemoved(Station station)
+	{
+		removedStations.add(station);
+	}
+
+	/**
+	 * @return the stops removed from lines that have been neither added nor
+	 *         removed, by line.
+	 */
+	public Map<Line, List<Stop>> getRemovedStops()
+	{
+		return removedStops;
+	}
+
+	public Set<Line> getAddedLines()
+	{
+		return addedLines;
+	}
+
+	public Set<Line> getRemovedLines()
+	{
+		return removedLines;
+	}
+
+	public Set<Station> getRemovedStations()
+	{
+		return removedStations;
+	}
+
+	public boolean isEmpty()
+	{
+		return removedStops.isEmpty() && addedLines.isEmpty()
+				&& removedLines.isEmpty() && removedStations.isEmpty();
+	}
+
+}
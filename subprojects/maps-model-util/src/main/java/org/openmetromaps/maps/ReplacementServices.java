@@ -21,6 +21,14 @@ public class ReplacementServices {
     }
     
     public static void closeStation(ModelData model, Station station, List<Line> lines) {
+        closeStation(model, station, lines, new ModelChangeSet());
+    }
+
+    /**
+     * Like {@link #closeStation(ModelData, Station, List)}, but record the
+     * edits in the specified change set.
+     */
+    public static void closeStation(ModelData model, Station station, List<Line> lines, ModelChangeSet changes) {
         
         List<Stop> lineStops;
         List<Stop> stationStops = station.getStops();
@@ -49,7 +57,7 @@ public class ReplacementServices {
             int stopIndex = MapModelUtil.findStop(lineStops , station.getName());
             if(lineStops.size() < 3 || stopIndex == -1 ) return;
             
-            lineStops.remove(stopIndex);
+            changes.stopRemoved(line, lineStops.remove(stopIndex));
 
         }
 
@@ -57,6 +65,7 @@ public class ReplacementServices {
 
         if(station.getStops().isEmpty()){
             model.stations.remove(station);
+            changes.stationRemoved(station);
         }
         
     }
@@ -65,6 +74,14 @@ public class ReplacementServices {
     
 
     public static void createReplacementService(ModelData model, List<Station> stations, List<Line> lines) {
+        createReplacementService(model, stations, lines, new ModelChangeSet());
+    }
+
+    /**
+     * Like {@link #createReplacementService(ModelData, List, List)}, but
+     * record the edits in the specified change set.
+     */
+    public static void createReplacementService(ModelData model, List<Station> stations, List<Line> lines, ModelChangeSet changes) {
         
         List<Station> arrangedStations;
         
@@ -89,10 +106,12 @@ public class ReplacementServices {
                 Line line1 = createLine(model,line, primaryStationIndex , secondaryStationIndex , primarySectionBoundaryTerminal );
                 
                 model.lines.add(line1);
+                changes.lineAdded(line1);
 
                 if(create){
                     Line replacementLine = createReplacementLine(model, lines, line, primaryStationIndex, secondaryStationIndex,true,primarySectionBoundaryTerminal);
                     model.lines.add(replacementLine);
+                    changes.lineAdded(replacementLine);
                 }
 
             }
@@ -106,18 +125,21 @@ public class ReplacementServices {
                 Line line2 = createLineWhenNoTerminal(model, line, reversed,primaryStationIndex , secondaryStationIndex, false);
                 
                 model.lines.add(line1);
+                changes.lineAdded(line1);
                 
                 model.lines.add(line2);
+                changes.lineAdded(line2);
 
                 if(create){
                     Line replacementLine = createReplacementLine(model, lines,  line, primaryStationIndex, secondaryStationIndex,false,false);
                     model.lines.add(replacementLine);
+                    changes.lineAdded(replacementLine);
                 }
             }
             create = false;
             
         }
-        removeAllLines(lines , model);
+        removeAllLines(lines , model, changes);
 
     }
 
@@ -148,13 +170,14 @@ public class ReplacementServices {
 
     }
 
-    private static void removeAllLines(List<Line> lines , ModelData model){
+    private static void removeAllLines(List<Line> lines , ModelData model, ModelChangeSet changes){
         for(Line line: lines){
 
             for(Stop stop: line.getStops()){
                 stop.getStation().getStops().remove(stop);
             }
             model.lines.remove(line);
+            changes.lineRemoved(line);
         }
     }
 
@@ -350,6 +373,14 @@ public class ReplacementServices {
 
 
     public static void createAlternativeService(ModelData model, Station stationA, Station stationB) {
+        createAlternativeService(model, stationA, stationB, new ModelChangeSet());
+    }
+
+    /**
+     * Like {@link #createAlternativeService(ModelData, Station, Station)},
+     * but record the edits in the specified change set.
+     */
+    public static void createAlternativeService(ModelData model, Station stationA, Station stationB, ModelChangeSet changes) {
         // Ensure two distinct stations are selected
         if (stationA == null || stationB == null || stationA.equals(stationB) ) {
             return; // No operation performed
@@ -385,6 +416,7 @@ public class ReplacementServices {
 
         // Add the new line to the model
         model.lines.add(replacementLine);
+        changes.lineAdded(replacementLine);
 
         // Update the stations to include these stops
         stationA.getStops().add(stopA);
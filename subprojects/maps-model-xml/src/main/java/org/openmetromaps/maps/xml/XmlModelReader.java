@@ -24,6 +24,9 @@ import java.util.List;
 import java.util.Map;
 
 import org.openmetromaps.maps.model.Coordinate;
+import org.openmetromaps.metrics.Counter;
+import org.openmetromaps.metrics.Metrics;
+import org.openmetromaps.metrics.Timer;
 
 import de.topobyte.lightgeom.lina.Point;
 import de.topobyte.xml.domabstraction.iface.IDocument;
@@ -35,6 +38,13 @@ import de.topobyte.xml.domabstraction.iface.ParsingException;
 public class XmlModelReader
 {
 
+	private static final Timer timerParse = Metrics.timer("load.xml.parse");
+	private static final Timer timerRead = Metrics.timer("load.xml.read");
+	private static final Counter counterStations = Metrics
+			.counter("load.xml.stations");
+	private static final Counter counterLines = Metrics
+			.counter("load.xml.lines");
+
 	public static XmlModel read(IDocumentFactory factory, InputStream is)
 			throws ParsingException
 	{
@@ -63,15 +73,22 @@ public class XmlModelReader
 	private XmlModel readModel(IDocumentFactory factory, InputStream is)
 			throws ParsingException
 	{
+		long start = timerParse.start();
 		IDocument doc = factory.parse(is);
+		timerParse.stop(start);
 		return readModel(doc);
 	}
 
 	private XmlModel readModel(IDocument doc) throws ParsingException
 	{
+		long start = timerRead.start();
 		parseStations(doc);
 		parseLines(doc);
 		parseViews(doc);
+		timerRead.stop(start);
+
+		counterStations.inc(xmlStations.size());
+		counterLines.inc(xmlLines.size());
 
 		return new XmlModel(version, xmlStations, xmlLines, xmlViews);
 	}
@@ -0,0 +1,351 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.topobyte.lightgeom.lina.Point;
+
+/**
+ * A compact, array based representation of a {@link LineNetwork} for code
+ * that reads the whole network frequently. Nodes, edges and lines are
+ * identified by dense indices: nodes and edges by their position in
+ * {@link LineNetwork#getNodes()} and {@link LineNetwork#getEdges()}, lines by
+ * their first occurrence in {@link LineNetwork#getLines()}. Coordinates are
+ * stored in primitive arrays, missing locations as NaN. Adjacency is stored
+ * in compressed sparse row form: the edges of node {@code i} are
+ * {@code nodeEdges[nodeEdgeOffsets[i]]} to
+ * {@code nodeEdges[nodeEdgeOffsets[i + 1] - 1]}, the lines of edge {@code i}
+ * likewise in {@code edgeLines}. For each of these edge/line slots, the
+ * previous and next node of the line is stored in {@code slotPrevNodes} and
+ * {@code slotNextNodes}, -1 if there is none.
+ *
+ * The structure is built once from the object graph, coordinates can be
+ * updated with {@link #sync()} or {@link #sync(LineNetworkSnapshot)} after
+ * nodes have been moved. Once the structure of the network has changed, as
+ * announced by {@link LineNetwork#structureChanged()}, syncing fails and a
+ * new instance needs to be built. The arrays returned by the getters are the
+ * internal ones and must not be modified.
+ */
+public class CompactLineNetwork
+{
+
+	private LineNetwork network;
+	private int structureVersion;
+
+	private List<NetworkLine> lines = new ArrayList<>();
+	private Map<NetworkLine, Integer> lineIndex = new HashMap<>();
+
+	private int numNodes;
+	private int numEdges;
+
+	private double[] nodeX;
+	private double[] nodeY;
+
+	private int[] edgeNode1;
+	private int[] edgeNode2;
+	private double[] edgePrevX;
+	private double[] edgePrevY;
+	private double[] edgeNextX;
+	private double[] edgeNextY;
+
+	private int[] nodeEdgeOffsets;
+	private int[] nodeEdges;
+
+	private int[] edgeLineOffsets;
+	private int[] edgeLines;
+	private int[] slotPrevNodes;
+	private int[] slotNextNodes;
+
+	public CompactLineNetwork(LineNetwork network)
+	{
+		this.network = network;
+		structureVersion = network.getStructureVersion();
+		numNodes = network.nodes.size();
+		numEdges = network.edges.size();
+
+		Map<Node, Integer> nodeIndex = new HashMap<>();
+		for (int i = 0; i < numNodes; i++) {
+			nodeIndex.put(network.nodes.get(i), i);
+		}
+		Map<Edge, Integer> edgeIndex = new HashMap<>();
+		for (int i = 0; i < numEdges; i++) {
+			edgeIndex.put(network.edges.get(i), i);
+		}
+		for (NetworkLine line : network.lines) {
+			if (!lineIndex.containsKey(line)) {
+				lineIndex.put(line, lines.size());
+				lines.add(line);
+			}
+		}
+
+		nodeX = new double[numNodes];
+		nodeY = new double[numNodes];
+		edgePrevX = new double[numEdges];
+		edgePrevY = new double[numEdges];
+		edgeNextX = new double[numEdges];
+		edgeNextY = new double[numEdges];
+
+		edgeNode1 = new int[numEdges];
+		edgeNode2 = new int[numEdges];
+		for (int i = 0; i < numEdges; i++) {
+			Edge edge = network.edges.get(i);
+			edgeNode1[i] = nodeIndex.get(edge.n1);
+			edgeNode2[i] = nodeIndex.get(edge.n2);
+		}
+
+		nodeEdgeOffsets = new int[numNodes + 1];
+		int nNodeEdges = 0;
+		for (int i = 0; i < numNodes; i++) {
+			nodeEdgeOffsets[i] = nNodeEdges;
+			nNodeEdges += network.nodes.get(i).edges.size();
+		}
+		nodeEdgeOffsets[numNodes] = nNodeEdges;
+		nodeEdges = new int[nNodeEdges];
+		for (int i = 0; i < numNodes; i++) {
+			List<Edge> edges = network.nodes.get(i).edges;
+			for (int k = 0; k < edges.size(); k++) {
+				nodeEdges[nodeEdgeOffsets[i] + k] = edgeIndex
+						.get(edges.get(k));
+			}
+		}
+
+		edgeLineOffsets = new int[numEdges + 1];
+		int nSlots = 0;
+		for (int i = 0; i < numEdges; i++) {
+			edgeLineOffsets[i] = nSlots;
+			nSlots += network.edges.get(i).lines.size();
+		}
+		edgeLineOffsets[numEdges] = nSlots;
+		edgeLines = new int[nSlots];
+		slotPrevNodes = new int[nSlots];
+		slotNextNodes = new int[nSlots];
+		for (int i = 0; i < numEdges; i++) {
+			Edge edge = network.edges.get(i);
+			for (int k = 0; k < edge.lines.size(); k++) {
+				int slot = edgeLineOffsets[i] + k;
+				NetworkLine line = edge.lines.get(k);
+				edgeLines[slot] = lineIndex.get(line);
+				NeighborInfo neighbors = line.getNeighbors(edge);
+				slotPrevNodes[slot] = neighbors == null ? -1
+						: index(nodeIndex, neighbors.prev);
+				slotNextNodes[slot] = neighbors == null ? -1
+						: index(nodeIndex, neighbors.next);
+			}
+		}
+
+		sync();
+	}
+
+	private static int index(Map<Node, Integer> nodeIndex, Node node)
+	{
+		if (node == null) {
+			return -1;
+		}
+		return nodeIndex.get(node);
+	}
+
+	/**
+	 * @return whether the network still has the structure this instance has
+	 *         been built from.
+	 */
+	public boolean isValid()
+	{
+		return network.getStructureVersion() == structureVersion
+				&& network.nodes.size() == numNodes
+				&& network.edges.size() == numEdges;
+	}
+
+	/**
+	 * Update the coordinates from the nodes and edges of the network.
+	 *
+	 * @throws IllegalStateException
+	 *             if the structure of the network changed since this instance
+	 *             has been built.
+	 */
+	public void sync()
+	{
+		if (!isValid()) {
+			throw new IllegalStateException(
+					"The structure of the network changed");
+		}
+		for (int i = 0; i < numNodes; i++) {
+			setNode(i, network.nodes.get(i).location);
+		}
+		for (int i = 0; i < numEdges; i++) {
+			Edge edge = network.edges.get(i);
+			setEdge(i, edge.prev, edge.next);
+		}
+	}
+
+	/**
+	 * Update the coordinates from the specified snapshot of the network.
+	 *
+	 * @throws IllegalStateException
+	 *             if the snapshot does not have the structure this instance
+	 *             has been built from.
+	 */
+	public void sync(LineNetworkSnapshot snapshot)
+	{
+		if (snapshot.getLineNetwork() != network
+				|| snapshot.getStructureVersion() != structureVersion
+				|| snapshot.getNumNodes() != numNodes
+				|| snapshot.getNumEdges() != numEdges) {
+			throw new IllegalStateException(
+					"The snapshot has a different structure");
+		}
+		for (int i = 0; i < numNodes; i++) {
+			setNode(i, snapshot.getLocation(i));
+		}
+		for (int i = 0; i < numEdges; i++) {
+			setEdge(i, snapshot.getPrev(i), snapshot.getNext(i));
+		}
+	}
+
+	private void setNode(int i, Point location)
+	{
+		nodeX[i] = location == null ? Double.NaN : location.x;
+		nodeY[i] = location == null ? Double.NaN : location.y;
+	}
+
+	private void setEdge(int i, Point prev, Point next)
+	{
+		edgePrevX[i] = prev == null ? Double.NaN : prev.x;
+		edgePrevY[i] = prev == null ? Double.NaN : prev.y;
+		edgeNextX[i] = next == null ? Double.NaN : next.x;
+		edgeNextY[i] = next == null ? Double.NaN : next.y;
+	}
+
+	public LineNetwork getLineNetwork()
+	{
+		return network;
+	}
+
+	public int getNumNodes()
+	{
+		return numNodes;
+	}
+
+	public int getNumEdges()
+	{
+		return numEdges;
+	}
+
+	public int getNumLines()
+	{
+		return lines.size();
+	}
+
+	public Node getNode(int i)
+	{
+		return network.nodes.get(i);
+	}
+
+	public Edge getEdge(int i)
+	{
+		return network.edges.get(i);
+	}
+
+	public NetworkLine getLine(int i)
+	{
+		return lines.get(i);
+	}
+
+	/**
+	 * @return the index of the line or -1 if it is not part of the network.
+	 */
+	public int getLineIndex(NetworkLine line)
+	{
+		Integer index = lineIndex.get(line);
+		return index == null ? -1 : index;
+	}
+
+	public double[] getNodeX()
+	{
+		return nodeX;
+	}
+
+	public double[] getNodeY()
+	{
+		return nodeY;
+	}
+
+	public int[] getEdgeNode1()
+	{
+		return edgeNode1;
+	}
+
+	public int[] getEdgeNode2()
+	{
+		return edgeNode2;
+	}
+
+	public double[] getEdgePrevX()
+	{
+		return edgePrevX;
+	}
+
+	public double[] getEdgePrevY()
+	{
+		return edgePrevY;
+	}
+
+	public double[] getEdgeNextX()
+	{
+		return edgeNextX;
+	}
+
+	public double[] getEdgeNextY()
+	{
+		return edgeNextY;
+	}
+
+	public int[] getNodeEdgeOffsets()
+	{
+		return nodeEdgeOffsets;
+	}
+
+	public int[] getNodeEdges()
+	{
+		return nodeEdges;
+	}
+
+	public int[] getEdgeLineOffsets()
+	{
+		return edgeLineOffsets;
+	}
+
+	public int[] getEdgeLines()
+	{
+		return edgeLines;
+	}
+
+	public int[] getSlotPrevNodes()
+	{
+		return slotPrevNodes;
+	}
+
+	public int[] getSlotNextNodes()
+	{
+		return slotNextNodes;
+	}
+
+}
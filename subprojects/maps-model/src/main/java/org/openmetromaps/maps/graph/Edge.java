@@ -38,6 +38,11 @@ public class Edge
 	public Node n1;
 	public Node n2;
 
+	/**
+	 * The mean locations of the nodes before and after this edge on its
+	 * lines. Like {@link Node#location}, they are replaced, never modified in
+	 * place.
+	 */
 	public Point prev;
 	public Point next;
 
@@ -20,9 +20,21 @@ package org.openmetromaps.maps.graph;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
 import org.openmetromaps.maps.model.Station;
 
+/**
+ * A graph of nodes, edges and lines. The nodes and edges are mutable and
+ * belong to a single thread, usually the event dispatch thread. Other
+ * threads access the geometry of the network through immutable
+ * {@link LineNetworkSnapshot}s. Snapshots do not cover the topology of the
+ * network, i.e. the lines of edges, the edges of nodes and the neighbors of
+ * lines: other threads may only read it while the owning thread does not
+ * change the structure of the network.
+ */
 public class LineNetwork
 {
 
@@ -57,4 +69,165 @@ public class LineNetwork
 		this.stationToNode = stationToNode;
 	}
 
+	/*
+	 * Modifications
+	 */
+
+	private AtomicInteger modCount = new AtomicInteger();
+	private AtomicInteger structureVersion = new AtomicInteger();
+
+	/**
+	 * Notify the network that the locations of nodes or edges have been
+	 * modified in place, so that the next call to {@link #publish()} captures
+	 * them. Structures that are derived from the locations on the owning
+	 * thread also detect moved nodes by the replaced location objects.
+	 */
+	public void locationsChanged()
+	{
+		modCount.incrementAndGet();
+	}
+
+	/**
+	 * @return a counter that is incremented whenever the locations or the
+	 *         structure of the network change.
+	 */
+	public int getModCount()
+	{
+		return modCount.get();
+	}
+
+	/**
+	 * @return a counter that is incremented whenever the structure of the
+	 *         network changes.
+	 */
+	public int getStructureVersion()
+	{
+		return structureVersion.get();
+	}
+
+	/*
+	 * Snapshots
+	 */
+
+	private AtomicReference<LineNetworkSnapshot> snapshot = new AtomicReference<>();
+
+	// The snapshot that the nodes and edges reflect, apart from modifications
+	// made in place since then
+	private LineNetworkSnapshot reflected;
+
+	// The modification counter and structure version at the time the
+	// reflected snapshot was published
+	private int reflectedModCount = -1;
+	private int reflectedStructureVersion = -1;
+
+	/**
+	 * @return the most recently published snapshot. The first snapshot is
+	 *         taken from the nodes and edges when this is called for the
+	 *         first time, which must happen on the thread that owns the nodes
+	 *         and edges.
+	 */
+	public LineNetworkSnapshot getSnapshot()
+	{
+		LineNetworkSnapshot current = snapshot.get();
+		if (current != null) {
+			return current;
+		}
+		synchronized (this) {
+			if (snapshot.get() == null) {
+				reflectedStructureVersion = structureVersion.get();
+				reflected = LineNetworkSnapshot.capture(this, 1);
+				snapshot.set(reflected);
+			}
+			return snapshot.get();
+		}
+	}
+
+	/**
+	 * Publish a snapshot derived from the current one by the specified
+	 * function, for writers that do not own the nodes and edges. The function
+	 * is called again with the new current snapshot if another snapshot has
+	 * been published in the meantime, so it should not have side effects.
+	 *
+	 * The owner of the nodes and edges must have published a snapshot before,
+	 * so that other writers never read the nodes and edges themselves.
+	 *
+	 * @return the published snapshot.
+	 * @throws IllegalStateException
+	 *             if no snapshot has been published yet.
+	 */
+	public LineNetworkSnapshot update(
+			UnaryOperator<LineNetworkSnapshot> function)
+	{
+		while (true) {
+			LineNetworkSnapshot current = snapshot.get();
+			if (current == null) {
+				throw new IllegalStateException(
+						"No snapshot has been published yet");
+			}
+			LineNetworkSnapshot next = function.apply(current);
+			if (next == current || snapshot.compareAndSet(current, next)) {
+				return next;
+			}
+		}
+	}
+
+	/**
+	 * Notify the network that nodes, edges or lines have been added, removed
+	 * or replaced or that their connections changed, so that structures
+	 * derived from the network get rebuilt. The next call to
+	 * {@link #publish()} captures a new snapshot from scratch, dropping
+	 * modifications published by other writers since the last call.
+	 */
+	public void structureChanged()
+	{
+		structureVersion.incrementAndGet();
+		modCount.incrementAndGet();
+	}
+
+	/**
+	 * Publish the modifications made to the locations of nodes and edges in
+	 * place since the last call as a new snapshot and update the nodes and
+	 * edges to that snapshot, which includes the modifications made by other
+	 * writers through {@link #update(UnaryOperator)}. Must be called on the
+	 * thread that owns the nodes and edges.
+	 *
+	 * If neither {@link #locationsChanged()} nor {@link #structureChanged()}
+	 * has been called and no other snapshot has been published since the last
+	 * call, the current snapshot is returned without looking at the nodes and
+	 * edges.
+	 *
+	 * @return the current snapshot.
+	 */
+	public synchronized LineNetworkSnapshot publish()
+	{
+		LineNetworkSnapshot current = getSnapshot();
+		if (current == reflected && modCount.get() == reflectedModCount) {
+			return current;
+		}
+
+		int version = structureVersion.get();
+		if (version != reflectedStructureVersion
+				|| !reflected.getIndices().matches(this)) {
+			// the structure changed, start over
+			LineNetworkSnapshot next = LineNetworkSnapshot.capture(this,
+					current.getVersion() + 1);
+			snapshot.set(next);
+			reflected = next;
+			reflectedModCount = modCount.get();
+			reflectedStructureVersion = version;
+			return next;
+		}
+
+		LineNetworkSnapshot base = reflected;
+		LineNetworkSnapshot next = update(latest -> {
+			LineNetworkSnapshot.Builder builder = latest.edit();
+			builder.setChanged(this, base);
+			return builder.build();
+		});
+		next.applyTo(this, reflected);
+		reflected = next;
+		reflectedModCount = modCount.get();
+		return next;
+	}
+
 }
@@ -0,0 +1,457 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.graph;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.topobyte.lightgeom.lina.Point;
+
+/**
+ * An immutable, versioned state of the geometry of a {@link LineNetwork}: the
+ * locations of its nodes and the neighbor locations of its edges. Nodes, edges
+ * and lines are shared by all snapshots of a network, as are the
+ * {@link Point} instances, which must not be modified once they have been
+ * published. Locations are stored in fixed size chunks and a new version only
+ * copies the chunks that contain modified entries, all other chunks are
+ * shared with the previous version.
+ *
+ * Only the geometry is covered: the lines of edges, the edges of nodes and
+ * the neighbors of lines are read from the shared objects, which the owner of
+ * the network modifies in place before calling
+ * {@link LineNetwork#structureChanged()}. After such a change the next
+ * snapshot is captured from scratch.
+ *
+ * Snapshots are published through {@link LineNetwork#publish()} and
+ * {@link LineNetwork#update(java.util.function.UnaryOperator)} and can be
+ * read from any thread without synchronization.
+ */
+public class LineNetworkSnapshot
+{
+
+	static final int CHUNK_BITS = 8;
+	static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	/**
+	 * Positions of nodes, edges and lines in the lists of the network, shared
+	 * by all snapshots with the same structure.
+	 */
+	static class Indices
+	{
+
+		final int structureVersion;
+		final int numNodes;
+		final int numEdges;
+		final Node[] nodeArray;
+		final Edge[] edgeArray;
+		final NetworkLine[] lineArray;
+		final Map<Node, Integer> nodes = new HashMap<>();
+		final Map<Edge, Integer> edges = new HashMap<>();
+		final Map<NetworkLine, Integer> lines = new HashMap<>();
+
+		Indices(LineNetwork network)
+		{
+			structureVersion = network.getStructureVersion();
+			nodeArray = network.nodes.toArray(new Node[0]);
+			edgeArray = network.edges.toArray(new Edge[0]);
+			lineArray = network.lines.toArray(new NetworkLine[0]);
+			numNodes = nodeArray.length;
+			numEdges = edgeArray.length;
+			for (int i = 0; i < numNodes; i++) {
+				nodes.put(nodeArray[i], i);
+			}
+			for (int i = 0; i < numEdges; i++) {
+				edges.put(edgeArray[i], i);
+			}
+			for (int i = 0; i < lineArray.length; i++) {
+				lines.put(lineArray[i], i);
+			}
+		}
+
+		/**
+		 * @return whether the network still contains the same nodes, edges
+		 *         and lines in the same order.
+		 */
+		boolean matches(LineNetwork network)
+		{
+			return same(network.nodes, nodeArray)
+					&& same(network.edges, edgeArray)
+					&& same(network.lines, lineArray);
+		}
+
+		private static <T> boolean same(List<T> list, T[] array)
+		{
+			if (list.size() != array.length) {
+				return false;
+			}
+			for (int i = 0; i < array.length; i++) {
+				if (list.get(i) != array[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
+	private final LineNetwork network;
+	private final Indices indices;
+	private final long version;
+
+	private final Point[][] locations;
+	private final Point[][] prevs;
+	private final Point[][] nexts;
+
+	private LineNetworkSnapshot(LineNetwork network, Indices indices,
+			long version, Point[][] locations, Point[][] prevs,
+			Point[][] nexts)
+	{
+		this.network = network;
+		this.indices = indices;
+		this.version = version;
+		this.locations = locations;
+		this.prevs = prevs;
+		this.nexts = nexts;
+	}
+
+	/**
+	 * Create a snapshot of the current state of the nodes and edges of the
+	 * specified network.
+	 */
+	static LineNetworkSnapshot capture(LineNetwork network, long version)
+	{
+		Indices indices = new Indices(network);
+		Point[][] locations = chunks(indices.numNodes);
+		Point[][] prevs = chunks(indices.numEdges);
+		Point[][] nexts = chunks(indices.numEdges);
+		for (int i = 0; i < indices.numNodes; i++) {
+			locations[i >> CHUNK_BITS][i & CHUNK_MASK] = network.nodes
+					.get(i).location;
+		}
+		for (int i = 0; i < indices.numEdges; i++) {
+			Edge edge = network.edges.get(i);
+			prevs[i >> CHUNK_BITS][i & CHUNK_MASK] = edge.prev;
+			nexts[i >> CHUNK_BITS][i & CHUNK_MASK] = edge.next;
+		}
+		return new LineNetworkSnapshot(network, indices, version, locations,
+				prevs, nexts);
+	}
+
+	private static Point[][] chunks(int n)
+	{
+		int nChunks = (n + CHUNK_SIZE - 1) >> CHUNK_BITS;
+		Point[][] chunks = new Point[nChunks][];
+		for (int i = 0; i < nChunks; i++) {
+			chunks[i] = new Point[Math.min(CHUNK_SIZE, n - i * CHUNK_SIZE)];
+		}
+		return chunks;
+	}
+
+	Indices getIndices()
+	{
+		return indices;
+	}
+
+	public LineNetwork getLineNetwork()
+	{
+		return network;
+	}
+
+	/**
+	 * @return the version of this snapshot, which increases with every
+	 *         snapshot published for a network.
+	 */
+	public long getVersion()
+	{
+		return version;
+	}
+
+	/**
+	 * @return the {@link LineNetwork#getStructureVersion() structure version}
+	 *         of the network at the time this snapshot's structure was
+	 *         captured.
+	 */
+	public int getStructureVersion()
+	{
+		return indices.structureVersion;
+	}
+
+	public int getNumNodes()
+	{
+		return indices.numNodes;
+	}
+
+	public int getNumEdges()
+	{
+		return indices.numEdges;
+	}
+
+	/**
+	 * @return the position of the node in {@link LineNetwork#getNodes()} or
+	 *         -1 if the node is not part of the network.
+	 */
+	public int getNodeIndex(Node node)
+	{
+		Integer index = indices.nodes.get(node);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * @return the position of the edge in {@link LineNetwork#getEdges()} or
+	 *         -1 if the edge is not part of the network.
+	 */
+	public int getEdgeIndex(Edge edge)
+	{
+		Integer index = indices.edges.get(edge);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * @return the position of the line in {@link LineNetwork#getLines()} or
+	 *         -1 if the line is not part of the network.
+	 */
+	public int getLineIndex(NetworkLine line)
+	{
+		Integer index = indices.lines.get(line);
+		return index == null ? -1 : index;
+	}
+
+	public Point getLocation(int node)
+	{
+		return locations[node >> CHUNK_BITS][node & CHUNK_MASK];
+	}
+
+	public Point getLocation(Node node)
+	{
+		return getLocation(indices.nodes.get(node));
+	}
+
+	public Point getPrev(int edge)
+	{
+		return prevs[edge >> CHUNK_BITS][edge & CHUNK_MASK];
+	}
+
+	public Point getPrev(Edge edge)
+	{
+		return getPrev(indices.edges.get(edge));
+	}
+
+	public Point getNext(int edge)
+	{
+		return nexts[edge >> CHUNK_BITS][edge & CHUNK_MASK];
+	}
+
+	public Point getNext(Edge edge)
+	{
+		return getNext(indices.edges.get(edge));
+	}
+
+	/**
+	 * Start building the next version of this snapshot.
+	 */
+	public Builder edit()
+	{
+		return new Builder(this);
+	}
+
+	/**
+	 * Write the locations of this snapshot to the nodes and edges of the
+	 * specified network, which must have the same structure as the network of
+	 * this snapshot, i.e. be the network itself or a clone of it. If the
+	 * network is known to reflect a previous snapshot, only the chunks that
+	 * differ from that snapshot are written.
+	 *
+	 * @param previous
+	 *            the snapshot the target currently reflects or null.
+	 */
+	public void applyTo(LineNetwork target, LineNetworkSnapshot previous)
+	{
+		if (previous != null && previous.indices != indices) {
+			previous = null;
+		}
+		boolean changed = false;
+		List<Node> nodes = target.nodes;
+		for (int c = 0; c < locations.length; c++) {
+			Point[] chunk = locations[c];
+			if (previous != null && previous.locations[c] == chunk) {
+				continue;
+			}
+			changed = true;
+			int offset = c << CHUNK_BITS;
+			for (int i = 0; i < chunk.length; i++) {
+				nodes.get(offset + i).location = chunk[i];
+			}
+		}
+		List<Edge> edges = target.edges;
+		for (int c = 0; c < prevs.length; c++) {
+			Point[] chunkPrevs = prevs[c];
+			Point[] chunkNexts = nexts[c];
+			if (previous != null && previous.prevs[c] == chunkPrevs
+					&& previous.nexts[c] == chunkNexts) {
+				continue;
+			}
+			changed = true;
+			int offset = c << CHUNK_BITS;
+			for (int i = 0; i < chunkPrevs.length; i++) {
+				Edge edge = edges.get(offset + i);
+				edge.prev = chunkPrevs[i];
+				edge.next = chunkNexts[i];
+			}
+		}
+		if (changed) {
+			target.locationsChanged();
+		}
+	}
+
+	/**
+	 * Builds the next version of a snapshot by copying the chunks of the base
+	 * snapshot on the first modification. A builder is not thread-safe.
+	 */
+	public static class Builder
+	{
+
+		private LineNetworkSnapshot base;
+
+		private Point[][] locations;
+		private Point[][] prevs;
+		private Point[][] nexts;
+
+		private boolean[] ownLocations;
+		private boolean[] ownPrevs;
+		private boolean[] ownNexts;
+
+		private boolean modified = false;
+
+		private Builder(LineNetworkSnapshot base)
+		{
+			this.base = base;
+			locations = base.locations.clone();
+			prevs = base.prevs.clone();
+			nexts = base.nexts.clone();
+			ownLocations = new boolean[locations.length];
+			ownPrevs = new boolean[prevs.length];
+			ownNexts = new boolean[nexts.length];
+		}
+
+		public LineNetworkSnapshot getBase()
+		{
+			return base;
+		}
+
+		public Point getLocation(Node node)
+		{
+			int i = base.indices.nodes.get(node);
+			return locations[i >> CHUNK_BITS][i & CHUNK_MASK];
+		}
+
+		public Point getPrev(Edge edge)
+		{
+			int i = base.indices.edges.get(edge);
+			return prevs[i >> CHUNK_BITS][i & CHUNK_MASK];
+		}
+
+		public Point getNext(Edge edge)
+		{
+			int i = base.indices.edges.get(edge);
+			return nexts[i >> CHUNK_BITS][i & CHUNK_MASK];
+		}
+
+		public Builder setLocation(Node node, Point location)
+		{
+			set(locations, ownLocations, base.indices.nodes.get(node),
+					location);
+			return this;
+		}
+
+		public Builder setPrev(Edge edge, Point prev)
+		{
+			set(prevs, ownPrevs, base.indices.edges.get(edge), prev);
+			return this;
+		}
+
+		public Builder setNext(Edge edge, Point next)
+		{
+			set(nexts, ownNexts, base.indices.edges.get(edge), next);
+			return this;
+		}
+
+		/**
+		 * Take over the locations of nodes and edges that differ between the
+		 * specified network and a snapshot it reflected before being
+		 * modified.
+		 */
+		void setChanged(LineNetwork network, LineNetworkSnapshot reflected)
+		{
+			for (int i = 0; i < base.indices.numNodes; i++) {
+				Node node = network.nodes.get(i);
+				if (node.location != reflected.getLocation(i)) {
+					set(locations, ownLocations, i, node.location);
+				}
+			}
+			for (int i = 0; i < base.indices.numEdges; i++) {
+				Edge edge = network.edges.get(i);
+				if (edge.prev != reflected.getPrev(i)) {
+					set(prevs, ownPrevs, i, edge.prev);
+				}
+				if (edge.next != reflected.getNext(i)) {
+					set(nexts, ownNexts, i, edge.next);
+				}
+			}
+		}
+
+		private void set(Point[][] chunks, boolean[] own, int i, Point point)
+		{
+			int c = i >> CHUNK_BITS;
+			if (chunks[c][i & CHUNK_MASK] == point) {
+				return;
+			}
+			if (!own[c]) {
+				chunks[c] = chunks[c].clone();
+				own[c] = true;
+			}
+			chunks[c][i & CHUNK_MASK] = point;
+			modified = true;
+		}
+
+		/**
+		 * @return the new snapshot or the base snapshot if nothing has been
+		 *         modified. Further modifications apply to a copy of the
+		 *         returned snapshot.
+		 */
+		public LineNetworkSnapshot build()
+		{
+			if (!modified) {
+				return base;
+			}
+			base = new LineNetworkSnapshot(base.network, base.indices,
+					base.version + 1, locations, prevs, nexts);
+			locations = locations.clone();
+			prevs = prevs.clone();
+			nexts = nexts.clone();
+			ownLocations = new boolean[locations.length];
+			ownPrevs = new boolean[prevs.length];
+			ownNexts = new boolean[nexts.length];
+			modified = false;
+			return base;
+		}
+
+	}
+
+}
@@ -27,6 +27,12 @@ import de.topobyte.lightgeom.lina.Point;
 public class Node
 {
 
+	/**
+	 * The location of the node. Point objects are shared with snapshots and
+	 * with caches that detect moved nodes by comparing references, such as
+	 * the segment geometry and station outline caches of the renderer. To
+	 * move a node, assign a new point, never modify the current one in place.
+	 */
 	public Point location;
 	public Station station;
 	public List<Edge> edges = new ArrayList<>();
@@ -0,0 +1,46 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonically increasing count, e.g. the number of drawn or culled
+ * primitives. Cheap to update from several threads.
+ */
+public class Counter implements Metric
+{
+
+	private final LongAdder count = new LongAdder();
+
+	public void inc()
+	{
+		count.increment();
+	}
+
+	public void inc(long n)
+	{
+		count.add(n);
+	}
+
+	public long getCount()
+	{
+		return count.sum();
+	}
+
+}
@@ -0,0 +1,43 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.metrics;
+
+/**
+ * Exposes a {@link Histogram} via JMX. For timers, all values except the
+ * count are durations in milliseconds.
+ */
+public interface HistogramMXBean
+{
+
+	public long getCount();
+
+	public double getMin();
+
+	public double getMax();
+
+	public double getMean();
+
+	public double get50thPercentile();
+
+	public double get90thPercentile();
+
+	public double get99thPercentile();
+
+	public double get999thPercentile();
+
+}
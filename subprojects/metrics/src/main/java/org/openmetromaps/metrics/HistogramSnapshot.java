@@ -0,0 +1,113 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.metrics;
+
+/**
+ * An immutable copy of the state of a {@link Histogram}.
+ */
+public class HistogramSnapshot
+{
+
+	private final long[] counts;
+	private final long count;
+	private final long sum;
+	private final long min;
+	private final long max;
+
+	HistogramSnapshot(long[] counts, long count, long sum, long min, long max)
+	{
+		this.counts = counts;
+		this.count = count;
+		this.sum = sum;
+		this.min = min;
+		this.max = max;
+	}
+
+	public long getCount()
+	{
+		return count;
+	}
+
+	public long getSum()
+	{
+		return sum;
+	}
+
+	public long getMin()
+	{
+		return min;
+	}
+
+	public long getMax()
+	{
+		return max;
+	}
+
+	public double getMean()
+	{
+		if (count == 0) {
+			return 0;
+		}
+		return sum / (double) count;
+	}
+
+	/**
+	 * @param percentile
+	 *            a value between 0 and 100.
+	 * @return a value that is greater than or equal to the specified
+	 *         percentage of all recorded values, up to the precision of the
+	 *         histogram's buckets. Never larger than the maximum.
+	 */
+	public long getValueAtPercentile(double percentile)
+	{
+		if (count == 0) {
+			return 0;
+		}
+		double p = Math.min(Math.max(percentile, 0), 100);
+		long rank = Math.max(1, (long) Math.ceil(p / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.max(min, Math.min(max, Histogram.upperBound(i)));
+			}
+		}
+		return max;
+	}
+
+	public long getMedian()
+	{
+		return getValueAtPercentile(50);
+	}
+
+	public long get90thPercentile()
+	{
+		return getValueAtPercentile(90);
+	}
+
+	public long get99thPercentile()
+	{
+		return getValueAtPercentile(99);
+	}
+
+	public long get999thPercentile()
+	{
+		return getValueAtPercentile(99.9);
+	}
+
+}
@@ -0,0 +1,260 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Hashtable;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registers an MXBean for each metric of a registry with the platform MBean
+ * server, including metrics that are added to the registry later on. The
+ * beans are registered in the domain 'org.openmetromaps' with the metric's
+ * type and name as key properties, e.g.
+ * 'org.openmetromaps:type=Timer,name=render.frame'.
+ */
+public class JmxReporter implements MetricRegistryListener
+{
+
+	public static final String DOMAIN = "org.openmetromaps";
+
+	private static final double NANOS_PER_MILLI = 1000000.0;
+
+	private MetricRegistry registry;
+	private MBeanServer server;
+
+	public JmxReporter(MetricRegistry registry)
+	{
+		this.registry = registry;
+		server = ManagementFactory.getPlatformMBeanServer();
+	}
+
+	public void start()
+	{
+		registry.addListener(this);
+		for (Map.Entry<String, Metric> entry : registry.getMetrics()
+				.entrySet()) {
+			metricAdded(entry.getKey(), entry.getValue());
+		}
+	}
+
+	public void stop()
+	{
+		registry.removeListener(this);
+		for (Map.Entry<String, Metric> entry : registry.getMetrics()
+				.entrySet()) {
+			metricRemoved(entry.getKey(), entry.getValue());
+		}
+	}
+
+	@Override
+	public void metricAdded(String name, Metric metric)
+	{
+		Object bean = createBean(metric);
+		if (bean == null) {
+			return;
+		}
+		try {
+			ObjectName objectName = objectName(name, metric);
+			if (!server.isRegistered(objectName)) {
+				server.registerMBean(bean, objectName);
+			}
+		} catch (JMException e) {
+			// metrics are optional, never fail the instrumented code
+		}
+	}
+
+	@Override
+	public void metricRemoved(String name, Metric metric)
+	{
+		try {
+			ObjectName objectName = objectName(name, metric);
+			if (server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+		} catch (JMException e) {
+			// metrics are optional, never fail the instrumented code
+		}
+	}
+
+	private static ObjectName objectName(String name, Metric metric)
+			throws JMException
+	{
+		String type = metric instanceof Gauge ? "Gauge"
+				: metric.getClass().getSimpleName();
+		Hashtable<String, String> properties = new Hashtable<>();
+		properties.put("type", type);
+		properties.put("name", ObjectName.quote(name));
+		return new ObjectName(DOMAIN, properties);
+	}
+
+	private static Object createBean(Metric metric)
+	{
+		if (metric instanceof Timer) {
+			return new TimerBean((Timer) metric);
+		} else if (metric instanceof Histogram) {
+			return new HistogramBean((Histogram) metric);
+		} else if (metric instanceof Counter) {
+			return new CounterBean((Counter) metric);
+		} else if (metric instanceof Gauge) {
+			return new GaugeBean((Gauge) metric);
+		}
+		return null;
+	}
+
+	private static abstract class SnapshotBean implements HistogramMXBean
+	{
+
+		private final double scale;
+
+		SnapshotBean(double scale)
+		{
+			this.scale = scale;
+		}
+
+		abstract HistogramSnapshot snapshot();
+
+		@Override
+		public long getCount()
+		{
+			return snapshot().getCount();
+		}
+
+		@Override
+		public double getMin()
+		{
+			return snapshot().getMin() / scale;
+		}
+
+		@Override
+		public double getMax()
+		{
+			return snapshot().getMax() / scale;
+		}
+
+		@Override
+		public double getMean()
+		{
+			return snapshot().getMean() / scale;
+		}
+
+		@Override
+		public double get50thPercentile()
+		{
+			return snapshot().getMedian() / scale;
+		}
+
+		@Override
+		public double get90thPercentile()
+		{
+			return snapshot().get90thPercentile() / scale;
+		}
+
+		@Override
+		public double get99thPercentile()
+		{
+			return snapshot().get99thPercentile() / scale;
+		}
+
+		@Override
+		public double get999thPercentile()
+		{
+			return snapshot().get999thPercentile() / scale;
+		}
+
+	}
+
+	private static class TimerBean extends SnapshotBean
+	{
+
+		private final Timer timer;
+
+		TimerBean(Timer timer)
+		{
+			super(NANOS_PER_MILLI);
+			this.timer = timer;
+		}
+
+		@Override
+		HistogramSnapshot snapshot()
+		{
+			return timer.getSnapshot();
+		}
+
+	}
+
+	private static class HistogramBean extends SnapshotBean
+	{
+
+		private final Histogram histogram;
+
+		HistogramBean(Histogram histogram)
+		{
+			super(1);
+			this.histogram = histogram;
+		}
+
+		@Override
+		HistogramSnapshot snapshot()
+		{
+			return histogram.getSnapshot();
+		}
+
+	}
+
+	private static class CounterBean implements CounterMXBean
+	{
+
+		private final Counter counter;
+
+		CounterBean(Counter counter)
+		{
+			this.counter = counter;
+		}
+
+		@Override
+		public long getCount()
+		{
+			return counter.getCount();
+		}
+
+	}
+
+	private static class GaugeBean implements GaugeMXBean
+	{
+
+		private final Gauge gauge;
+
+		GaugeBean(Gauge gauge)
+		{
+			this.gauge = gauge;
+		}
+
+		@Override
+		public long getValue()
+		{
+			return gauge.getValue();
+		}
+
+	}
+
+}
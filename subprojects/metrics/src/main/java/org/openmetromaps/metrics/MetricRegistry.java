@@ -0,0 +1,144 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * A collection of named metrics. Names are dot-separated, starting with the
+ * component the metric belongs to (e.g. 'render.segments',
+ * 'import.gtfs.stops').
+ *
+ * Lookups are meant to happen once, e.g. when initializing a static field,
+ * and the returned metric objects are meant to be kept and updated directly.
+ */
+public class MetricRegistry
+{
+
+	private final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+	private final List<MetricRegistryListener> listeners = new CopyOnWriteArrayList<>();
+
+	public Counter counter(String name)
+	{
+		return getOrAdd(name, Counter.class, Counter::new);
+	}
+
+	public Histogram histogram(String name)
+	{
+		return getOrAdd(name, Histogram.class, Histogram::new);
+	}
+
+	public Timer timer(String name)
+	{
+		return getOrAdd(name, Timer.class, Timer::new);
+	}
+
+	/**
+	 * Register a gauge under the specified name, replacing any gauge that has
+	 * been registered with the same name before.
+	 */
+	public Gauge gauge(String name, Gauge gauge)
+	{
+		Metric previous = metrics.put(name, gauge);
+		if (previous != null && !(previous instanceof Gauge)) {
+			metrics.put(name, previous);
+			throw new IllegalArgumentException(
+					"A metric with a different type is already registered: "
+							+ name);
+		}
+		if (previous != null) {
+			fireRemoved(name, previous);
+		}
+		fireAdded(name, gauge);
+		return gauge;
+	}
+
+	public boolean remove(String name)
+	{
+		Metric metric = metrics.remove(name);
+		if (metric == null) {
+			return false;
+		}
+		fireRemoved(name, metric);
+		return true;
+	}
+
+	public Metric get(String name)
+	{
+		return metrics.get(name);
+	}
+
+	/**
+	 * @return a copy of all metrics, sorted by name.
+	 */
+	public SortedMap<String, Metric> getMetrics()
+	{
+		return new TreeMap<>(metrics);
+	}
+
+	public void addListener(MetricRegistryListener listener)
+	{
+		listeners.add(listener);
+	}
+
+	public void removeListener(MetricRegistryListener listener)
+	{
+		listeners.remove(listener);
+	}
+
+	private <T extends Metric> T getOrAdd(String name, Class<T> type,
+			Supplier<T> factory)
+	{
+		Metric metric = metrics.get(name);
+		if (metric == null) {
+			T created = factory.get();
+			metric = metrics.putIfAbsent(name, created);
+			if (metric == null) {
+				fireAdded(name, created);
+				return created;
+			}
+		}
+		if (!type.isInstance(metric)) {
+			throw new IllegalArgumentException(String.format(
+					"Metric '%s' is a %s, not a %s", name,
+					metric.getClass().getSimpleName(), type.getSimpleName()));
+		}
+		return type.cast(metric);
+	}
+
+	private void fireAdded(String name, Metric metric)
+	{
+		for (MetricRegistryListener listener : listeners) {
+			listener.metricAdded(name, metric);
+		}
+	}
+
+	private void fireRemoved(String name, Metric metric)
+	{
+		for (MetricRegistryListener listener : listeners) {
+			listener.metricRemoved(name, metric);
+		}
+	}
+
+}
@@ -0,0 +1,53 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.metrics;
+
+/**
+ * Access to the application-wide {@link MetricRegistry}.
+ */
+public class Metrics
+{
+
+	private static final MetricRegistry REGISTRY = new MetricRegistry();
+
+	public static MetricRegistry registry()
+	{
+		return REGISTRY;
+	}
+
+	public static Counter counter(String name)
+	{
+		return REGISTRY.counter(name);
+	}
+
+	public static Histogram histogram(String name)
+	{
+		return REGISTRY.histogram(name);
+	}
+
+	public static Timer timer(String name)
+	{
+		return REGISTRY.timer(name);
+	}
+
+	public static Gauge gauge(String name, Gauge gauge)
+	{
+		return REGISTRY.gauge(name, gauge);
+	}
+
+}
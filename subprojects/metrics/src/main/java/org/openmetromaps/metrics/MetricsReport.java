@@ -0,0 +1,79 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.metrics;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Writes a plain text snapshot of all metrics of a registry. Durations are
+ * reported in milliseconds.
+ */
+public class MetricsReport
+{
+
+	private static final double NANOS_PER_MILLI = 1000000.0;
+
+	public static void print(MetricRegistry registry, PrintStream out)
+	{
+		SortedMap<String, Metric> metrics = registry.getMetrics();
+		for (Map.Entry<String, Metric> entry : metrics.entrySet()) {
+			String name = entry.getKey();
+			Metric metric = entry.getValue();
+			if (metric instanceof Timer) {
+				Timer timer = (Timer) metric;
+				if (timer.getCount() == 0) {
+					continue;
+				}
+				HistogramSnapshot s = timer.getSnapshot();
+				out.println(String.format(
+						"%s: count=%d mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms",
+						name, s.getCount(), s.getMean() / NANOS_PER_MILLI,
+						millis(s.getMedian()), millis(s.get90thPercentile()),
+						millis(s.get99thPercentile()),
+						millis(s.get999thPercentile()), millis(s.getMax())));
+			} else if (metric instanceof Histogram) {
+				Histogram histogram = (Histogram) metric;
+				if (histogram.getCount() == 0) {
+					continue;
+				}
+				HistogramSnapshot s = histogram.getSnapshot();
+				out.println(String.format(
+						"%s: count=%d mean=%.1f p50=%d p90=%d p99=%d p99.9=%d max=%d",
+						name, s.getCount(), s.getMean(), s.getMedian(),
+						s.get90thPercentile(), s.get99thPercentile(),
+						s.get999thPercentile(), s.getMax()));
+			} else if (metric instanceof Counter) {
+				Counter counter = (Counter) metric;
+				out.println(String.format("%s: count=%d", name,
+						counter.getCount()));
+			} else if (metric instanceof Gauge) {
+				Gauge gauge = (Gauge) metric;
+				out.println(String.format("%s: value=%d", name,
+						gauge.getValue()));
+			}
+		}
+	}
+
+	private static double millis(long nanos)
+	{
+		return nanos / NANOS_PER_MILLI;
+	}
+
+}
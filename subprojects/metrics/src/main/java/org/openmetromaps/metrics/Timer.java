@@ -0,0 +1,91 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.metrics;
+
+/**
+ * Measures durations with nanosecond resolution and records them in a
+ * {@link Histogram}.
+ *
+ * For hot code paths, use {@link #start()} and {@link #stop(long)}, which do
+ * not allocate. Elsewhere, {@link #time()} can be used with
+ * try-with-resources.
+ */
+public class Timer implements Metric
+{
+
+	private final Histogram histogram = new Histogram();
+
+	public long start()
+	{
+		return System.nanoTime();
+	}
+
+	/**
+	 * Record the time elapsed since a value obtained from {@link #start()}.
+	 *
+	 * @return the recorded duration in nanoseconds.
+	 */
+	public long stop(long start)
+	{
+		long duration = System.nanoTime() - start;
+		histogram.update(duration);
+		return duration;
+	}
+
+	public void update(long nanos)
+	{
+		histogram.update(nanos);
+	}
+
+	public Context time()
+	{
+		return new Context();
+	}
+
+	public long getCount()
+	{
+		return histogram.getCount();
+	}
+
+	/**
+	 * @return a snapshot of the recorded durations in nanoseconds.
+	 */
+	public HistogramSnapshot getSnapshot()
+	{
+		return histogram.getSnapshot();
+	}
+
+	public class Context implements AutoCloseable
+	{
+
+		private final long start = System.nanoTime();
+
+		public long stop()
+		{
+			return Timer.this.stop(start);
+		}
+
+		@Override
+		public void close()
+		{
+			stop();
+		}
+
+	}
+
+}
@@ -0,0 +1,201 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HistogramTest
+{
+
+	private static void checkRoundTrip(long value)
+	{
+		int index = Histogram.index(value);
+		Assert.assertTrue("index of " + value, index >= 0);
+		Assert.assertTrue("index of " + value,
+				index < Histogram.NUM_BUCKETS);
+		long lower = Histogram.lowerBound(index);
+		long upper = Histogram.upperBound(index);
+		Assert.assertTrue("lower bound of " + value, lower <= value);
+		Assert.assertTrue("upper bound of " + value, upper >= value);
+		Assert.assertEquals(index, Histogram.index(lower));
+		Assert.assertEquals(index, Histogram.index(upper));
+		// the relative error is bounded by 1/64
+		Assert.assertTrue("width of " + value, upper - lower <= lower / 64);
+	}
+
+	@Test
+	public void testLinearRange()
+	{
+		for (int value = 0; value < 128; value++) {
+			Assert.assertEquals(value, Histogram.index(value));
+			Assert.assertEquals(value, Histogram.lowerBound(value));
+			Assert.assertEquals(value, Histogram.upperBound(value));
+		}
+	}
+
+	@Test
+	public void testBoundaries()
+	{
+		Assert.assertEquals(0, Histogram.index(0));
+		Assert.assertEquals(127, Histogram.index(127));
+		Assert.assertEquals(128, Histogram.index(128));
+		Assert.assertEquals(128, Histogram.index(129));
+		Assert.assertEquals(129, Histogram.index(130));
+		Assert.assertEquals(128, Histogram.lowerBound(128));
+		Assert.assertEquals(129, Histogram.upperBound(128));
+
+		int last = Histogram.NUM_BUCKETS - 1;
+		Assert.assertEquals(last, Histogram.index(Long.MAX_VALUE));
+		Assert.assertEquals(Long.MAX_VALUE, Histogram.upperBound(last));
+		Assert.assertEquals(127L << 56, Histogram.lowerBound(last));
+	}
+
+	@Test
+	public void testRoundTrips()
+	{
+		checkRoundTrip(0);
+		checkRoundTrip(127);
+		checkRoundTrip(128);
+		checkRoundTrip(Long.MAX_VALUE);
+		checkRoundTrip(Long.MAX_VALUE - 1);
+		for (int exponent = 0; exponent < 63; exponent++) {
+			long power = 1L << exponent;
+			checkRoundTrip(power - 1);
+			checkRoundTrip(power);
+			checkRoundTrip(power + 1);
+		}
+	}
+
+	@Test
+	public void testBucketsAreContiguous()
+	{
+		Assert.assertEquals(0, Histogram.lowerBound(0));
+		for (int i = 0; i < Histogram.NUM_BUCKETS - 1; i++) {
+			Assert.assertEquals("bucket " + i, Histogram.upperBound(i) + 1,
+					Histogram.lowerBound(i + 1));
+		}
+	}
+
+	@Test
+	public void testEmpty()
+	{
+		HistogramSnapshot snapshot = new Histogram().getSnapshot();
+		Assert.assertEquals(0, snapshot.getCount());
+		Assert.assertEquals(0, snapshot.getMedian());
+		Assert.assertEquals(0, snapshot.getValueAtPercentile(100));
+	}
+
+	@Test
+	public void testNegativeValues()
+	{
+		Histogram histogram = new Histogram();
+		histogram.update(-5);
+		HistogramSnapshot snapshot = histogram.getSnapshot();
+		Assert.assertEquals(0, snapshot.getMin());
+		Assert.assertEquals(0, snapshot.getMax());
+		Assert.assertEquals(0, snapshot.getMedian());
+	}
+
+	@Test
+	public void testExactPercentiles()
+	{
+		Histogram histogram = new Histogram();
+		for (int value = 0; value < 100; value++) {
+			histogram.update(value);
+		}
+		HistogramSnapshot snapshot = histogram.getSnapshot();
+		Assert.assertEquals(100, snapshot.getCount());
+		Assert.assertEquals(0, snapshot.getMin());
+		Assert.assertEquals(99, snapshot.getMax());
+		Assert.assertEquals(49.5, snapshot.getMean(), 1e-9);
+		Assert.assertEquals(0, snapshot.getValueAtPercentile(0));
+		Assert.assertEquals(0, snapshot.getValueAtPercentile(1));
+		Assert.assertEquals(49, snapshot.getMedian());
+		Assert.assertEquals(89, snapshot.get90thPercentile());
+		Assert.assertEquals(98, snapshot.get99thPercentile());
+		Assert.assertEquals(99, snapshot.getValueAtPercentile(100));
+	}
+
+	@Test
+	public void testUniformPercentiles()
+	{
+		Histogram histogram = new Histogram();
+		int n = 100000;
+		for (int value = 1; value <= n; value++) {
+			histogram.update(value);
+		}
+		HistogramSnapshot snapshot = histogram.getSnapshot();
+		double[] percentiles = { 10, 50, 90, 99, 99.9 };
+		for (double percentile : percentiles) {
+			long expected = (long) Math.ceil(percentile / 100 * n);
+			long actual = snapshot.getValueAtPercentile(percentile);
+			Assert.assertTrue(percentile + ": " + actual, actual >= expected);
+			Assert.assertTrue(percentile + ": " + actual,
+					actual <= expected + expected / 64);
+		}
+		Assert.assertEquals(n, snapshot.getValueAtPercentile(100));
+	}
+
+	@Test
+	public void testConstant()
+	{
+		Histogram histogram = new Histogram();
+		for (int i = 0; i < 1000; i++) {
+			histogram.update(1000000);
+		}
+		HistogramSnapshot snapshot = histogram.getSnapshot();
+		Assert.assertEquals(1000000, snapshot.getValueAtPercentile(0));
+		Assert.assertEquals(1000000, snapshot.getMedian());
+		Assert.assertEquals(1000000, snapshot.get999thPercentile());
+	}
+
+	@Test
+	public void testBimodal()
+	{
+		Histogram histogram = new Histogram();
+		for (int i = 0; i < 90; i++) {
+			histogram.update(10);
+		}
+		for (int i = 0; i < 10; i++) {
+			histogram.update(1000000000L);
+		}
+		HistogramSnapshot snapshot = histogram.getSnapshot();
+		Assert.assertEquals(10, snapshot.getMedian());
+		Assert.assertEquals(10, snapshot.get90thPercentile());
+		Assert.assertEquals(1000000000L, snapshot.getValueAtPercentile(91));
+		Assert.assertEquals(1000000000L, snapshot.get99thPercentile());
+	}
+
+	@Test
+	public void testLargeValues()
+	{
+		Histogram histogram = new Histogram();
+		histogram.update(Long.MAX_VALUE);
+		histogram.update(Long.MAX_VALUE - 1);
+		histogram.update(1L << 62);
+		HistogramSnapshot snapshot = histogram.getSnapshot();
+		Assert.assertEquals(Long.MAX_VALUE, snapshot.getMax());
+		Assert.assertEquals(Long.MAX_VALUE,
+				snapshot.getValueAtPercentile(100));
+		long first = snapshot.getValueAtPercentile(10);
+		Assert.assertTrue(first >= 1L << 62);
+		Assert.assertTrue(first <= (1L << 62) + (1L << 56));
+	}
+
+}
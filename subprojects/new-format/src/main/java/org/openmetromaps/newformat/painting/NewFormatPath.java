@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.openmetromaps.maps.painting.core.geom.Path;
+import org.openmetromaps.newformat.painting.path.CurveTo;
 import org.openmetromaps.newformat.painting.path.LineTo;
 import org.openmetromaps.newformat.painting.path.MoveTo;
 import org.openmetromaps.newformat.painting.path.PathOperation;
@@ -50,6 +51,11 @@ public class NewFormatPath implements Path
 				LineTo lineTo = (LineTo) operation;
 				buffer.append(
 						String.format("%f %f l", lineTo.getX(), lineTo.getY()));
+			} else if (operation instanceof CurveTo) {
+				CurveTo curveTo = (CurveTo) operation;
+				buffer.append(String.format("%f %f %f %f %f %f c",
+						curveTo.getX1(), curveTo.getY1(), curveTo.getX2(),
+						curveTo.getY2(), curveTo.getX3(), curveTo.getY3()));
 			}
 		}
 
@@ -98,4 +104,11 @@ public class NewFormatPath implements Path
 		operations.add(new LineTo(p.getX(), p.getY()));
 	}
 
+	@Override
+	public void curveTo(double x1, double y1, double x2, double y2, double x3,
+			double y3)
+	{
+		operations.add(new CurveTo(x1, y1, x2, y2, x3, y3));
+	}
+
 }
@@ -0,0 +1,71 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.newformat.painting.path;
+
+public class CurveTo implements PathOperation
+{
+
+	private double x1;
+	private double y1;
+	private double x2;
+	private double y2;
+	private double x3;
+	private double y3;
+
+	public CurveTo(double x1, double y1, double x2, double y2, double x3,
+			double y3)
+	{
+		this.x1 = x1;
+		this.y1 = y1;
+		this.x2 = x2;
+		this.y2 = y2;
+		this.x3 = x3;
+		this.y3 = y3;
+	}
+
+	public double getX1()
+	{
+		return x1;
+	}
+
+	public double getY1()
+	{
+		return y1;
+	}
+
+	public double getX2()
+	{
+		return x2;
+	}
+
+	public double getY2()
+	{
+		return y2;
+	}
+
+	public double getX3()
+	{
+		return x3;
+	}
+
+	public double getY3()
+	{
+		return y3;
+	}
+
+}
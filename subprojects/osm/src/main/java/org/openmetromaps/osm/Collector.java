@@ -23,6 +23,9 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.openmetromaps.metrics.Counter;
+import org.openmetromaps.metrics.Metrics;
+import org.openmetromaps.metrics.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -58,6 +61,22 @@ public class Collector
 
 	final static Logger logger = LoggerFactory.getLogger(Collector.class);
 
+	private static final Timer timerRelationGraph = Metrics
+			.timer("import.osm.collect.relation-graph");
+	private static final Timer timerRelations = Metrics
+			.timer("import.osm.collect.relations");
+	private static final Timer timerReferences = Metrics
+			.timer("import.osm.collect.references");
+	private static final Timer timerMerge = Metrics
+			.timer("import.osm.collect.merge");
+
+	private static final Counter counterRelations = Metrics
+			.counter("import.osm.collect.relations.selected");
+	private static final Counter counterWays = Metrics
+			.counter("import.osm.collect.ways.referenced");
+	private static final Counter counterNodes = Metrics
+			.counter("import.osm.collect.nodes.referenced");
+
 	private OsmFile fileNodes;
 	private OsmFile fileWays;
 	private OsmFile fileRelations;
@@ -110,13 +129,16 @@ public class Collector
 				fileRelationsFiltered);
 
 		logger.info("Building relation graph...");
+		long t = timerRelationGraph.start();
 		RelationGraph relationGraph = new RelationGraph(true, false);
 		OsmIteratorInput relationIterator = new OsmFileInput(fileRelations)
 				.createIterator(false, false);
 		relationGraph.build(relationIterator.getIterator());
 		relationIterator.close();
+		timerRelationGraph.stop(t);
 
 		logger.info("Selecting additional relations...");
+		t = timerRelations.start();
 
 		InMemoryListDataSet relations = ListDataSetLoader.read(
 				inputFilteredRelations.createIterator(true, useMetadata), true,
@@ -136,11 +158,14 @@ public class Collector
 		logger.info("Original number of relations: "
 				+ relations.getRelations().size());
 		logger.info("Final number of relations: " + all.size());
+		counterRelations.inc(all.size());
 
 		logger.info("Extracting extended relation set...");
 		filter(fileRelations, fileRelationsFiltered, EntityType.Relation, all);
+		timerRelations.stop(t);
 
 		logger.info("Collecting relation member ids...");
+		t = timerReferences.start();
 		TLongSet nodeIds = new TLongHashSet();
 		TLongSet wayIds = new TLongHashSet();
 
@@ -155,8 +180,12 @@ public class Collector
 
 		logger.info("Extracting additional nodes...");
 		filter(fileNodes, fileAdditionalNodes, EntityType.Node, nodeIds);
+		timerReferences.stop(t);
+		counterWays.inc(wayIds.size());
+		counterNodes.inc(nodeIds.size());
 
 		logger.info("Merging...");
+		t = timerMerge.start();
 
 		List<OsmFile> files = new ArrayList<>();
 		files.add(fileNodesFiltered);
@@ -178,6 +207,7 @@ public class Collector
 
 		SortedMerge merge = new SortedMerge(output, iterators);
 		merge.run();
+		timerMerge.stop(t);
 	}
 
 	private void filter(OsmFile fileInput, OsmFile fileOutput, EntityType type,
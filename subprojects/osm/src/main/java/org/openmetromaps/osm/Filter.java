@@ -22,6 +22,9 @@ import java.io.OutputStream;
 import java.nio.file.Path;
 
 import org.apache.commons.io.FileUtils;
+import org.openmetromaps.metrics.Counter;
+import org.openmetromaps.metrics.Metrics;
+import org.openmetromaps.metrics.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -59,6 +62,28 @@ public abstract class Filter
 
 	final static Logger logger = LoggerFactory.getLogger(Filter.class);
 
+	private static final Timer timerTotal = Metrics
+			.timer("import.osm.filter.total");
+	private static final Timer timerSplit = Metrics
+			.timer("import.osm.filter.split");
+	private static final Timer timerFilter = Metrics
+			.timer("import.osm.filter.filter");
+	private static final Timer timerCollect = Metrics
+			.timer("import.osm.filter.collect");
+
+	private static final Counter counterNodesRead = Metrics
+			.counter("import.osm.filter.nodes.read");
+	private static final Counter counterNodesTaken = Metrics
+			.counter("import.osm.filter.nodes.taken");
+	private static final Counter counterWaysRead = Metrics
+			.counter("import.osm.filter.ways.read");
+	private static final Counter counterWaysTaken = Metrics
+			.counter("import.osm.filter.ways.taken");
+	private static final Counter counterRelationsRead = Metrics
+			.counter("import.osm.filter.relations.read");
+	private static final Counter counterRelationsTaken = Metrics
+			.counter("import.osm.filter.relations.taken");
+
 	private OsmFile input;
 	private OsmFile output;
 
@@ -89,6 +114,8 @@ public abstract class Filter
 
 	public void execute() throws IOException
 	{
+		long start = timerTotal.start();
+
 		Path dir = Files.createTempDir().toPath();
 
 		// These are the original entities from the input, for faster access
@@ -110,6 +137,8 @@ public abstract class Filter
 
 		logger.info("Splitting to separate files...");
 
+		long t = timerSplit.start();
+
 		OsmIteratorInput iterator = new OsmFileInput(input).createIterator(true,
 				useMetadata);
 		EntitySplitter splitter = new EntitySplitter(iterator.getIterator(),
@@ -117,22 +146,29 @@ public abstract class Filter
 				fileRelations.getPath(), outputConfigIntermediate);
 		splitter.execute();
 		iterator.close();
+		timerSplit.stop(t);
 
 		logger.info("Filtering...");
 
+		t = timerFilter.start();
 		filter(fileNodes, fileNodesFiltered, EntityType.Node);
 		filter(fileWays, fileWaysFiltered, EntityType.Way);
 		filter(fileRelations, fileRelationsFiltered, EntityType.Relation);
+		timerFilter.stop(t);
 
 		logger.info("Collecting references...");
 
+		t = timerCollect.start();
 		Collector collector = new Collector(fileNodes, fileWays, fileRelations,
 				fileNodesFiltered, fileWaysFiltered, fileRelationsFiltered,
 				output, outputConfigTarget);
 		collector.execute(dir);
+		timerCollect.stop(t);
 
 		logger.info("Deleting intermediate files...");
 		FileUtils.deleteDirectory(dir.toFile());
+
+		timerTotal.stop(start);
 	}
 
 	private void filter(OsmFile fileInput, OsmFile fileOutput, EntityType type)
@@ -161,31 +197,46 @@ public abstract class Filter
 	private void filterNodes(OsmIterator iterator, OsmOutputStream output)
 			throws IOException
 	{
+		long read = 0, taken = 0;
 		for (OsmNode node : new NodeIterator(iterator)) {
+			read++;
 			if (take(node)) {
 				output.write(node);
+				taken++;
 			}
 		}
+		counterNodesRead.inc(read);
+		counterNodesTaken.inc(taken);
 	}
 
 	private void filterWays(OsmIterator iterator, OsmOutputStream output)
 			throws IOException
 	{
+		long read = 0, taken = 0;
 		for (OsmWay way : new WayIterator(iterator)) {
+			read++;
 			if (take(way)) {
 				output.write(way);
+				taken++;
 			}
 		}
+		counterWaysRead.inc(read);
+		counterWaysTaken.inc(taken);
 	}
 
 	private void filterRelations(OsmIterator iterator, OsmOutputStream output)
 			throws IOException
 	{
+		long read = 0, taken = 0;
 		for (OsmRelation relation : new RelationIterator(iterator)) {
+			read++;
 			if (take(relation)) {
 				output.write(relation);
+				taken++;
 			}
 		}
+		counterRelationsRead.inc(read);
+		counterRelationsTaken.inc(taken);
 	}
 
 }
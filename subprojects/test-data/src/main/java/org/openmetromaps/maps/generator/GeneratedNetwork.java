@@ -0,0 +1,157 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.generator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.openmetromaps.maps.Edges;
+import org.openmetromaps.maps.MapView;
+import org.openmetromaps.maps.ViewConfig;
+import org.openmetromaps.maps.graph.LineNetwork;
+import org.openmetromaps.maps.graph.Node;
+import org.openmetromaps.maps.model.Line;
+import org.openmetromaps.maps.model.ModelData;
+import org.openmetromaps.maps.model.Station;
+import org.openmetromaps.maps.model.Stop;
+import org.openmetromaps.maps.xml.XmlEdges;
+import org.openmetromaps.maps.xml.XmlLine;
+import org.openmetromaps.maps.xml.XmlModel;
+import org.openmetromaps.maps.xml.XmlModelWriter;
+import org.openmetromaps.maps.xml.XmlStation;
+import org.openmetromaps.maps.xml.XmlView;
+import org.openmetromaps.maps.xml.XmlViewStation;
+
+import de.topobyte.lightgeom.lina.Point;
+
+/**
+ * The result of {@link NetworkGenerator}: the model data and a single view
+ * with a location for each station. Use {@link #toXmlModel()} and an
+ * XmlModelConverter to obtain a complete MapModel including line networks.
+ */
+public class GeneratedNetwork
+{
+
+	private ModelData data;
+	private String viewName;
+	private List<Edges> edges;
+	private ViewConfig viewConfig;
+	private Map<Station, Point> locations;
+
+	public GeneratedNetwork(ModelData data, String viewName, List<Edges> edges,
+			ViewConfig viewConfig, Map<Station, Point> locations)
+	{
+		this.data = data;
+		this.viewName = viewName;
+		this.edges = edges;
+		this.viewConfig = viewConfig;
+		this.locations = locations;
+	}
+
+	public ModelData getData()
+	{
+		return data;
+	}
+
+	public String getViewName()
+	{
+		return viewName;
+	}
+
+	public List<Edges> getEdges()
+	{
+		return edges;
+	}
+
+	public ViewConfig getViewConfig()
+	{
+		return viewConfig;
+	}
+
+	public Map<Station, Point> getLocations()
+	{
+		return locations;
+	}
+
+	public XmlModel toXmlModel()
+	{
+		List<XmlStation> xmlStations = new ArrayList<>();
+		List<XmlStation> idToXmlStation = new ArrayList<>();
+		for (Station station : data.stations) {
+			XmlStation xmlStation = new XmlStation(station.getId(),
+					station.getName(), station.getLocation());
+			xmlStations.add(xmlStation);
+			while (idToXmlStation.size() <= station.getId()) {
+				idToXmlStation.add(null);
+			}
+			idToXmlStation.set(station.getId(), xmlStation);
+		}
+
+		List<XmlLine> xmlLines = new ArrayList<>();
+		for (Line line : data.lines) {
+			List<XmlStation> stops = new ArrayList<>();
+			for (Stop stop : line.getStops()) {
+				stops.add(idToXmlStation.get(stop.getStation().getId()));
+			}
+			xmlLines.add(new XmlLine(line.getId(), line.getName(),
+					line.getColor(), line.isCircular(), stops));
+		}
+
+		XmlView xmlView = new XmlView(viewName,
+				viewConfig.getScene().getWidth(),
+				viewConfig.getScene().getHeight(),
+				viewConfig.getStartPosition().getX(),
+				viewConfig.getStartPosition().getY());
+		for (Edges edgesDef : edges) {
+			xmlView.getEdges().add(new XmlEdges(edgesDef.getLine()));
+		}
+		for (Station station : data.stations) {
+			xmlView.getStations().add(new XmlViewStation(station.getName(),
+					locations.get(station)));
+		}
+
+		List<XmlView> xmlViews = new ArrayList<>();
+		xmlViews.add(xmlView);
+
+		return new XmlModel("1.0.0", xmlStations, xmlLines, xmlViews);
+	}
+
+	public void write(OutputStream os)
+			throws ParserConfigurationException, IOException
+	{
+		// The writer only needs the nodes of the view's line network to
+		// serialize station locations
+		LineNetwork lineNetwork = new LineNetwork();
+		for (Station station : data.stations) {
+			Node node = new Node(station);
+			node.location = locations.get(station);
+			lineNetwork.nodes.add(node);
+		}
+
+		List<MapView> views = new ArrayList<>();
+		views.add(new MapView(viewName, edges, lineNetwork, viewConfig));
+
+		new XmlModelWriter().write(os, data, views);
+	}
+
+}
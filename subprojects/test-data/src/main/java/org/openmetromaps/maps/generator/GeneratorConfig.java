@@ -0,0 +1,105 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.generator;
+
+public class GeneratorConfig
+{
+
+	private long seed = 1;
+	private int numStations = 1000;
+	private int numLines = 40;
+	private int lineLength = 30;
+	private double interchangeDensity = 0.2;
+	private int numCircularLines = 2;
+
+	public long getSeed()
+	{
+		return seed;
+	}
+
+	public void setSeed(long seed)
+	{
+		this.seed = seed;
+	}
+
+	/**
+	 * @return the number of stations placed on the map. Stations not served
+	 *         by any line are not included in the generated model.
+	 */
+	public int getNumStations()
+	{
+		return numStations;
+	}
+
+	public void setNumStations(int numStations)
+	{
+		this.numStations = numStations;
+	}
+
+	/**
+	 * @return the number of lines, including circular lines.
+	 */
+	public int getNumLines()
+	{
+		return numLines;
+	}
+
+	public void setNumLines(int numLines)
+	{
+		this.numLines = numLines;
+	}
+
+	/**
+	 * @return the number of stops of each line. Lines may end up shorter if
+	 *         they run into a dead end.
+	 */
+	public int getLineLength()
+	{
+		return lineLength;
+	}
+
+	public void setLineLength(int lineLength)
+	{
+		this.lineLength = lineLength;
+	}
+
+	/**
+	 * @return the probability that a line continues to a station that is
+	 *         already served by another line rather than to a new one.
+	 */
+	public double getInterchangeDensity()
+	{
+		return interchangeDensity;
+	}
+
+	public void setInterchangeDensity(double interchangeDensity)
+	{
+		this.interchangeDensity = interchangeDensity;
+	}
+
+	public int getNumCircularLines()
+	{
+		return numCircularLines;
+	}
+
+	public void setNumCircularLines(int numCircularLines)
+	{
+		this.numCircularLines = numCircularLines;
+	}
+
+}
@@ -0,0 +1,297 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.generator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.openmetromaps.maps.Edges;
+import org.openmetromaps.maps.ViewConfig;
+import org.openmetromaps.maps.model.Coordinate;
+import org.openmetromaps.maps.model.Line;
+import org.openmetromaps.maps.model.ModelData;
+import org.openmetromaps.maps.model.Station;
+import org.openmetromaps.maps.model.Stop;
+
+import de.topobyte.lightgeom.lina.Point;
+import de.topobyte.viewports.geometry.Rectangle;
+
+/**
+ * Generates synthetic networks of arbitrary size. Stations are placed on a
+ * jittered square lattice and lines are random walks between neighboring
+ * lattice cells that prefer to keep their direction. Circular lines run
+ * around a random center. The output only depends on the configuration
+ * including the seed, so generated networks are reproducible.
+ */
+public class NetworkGenerator
+{
+
+	private static final double SPACING = 40;
+	private static final double MARGIN = 100;
+	private static final double JITTER = 0.25;
+
+	private static final double BASE_LON = 13.0;
+	private static final double BASE_LAT = 52.6;
+	private static final double CELL_LON = 0.004;
+	private static final double CELL_LAT = 0.0025;
+
+	private static final int[] DX = { 1, 1, 0, -1, -1, -1, 0, 1 };
+	private static final int[] DY = { 0, 1, 1, 1, 0, -1, -1, -1 };
+
+	public static GeneratedNetwork generate(GeneratorConfig config)
+	{
+		return new NetworkGenerator(config).generate();
+	}
+
+	private GeneratorConfig config;
+	private Random random;
+
+	private int numCells;
+	private int width;
+	private int height;
+
+	// number of lines serving each cell
+	private int[] served;
+	// index of the last line that visited each cell, plus one
+	private int[] visitedBy;
+
+	private NetworkGenerator(GeneratorConfig config)
+	{
+		this.config = config;
+		random = new Random(config.getSeed());
+
+		numCells = Math.max(1, config.getNumStations());
+		width = (int) Math.ceil(Math.sqrt(numCells));
+		height = (numCells + width - 1) / width;
+
+		served = new int[numCells];
+		visitedBy = new int[numCells];
+	}
+
+	private GeneratedNetwork generate()
+	{
+		// Random offsets of the lattice cells, drawn first so that station
+		// positions do not depend on the line parameters
+		double[] jitterX = new double[numCells];
+		double[] jitterY = new double[numCells];
+		for (int i = 0; i < numCells; i++) {
+			jitterX[i] = (random.nextDouble() * 2 - 1) * JITTER;
+			jitterY[i] = (random.nextDouble() * 2 - 1) * JITTER;
+		}
+
+		int numLines = config.getNumLines();
+		int numCircular = Math.min(numLines, config.getNumCircularLines());
+
+		List<int[]> routes = new ArrayList<>();
+		List<Boolean> circular = new ArrayList<>();
+		for (int i = 0; i < numLines; i++) {
+			boolean isCircular = i >= numLines - numCircular;
+			int[] route = isCircular ? circularRoute(i) : walk(i);
+			if (route.length < 2) {
+				for (int cell : route) {
+					served[cell]--;
+				}
+				continue;
+			}
+			routes.add(route);
+			circular.add(isCircular && route.length > 2);
+		}
+
+		// Create stations for all cells served by at least one line
+		List<Station> stations = new ArrayList<>();
+		Map<Station, Point> locations = new HashMap<>();
+		Station[] cellToStation = new Station[numCells];
+		for (int i = 0; i < numCells; i++) {
+			if (served[i] == 0) {
+				continue;
+			}
+			double x = i % width + jitterX[i];
+			double y = i / width + jitterY[i];
+
+			int id = stations.size();
+			Coordinate location = new Coordinate(BASE_LON + x * CELL_LON,
+					BASE_LAT - y * CELL_LAT);
+			Station station = new Station(id, String.format("Station %d", id),
+					location, new ArrayList<Stop>());
+			stations.add(station);
+			cellToStation[i] = station;
+
+			locations.put(station,
+					new Point(MARGIN + x * SPACING, MARGIN + y * SPACING));
+		}
+
+		List<Line> lines = new ArrayList<>();
+		List<Edges> edges = new ArrayList<>();
+		for (int i = 0; i < routes.size(); i++) {
+			int[] route = routes.get(i);
+			String name = String.format("L%d", i + 1);
+
+			List<Stop> stops = new ArrayList<>();
+			Line line = new Line(i, name, color(), circular.get(i), stops);
+			lines.add(line);
+			for (int cell : route) {
+				Station station = cellToStation[cell];
+				Stop stop = new Stop(station, line);
+				stops.add(stop);
+				station.getStops().add(stop);
+			}
+
+			edges.add(new Edges(name));
+		}
+
+		double sceneWidth = 2 * MARGIN + (width - 1) * SPACING;
+		double sceneHeight = 2 * MARGIN + (height - 1) * SPACING;
+		ViewConfig viewConfig = new ViewConfig(
+				new Rectangle(0, 0, sceneWidth, sceneHeight),
+				new de.topobyte.viewports.geometry.Coordinate(sceneWidth / 2,
+						sceneHeight / 2));
+
+		ModelData data = new ModelData(lines, stations);
+		return new GeneratedNetwork(data, "Synthetic", edges, viewConfig,
+				locations);
+	}
+
+	private String color()
+	{
+		int r = 40 + random.nextInt(176);
+		int g = 40 + random.nextInt(176);
+		int b = 40 + random.nextInt(176);
+		return String.format("#%02X%02X%02X", r, g, b);
+	}
+
+	private int cell(int x, int y)
+	{
+		if (x < 0 || y < 0 || x >= width || y >= height) {
+			return -1;
+		}
+		int cell = y * width + x;
+		return cell < numCells ? cell : -1;
+	}
+
+	private int pickStart()
+	{
+		boolean interchange = random.nextDouble() < config
+				.getInterchangeDensity();
+		// a few attempts to find a cell of the preferred kind
+		int cell = random.nextInt(numCells);
+		for (int i = 0; i < 16; i++) {
+			if ((served[cell] > 0) == interchange) {
+				break;
+			}
+			cell = random.nextInt(numCells);
+		}
+		return cell;
+	}
+
+	private int[] walk(int lineIndex)
+	{
+		int mark = lineIndex + 1;
+		int length = Math.max(2, config.getLineLength());
+		double density = config.getInterchangeDensity();
+
+		List<Integer> route = new ArrayList<>();
+		int cell = pickStart();
+		int dir = random.nextInt(DX.length);
+		visit(route, cell, mark);
+
+		while (route.size() < length) {
+			int x = cell % width;
+			int y = cell / width;
+			boolean interchange = random.nextDouble() < density;
+
+			int best = -1;
+			int bestDir = -1;
+			double bestScore = Double.NEGATIVE_INFINITY;
+			for (int d = 0; d < DX.length; d++) {
+				int next = cell(x + DX[d], y + DY[d]);
+				if (next < 0 || visitedBy[next] == mark) {
+					continue;
+				}
+				// prefer going straight, penalize sharp turns
+				int turn = Math.abs(d - dir);
+				turn = Math.min(turn, DX.length - turn);
+				double score = -turn + random.nextDouble() * 1.5;
+				if ((served[next] > 0) == interchange) {
+					score += 10;
+				}
+				if (score > bestScore) {
+					bestScore = score;
+					best = next;
+					bestDir = d;
+				}
+			}
+			if (best < 0) {
+				break;
+			}
+			cell = best;
+			dir = bestDir;
+			visit(route, cell, mark);
+		}
+
+		return toArray(route);
+	}
+
+	private int[] circularRoute(int lineIndex)
+	{
+		int mark = lineIndex + 1;
+		int radius = Math.max(1,
+				(int) Math.round(config.getLineLength() / 8.0));
+		radius = Math.min(radius, Math.max(1, (Math.min(width, height) - 1) / 2));
+
+		int cx = radius + random.nextInt(Math.max(1, width - 2 * radius));
+		int cy = radius + random.nextInt(Math.max(1, height - 2 * radius));
+
+		// walk around the square ring of cells at distance 'radius'
+		List<Integer> route = new ArrayList<>();
+		int x = cx - radius;
+		int y = cy - radius;
+		for (int side = 0; side < 4; side++) {
+			int dx = DX[side * 2];
+			int dy = DY[side * 2];
+			for (int i = 0; i < 2 * radius; i++) {
+				int cell = cell(x, y);
+				if (cell >= 0 && visitedBy[cell] != mark) {
+					visit(route, cell, mark);
+				}
+				x += dx;
+				y += dy;
+			}
+		}
+		return toArray(route);
+	}
+
+	private void visit(List<Integer> route, int cell, int mark)
+	{
+		route.add(cell);
+		visitedBy[cell] = mark;
+		served[cell]++;
+	}
+
+	private static int[] toArray(List<Integer> list)
+	{
+		int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = list.get(i);
+		}
+		return array;
+	}
+
+}
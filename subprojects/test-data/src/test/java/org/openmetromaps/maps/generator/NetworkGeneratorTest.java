@@ -0,0 +1,140 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.generator;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmetromaps.maps.Edges;
+import org.openmetromaps.maps.model.Line;
+import org.openmetromaps.maps.model.ModelData;
+import org.openmetromaps.maps.model.Station;
+import org.openmetromaps.maps.model.Stop;
+
+import de.topobyte.lightgeom.lina.Point;
+
+public class NetworkGeneratorTest
+{
+
+	private static GeneratedNetwork generate(long seed, int numStations,
+			int numLines)
+	{
+		GeneratorConfig config = new GeneratorConfig();
+		config.setSeed(seed);
+		config.setNumStations(numStations);
+		config.setNumLines(numLines);
+		return NetworkGenerator.generate(config);
+	}
+
+	private static void assertSameNetwork(GeneratedNetwork expected,
+			GeneratedNetwork actual)
+	{
+		List<Station> stations1 = expected.getData().stations;
+		List<Station> stations2 = actual.getData().stations;
+		Assert.assertEquals(stations1.size(), stations2.size());
+		for (int i = 0; i < stations1.size(); i++) {
+			Station s1 = stations1.get(i);
+			Station s2 = stations2.get(i);
+			Assert.assertEquals(s1.getId(), s2.getId());
+			Assert.assertEquals(s1.getName(), s2.getName());
+			Assert.assertEquals(s1.getLocation().getLongitude(),
+					s2.getLocation().getLongitude(), 0);
+			Assert.assertEquals(s1.getLocation().getLatitude(),
+					s2.getLocation().getLatitude(), 0);
+			Point p1 = expected.getLocations().get(s1);
+			Point p2 = actual.getLocations().get(s2);
+			Assert.assertEquals(p1.getX(), p2.getX(), 0);
+			Assert.assertEquals(p1.getY(), p2.getY(), 0);
+		}
+
+		List<Line> lines1 = expected.getData().lines;
+		List<Line> lines2 = actual.getData().lines;
+		Assert.assertEquals(lines1.size(), lines2.size());
+		for (int i = 0; i < lines1.size(); i++) {
+			Line l1 = lines1.get(i);
+			Line l2 = lines2.get(i);
+			Assert.assertEquals(l1.getName(), l2.getName());
+			Assert.assertEquals(l1.getColor(), l2.getColor());
+			Assert.assertEquals(l1.isCircular(), l2.isCircular());
+			Assert.assertEquals(l1.getStops().size(), l2.getStops().size());
+			for (int k = 0; k < l1.getStops().size(); k++) {
+				Assert.assertEquals(l1.getStops().get(k).getStation().getId(),
+						l2.getStops().get(k).getStation().getId());
+			}
+		}
+	}
+
+	@Test
+	public void testSameSeed()
+	{
+		assertSameNetwork(generate(7, 300, 12), generate(7, 300, 12));
+	}
+
+	@Test
+	public void testOtherSeed()
+	{
+		GeneratedNetwork network1 = generate(7, 300, 12);
+		GeneratedNetwork network2 = generate(8, 300, 12);
+		Station s1 = network1.getData().stations.get(0);
+		Station s2 = network2.getData().stations.get(0);
+		Assert.assertNotEquals(network1.getLocations().get(s1).getX(),
+				network2.getLocations().get(s2).getX(), 0);
+	}
+
+	@Test
+	public void testCounts()
+	{
+		int[][] configs = { { 50, 4 }, { 300, 12 }, { 2000, 60 } };
+		for (int[] config : configs) {
+			int numStations = config[0];
+			int numLines = config[1];
+			GeneratedNetwork network = generate(1, numStations, numLines);
+			ModelData data = network.getData();
+
+			// stations not served by any line are dropped
+			Assert.assertTrue(data.stations.size() > 0);
+			Assert.assertTrue(data.stations.size() <= numStations);
+			Assert.assertEquals(numLines, data.lines.size());
+			Assert.assertEquals(numLines, network.getEdges().size());
+			Assert.assertEquals(data.stations.size(),
+					network.getLocations().size());
+
+			Set<String> lineNames = new HashSet<>();
+			for (Edges edges : network.getEdges()) {
+				lineNames.add(edges.getLine());
+			}
+			Assert.assertEquals(numLines, lineNames.size());
+
+			for (int i = 0; i < data.stations.size(); i++) {
+				Station station = data.stations.get(i);
+				Assert.assertEquals(i, station.getId());
+				Assert.assertFalse(station.getStops().isEmpty());
+			}
+			for (Line line : data.lines) {
+				Assert.assertTrue(line.getStops().size() >= 2);
+				for (Stop stop : line.getStops()) {
+					Assert.assertSame(line, stop.getLine());
+				}
+			}
+		}
+	}
+
+}
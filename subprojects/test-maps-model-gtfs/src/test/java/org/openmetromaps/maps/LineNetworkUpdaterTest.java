@@ -0,0 +1,133 @@
+package org.openmetromaps.maps;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.openmetromaps.maps.graph.Edge;
+import org.openmetromaps.maps.graph.LineNetwork;
+import org.openmetromaps.maps.graph.LineNetworkBuilder;
+import org.openmetromaps.maps.graph.LineNetworkUpdater;
+import org.openmetromaps.maps.graph.NetworkLine;
+import org.openmetromaps.maps.graph.Node;
+import org.openmetromaps.maps.model.Line;
+import org.openmetromaps.maps.model.ModelData;
+import org.openmetromaps.maps.model.Station;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Applies the operations of the replacement services test cases to a line
+ * network through {@link LineNetworkUpdater} and checks that the result equals
+ * a network built from scratch by {@link LineNetworkBuilder}.
+ */
+@RunWith(Parameterized.class)
+public class LineNetworkUpdaterTest {
+
+    private static final Path BASE = Path.of("src/test/resources/replacement-services");
+
+    @Parameterized.Parameter(0)
+    public String path;
+
+    @Parameterized.Parameters(name = "ID: {0}")
+    public static Collection<Object[]> data() {
+        File[] files = BASE.toFile().listFiles();
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(files)
+                .filter(file -> new File(file, "arrange.zip").exists() && new File(file, "act.txt").exists())
+                .map(file -> new Object[]{file.getName()})
+                .toList();
+    }
+
+    @Test(timeout = 2000)
+    public void testUpdaterMatchesBuilder() throws IOException {
+        Path basePath = BASE.resolve(path);
+        ModelData model = ReplacementOperations.importModelFromGtfs(basePath.resolve("arrange.zip"));
+
+        List<Edges> edges = MapModelUtil.allEdges(model);
+        LineNetwork network = new LineNetworkBuilder(model, edges).getGraph();
+        checkLinesOnce(network);
+
+        List<List<String>> argumentLines = Arrays.stream(Files.readString(basePath.resolve("act.txt")).split("\n"))
+                .map(line -> Arrays.asList(line.split(";")))
+                .collect(Collectors.toList());
+        ModelChangeSet changes = new ModelChangeSet();
+        ReplacementOperations.apply(path, model, argumentLines, changes);
+
+        new LineNetworkUpdater(network, edges).apply(changes);
+        LineNetwork expected = new LineNetworkBuilder(model, MapModelUtil.allEdges(model)).getGraph();
+
+        checkLinesOnce(network);
+        Assert.assertEquals(path + " - lines", lines(expected), lines(network));
+        Assert.assertEquals(path + " - nodes", nodes(expected), nodes(network));
+        Assert.assertEquals(path + " - edges", edges(expected), edges(network));
+        Assert.assertEquals(path + " - ranks", ranks(expected), ranks(network));
+        checkSortedByRank(network);
+    }
+
+    private void checkLinesOnce(LineNetwork network) {
+        Set<NetworkLine> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        distinct.addAll(network.getLines());
+        Assert.assertEquals(path + " - each line is listed once", distinct.size(), network.getLines().size());
+    }
+
+    private void checkSortedByRank(LineNetwork network) {
+        List<Node> nodes = network.getNodes();
+        for (int i = 1; i < nodes.size(); i++) {
+            Assert.assertTrue(path + " - nodes sorted by rank", nodes.get(i - 1).rank >= nodes.get(i).rank);
+        }
+    }
+
+    private static Set<Line> lines(LineNetwork network) {
+        Set<Line> lines = new HashSet<>();
+        for (NetworkLine line : network.getLines()) {
+            lines.add(line.line);
+        }
+        return lines;
+    }
+
+    private static Set<Station> nodes(LineNetwork network) {
+        Set<Station> stations = new HashSet<>();
+        for (Node node : network.getNodes()) {
+            Assert.assertSame(node, network.getStationToNode().get(node.station));
+            stations.add(node.station);
+        }
+        Assert.assertEquals(stations, network.getStationToNode().keySet());
+        return stations;
+    }
+
+    /**
+     * @return the lines of each edge, in the order of the edge, by the pair of
+     *         stations of the edge.
+     */
+    private static Map<Set<Station>, List<Line>> edges(LineNetwork network) {
+        Map<Set<Station>, List<Line>> edges = new HashMap<>();
+        for (Edge edge : network.getEdges()) {
+            Assert.assertTrue(edge.n1.edges.contains(edge));
+            Assert.assertTrue(edge.n2.edges.contains(edge));
+            List<Line> lines = new ArrayList<>();
+            for (NetworkLine line : edge.lines) {
+                lines.add(line.line);
+            }
+            Set<Station> key = new HashSet<>(Arrays.asList(edge.n1.station, edge.n2.station));
+            Assert.assertNull("duplicate edge", edges.put(key, lines));
+        }
+        return edges;
+    }
+
+    private static Map<Station, Integer> ranks(LineNetwork network) {
+        Map<Station, Integer> ranks = new HashMap<>();
+        for (Node node : network.getNodes()) {
+            ranks.put(node.station, node.rank);
+        }
+        return ranks;
+    }
+
+}
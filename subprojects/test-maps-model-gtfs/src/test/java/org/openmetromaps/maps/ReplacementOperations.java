@@ -0,0 +1,203 @@
+package org.openmetromaps.maps;
+
+import org.openmetromaps.gtfs.DraftModel;
+import org.openmetromaps.gtfs.GtfsImporter;
+import org.openmetromaps.maps.model.Line;
+import org.openmetromaps.maps.model.ModelData;
+import org.openmetromaps.maps.model.Station;
+import org.openmetromaps.maps.model.Stop;
+import org.openmetromaps.misc.NameChanger;
+import org.openmetromaps.model.gtfs.DraftModelConverter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * The operations of the replacement services test cases, applied while
+ * recording the changes made to the model.
+ */
+class ReplacementOperations {
+
+    /**
+     * Apply the operation described by the lines of an act.txt file to the
+     * model and record the changes made to it.
+     */
+    static void apply(String path, ModelData inputModel, List<List<String>> argumentLines, ModelChangeSet changes) {
+        if (argumentLines.isEmpty() || argumentLines.get(0).isEmpty()) {
+            // Handle error - no operations found
+            throw new IllegalArgumentException(path + " - No operations found");
+        }
+
+        String operation = argumentLines.get(0).get(0).trim();
+        argumentLines.set(0, argumentLines.get(0).subList(1, argumentLines.get(0).size()));
+
+        switch (operation) {
+            case "CLOSE": {
+                List<String> arguments = argumentLines.get(0);
+                String stationName = arguments.get(0).trim();
+
+                Station station = inputModel.stations.stream()
+                        .filter(s -> s.getName().equals(stationName))
+                        .findFirst()
+                        .orElse(null);
+                if (station != null) {
+                    // Get the lines from the operation
+                    Set<Line> linesAtStation = new HashSet<>();
+                    List<Line> lines = new ArrayList<>();
+
+                    // Iterate through the stops of the station
+                    for (Stop stop : station.getStops()) {
+                        Line line = stop.getLine();
+                        linesAtStation.add(line);
+                    }
+                    for (int i = 1; i < arguments.size(); i++) {
+                        String lineName = arguments.get(i).trim();
+                        if (lineName.isEmpty()) {
+                            // Handle error - line name is empty
+                            throw new IllegalArgumentException(path + " - Line name is empty");
+                        }
+
+                        Line line = linesAtStation.stream()
+                                .filter(l -> l.getName().equals(lineName))
+                                .findFirst()
+                                .orElse(null);
+                        if (line == null) {
+                            // Handle error - line not found
+                            throw new IllegalArgumentException(path + " - Line not found: " + arguments.get(i));
+                        } else {
+                            lines.add(line);
+                        }
+                    }
+
+                    ReplacementServices.closeStation(inputModel, station, lines, changes);
+                } else {
+                    // Handle error - station not found
+                    throw new IllegalArgumentException(path + " - Station not found: " + stationName);
+                }
+                break;
+            }
+            case "REPLACEMENT": {
+                List<String> stationArguments = argumentLines.get(1);
+                List<String> lineArguments = argumentLines.get(2);
+
+                List<Station> stations = new ArrayList<>();
+                List<Line> lines = new ArrayList<>();
+
+                for (String stationArgument : stationArguments) {
+                    String stationName = stationArgument.trim();
+                    if (stationName.isEmpty()) {
+                        // Handle error - station name is empty
+                        throw new IllegalArgumentException(path + " - Station name is empty");
+                    }
+
+                    Station station = inputModel.stations.stream()
+                            .filter(l -> l.getName().equals(stationName))
+                            .findFirst()
+                            .orElse(null);
+                    if (station == null) {
+                        // Handle error - station not found
+                        throw new IllegalArgumentException(path + " - Station not found: " + stationName);
+                    } else {
+                        stations.add(station);
+                    }
+                }
+
+                for (String lineArgument : lineArguments) {
+                    String lineName = lineArgument.trim();
+                    if (lineName.isEmpty()) {
+                        // Handle error - line name is empty
+                        throw new IllegalArgumentException(path + " - Line name is empty");
+                    }
+
+                    Line line = inputModel.lines.stream()
+                            .filter(l -> l.getName().equals(lineName))
+                            .findFirst()
+                            .orElse(null);
+                    if (line == null) {
+                        // Handle error - line not found
+                        throw new IllegalArgumentException(path + " - Line not found: " + lineName);
+                    } else {
+                        lines.add(line);
+                    }
+                }
+
+                if(lines.isEmpty()) {
+                    // Handle error - no lines
+                    System.out.println("No lines");
+                    throw new IllegalArgumentException();
+                }
+
+                Line line = lines.getFirst();
+                List<Station> stationsOnFirstLine = line.getStops().stream()
+                    .map(Stop::getStation)
+                    .toList();
+
+                List<Station> selectedStationsInOrder = stations.stream()
+                    .sorted((s1, s2) -> {
+                        int idx1 = stationsOnFirstLine.indexOf(s1);
+                        int idx2 = stationsOnFirstLine.indexOf(s2);
+                        return Integer.compare(idx1, idx2);
+                    })
+                    .collect(Collectors.toList());
+
+                Station boundaryStation1 = selectedStationsInOrder.getFirst();
+                Station boundaryStation2 = selectedStationsInOrder.getLast();
+                if(stations.indexOf(boundaryStation1) > stations.indexOf(boundaryStation2)) {
+                    Collections.reverse(selectedStationsInOrder);
+                }
+
+                ReplacementServices.createReplacementService(inputModel, selectedStationsInOrder, lines, changes);
+                break;
+            }
+            case "ALTERNATIVE": {
+                List<String> arguments = argumentLines.get(0);
+
+                String stationNameA = arguments.get(0).trim();
+                String stationNameB = arguments.get(1).trim();
+
+                Station stationA = inputModel.stations.stream()
+                        .filter(s -> s.getName().equals(stationNameA))
+                        .findFirst()
+                        .orElse(null);
+                Station stationB = inputModel.stations.stream()
+                        .filter(s -> s.getName().equals(stationNameB))
+                        .findFirst()
+                        .orElse(null);
+
+                if (stationA == null || stationB == null) {
+                    // Handle error - one or both stations not found
+                    if (stationA == null && stationB == null) {
+                        throw new IllegalArgumentException(path + " - Stations not found: " + stationNameA + ", " + stationNameB);
+                    }
+                    else if (stationA == null) {
+                        throw new IllegalArgumentException(path + " - Station not found: " + stationNameA);
+                    }
+                    else {
+                        throw new IllegalArgumentException(path + " - Station not found: " + stationNameB);
+                    }
+                } else {
+                    ReplacementServices.createAlternativeService(inputModel, stationA, stationB, changes);
+                }
+                break;
+            }
+            default:
+                // Handle unsupported operation
+                throw new IllegalArgumentException(path + " - Unsupported operation: " + operation);
+        }
+    }
+
+    static ModelData importModelFromGtfs(Path pathInput) throws IOException {
+        GtfsImporter importer = new GtfsImporter(
+                pathInput,
+                new NameChanger(new ArrayList<>(), new ArrayList<>()),
+                false
+        );
+        importer.execute();
+
+        DraftModel draft = importer.getModel();
+        ModelData data = new DraftModelConverter().convert(draft);
+        return data;
+    }
+}
@@ -0,0 +1,180 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.graph;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmetromaps.maps.Edges;
+import org.openmetromaps.maps.MapModel;
+import org.openmetromaps.maps.MapModelUtil;
+import org.openmetromaps.maps.MapView;
+import org.openmetromaps.maps.TestData;
+import org.openmetromaps.maps.generator.GeneratedNetwork;
+import org.openmetromaps.maps.generator.GeneratorConfig;
+import org.openmetromaps.maps.generator.NetworkGenerator;
+import org.openmetromaps.maps.model.ModelData;
+import org.openmetromaps.maps.xml.DesktopXmlModelReader;
+import org.openmetromaps.maps.xml.XmlModel;
+import org.openmetromaps.maps.xml.XmlModelConverter;
+
+import de.topobyte.xml.domabstraction.iface.ParsingException;
+
+/**
+ * Checks that {@link LineNetworkBuilder} builds the same network as
+ * {@link ReferenceLineNetworkBuilder}: the same nodes with the same ranks in
+ * the same order, the same edges with the same lines in the same order, the
+ * same list of lines with one entry per line and the same neighbors of each
+ * line on each edge.
+ */
+public class LineNetworkBuilderTest
+{
+
+	private static final Path EXAMPLE_DATA = Paths.get("../../example-data");
+
+	private static final String[] EXAMPLES = { "berlin", "wien", "budapest",
+			"example" };
+
+	@Test
+	public void testTestData() throws ParsingException
+	{
+		MapModel model = new XmlModelConverter()
+				.convert(TestData.berlinXml());
+		check("berlin.omm", model);
+	}
+
+	@Test
+	public void testExampleData() throws IOException, ParsingException
+	{
+		for (String name : EXAMPLES) {
+			Path file = EXAMPLE_DATA.resolve(name + ".xml");
+			XmlModel xmlModel;
+			try (InputStream input = Files.newInputStream(file)) {
+				xmlModel = DesktopXmlModelReader.read(input);
+			}
+			check(name, new XmlModelConverter().convert(xmlModel));
+		}
+	}
+
+	@Test
+	public void testGeneratedNetwork()
+	{
+		for (long seed = 1; seed <= 3; seed++) {
+			GeneratorConfig config = new GeneratorConfig();
+			config.setSeed(seed);
+			GeneratedNetwork network = NetworkGenerator.generate(config);
+			check("generated " + seed, network.getData(), network.getEdges());
+		}
+	}
+
+	private static void check(String name, MapModel model)
+	{
+		ModelData data = model.getData();
+		for (MapView view : model.getViews()) {
+			check(name + ", view " + view.getName(), data, view.getEdges());
+		}
+		check(name + ", all edges", data, MapModelUtil.allEdges(data));
+	}
+
+	private static void check(String name, ModelData data, List<Edges> edges)
+	{
+		LineNetwork expected = new ReferenceLineNetworkBuilder(data, edges)
+				.getGraph();
+		LineNetwork actual = new LineNetworkBuilder(data, edges).getGraph();
+
+		List<Node> expectedNodes = expected.getNodes();
+		List<Node> actualNodes = actual.getNodes();
+		Assert.assertEquals(name + ": nodes", expectedNodes.size(),
+				actualNodes.size());
+		Map<Node, Node> nodes = new HashMap<>();
+		for (int i = 0; i < expectedNodes.size(); i++) {
+			Node e = expectedNodes.get(i);
+			Node a = actualNodes.get(i);
+			String message = name + ": node " + i;
+			Assert.assertSame(message, e.station, a.station);
+			Assert.assertEquals(message, e.rank, a.rank);
+			Assert.assertEquals(message, e.isLastStopOfALine,
+					a.isLastStopOfALine);
+			Assert.assertSame(message, a,
+					actual.getStationToNode().get(a.station));
+			nodes.put(e, a);
+		}
+
+		List<Edge> expectedEdges = expected.getEdges();
+		List<Edge> actualEdges = actual.getEdges();
+		Assert.assertEquals(name + ": edges", expectedEdges.size(),
+				actualEdges.size());
+		Map<Edge, Edge> edgeMap = new HashMap<>();
+		for (int i = 0; i < expectedEdges.size(); i++) {
+			Edge e = expectedEdges.get(i);
+			Edge a = actualEdges.get(i);
+			String message = name + ": edge " + i;
+			Assert.assertSame(message, nodes.get(e.n1), a.n1);
+			Assert.assertSame(message, nodes.get(e.n2), a.n2);
+			Assert.assertEquals(message, e.lines.size(), a.lines.size());
+			for (int k = 0; k < e.lines.size(); k++) {
+				Assert.assertSame(message, e.lines.get(k).line,
+						a.lines.get(k).line);
+			}
+			edgeMap.put(e, a);
+		}
+
+		for (int i = 0; i < expectedNodes.size(); i++) {
+			List<Edge> e = expectedNodes.get(i).edges;
+			List<Edge> a = actualNodes.get(i).edges;
+			String message = name + ": edges of node " + i;
+			Assert.assertEquals(message, e.size(), a.size());
+			for (int k = 0; k < e.size(); k++) {
+				Assert.assertSame(message, edgeMap.get(e.get(k)), a.get(k));
+			}
+		}
+
+		List<NetworkLine> expectedLines = expected.getLines();
+		List<NetworkLine> actualLines = actual.getLines();
+		Assert.assertEquals(name + ": lines", expectedLines.size(),
+				actualLines.size());
+		Assert.assertEquals(name + ": one entry per line", data.lines.size(),
+				actualLines.size());
+		for (int i = 0; i < expectedLines.size(); i++) {
+			NetworkLine e = expectedLines.get(i);
+			NetworkLine a = actualLines.get(i);
+			Assert.assertSame(name + ": line " + i, e.line, a.line);
+			for (Edge edge : expectedEdges) {
+				String message = name + ": neighbors of line " + i;
+				NeighborInfo ne = e.getNeighbors(edge);
+				NeighborInfo na = a.getNeighbors(edgeMap.get(edge));
+				if (ne == null) {
+					Assert.assertNull(message, na);
+					continue;
+				}
+				Assert.assertNotNull(message, na);
+				Assert.assertSame(message, nodes.get(ne.prev), na.prev);
+				Assert.assertSame(message, nodes.get(ne.next), na.next);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,275 @@
+// Copyright 2019 Sebastian Kuerten
+//
+// This file is part of OpenMetroMaps.
+//
+// OpenMetroMaps is free software: you can redistribute it and/or modify
+// it under the terms of the GNU Lesser General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// OpenMetroMaps is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public License
+// along with OpenMetroMaps. If not, see <http://www.gnu.org/licenses/>.
+
+package org.openmetromaps.maps.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openmetromaps.maps.Edges;
+import org.openmetromaps.maps.Interval;
+import org.openmetromaps.maps.StationUtil;
+import org.openmetromaps.maps.model.Line;
+import org.openmetromaps.maps.model.ModelData;
+import org.openmetromaps.maps.model.Station;
+import org.openmetromaps.maps.model.Stop;
+
+/**
+ * The straightforward way of building a {@link LineNetwork} that
+ * {@link LineNetworkBuilder} used before it has been optimized, kept as a
+ * reference for testing. Each edge is looked up by its pair of stations, the
+ * stops of interval definitions are found by scanning the stops of the line
+ * and ranks are computed by comparing the sets of line ids of all pairs of
+ * edges of a node.
+ */
+public class ReferenceLineNetworkBuilder
+{
+
+	private static class Segment
+	{
+
+		private Station a;
+		private Station b;
+
+		Segment(Station a, Station b)
+		{
+			this.a = a;
+			this.b = b;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (!(obj instanceof Segment)) {
+				return false;
+			}
+			Segment other = (Segment) obj;
+			return other.a == a && other.b == b
+					|| other.b == a && other.a == b;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return a.hashCode() + b.hashCode();
+		}
+
+	}
+
+	private LineNetwork graph = new LineNetwork();
+
+	private Map<Station, Node> stationToNode = new HashMap<>();
+	private Map<Segment, Edge> segmentToEdge = new HashMap<>();
+
+	public ReferenceLineNetworkBuilder(ModelData data, List<Edges> edges)
+	{
+		graph.setStationToNode(stationToNode);
+
+		addStations(data);
+
+		addLines(data, edges);
+
+		sortEdgeLines();
+
+		computeRanks();
+
+		sortNodesByRank();
+	}
+
+	public LineNetwork getGraph()
+	{
+		return graph;
+	}
+
+	private void addStations(ModelData data)
+	{
+		for (Station station : data.stations) {
+			Node node = new Node(station);
+			graph.nodes.add(node);
+			stationToNode.put(station, node);
+		}
+	}
+
+	private void addLines(ModelData data, List<Edges> edgesDefs)
+	{
+		SetMultimap<String, NetworkLine> nameToNetworkLine = new SetMultimap<>();
+		for (Line line : data.lines) {
+			NetworkLine networkLine = new NetworkLine(line);
+			graph.lines.add(networkLine);
+			nameToNetworkLine.put(line.getName(), networkLine);
+		}
+
+		for (Edges edgesDef : edgesDefs) {
+			Set<NetworkLine> networkLines = nameToNetworkLine
+					.get(edgesDef.getLine());
+			if (networkLines == null) {
+				continue;
+			}
+
+			for (NetworkLine networkLine : networkLines) {
+				if (edgesDef.getIntervals().isEmpty()) {
+					addAllEdges(networkLine);
+				} else {
+					for (Interval interval : edgesDef.getIntervals()) {
+						addIntervalEdges(networkLine, interval);
+					}
+				}
+			}
+		}
+	}
+
+	private void addAllEdges(NetworkLine networkLine)
+	{
+		List<Stop> stops = networkLine.line.getStops();
+		if (stops.isEmpty()) {
+			return;
+		}
+		Stop prev = stops.get(0);
+		List<Edge> edges = new ArrayList<>();
+		for (int k = 1; k < stops.size(); k++) {
+			Stop next = stops.get(k);
+			edges.add(addSegment(networkLine, prev, next));
+			prev = next;
+		}
+		if (networkLine.line.isCircular()) {
+			edges.add(addSegment(networkLine, prev, stops.get(0)));
+		}
+		networkLine.setEdges(edges);
+	}
+
+	private void addIntervalEdges(NetworkLine networkLine, Interval interval)
+	{
+		int from = -1;
+		int to = -1;
+
+		List<Stop> stops = networkLine.line.getStops();
+		for (int i = 0; i < stops.size(); i++) {
+			String stopName = stops.get(i).getStation().getName();
+			if (stopName.equals(interval.getFrom())) {
+				from = i;
+			}
+			if (stopName.equals(interval.getTo())) {
+				to = i;
+			}
+		}
+
+		if (from < 0 || to < 0) {
+			return;
+		}
+
+		if (from > to) {
+			int tmp = from;
+			from = to;
+			to = tmp;
+		}
+
+		Stop prev = stops.get(from);
+		List<Edge> edges = new ArrayList<>();
+		for (int k = from + 1; k <= to; k++) {
+			Stop next = stops.get(k);
+			edges.add(addSegment(networkLine, prev, next));
+			prev = next;
+		}
+
+		networkLine.setEdges(edges);
+	}
+
+	private Edge addSegment(NetworkLine line, Stop stop1, Stop stop2)
+	{
+		Segment segment = new Segment(stop1.getStation(), stop2.getStation());
+		Edge edge = segmentToEdge.get(segment);
+		if (edge == null) {
+			Node node1 = stationToNode.get(stop1.getStation());
+			Node node2 = stationToNode.get(stop2.getStation());
+			edge = new Edge(node1, node2);
+			graph.edges.add(edge);
+			segmentToEdge.put(segment, edge);
+			node1.edges.add(edge);
+			node2.edges.add(edge);
+		}
+		edge.addLine(line);
+		return edge;
+	}
+
+	private void sortEdgeLines()
+	{
+		for (Edge edge : graph.edges) {
+			Collections.sort(edge.lines, Edge.COMPARATOR);
+		}
+	}
+
+	private void computeRanks()
+	{
+		for (Node node : graph.nodes) {
+			boolean isLastStop = StationUtil.isLastStopOfALine(node.station);
+			node.setIsLastStopOfALine(isLastStop);
+
+			int rank = isLastStop ? 1 : 0;
+			List<Edge> edges = node.edges;
+			if (edges.size() == 1) {
+				rank += 1;
+			} else if (edges.size() == 2) {
+				List<NetworkLine> lines1 = edges.get(0).lines;
+				List<NetworkLine> lines2 = edges.get(1).lines;
+				if (lines1.size() == 1 && lines2.size() == 1) {
+					rank += lines1.get(0) == lines2.get(0) ? 1 : 2;
+				} else {
+					rank += lineIds(edges.get(0))
+							.equals(lineIds(edges.get(1))) ? 1 : 2;
+				}
+			} else {
+				for (int i = 0; i < edges.size(); i++) {
+					Set<Integer> ids1 = lineIds(edges.get(i));
+					for (int j = i + 1; j < edges.size(); j++) {
+						if (!ids1.equals(lineIds(edges.get(j)))) {
+							rank += 1;
+						}
+					}
+				}
+			}
+			node.setRank(rank);
+		}
+	}
+
+	private static Set<Integer> lineIds(Edge edge)
+	{
+		Set<Integer> ids = new HashSet<>();
+		for (NetworkLine line : edge.lines) {
+			ids.add(line.line.getId());
+		}
+		return ids;
+	}
+
+	private void sortNodesByRank()
+	{
+		Collections.sort(graph.nodes, new Comparator<Node>() {
+
+			@Override
+			public int compare(Node o1, Node o2)
+			{
+				return o2.rank - o1.rank;
+			}
+		});
+	}
+
+}